@@ -2,8 +2,10 @@ package com.cs203.tariffg4t2;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class Tariffg4t2Application {
 
     public static void main(String[] args) {
@@ -0,0 +1,32 @@
+package com.cs203.tariffg4t2.config;
+
+import com.cs203.tariffg4t2.service.basic.ExchangeRateCompactionService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Compacts aged exchange-rate history into weekly and monthly aggregates once a day, off-peak
+ */
+@Configuration
+@ConditionalOnProperty(name = "exchangerates.compaction.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ExchangeRateCompactionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateCompactionJob.class);
+
+    private final ExchangeRateCompactionService exchangeRateCompactionService;
+
+    @Scheduled(cron = "${exchangerates.compaction.cron:0 30 3 * * *}")
+    public void compact() {
+        try {
+            int rows = exchangeRateCompactionService.compact();
+            logger.debug("Exchange rate compaction finished: {} daily rows compacted", rows);
+        } catch (Exception e) {
+            logger.warn("Exchange rate compaction failed: {}", e.getMessage());
+        }
+    }
+}
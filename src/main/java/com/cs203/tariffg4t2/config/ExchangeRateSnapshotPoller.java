@@ -0,0 +1,61 @@
+package com.cs203.tariffg4t2.config;
+
+import com.cs203.tariffg4t2.service.basic.ExchangeRateService;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Polls OpenExchangeRates for an all-currency snapshot on a fixed interval and backfills
+ * missing historical snapshots on startup, so analyses, calculations and predictions read
+ * local data and API quota use no longer scales with traffic.
+ */
+@Configuration
+@ConditionalOnProperty(name = "openexchangerates.poll.enabled", havingValue = "true", matchIfMissing = true)
+@RequiredArgsConstructor
+public class ExchangeRateSnapshotPoller {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateSnapshotPoller.class);
+
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Backfill on a virtual thread so startup does not wait on the API
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillOnStartup() {
+        if (!exchangeRateService.isApiConfigured()) {
+            logger.warn("OpenExchangeRates API key not configured; exchange rate polling disabled");
+            return;
+        }
+
+        Thread.ofVirtual().name("exchange-rate-backfill").start(() -> {
+            try {
+                int days = exchangeRateService.backfillMissingSnapshots();
+                logger.info("Exchange rate startup backfill stored {} days", days);
+            } catch (Exception e) {
+                logger.warn("Exchange rate startup backfill failed: {}", e.getMessage());
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${openexchangerates.poll.interval-ms:3600000}",
+               initialDelayString = "${openexchangerates.poll.initial-delay-ms:0}")
+    public void pollLatest() {
+        if (!exchangeRateService.isApiConfigured()) {
+            return;
+        }
+
+        try {
+            int currencies = exchangeRateService.pollLatestSnapshot();
+            logger.debug("Exchange rate snapshot polled: {} currencies", currencies);
+        } catch (Exception e) {
+            logger.warn("Exchange rate snapshot poll failed: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.cs203.tariffg4t2.config;
+
+import com.cs203.tariffg4t2.service.data.RequestDeadline;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Starts a deadline for every inbound request so outbound calls made while serving it
+ * are bounded by the time the client is still willing to wait.
+ * Clients may ask for a shorter budget with the X-Request-Timeout-Ms header.
+ * Endpoints that wait on the tariff scraper or run admin jobs get the longer
+ * http.inbound.long-running-deadline-ms budget, so a slow scrape is not cut off at the default.
+ */
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+public class RequestDeadlineFilter extends OncePerRequestFilter {
+
+    static final String TIMEOUT_HEADER = "X-Request-Timeout-Ms";
+
+    @Value("${http.inbound.deadline-ms:30000}")
+    private long defaultDeadlineMs = 30000;
+
+    @Value("${http.inbound.long-running-deadline-ms:300000}")
+    private long longRunningDeadlineMs = 300000;
+
+    @Value("${http.inbound.long-running-paths:/api/scraping/**,/api/tariff/**,/api/admin/**}")
+    private List<String> longRunningPaths = List.of("/api/scraping/**", "/api/tariff/**", "/api/admin/**");
+
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        long maxBudgetMs = isLongRunning(request.getRequestURI()) ? longRunningDeadlineMs : defaultDeadlineMs;
+        RequestDeadline.start(Duration.ofMillis(resolveBudgetMs(request.getHeader(TIMEOUT_HEADER), maxBudgetMs)));
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    boolean isLongRunning(String path) {
+        return path != null && longRunningPaths.stream().anyMatch(pattern -> pathMatcher.match(pattern, path));
+    }
+
+    long resolveBudgetMs(String header, long maxBudgetMs) {
+        if (header == null || header.isBlank()) {
+            return maxBudgetMs;
+        }
+        try {
+            long requested = Long.parseLong(header.trim());
+            return requested > 0 ? Math.min(requested, maxBudgetMs) : maxBudgetMs;
+        } catch (NumberFormatException e) {
+            return maxBudgetMs;
+        }
+    }
+}
@@ -1,7 +1,9 @@
 package com.cs203.tariffg4t2.controller;
 
 import com.cs203.tariffg4t2.dto.request.ExchangeRateAnalysisRequest;
+import com.cs203.tariffg4t2.dto.request.ExchangeRateBatchAnalysisRequest;
 import com.cs203.tariffg4t2.dto.response.ExchangeRateAnalysisResponse;
+import com.cs203.tariffg4t2.dto.response.ExchangeRateBatchAnalysisResponse;
 import com.cs203.tariffg4t2.service.basic.ExchangeRateService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -69,16 +71,48 @@ public class ExchangeRateController {
                description = "Same as POST /analyze but using query parameters for easier testing")
     public ResponseEntity<?> analyzeExchangeRatesGet(
             @RequestParam String importingCountry,
-            @RequestParam String exportingCountry) {
+            @RequestParam String exportingCountry,
+            @RequestParam(required = false) Integer analysisMonths,
+            @RequestParam(required = false) Integer maxPoints,
+            @RequestParam(required = false) Boolean columnar) {
         
         ExchangeRateAnalysisRequest request = ExchangeRateAnalysisRequest.builder()
             .importingCountry(importingCountry)
             .exportingCountry(exportingCountry)
+            .analysisMonths(analysisMonths)
+            .maxPoints(maxPoints)
+            .columnar(columnar)
             .build();
         
         return analyzeExchangeRates(request);
     }
     
+    /**
+     * Analyze many country pairs at once, e.g. for a dashboard
+     *
+     * @param request Country pairs, with an optional default analysis window
+     * @return One result per pair, in request order; failed pairs carry an error instead of an analysis
+     */
+    @PostMapping("/analyze/batch")
+    @Operation(summary = "Analyze exchange rates for many pairs",
+               description = "Analyzes up to 50 country pairs in one request, sharing one exchange rate " +
+                           "snapshot and one history lookup across all of them")
+    public ResponseEntity<?> analyzeExchangeRatesBatch(@Valid @RequestBody ExchangeRateBatchAnalysisRequest request) {
+        try {
+            logger.info("Received batch exchange rate analysis request for {} pairs", request.getPairs().size());
+
+            ExchangeRateBatchAnalysisResponse response = exchangeRateService.analyzeExchangeRatesBatch(request);
+
+            return ResponseEntity.ok(response);
+
+        } catch (RuntimeException e) {
+            logger.error("Error analyzing exchange rate batch: {}", e.getMessage(), e);
+            return ResponseEntity
+                .status(HttpStatus.INTERNAL_SERVER_ERROR)
+                .body(createErrorResponse("Failed to analyze exchange rates", e.getMessage()));
+        }
+    }
+    
     /**
      * Health check endpoint to verify API connectivity
      */
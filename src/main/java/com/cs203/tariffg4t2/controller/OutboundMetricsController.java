@@ -0,0 +1,33 @@
+package com.cs203.tariffg4t2.controller;
+
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/outbound")
+@RequiredArgsConstructor
+@Tag(name = "Outbound Integrations", description = "Metrics for calls to external services")
+public class OutboundMetricsController {
+
+    private final OutboundHttpClients outboundHttpClients;
+
+    /**
+     * Per-host outbound call metrics since startup
+     *
+     * @return Request count, error count and average and maximum latency keyed by host
+     */
+    @GetMapping("/metrics")
+    @Operation(summary = "Outbound call metrics",
+               description = "Request count, error count and average and maximum latency of calls to each external host since startup")
+    public ResponseEntity<Map<String, OutboundHttpClients.HostMetrics>> getMetrics() {
+        return ResponseEntity.ok(outboundHttpClients.getMetrics());
+    }
+}
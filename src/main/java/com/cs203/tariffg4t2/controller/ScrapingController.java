@@ -2,6 +2,7 @@ package com.cs203.tariffg4t2.controller;
 
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffResponse;
 import com.cs203.tariffg4t2.service.data.WebScrapingService;
+import com.cs203.tariffg4t2.service.tariffLogic.ScrapeIngestionPipeline;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,6 +23,9 @@ public class ScrapingController {
     @Autowired
     private WebScrapingService webScrapingService;
 
+    @Autowired
+    private ScrapeIngestionPipeline scrapeIngestionPipeline;
+
     @PostMapping("/tariff")
     public ResponseEntity<?> scrapeTariffData(
             @RequestParam String importCode,
@@ -109,6 +113,15 @@ public class ScrapingController {
         return ResponseEntity.ok(status);
     }
 
+    @GetMapping("/pipeline/metrics")
+    public ResponseEntity<?> getPipelineMetrics() {
+        Map<String, Object> metrics = new HashMap<>();
+        metrics.put("stages", scrapeIngestionPipeline.getMetrics());
+        metrics.put("timestamp", System.currentTimeMillis());
+
+        return ResponseEntity.ok(metrics);
+    }
+
     private Map<String, Object> createErrorResponse(String message) {
         Map<String, Object> errorResponse = new HashMap<>();
         errorResponse.put("status", "error");
@@ -1,5 +1,7 @@
 package com.cs203.tariffg4t2.dto.request;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -17,5 +19,15 @@ public class ExchangeRateAnalysisRequest {
     
     @NotBlank(message = "Exporting country is required")
     private String exportingCountry;  // Can be country code (alpha-2, alpha-3) or full name
+
+    @Min(value = 1, message = "Analysis window must be at least 1 month")
+    @Max(value = 24, message = "Analysis window must be at most 24 months")
+    private Integer analysisMonths;   // Optional; defaults to 6 months
+
+    @Min(value = 3, message = "At least 3 chart points are required")
+    @Max(value = 10000, message = "At most 10000 chart points can be requested")
+    private Integer maxPoints;        // Optional; downsample historical rates to at most this many points
+
+    private Boolean columnar;         // Optional; return historical rates as parallel date/rate arrays
 }
 
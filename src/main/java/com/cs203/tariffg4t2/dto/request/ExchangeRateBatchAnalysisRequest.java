@@ -0,0 +1,29 @@
+package com.cs203.tariffg4t2.dto.request;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExchangeRateBatchAnalysisRequest {
+
+    @NotEmpty(message = "At least one country pair is required")
+    @Size(max = 50, message = "At most 50 country pairs per request")
+    @Valid
+    private List<ExchangeRateAnalysisRequest> pairs;
+
+    @Min(value = 1, message = "Analysis window must be at least 1 month")
+    @Max(value = 24, message = "Analysis window must be at most 24 months")
+    private Integer analysisMonths;   // Optional; used for pairs without their own window, defaults to 6 months
+}
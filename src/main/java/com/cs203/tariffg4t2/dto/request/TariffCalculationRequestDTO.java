@@ -2,12 +2,13 @@ package com.cs203.tariffg4t2.dto.request;
 
 import lombok.*;
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
 import jakarta.validation.constraints.*;
 
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 public class TariffCalculationRequestDTO {
@@ -27,6 +28,9 @@ public class TariffCalculationRequestDTO {
     private String shippingMode;               // "SEA" | "AIR" | "LAND"
     private BigDecimal freight;                // may be null
     private BigDecimal insurance;              // may be null
+    @Pattern(regexp = "^[A-Za-z]{3}$", message = "Source currency must be an ISO 4217 code")
+    private String sourceCurrency;             // ISO 4217 currency of productValue/freight/insurance; null = destination currency
+    private LocalDate shipmentDate;            // Exchange rate date for sourceCurrency; null = today
 
     // ---- Tester overrides only (optional)
     private String valuationOverride;          // "CIF"/"TRANSACTION" for testing
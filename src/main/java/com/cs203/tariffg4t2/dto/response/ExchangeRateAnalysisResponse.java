@@ -12,7 +12,7 @@ import java.util.List;
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 public class ExchangeRateAnalysisResponse {
     
     // Basic exchange rate info
@@ -37,13 +37,22 @@ public class ExchangeRateAnalysisResponse {
     private String recommendation;  // Explanation of the recommendation
     private String trendAnalysis;   // "increasing", "decreasing", "stable"
     
+    // Technical indicators over the analysis window
+    private TechnicalIndicators indicators;
+    
+    // Damped-trend forecast at recommendedPurchaseDate; null with fewer than 3 points
+    private RateForecast forecast;
+    
     // Historical data points for charting
-    private List<ExchangeRateDataPoint> historicalRates;
+    private List<ExchangeRateDataPoint> historicalRates;  // Null when the columnar series is requested
+    private HistoricalSeries historicalSeries;           // Columnar alternative to historicalRates
+    private Integer historicalPointCount;                // Points in the window before downsampling
     
     // API status
     private boolean liveDataAvailable;
-    private String dataSource;  // "live_api" or "fallback_database"
+    private String dataSource;  // "live_api" or "fallback_database", with "_cached" appended when served from cache
     private String message;     // Any additional messages
+    private Long dataAgeSeconds; // Age of a cached analysis; null when computed for this request
     
     @Data
     @NoArgsConstructor
@@ -53,5 +62,47 @@ public class ExchangeRateAnalysisResponse {
         private LocalDate date;
         private BigDecimal rate;
     }
+    
+    /**
+     * Historical rates as parallel arrays, oldest first
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class HistoricalSeries {
+        private List<LocalDate> dates;
+        private double[] rates;
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class TechnicalIndicators {
+        private BigDecimal shortSma;            // 4-point simple moving average
+        private BigDecimal longSma;             // 12-point simple moving average
+        private BigDecimal shortEma;            // 4-point exponential moving average
+        private BigDecimal longEma;             // 12-point exponential moving average
+        private String crossover;               // "bullish", "bearish" or "none" (last short/long EMA cross)
+        private Integer pointsSinceCrossover;   // null if the EMAs never crossed
+        private Double rollingVolatilityPercent; // Std dev of the last 8 period returns
+        private Double volatilityPercent;       // Std dev of all period returns in the window
+        private Double maxDrawdownPercent;      // Largest fall from a running peak
+        private Double currentDrawdownPercent;  // Current distance below the running peak
+        private BigDecimal percentile10;        // Lower band
+        private BigDecimal percentile50;        // Median
+        private BigDecimal percentile90;        // Upper band
+    }
+    
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class RateForecast {
+        private LocalDate date;
+        private BigDecimal rate;
+        private BigDecimal lowerBound;          // 95% band
+        private BigDecimal upperBound;
+    }
 }
-
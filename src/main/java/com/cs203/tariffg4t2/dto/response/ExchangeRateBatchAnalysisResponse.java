@@ -0,0 +1,34 @@
+package com.cs203.tariffg4t2.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ExchangeRateBatchAnalysisResponse {
+
+    private List<PairResult> results;   // Same order as the requested pairs
+    private int succeeded;
+    private int failed;
+
+    // Shared by every pair: one snapshot refresh serves the whole batch
+    private boolean liveDataAvailable;
+    private String dataSource;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @Builder
+    public static class PairResult {
+        private String importingCountry;
+        private String exportingCountry;
+        private ExchangeRateAnalysisResponse analysis;  // Null if the pair failed
+        private String error;                           // Why the pair failed, null on success
+    }
+}
@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 
 @Data
 @Builder
@@ -40,4 +41,11 @@ public class TariffCalculationResultDTO {
     private BigDecimal adValoremRate;
     private BigDecimal vatRate;  // VAT/GST rate as percentage
     private BigDecimal shippingRatePerKg;  // Shipping rate per kilogram
+
+    // Currency conversion (only set when the request gave a sourceCurrency)
+    private String sourceCurrency;
+    private String destinationCurrency;
+    private BigDecimal originalProductValue;  // productValue before conversion, in sourceCurrency
+    private BigDecimal exchangeRate;          // sourceCurrency -> destinationCurrency
+    private LocalDate exchangeRateDate;       // Snapshot the rate was taken from
 }
@@ -0,0 +1,71 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import jakarta.persistence.*;
+import lombok.AccessLevel;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+import org.springframework.data.domain.Persistable;
+import java.time.Instant;
+
+/**
+ * One embedding kept so identical text is never sent to the embeddings API twice.
+ * Keyed by model and the SHA-256 of the normalized text; the vector is stored as
+ * little-endian float32 bytes.
+ *
+ * The key is assigned, so Spring Data cannot tell a new entry from a stored one and would
+ * merge (a SELECT per row) on save. Entries report themselves new until loaded or persisted,
+ * so saving freshly generated embeddings is a plain batched INSERT.
+ */
+@Data
+@NoArgsConstructor
+@Entity
+@Table(name = "embedding_cache")
+public class EmbeddingCacheEntry implements Persistable<String> {
+
+    @Id
+    @Column(name = "cache_key", length = 128, nullable = false)
+    private String cacheKey;    // model + ':' + hex SHA-256 of the normalized text
+
+    @Column(name = "model", nullable = false, length = 60)
+    private String model;
+
+    @Column(name = "embedding", nullable = false, length = 16384)
+    private byte[] embedding;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private boolean fresh = true;
+
+    public EmbeddingCacheEntry(String cacheKey, String model, byte[] embedding, Instant createdAt) {
+        this.cacheKey = cacheKey;
+        this.model = model;
+        this.embedding = embedding;
+        this.createdAt = createdAt;
+    }
+
+    @Override
+    public String getId() {
+        return cacheKey;
+    }
+
+    @Override
+    public boolean isNew() {
+        return fresh;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markStored() {
+        fresh = false;
+    }
+}
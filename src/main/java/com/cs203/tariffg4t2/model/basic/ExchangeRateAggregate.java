@@ -0,0 +1,82 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Open/high/low/close of one currency pair over a week or month, rolled up from daily
+ * exchange_rate rows once they age out of the daily retention window
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "exchange_rate_aggregate",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"from_currency", "to_currency", "resolution", "period_start"}),
+       indexes = @Index(columnList = "from_currency, resolution, period_start"))
+public class ExchangeRateAggregate {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "from_currency", nullable = false, length = 3)
+    private String fromCurrency;
+
+    @Column(name = "to_currency", nullable = false, length = 3)
+    private String toCurrency;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "resolution", nullable = false, length = 10)
+    private Resolution resolution;
+
+    @Column(name = "period_start", nullable = false)
+    private LocalDate periodStart;  // Monday of the week, or first day of the month
+
+    @Column(name = "period_end", nullable = false)
+    private LocalDate periodEnd;    // Last day of the period (inclusive)
+
+    @Column(name = "open_rate", nullable = false, precision = 20, scale = 10)
+    private BigDecimal openRate;
+
+    @Column(name = "high_rate", nullable = false, precision = 20, scale = 10)
+    private BigDecimal highRate;
+
+    @Column(name = "low_rate", nullable = false, precision = 20, scale = 10)
+    private BigDecimal lowRate;
+
+    @Column(name = "close_rate", nullable = false, precision = 20, scale = 10)
+    private BigDecimal closeRate;
+
+    @Column(name = "average_rate", nullable = false, precision = 20, scale = 10)
+    private BigDecimal averageRate;
+
+    @Column(name = "point_count", nullable = false)
+    private Integer pointCount;     // Daily points rolled into this period
+
+    @Column(name = "created_at")
+    private java.time.LocalDateTime createdAt;
+
+    @Column(name = "updated_at")
+    private java.time.LocalDateTime updatedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = java.time.LocalDateTime.now();
+        updatedAt = java.time.LocalDateTime.now();
+    }
+
+    @PreUpdate
+    protected void onUpdate() {
+        updatedAt = java.time.LocalDateTime.now();
+    }
+
+    public enum Resolution {
+        WEEKLY,
+        MONTHLY
+    }
+}
@@ -4,13 +4,16 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.Type;
 import java.time.LocalDateTime;
 
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "news_article")
+@Table(name = "news_article",
+       uniqueConstraints = @UniqueConstraint(name = "uk_news_article_url", columnNames = "url"))
 public class NewsArticle {
     
     @Id
@@ -44,8 +47,10 @@ public class NewsArticle {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
     
-    @Column(name = "embedding", columnDefinition = "vector(1536)")
-    private String embedding;  // Stored as PostgreSQL vector for RAG semantic search
+    @Type(VectorType.class)
+    @ColumnTransformer(read = VectorType.READ)
+    @Column(name = "embedding", columnDefinition = "vector")
+    private float[] embedding;  // Stored as PostgreSQL vector for RAG semantic search
     
     @PrePersist
     protected void onCreate() {
@@ -0,0 +1,219 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import org.postgresql.PGConnection;
+import org.postgresql.util.PGBinaryObject;
+import org.postgresql.util.PGobject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.ByteBuffer;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Set;
+import java.util.WeakHashMap;
+
+/**
+ * pgvector value in its binary wire format (int16 dimensions, int16 unused, then big-endian
+ * float4s), so vectors cross JDBC as 4 bytes per dimension instead of a '[0.1,...]' literal
+ * that has to be rendered and re-parsed. Once registered on a connection the driver sends it
+ * in binary; before that, or in simple query mode, it falls back to the text form. Results are
+ * only returned in binary for server-prepared statements, which prepareThreshold=0 turns off, so
+ * mapped columns are read through vector_send (see {@link VectorType#READ}) and arrive as bytea
+ * holding the same wire format. Native queries that select the column itself still get text.
+ */
+public class PgVector extends PGobject implements PGBinaryObject {
+
+    public static final String TYPE_NAME = "vector";
+
+    private static final Logger logger = LoggerFactory.getLogger(PgVector.class);
+    private static final int HEADER_BYTES = 4;
+    private static final Set<PGConnection> REGISTERED = Collections.synchronizedSet(
+        Collections.newSetFromMap(new WeakHashMap<>()));
+
+    private float[] vector;
+
+    /**
+     * For the driver, which creates instances reflectively when reading
+     */
+    public PgVector() {
+        this.type = TYPE_NAME;
+    }
+
+    public PgVector(float[] vector) {
+        this();
+        this.vector = vector;
+    }
+
+    /**
+     * Register this class for the vector type on the physical connection behind the given one,
+     * once per connection.
+     *
+     * @return false if the connection is not to PostgreSQL
+     */
+    public static boolean register(Connection connection) throws SQLException {
+        if (!connection.isWrapperFor(PGConnection.class)) {
+            return false;
+        }
+        PGConnection pgConnection = connection.unwrap(PGConnection.class);
+        if (REGISTERED.add(pgConnection)) {
+            try {
+                pgConnection.addDataType(TYPE_NAME, PgVector.class);
+            } catch (SQLException e) {
+                REGISTERED.remove(pgConnection);
+                logger.warn("Could not register binary pgvector transfer, vectors will be sent as text: {}", e.getMessage());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * The vector held by a value read from JDBC: this type, the bytea of vector_send, or the
+     * driver's plain text object when the column came back as text
+     */
+    public static float[] toFloatArray(Object value) throws SQLException {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof PgVector pgVector) {
+            return pgVector.getVector();
+        }
+        if (value instanceof byte[] bytes) {
+            PgVector pgVector = new PgVector();
+            pgVector.setByteValue(bytes, 0);
+            return pgVector.getVector();
+        }
+        if (value instanceof PGobject pgObject) {
+            return parseText(pgObject.getValue());
+        }
+        if (value instanceof String text) {
+            return parseText(text);
+        }
+        throw new SQLException("Cannot read a vector from " + value.getClass().getName());
+    }
+
+    public float[] getVector() {
+        return vector;
+    }
+
+    @Override
+    public void setValue(String value) throws SQLException {
+        vector = parseText(value);
+    }
+
+    @Override
+    public String getValue() {
+        return vector == null ? null : toText(vector);
+    }
+
+    @Override
+    public boolean isNull() {
+        return vector == null;
+    }
+
+    @Override
+    public void setByteValue(byte[] value, int offset) throws SQLException {
+        ByteBuffer buffer = ByteBuffer.wrap(value, offset, value.length - offset);
+        int dimensions = buffer.getShort();
+        buffer.getShort();
+        if (buffer.remaining() < dimensions * Float.BYTES) {
+            throw new SQLException("Truncated binary vector: " + dimensions + " dimensions in "
+                + (value.length - offset) + " bytes");
+        }
+        vector = new float[dimensions];
+        buffer.asFloatBuffer().get(vector);
+    }
+
+    @Override
+    public int lengthInBytes() {
+        return vector == null ? 0 : HEADER_BYTES + vector.length * Float.BYTES;
+    }
+
+    @Override
+    public void toBytes(byte[] bytes, int offset) {
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, offset, lengthInBytes());
+        buffer.putShort((short) vector.length);
+        buffer.putShort((short) 0);
+        buffer.asFloatBuffer().put(vector);
+    }
+
+    public static String toText(float[] vector) {
+        StringBuilder text = new StringBuilder(vector.length * 12).append('[');
+        for (int i = 0; i < vector.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(vector[i]);
+        }
+        return text.append(']').toString();
+    }
+
+    /**
+     * Parse a '[0.1,...]' literal by scanning it in place: one pass counts the components to size
+     * the array, a second parses each one between its commas
+     */
+    static float[] parseText(String text) throws SQLException {
+        if (text == null) {
+            return null;
+        }
+        int start = 0;
+        int end = text.length();
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (end - start < 2 || text.charAt(start) != '[' || text.charAt(end - 1) != ']') {
+            throw new SQLException("Malformed vector literal");
+        }
+        start++;
+        end--;
+
+        int dimensions = 1;
+        boolean blank = true;
+        for (int i = start; i < end; i++) {
+            char c = text.charAt(i);
+            if (c == ',') {
+                dimensions++;
+            } else if (!Character.isWhitespace(c)) {
+                blank = false;
+            }
+        }
+        if (blank && dimensions == 1) {
+            return new float[0];
+        }
+
+        float[] vector = new float[dimensions];
+        int from = start;
+        try {
+            for (int i = 0; i < dimensions; i++) {
+                int comma = i == dimensions - 1 ? end : text.indexOf(',', from);
+                // parseFloat ignores surrounding whitespace
+                vector[i] = Float.parseFloat(text.substring(from, comma));
+                from = comma + 1;
+            }
+        } catch (NumberFormatException e) {
+            throw new SQLException("Malformed vector literal", e);
+        }
+        return vector;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof PgVector that && Arrays.equals(vector, that.vector);
+    }
+
+    @Override
+    public int hashCode() {
+        return Arrays.hashCode(vector);
+    }
+
+    @Override
+    public Object clone() throws CloneNotSupportedException {
+        PgVector copy = (PgVector) super.clone();
+        copy.vector = vector == null ? null : vector.clone();
+        return copy;
+    }
+}
@@ -0,0 +1,110 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import jakarta.persistence.EntityManager;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.query.BindableType;
+import org.hibernate.type.CustomType;
+import org.hibernate.type.spi.TypeConfiguration;
+import org.hibernate.usertype.UserType;
+
+import java.io.Serializable;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Maps a float[] attribute to a pgvector column through {@link PgVector}, so embeddings are
+ * written in binary rather than as vector literals. The driver only asks for binary results on
+ * server-prepared statements, which prepareThreshold=0 turns off, so reads go through
+ * {@link #READ} to get the binary form as bytea instead of a literal to parse.
+ * Use with {@code @Type(VectorType.class)} and {@code @ColumnTransformer(read = VectorType.READ)};
+ * for native query parameters see {@link #parameterType}.
+ */
+public class VectorType implements UserType<float[]> {
+
+    /**
+     * Read expression for an embedding column: pgvector's binary send function
+     */
+    public static final String READ = "vector_send(embedding)";
+
+    private static final Map<TypeConfiguration, CustomType<float[]>> PARAMETER_TYPES = Collections.synchronizedMap(
+        new WeakHashMap<>());
+
+    /**
+     * This type as a native query parameter type, to bind a float[] query vector in binary.
+     * Built once per session factory.
+     */
+    public static BindableType<float[]> parameterType(EntityManager entityManager) {
+        TypeConfiguration typeConfiguration = entityManager.getEntityManagerFactory()
+            .unwrap(SessionFactoryImplementor.class)
+            .getTypeConfiguration();
+        return PARAMETER_TYPES.computeIfAbsent(typeConfiguration,
+            configuration -> new CustomType<>(new VectorType(), configuration));
+    }
+
+    @Override
+    public int getSqlType() {
+        return Types.OTHER;
+    }
+
+    @Override
+    public Class<float[]> returnedClass() {
+        return float[].class;
+    }
+
+    @Override
+    public boolean equals(float[] x, float[] y) {
+        return Arrays.equals(x, y);
+    }
+
+    @Override
+    public int hashCode(float[] x) {
+        return Arrays.hashCode(x);
+    }
+
+    @Override
+    public float[] nullSafeGet(ResultSet rs, int position, SharedSessionContractImplementor session, Object owner)
+            throws SQLException {
+        return PgVector.toFloatArray(rs.getObject(position));
+    }
+
+    @Override
+    public void nullSafeSet(PreparedStatement st, float[] value, int index, SharedSessionContractImplementor session)
+            throws SQLException {
+        if (value == null) {
+            st.setNull(index, Types.OTHER);
+            return;
+        }
+        if (PgVector.register(st.getConnection())) {
+            st.setObject(index, new PgVector(value));
+        } else {
+            st.setObject(index, PgVector.toText(value), Types.OTHER);
+        }
+    }
+
+    @Override
+    public float[] deepCopy(float[] value) {
+        return value == null ? null : value.clone();
+    }
+
+    @Override
+    public boolean isMutable() {
+        return true;
+    }
+
+    @Override
+    public Serializable disassemble(float[] value) {
+        return deepCopy(value);
+    }
+
+    @Override
+    public float[] assemble(Serializable cached, Object owner) {
+        return deepCopy((float[]) cached);
+    }
+}
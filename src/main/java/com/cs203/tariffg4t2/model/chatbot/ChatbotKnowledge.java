@@ -1,9 +1,12 @@
 package com.cs203.tariffg4t2.model.chatbot;
 
+import com.cs203.tariffg4t2.model.basic.VectorType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.ColumnTransformer;
+import org.hibernate.annotations.Type;
 
 import java.time.LocalDateTime;
 
@@ -47,11 +50,13 @@ public class ChatbotKnowledge {
     private String metadata;
     
     /**
-     * Vector embedding for semantic similarity search (1536 dimensions)
+     * Vector embedding for semantic similarity search (1536 dimensions, or openai.embedding.dimensions)
      * Generated by OpenAI's text-embedding-3-small model
      */
-    @Column(name = "embedding", columnDefinition = "vector(1536)")
-    private String embedding;
+    @Type(VectorType.class)
+    @ColumnTransformer(read = VectorType.READ)
+    @Column(name = "embedding", columnDefinition = "vector")
+    private float[] embedding;
     
     @Column(name = "created_at")
     private LocalDateTime createdAt;
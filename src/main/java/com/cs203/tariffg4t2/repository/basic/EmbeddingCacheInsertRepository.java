@@ -0,0 +1,19 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.EmbeddingCacheEntry;
+
+import java.util.Collection;
+
+/**
+ * Batched inserts into the embedding cache that tolerate keys stored concurrently
+ */
+public interface EmbeddingCacheInsertRepository {
+
+    /**
+     * Insert the entries in multi-row statements, skipping any whose cache key is already
+     * stored, so another request caching the same text cannot fail the batch.
+     *
+     * @return number of distinct entries sent
+     */
+    int insertMissing(Collection<EmbeddingCacheEntry> entries);
+}
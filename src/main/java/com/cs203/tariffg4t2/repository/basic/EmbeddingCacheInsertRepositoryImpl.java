@@ -0,0 +1,81 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.EmbeddingCacheEntry;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One round trip per batch of up to BATCH_SIZE entries: INSERT ... ON CONFLICT DO NOTHING on
+ * PostgreSQL, and H2's MERGE ... KEY elsewhere (rewriting an existing key with the same
+ * embedding, since a model always embeds the same text the same way).
+ */
+public class EmbeddingCacheInsertRepositoryImpl implements EmbeddingCacheInsertRepository {
+
+    // ~6 KB per 1536-dim vector
+    private static final int BATCH_SIZE = 100;
+
+    private static final String POSTGRES_INSERT_PREFIX =
+        "INSERT INTO embedding_cache (cache_key, model, embedding, created_at) VALUES ";
+    private static final String POSTGRES_INSERT_SUFFIX = " ON CONFLICT (cache_key) DO NOTHING";
+    private static final String MERGE_PREFIX =
+        "MERGE INTO embedding_cache (cache_key, model, embedding, created_at) KEY (cache_key) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+
+    public EmbeddingCacheInsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = new DatabaseProduct(jdbcTemplate);
+    }
+
+    @Override
+    @Transactional
+    public int insertMissing(Collection<EmbeddingCacheEntry> entries) {
+        // A single statement may not touch the same key twice
+        Map<String, EmbeddingCacheEntry> distinct = new LinkedHashMap<>();
+        for (EmbeddingCacheEntry entry : entries) {
+            distinct.putIfAbsent(entry.getCacheKey(), entry);
+        }
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+
+        List<EmbeddingCacheEntry> rows = new ArrayList<>(distinct.values());
+        for (int start = 0; start < rows.size(); start += BATCH_SIZE) {
+            List<EmbeddingCacheEntry> batch = rows.subList(start, Math.min(start + BATCH_SIZE, rows.size()));
+            Object[] args = new Object[batch.size() * 4];
+            int i = 0;
+            for (EmbeddingCacheEntry entry : batch) {
+                args[i++] = entry.getCacheKey();
+                args[i++] = entry.getModel();
+                args[i++] = entry.getEmbedding();
+                args[i++] = Timestamp.from(entry.getCreatedAt());
+            }
+            jdbcTemplate.update(insertSql(batch.size()), args);
+        }
+        return rows.size();
+    }
+
+    private String insertSql(int rowCount) {
+        boolean isPostgres = databaseProduct.isPostgres();
+        StringBuilder sql = new StringBuilder(isPostgres ? POSTGRES_INSERT_PREFIX : MERGE_PREFIX);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_VALUES);
+        }
+        if (isPostgres) {
+            sql.append(POSTGRES_INSERT_SUFFIX);
+        }
+        return sql.toString();
+    }
+}
@@ -0,0 +1,9 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.EmbeddingCacheEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface EmbeddingCacheRepository extends JpaRepository<EmbeddingCacheEntry, String>, EmbeddingCacheInsertRepository {
+}
@@ -0,0 +1,72 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ExchangeRateAggregateRepository extends JpaRepository<ExchangeRateAggregate, Long> {
+
+    /**
+     * Aggregates of every pair for one period
+     */
+    List<ExchangeRateAggregate> findByResolutionAndPeriodStart(
+        ExchangeRateAggregate.Resolution resolution,
+        LocalDate periodStart
+    );
+
+    /**
+     * Aggregates of every pair whose period starts within a date range, oldest first
+     */
+    List<ExchangeRateAggregate> findByResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(
+        ExchangeRateAggregate.Resolution resolution,
+        LocalDate startDate,
+        LocalDate endDate
+    );
+
+    /**
+     * Weekly and monthly aggregates from one base currency to any of the given currencies,
+     * for periods ending within a date range
+     */
+    @Query("SELECT a FROM ExchangeRateAggregate a WHERE a.fromCurrency = :fromCurrency " +
+           "AND a.toCurrency IN :toCurrencies AND a.periodEnd BETWEEN :startDate AND :endDate " +
+           "ORDER BY a.periodEnd ASC")
+    List<ExchangeRateAggregate> findByFromCurrencyAndToCurrencyInAndPeriodEndBetween(
+        @Param("fromCurrency") String fromCurrency,
+        @Param("toCurrencies") Collection<String> toCurrencies,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Weekly and monthly aggregates from one base currency to any of the given currencies whose
+     * period contains the date
+     */
+    @Query("SELECT a FROM ExchangeRateAggregate a WHERE a.fromCurrency = :fromCurrency " +
+           "AND a.toCurrency IN :toCurrencies AND a.periodStart <= :date AND a.periodEnd >= :date")
+    List<ExchangeRateAggregate> findByFromCurrencyAndToCurrencyInCoveringDate(
+        @Param("fromCurrency") String fromCurrency,
+        @Param("toCurrencies") Collection<String> toCurrencies,
+        @Param("date") LocalDate date
+    );
+
+    /**
+     * Start of the oldest period stored at a resolution, or null if there is none
+     */
+    @Query("SELECT MIN(a.periodStart) FROM ExchangeRateAggregate a WHERE a.resolution = :resolution")
+    LocalDate findEarliestPeriodStart(@Param("resolution") ExchangeRateAggregate.Resolution resolution);
+
+    /**
+     * Delete aggregates by id in one statement; callers keep the id list bounded
+     */
+    @Modifying
+    @Query("DELETE FROM ExchangeRateAggregate a WHERE a.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
@@ -2,16 +2,18 @@ package com.cs203.tariffg4t2.repository.basic;
 
 import com.cs203.tariffg4t2.model.basic.ExchangeRate;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long> {
+public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long>, ExchangeRateUpsertRepository {
     
     /**
      * Find exchange rate for a specific currency pair and date
@@ -53,10 +55,72 @@ public interface ExchangeRateRepository extends JpaRepository<ExchangeRate, Long
         @Param("endDate") LocalDate endDate
     );
     
+    /**
+     * Rates from one base currency to any of the given currencies within a date range
+     */
+    @Query("SELECT e FROM ExchangeRate e WHERE e.fromCurrency = :fromCurrency " +
+           "AND e.toCurrency IN :toCurrencies AND e.rateDate BETWEEN :startDate AND :endDate " +
+           "ORDER BY e.rateDate ASC")
+    List<ExchangeRate> findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+        @Param("fromCurrency") String fromCurrency,
+        @Param("toCurrencies") Collection<String> toCurrencies,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Every rate from one base currency within a date range
+     */
+    List<ExchangeRate> findByFromCurrencyAndRateDateBetween(String fromCurrency, LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Dates within a range that have a rate stored from the base currency to every one of the
+     * given currencies; currencyCount is the number of distinct currencies given
+     */
+    @Query("SELECT e.rateDate FROM ExchangeRate e WHERE e.fromCurrency = :fromCurrency " +
+           "AND e.toCurrency IN :toCurrencies AND e.rateDate BETWEEN :startDate AND :endDate " +
+           "GROUP BY e.rateDate HAVING COUNT(DISTINCT e.toCurrency) = :currencyCount")
+    List<LocalDate> findRateDatesCoveringCurrencies(
+        @Param("fromCurrency") String fromCurrency,
+        @Param("toCurrencies") Collection<String> toCurrencies,
+        @Param("currencyCount") long currencyCount,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
+    /**
+     * Dates with at least one rate stored from a base currency within a date range
+     */
+    @Query("SELECT DISTINCT e.rateDate FROM ExchangeRate e WHERE e.fromCurrency = :fromCurrency " +
+           "AND e.rateDate BETWEEN :startDate AND :endDate")
+    List<LocalDate> findDistinctRateDatesByFromCurrencyBetween(
+        @Param("fromCurrency") String fromCurrency,
+        @Param("startDate") LocalDate startDate,
+        @Param("endDate") LocalDate endDate
+    );
+
     /**
      * Delete old exchange rates (for cleanup)
      */
     void deleteByRateDateBefore(LocalDate date);
+
+    /**
+     * Every stored rate within a date range, oldest first (used by compaction, one period at a time)
+     */
+    List<ExchangeRate> findByRateDateBetweenOrderByRateDateAsc(LocalDate startDate, LocalDate endDate);
+
+    /**
+     * Date of the oldest stored rate, or null if there is none
+     */
+    @Query("SELECT MIN(e.rateDate) FROM ExchangeRate e")
+    LocalDate findEarliestRateDate();
+
+    /**
+     * Delete rates by id in one statement; callers keep the id list bounded
+     */
+    @Modifying
+    @Query("DELETE FROM ExchangeRate e WHERE e.id IN :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
     
     /**
      * Count exchange rates for a currency pair in date range
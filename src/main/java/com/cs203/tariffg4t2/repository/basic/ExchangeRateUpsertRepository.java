@@ -0,0 +1,20 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+
+import java.util.Collection;
+
+/**
+ * Batched, idempotent writes for exchange rates, keyed by the (from_currency, to_currency, rate_date)
+ * unique constraint
+ */
+public interface ExchangeRateUpsertRepository {
+
+    /**
+     * Insert new rates and update the rate of existing ones in multi-row statements.
+     * If the same key appears more than once, the last row wins.
+     *
+     * @return number of distinct rows written
+     */
+    int upsertAll(Collection<ExchangeRate> rates);
+}
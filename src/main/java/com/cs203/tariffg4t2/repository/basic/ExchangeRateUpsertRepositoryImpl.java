@@ -0,0 +1,83 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One round trip per batch of up to BATCH_SIZE rows: INSERT ... ON CONFLICT DO UPDATE on PostgreSQL,
+ * and H2's MERGE ... KEY (used by the test profile) elsewhere. Concurrent writers of the same key
+ * cannot race into a constraint violation.
+ */
+public class ExchangeRateUpsertRepositoryImpl implements ExchangeRateUpsertRepository {
+
+    private static final int BATCH_SIZE = 500;
+
+    private static final String POSTGRES_UPSERT_PREFIX =
+        "INSERT INTO exchange_rate (from_currency, to_currency, rate, rate_date, created_at, updated_at) VALUES ";
+    private static final String POSTGRES_UPSERT_SUFFIX =
+        " ON CONFLICT (from_currency, to_currency, rate_date) DO UPDATE" +
+        " SET rate = EXCLUDED.rate, updated_at = EXCLUDED.updated_at" +
+        " WHERE exchange_rate.rate IS DISTINCT FROM EXCLUDED.rate";
+    private static final String MERGE_PREFIX =
+        "MERGE INTO exchange_rate (from_currency, to_currency, rate, rate_date, created_at, updated_at)" +
+        " KEY (from_currency, to_currency, rate_date) VALUES ";
+    private static final String ROW_VALUES = "(?, ?, ?, ?, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+
+    public ExchangeRateUpsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = new DatabaseProduct(jdbcTemplate);
+    }
+
+    @Override
+    @Transactional
+    public int upsertAll(Collection<ExchangeRate> rates) {
+        // A single statement may not touch the same key twice
+        Map<String, ExchangeRate> distinct = new LinkedHashMap<>();
+        for (ExchangeRate rate : rates) {
+            distinct.put(rate.getFromCurrency() + rate.getToCurrency() + rate.getRateDate(), rate);
+        }
+        if (distinct.isEmpty()) {
+            return 0;
+        }
+
+        List<ExchangeRate> rows = new ArrayList<>(distinct.values());
+        for (int start = 0; start < rows.size(); start += BATCH_SIZE) {
+            List<ExchangeRate> batch = rows.subList(start, Math.min(start + BATCH_SIZE, rows.size()));
+            Object[] args = new Object[batch.size() * 4];
+            int i = 0;
+            for (ExchangeRate rate : batch) {
+                args[i++] = rate.getFromCurrency();
+                args[i++] = rate.getToCurrency();
+                args[i++] = rate.getRate();
+                args[i++] = rate.getRateDate();
+            }
+            jdbcTemplate.update(upsertSql(batch.size()), args);
+        }
+        return rows.size();
+    }
+
+    private String upsertSql(int rowCount) {
+        boolean isPostgres = databaseProduct.isPostgres();
+        StringBuilder sql = new StringBuilder(isPostgres ? POSTGRES_UPSERT_PREFIX : MERGE_PREFIX);
+        for (int i = 0; i < rowCount; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_VALUES);
+        }
+        if (isPostgres) {
+            sql.append(POSTGRES_UPSERT_SUFFIX);
+        }
+        return sql.toString();
+    }
+}
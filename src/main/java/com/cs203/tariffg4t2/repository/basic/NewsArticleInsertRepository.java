@@ -0,0 +1,20 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+
+import java.util.List;
+
+/**
+ * Batched article inserts that tolerate URLs stored concurrently
+ */
+public interface NewsArticleInsertRepository {
+
+    /**
+     * Insert the articles whose URL is not stored yet, so an article another fetch saved in the
+     * meantime is skipped instead of failing the batch on uk_news_article_url. Articles without
+     * a URL are skipped.
+     *
+     * @return the inserted articles, with their generated ids set
+     */
+    List<NewsArticle> insertNew(List<NewsArticle> articles);
+}
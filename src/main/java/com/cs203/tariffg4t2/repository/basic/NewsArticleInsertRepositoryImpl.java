@@ -0,0 +1,134 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+import com.cs203.tariffg4t2.model.basic.PgVector;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One INSERT ... ON CONFLICT (url) DO NOTHING RETURNING id per batch of up to BATCH_SIZE
+ * articles on PostgreSQL, which skips stored URLs without aborting the surrounding transaction.
+ * Elsewhere (H2 in the test profile) each article is inserted unless its URL already exists.
+ */
+public class NewsArticleInsertRepositoryImpl implements NewsArticleInsertRepository {
+
+    private static final int BATCH_SIZE = 100;
+
+    private static final String COLUMNS = "title, description, url, source, published_at, sentiment_score, "
+        + "keywords, country_code, created_at, embedding";
+    private static final String POSTGRES_INSERT_PREFIX = "INSERT INTO news_article (" + COLUMNS + ") VALUES ";
+    private static final String POSTGRES_INSERT_SUFFIX = " ON CONFLICT (url) DO NOTHING RETURNING id, url";
+    private static final String ROW_VALUES = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_IF_ABSENT = "INSERT INTO news_article (" + COLUMNS + ") "
+        + "SELECT ?, ?, ?, ?, ?, ?, ?, ?, ?, ? WHERE NOT EXISTS (SELECT 1 FROM news_article WHERE url = ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final DatabaseProduct databaseProduct;
+
+    public NewsArticleInsertRepositoryImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.databaseProduct = new DatabaseProduct(jdbcTemplate);
+    }
+
+    @Override
+    @Transactional
+    public List<NewsArticle> insertNew(List<NewsArticle> articles) {
+        // A single statement may not touch the same URL twice
+        Map<String, NewsArticle> byUrl = new LinkedHashMap<>();
+        for (NewsArticle article : articles) {
+            if (article.getUrl() != null) {
+                byUrl.putIfAbsent(article.getUrl(), article);
+            }
+        }
+        if (byUrl.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (NewsArticle article : byUrl.values()) {
+            if (article.getCreatedAt() == null) {
+                article.setCreatedAt(now);
+            }
+        }
+
+        List<NewsArticle> rows = new ArrayList<>(byUrl.values());
+        return databaseProduct.isPostgres() ? insertOnConflict(rows, byUrl) : insertIfAbsent(rows);
+    }
+
+    private List<NewsArticle> insertOnConflict(List<NewsArticle> rows, Map<String, NewsArticle> byUrl) {
+        List<NewsArticle> inserted = new ArrayList<>();
+        for (int start = 0; start < rows.size(); start += BATCH_SIZE) {
+            List<NewsArticle> batch = rows.subList(start, Math.min(start + BATCH_SIZE, rows.size()));
+            String sql = POSTGRES_INSERT_PREFIX + String.join(", ", Collections.nCopies(batch.size(), ROW_VALUES))
+                + POSTGRES_INSERT_SUFFIX;
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(sql);
+                int index = 1;
+                for (NewsArticle article : batch) {
+                    index = bind(statement, index, article, true);
+                }
+                return statement;
+            }, resultSet -> {
+                NewsArticle article = byUrl.get(resultSet.getString("url"));
+                article.setId(resultSet.getLong("id"));
+                inserted.add(article);
+            });
+        }
+        return inserted;
+    }
+
+    private List<NewsArticle> insertIfAbsent(List<NewsArticle> rows) {
+        List<NewsArticle> inserted = new ArrayList<>();
+        for (NewsArticle article : rows) {
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            int count = jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_IF_ABSENT, new String[]{"id"});
+                int index = bind(statement, 1, article, false);
+                statement.setString(index, article.getUrl());
+                return statement;
+            }, keyHolder);
+            if (count > 0) {
+                article.setId(keyHolder.getKey().longValue());
+                inserted.add(article);
+            }
+        }
+        return inserted;
+    }
+
+    private static int bind(PreparedStatement statement, int index, NewsArticle article, boolean postgres)
+            throws SQLException {
+        statement.setString(index++, article.getTitle());
+        statement.setString(index++, article.getDescription());
+        statement.setString(index++, article.getUrl());
+        statement.setString(index++, article.getSource());
+        statement.setTimestamp(index++, article.getPublishedAt() != null ? Timestamp.valueOf(article.getPublishedAt()) : null);
+        statement.setObject(index++, article.getSentimentScore(), Types.DOUBLE);
+        statement.setString(index++, article.getKeywords());
+        statement.setString(index++, article.getCountryCode());
+        statement.setTimestamp(index++, Timestamp.valueOf(article.getCreatedAt()));
+        float[] embedding = article.getEmbedding();
+        if (embedding == null) {
+            statement.setNull(index++, postgres ? Types.OTHER : Types.VARCHAR);
+        } else if (postgres && PgVector.register(statement.getConnection())) {
+            statement.setObject(index++, new PgVector(embedding));
+        } else if (postgres) {
+            statement.setObject(index++, PgVector.toText(embedding), Types.OTHER);
+        } else {
+            statement.setString(index++, PgVector.toText(embedding));
+        }
+        return index;
+    }
+}
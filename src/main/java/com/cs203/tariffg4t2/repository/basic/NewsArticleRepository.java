@@ -7,10 +7,12 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
-public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long> {
+public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long>, NewsArticleSimilarityRepository,
+        NewsArticleInsertRepository {
     
     /**
      * Find articles published within a date range
@@ -29,62 +31,56 @@ public interface NewsArticleRepository extends JpaRepository<NewsArticle, Long>
     List<NewsArticle> findRecentArticles(@Param("since") LocalDateTime since);
     
     /**
-     * Find articles by URL to avoid duplicates
+     * The given URLs that are already stored, to skip duplicates in one query
      */
-    boolean existsByUrl(String url);
+    @Query("SELECT n.url FROM NewsArticle n WHERE n.url IN :urls")
+    List<String> findExistingUrls(@Param("urls") Collection<String> urls);
     
     /**
-     * Get average sentiment for a date range
+     * Every stored URL, to seed the known-URL filter
      */
-    @Query("SELECT AVG(n.sentimentScore) FROM NewsArticle n " +
-           "WHERE n.publishedAt BETWEEN :startDate AND :endDate")
-    Double getAverageSentiment(@Param("startDate") LocalDateTime startDate,
-                               @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT n.url FROM NewsArticle n WHERE n.url IS NOT NULL")
+    List<String> findAllUrls();
     
     /**
-     * Count articles by sentiment polarity
+     * Articles that have an embedding, to build the in-memory similarity index
      */
-    @Query("SELECT COUNT(n) FROM NewsArticle n " +
-           "WHERE n.publishedAt BETWEEN :startDate AND :endDate " +
-           "AND n.sentimentScore > 0.2")
-    Long countPositiveArticles(@Param("startDate") LocalDateTime startDate,
-                               @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT n FROM NewsArticle n WHERE n.embedding IS NOT NULL")
+    List<NewsArticle> findArticlesWithEmbeddings();
     
-    @Query("SELECT COUNT(n) FROM NewsArticle n " +
-           "WHERE n.publishedAt BETWEEN :startDate AND :endDate " +
-           "AND n.sentimentScore < -0.2")
-    Long countNegativeArticles(@Param("startDate") LocalDateTime startDate,
-                               @Param("endDate") LocalDateTime endDate);
+    /**
+     * Embeddings of the given articles, to re-rank quantized index candidates at full precision
+     */
+    @Query("SELECT n.id AS id, n.embedding AS embedding FROM NewsArticle n WHERE n.id IN :ids")
+    List<ArticleEmbedding> findEmbeddingsByIds(@Param("ids") Collection<Long> ids);
     
-    @Query("SELECT COUNT(n) FROM NewsArticle n " +
-           "WHERE n.publishedAt BETWEEN :startDate AND :endDate " +
-           "AND n.sentimentScore BETWEEN -0.2 AND 0.2")
-    Long countNeutralArticles(@Param("startDate") LocalDateTime startDate,
-                             @Param("endDate") LocalDateTime endDate);
+    /**
+     * Average sentiment and polarity counts for a date range in one pass over the articles.
+     * Positive is above 0.2, negative below -0.2, neutral in between; unscored articles are skipped.
+     * The average is null when no article in the range has a score.
+     */
+    @Query("SELECT AVG(n.sentimentScore) AS averageSentiment, " +
+           "SUM(CASE WHEN n.sentimentScore > 0.2 THEN 1 ELSE 0 END) AS positiveCount, " +
+           "SUM(CASE WHEN n.sentimentScore < -0.2 THEN 1 ELSE 0 END) AS negativeCount, " +
+           "SUM(CASE WHEN n.sentimentScore BETWEEN -0.2 AND 0.2 THEN 1 ELSE 0 END) AS neutralCount " +
+           "FROM NewsArticle n WHERE n.publishedAt BETWEEN :startDate AND :endDate")
+    SentimentTotals getSentimentTotals(@Param("startDate") LocalDateTime startDate,
+                                       @Param("endDate") LocalDateTime endDate);
     
     /**
      * Delete old articles (cleanup)
      */
     void deleteByPublishedAtBefore(LocalDateTime date);
     
-    /**
-     * RAG: Find similar articles using cosine similarity on embeddings
-     * Returns top K most similar articles based on semantic meaning
-     * Uses PostgreSQL pgvector extension for efficient vector search
-     * 
-     * @param queryEmbedding The query embedding in vector format '[0.1, 0.2, ...]'
-     * @param limit Maximum number of results to return
-     */
-    @Query(value = """
-        SELECT *, 1 - (embedding <=> CAST(:queryEmbedding AS vector)) AS similarity
-        FROM news_article
-        WHERE embedding IS NOT NULL
-        ORDER BY embedding <=> CAST(:queryEmbedding AS vector)
-        LIMIT :limit
-        """, nativeQuery = true)
-    List<NewsArticle> findSimilarArticles(
-        @Param("queryEmbedding") String queryEmbedding,
-        @Param("limit") int limit
-    );
+    interface ArticleEmbedding {
+        Long getId();
+        float[] getEmbedding();
+    }
+    
+    interface SentimentTotals {
+        Double getAverageSentiment();
+        Long getPositiveCount();
+        Long getNegativeCount();
+        Long getNeutralCount();
+    }
 }
-
@@ -0,0 +1,21 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+
+import java.util.List;
+
+/**
+ * RAG vector similarity search over news articles, with the query vector bound in binary
+ */
+public interface NewsArticleSimilarityRepository {
+
+    /**
+     * RAG: Find similar articles using cosine similarity on embeddings
+     * Returns top K most similar articles based on semantic meaning
+     * Uses PostgreSQL pgvector extension for efficient vector search
+     *
+     * @param queryEmbedding The query embedding
+     * @param limit Maximum number of results to return
+     */
+    List<NewsArticle> findSimilarArticles(float[] queryEmbedding, int limit);
+}
@@ -0,0 +1,40 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+import com.cs203.tariffg4t2.model.basic.VectorType;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+
+/**
+ * pgvector cosine-distance scan with the query vector bound through {@link VectorType}. Only
+ * rows at the query's dimensions are compared; pgvector rejects comparing vectors of different
+ * sizes, and articles stored before the embedding dimensions changed keep their old size.
+ */
+@RequiredArgsConstructor
+public class NewsArticleSimilarityRepositoryImpl implements NewsArticleSimilarityRepository {
+
+    private static final String SIMILAR = """
+        SELECT *, 1 - (embedding <=> :queryEmbedding) AS similarity
+        FROM news_article
+        WHERE embedding IS NOT NULL
+          AND vector_dims(embedding) = :dimensions
+        ORDER BY embedding <=> :queryEmbedding
+        LIMIT :limit
+        """;
+
+    private final EntityManager entityManager;
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public List<NewsArticle> findSimilarArticles(float[] queryEmbedding, int limit) {
+        NativeQuery<NewsArticle> query = entityManager.createNativeQuery(SIMILAR, NewsArticle.class)
+            .unwrap(NativeQuery.class);
+        query.setParameter("queryEmbedding", queryEmbedding, VectorType.parameterType(entityManager));
+        query.setParameter("dimensions", queryEmbedding.length);
+        query.setParameter("limit", limit);
+        return query.getResultList();
+    }
+}
@@ -21,6 +21,11 @@ public interface SentimentAnalysisRepository extends JpaRepository<SentimentAnal
         LocalDate weekEndDate
     );
     
+    /**
+     * Analyses whose week starts within a date range, e.g. a week and the one before it
+     */
+    List<SentimentAnalysis> findByWeekStartDateBetween(LocalDate startDate, LocalDate endDate);
+    
     /**
      * Get most recent sentiment analysis
      */
@@ -5,6 +5,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.util.Collection;
 import java.util.Optional;
 import java.util.List;
 
@@ -15,6 +16,16 @@ public interface TariffRateRepository extends JpaRepository<TariffRate, Long> {
     List<TariffRate> findByHsCodeAndImportingCountryCodeAndExportingCountryCode(
         String hsCode, String importingCountryCode, String exportingCountryCode);
 
+    // Which of the given HS codes are already stored for the country pair, any year
+    @Query("SELECT DISTINCT t.hsCode FROM TariffRate t " +
+           "WHERE t.importingCountryCode = :importingCountry " +
+           "AND t.exportingCountryCode = :exportingCountry " +
+           "AND t.hsCode IN :hsCodes")
+    List<String> findExistingHsCodes(
+        @Param("importingCountry") String importingCountryCode,
+        @Param("exportingCountry") String exportingCountryCode,
+        @Param("hsCodes") Collection<String> hsCodes);
+
     // New method with year
     Optional<TariffRate> findByHsCodeAndImportingCountryCodeAndExportingCountryCodeAndYear(
         String hsCode, String importingCountryCode, String exportingCountryCode, Integer year);
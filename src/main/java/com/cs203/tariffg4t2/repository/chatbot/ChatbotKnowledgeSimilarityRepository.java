@@ -0,0 +1,41 @@
+package com.cs203.tariffg4t2.repository.chatbot;
+
+import com.cs203.tariffg4t2.model.chatbot.ChatbotKnowledge;
+
+import java.util.List;
+
+/**
+ * RAG vector similarity search over chatbot knowledge, with the query vector bound in binary
+ */
+public interface ChatbotKnowledgeSimilarityRepository {
+
+    /**
+     * RAG: Find similar knowledge entries using cosine similarity on embeddings
+     * Returns top K most similar entries based on semantic meaning
+     *
+     * @param queryEmbedding The query embedding
+     * @param limit Maximum number of results to return
+     * @return List of knowledge entries ordered by similarity (most similar first)
+     */
+    List<ChatbotKnowledge> findSimilarKnowledge(float[] queryEmbedding, int limit);
+
+    /**
+     * RAG with category filter: Find similar knowledge entries within a specific category
+     *
+     * @param queryEmbedding The query embedding
+     * @param category Category to filter by (e.g., "hs_code", "tariff_guide", "faq")
+     * @param limit Maximum number of results
+     * @return List of knowledge entries in the category, ordered by similarity
+     */
+    List<ChatbotKnowledge> findSimilarKnowledgeByCategory(float[] queryEmbedding, String category, int limit);
+
+    /**
+     * RAG with multiple categories: Find similar knowledge from specific categories
+     *
+     * @param queryEmbedding The query embedding
+     * @param categories List of categories to include
+     * @param limit Maximum number of results
+     * @return List of knowledge entries from specified categories, ordered by similarity
+     */
+    List<ChatbotKnowledge> findSimilarKnowledgeByCategories(float[] queryEmbedding, List<String> categories, int limit);
+}
@@ -0,0 +1,70 @@
+package com.cs203.tariffg4t2.repository.chatbot;
+
+import com.cs203.tariffg4t2.model.basic.VectorType;
+import com.cs203.tariffg4t2.model.chatbot.ChatbotKnowledge;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.query.NativeQuery;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * pgvector cosine-distance scans; the query vector is bound through {@link VectorType} so it
+ * reaches Postgres as a binary vector rather than a literal cast at query time
+ */
+@RequiredArgsConstructor
+public class ChatbotKnowledgeSimilarityRepositoryImpl implements ChatbotKnowledgeSimilarityRepository {
+
+    private static final String SIMILAR = """
+        SELECT *, 1 - (embedding <=> :queryEmbedding) AS similarity
+        FROM chatbot_knowledge
+        WHERE embedding IS NOT NULL
+        ORDER BY embedding <=> :queryEmbedding
+        LIMIT :limit
+        """;
+    private static final String SIMILAR_IN_CATEGORY = """
+        SELECT *, 1 - (embedding <=> :queryEmbedding) AS similarity
+        FROM chatbot_knowledge
+        WHERE embedding IS NOT NULL
+          AND category = :category
+        ORDER BY embedding <=> :queryEmbedding
+        LIMIT :limit
+        """;
+    private static final String SIMILAR_IN_CATEGORIES = """
+        SELECT *, 1 - (embedding <=> :queryEmbedding) AS similarity
+        FROM chatbot_knowledge
+        WHERE embedding IS NOT NULL
+          AND category IN (:categories)
+        ORDER BY embedding <=> :queryEmbedding
+        LIMIT :limit
+        """;
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<ChatbotKnowledge> findSimilarKnowledge(float[] queryEmbedding, int limit) {
+        return findSimilar(SIMILAR, queryEmbedding, limit, Map.of());
+    }
+
+    @Override
+    public List<ChatbotKnowledge> findSimilarKnowledgeByCategory(float[] queryEmbedding, String category, int limit) {
+        return findSimilar(SIMILAR_IN_CATEGORY, queryEmbedding, limit, Map.of("category", category));
+    }
+
+    @Override
+    public List<ChatbotKnowledge> findSimilarKnowledgeByCategories(float[] queryEmbedding, List<String> categories,
+                                                                   int limit) {
+        return findSimilar(SIMILAR_IN_CATEGORIES, queryEmbedding, limit, Map.of("categories", categories));
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<ChatbotKnowledge> findSimilar(String sql, float[] queryEmbedding, int limit, Map<String, Object> filters) {
+        NativeQuery<ChatbotKnowledge> query = entityManager.createNativeQuery(sql, ChatbotKnowledge.class)
+            .unwrap(NativeQuery.class);
+        query.setParameter("queryEmbedding", queryEmbedding, VectorType.parameterType(entityManager));
+        query.setParameter("limit", limit);
+        filters.forEach(query::setParameter);
+        return query.getResultList();
+    }
+}
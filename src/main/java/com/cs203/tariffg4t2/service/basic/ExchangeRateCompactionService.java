@@ -0,0 +1,263 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate;
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate.Resolution;
+import com.cs203.tariffg4t2.repository.basic.ExchangeRateAggregateRepository;
+import com.cs203.tariffg4t2.repository.basic.ExchangeRateRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Tiered retention for exchange-rate history.
+ * Daily rows are kept for DAILY_RETENTION_MONTHS; older ones are rolled into weekly OHLC
+ * aggregates, and weekly aggregates older than WEEKLY_RETENTION_MONTHS into monthly ones.
+ * Each period is aggregated and its source rows deleted in one transaction, so an interrupted
+ * run never double counts, and deletes go out in bounded id batches.
+ */
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateCompactionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExchangeRateCompactionService.class);
+
+    // Longer than the 6-month backfill grid, so compacted days are never fetched again
+    public static final int DAILY_RETENTION_MONTHS = 7;
+    // Matches the longest analysis window
+    public static final int WEEKLY_RETENTION_MONTHS = 24;
+    private static final int DELETE_BATCH_SIZE = 1000;
+    private static final int RATE_SCALE = 10;
+
+    private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateAggregateRepository exchangeRateAggregateRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * First day still kept at daily resolution: the Monday on or before today minus DAILY_RETENTION_MONTHS
+     */
+    public static LocalDate dailyRetentionFloor(LocalDate today) {
+        return today.minusMonths(DAILY_RETENTION_MONTHS).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+    }
+
+    /**
+     * First day still kept at weekly resolution: the first of the month WEEKLY_RETENTION_MONTHS ago
+     */
+    public static LocalDate weeklyRetentionFloor(LocalDate today) {
+        return today.minusMonths(WEEKLY_RETENTION_MONTHS).withDayOfMonth(1);
+    }
+
+    /**
+     * Compact everything that has aged out of its tier
+     *
+     * @return number of daily rows rolled into weekly aggregates
+     */
+    public int compact() {
+        return compact(LocalDate.now());
+    }
+
+    int compact(LocalDate today) {
+        LocalDate dailyFloor = dailyRetentionFloor(today);
+        LocalDate weeklyFloor = weeklyRetentionFloor(today);
+
+        int dailyRows = 0;
+        LocalDate earliestDay = exchangeRateRepository.findEarliestRateDate();
+        if (earliestDay != null) {
+            for (LocalDate week = earliestDay.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+                 week.isBefore(dailyFloor); week = week.plusWeeks(1)) {
+                LocalDate weekStart = week;
+                dailyRows += transactionTemplate.execute(status -> compactWeek(weekStart));
+            }
+        }
+
+        int weeklyRows = 0;
+        LocalDate earliestWeek = exchangeRateAggregateRepository.findEarliestPeriodStart(Resolution.WEEKLY);
+        if (earliestWeek != null) {
+            for (LocalDate month = earliestWeek.withDayOfMonth(1); month.isBefore(weeklyFloor); month = month.plusMonths(1)) {
+                LocalDate monthStart = month;
+                weeklyRows += transactionTemplate.execute(status -> compactMonth(monthStart));
+            }
+        }
+
+        if (dailyRows > 0 || weeklyRows > 0) {
+            logger.info("Exchange rate compaction rolled {} daily rows into weeks and {} weekly rows into months",
+                       dailyRows, weeklyRows);
+        }
+        return dailyRows;
+    }
+
+    /**
+     * Roll one week of daily rows (every pair) into weekly aggregates and delete them
+     */
+    int compactWeek(LocalDate weekStart) {
+        LocalDate weekEnd = weekStart.plusDays(6);
+        List<ExchangeRate> rows = exchangeRateRepository.findByRateDateBetweenOrderByRateDateAsc(weekStart, weekEnd);
+        if (rows.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Bar> bars = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (ExchangeRate row : rows) {
+            ids.add(row.getId());
+            if (row.getRate() != null) {
+                bars.computeIfAbsent(pairKey(row.getFromCurrency(), row.getToCurrency()),
+                        k -> new Bar(row.getFromCurrency(), row.getToCurrency()))
+                    .addPoint(row.getRate());
+            }
+        }
+
+        saveBars(bars.values(), Resolution.WEEKLY, weekStart, weekEnd);
+        deleteInBatches(ids, exchangeRateRepository::deleteByIdIn);
+        return rows.size();
+    }
+
+    /**
+     * Roll the weekly aggregates starting in one month into monthly aggregates and delete them.
+     * A week belongs to the month its Monday falls in, so a monthly period may end a few days
+     * into the next month.
+     */
+    int compactMonth(LocalDate monthStart) {
+        LocalDate monthEnd = monthStart.with(TemporalAdjusters.lastDayOfMonth());
+        List<ExchangeRateAggregate> weeks = exchangeRateAggregateRepository
+            .findByResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(Resolution.WEEKLY, monthStart, monthEnd);
+        if (weeks.isEmpty()) {
+            return 0;
+        }
+
+        Map<String, Bar> bars = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(weeks.size());
+        LocalDate periodEnd = monthEnd;
+        for (ExchangeRateAggregate week : weeks) {
+            ids.add(week.getId());
+            bars.computeIfAbsent(pairKey(week.getFromCurrency(), week.getToCurrency()),
+                    k -> new Bar(week.getFromCurrency(), week.getToCurrency()))
+                .addBar(week);
+            if (week.getPeriodEnd().isAfter(periodEnd)) {
+                periodEnd = week.getPeriodEnd();
+            }
+        }
+
+        saveBars(bars.values(), Resolution.MONTHLY, monthStart, periodEnd);
+        deleteInBatches(ids, exchangeRateAggregateRepository::deleteByIdIn);
+        return weeks.size();
+    }
+
+    /**
+     * Store the bars for a period. Rows arriving for an already compacted period are folded into
+     * its aggregate: they widen high/low and the average but keep its open and close.
+     */
+    private void saveBars(Collection<Bar> bars, Resolution resolution, LocalDate periodStart, LocalDate periodEnd) {
+        Map<String, ExchangeRateAggregate> existing = new HashMap<>();
+        for (ExchangeRateAggregate aggregate : exchangeRateAggregateRepository.findByResolutionAndPeriodStart(resolution, periodStart)) {
+            existing.put(pairKey(aggregate.getFromCurrency(), aggregate.getToCurrency()), aggregate);
+        }
+
+        List<ExchangeRateAggregate> toSave = new ArrayList<>(bars.size());
+        for (Bar bar : bars) {
+            if (bar.count == 0) {
+                continue;
+            }
+            ExchangeRateAggregate aggregate = existing.get(pairKey(bar.fromCurrency, bar.toCurrency));
+            if (aggregate == null) {
+                aggregate = new ExchangeRateAggregate();
+                aggregate.setFromCurrency(bar.fromCurrency);
+                aggregate.setToCurrency(bar.toCurrency);
+                aggregate.setResolution(resolution);
+                aggregate.setPeriodStart(periodStart);
+                aggregate.setPeriodEnd(periodEnd);
+                aggregate.setOpenRate(bar.open);
+                aggregate.setHighRate(bar.high);
+                aggregate.setLowRate(bar.low);
+                aggregate.setCloseRate(bar.close);
+                aggregate.setAverageRate(bar.average());
+                aggregate.setPointCount(bar.count);
+            } else {
+                Bar merged = new Bar(bar.fromCurrency, bar.toCurrency);
+                merged.addBar(aggregate);
+                aggregate.setHighRate(merged.high.max(bar.high));
+                aggregate.setLowRate(merged.low.min(bar.low));
+                aggregate.setAverageRate(merged.sum.add(bar.sum)
+                    .divide(BigDecimal.valueOf(merged.count + bar.count), RATE_SCALE, RoundingMode.HALF_UP));
+                aggregate.setPointCount(merged.count + bar.count);
+                if (periodEnd.isAfter(aggregate.getPeriodEnd())) {
+                    aggregate.setPeriodEnd(periodEnd);
+                }
+            }
+            toSave.add(aggregate);
+        }
+        exchangeRateAggregateRepository.saveAll(toSave);
+    }
+
+    private static void deleteInBatches(List<Long> ids, Function<Collection<Long>, Integer> delete) {
+        for (int start = 0; start < ids.size(); start += DELETE_BATCH_SIZE) {
+            delete.apply(ids.subList(start, Math.min(start + DELETE_BATCH_SIZE, ids.size())));
+        }
+    }
+
+    private static String pairKey(String fromCurrency, String toCurrency) {
+        return fromCurrency + "/" + toCurrency;
+    }
+
+    /**
+     * OHLC accumulator for one pair; points and bars must be added oldest first
+     */
+    private static final class Bar {
+        final String fromCurrency;
+        final String toCurrency;
+        BigDecimal open;
+        BigDecimal high;
+        BigDecimal low;
+        BigDecimal close;
+        BigDecimal sum = BigDecimal.ZERO;
+        int count;
+
+        Bar(String fromCurrency, String toCurrency) {
+            this.fromCurrency = fromCurrency;
+            this.toCurrency = toCurrency;
+        }
+
+        void addPoint(BigDecimal rate) {
+            add(rate, rate, rate, rate, rate, 1);
+        }
+
+        void addBar(ExchangeRateAggregate aggregate) {
+            add(aggregate.getOpenRate(), aggregate.getHighRate(), aggregate.getLowRate(), aggregate.getCloseRate(),
+                aggregate.getAverageRate().multiply(BigDecimal.valueOf(aggregate.getPointCount())),
+                aggregate.getPointCount());
+        }
+
+        private void add(BigDecimal open, BigDecimal high, BigDecimal low, BigDecimal close, BigDecimal sum, int count) {
+            if (this.count == 0) {
+                this.open = open;
+                this.high = high;
+                this.low = low;
+            } else {
+                this.high = this.high.max(high);
+                this.low = this.low.min(low);
+            }
+            this.close = close;
+            this.sum = this.sum.add(sum);
+            this.count += count;
+        }
+
+        BigDecimal average() {
+            return sum.divide(BigDecimal.valueOf(count), RATE_SCALE, RoundingMode.HALF_UP);
+        }
+    }
+}
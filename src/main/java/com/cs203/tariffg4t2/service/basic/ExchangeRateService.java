@@ -1,30 +1,57 @@
 package com.cs203.tariffg4t2.service.basic;
 
 import com.cs203.tariffg4t2.dto.request.ExchangeRateAnalysisRequest;
+import com.cs203.tariffg4t2.dto.request.ExchangeRateBatchAnalysisRequest;
 import com.cs203.tariffg4t2.dto.response.ExchangeRateAnalysisResponse;
+import com.cs203.tariffg4t2.dto.response.ExchangeRateBatchAnalysisResponse;
 import com.cs203.tariffg4t2.model.basic.Country;
 import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate;
 import com.cs203.tariffg4t2.repository.basic.CountryRepository;
+import com.cs203.tariffg4t2.repository.basic.ExchangeRateAggregateRepository;
 import com.cs203.tariffg4t2.repository.basic.ExchangeRateRepository;
 import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
+import com.cs203.tariffg4t2.service.data.RequestDeadline;
+import com.cs203.tariffg4t2.service.data.TokenBucket;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
 
 @Service
 @RequiredArgsConstructor
@@ -32,19 +59,68 @@ public class ExchangeRateService {
     
     private static final Logger logger = LoggerFactory.getLogger(ExchangeRateService.class);
     private static final int ANALYSIS_MONTHS = 6;
-    private static final String BASE_CURRENCY = "USD"; // Always use USD as base for free tier
+    private static final int MAX_ANALYSIS_MONTHS = 24;
+    // LTTB always keeps the first and last point, so fewer than 3 cannot be honoured
+    private static final int MIN_CHART_POINTS = 3;
+    // Rates change hourly at most: serve cached analyses while fresh, and stale ones while refreshing
+    private static final Duration ANALYSIS_FRESH_FOR = Duration.ofMinutes(30);
+    private static final Duration ANALYSIS_MAX_STALE = Duration.ofHours(24);
+    // Analyses built on fallback data are retried against the live API sooner
+    private static final Duration FALLBACK_ANALYSIS_FRESH_FOR = Duration.ofMinutes(5);
+    private static final String BASE_CURRENCY = UsdRateBook.BASE_CURRENCY; // Always use USD as base for free tier
+    // OpenExchangeRates plan limit for the historical backfill
+    private static final Duration HISTORICAL_FETCH_TIMEOUT = Duration.ofSeconds(20);
+    private static final int STARTUP_BACKFILL_DAYS = 7;
+    private static final Duration STARTUP_BACKFILL_TIMEOUT = Duration.ofMinutes(2);
+    // Conversions use the latest snapshot at most this much older than the requested date
+    private static final int RATE_AS_OF_LOOKBACK_DAYS = 7;
+    // Remembered database lookups for dates outside the warmed book; cleared when full
+    private static final int MAX_REMEMBERED_RATES = 10_000;
+    // Purchase windows, in days from today, for each trend; the forecast trend picks which end
+    private static final int WAIT_FIRST_DAY = 14;
+    private static final int WAIT_LAST_DAY = 28;
+    private static final int BUY_SOON_LAST_DAY = 7;
+    private static final int STABLE_LAST_DAY = 14;
 
     private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateAggregateRepository exchangeRateAggregateRepository;
     private final CountryRepository countryRepository;
     private final CurrencyCodeService currencyCodeService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OutboundHttpClients outboundHttpClients;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final UsdRateBook usdRateBook = new UsdRateBook();
+    private final Map<String, PairSeries> pairSeries = new ConcurrentHashMap<>();
+    // from/to/date -> rate found in older rows or aggregates, empty if neither had one
+    private final Map<String, Optional<UsdRateBook.DatedRate>> rememberedRates = new ConcurrentHashMap<>();
+    private final Map<String, CachedAnalysis> analysisCache = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<ExchangeRateAnalysisResponse>> refreshesInFlight = new ConcurrentHashMap<>();
+    private Executor refreshExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private Clock clock = Clock.systemUTC();
+
+    // Last latest.json snapshot (polled on a schedule); requests skip the API once today's is stored
+    private volatile LocalDate latestFetchedOn;
+    private volatile LocalDate latestRateDate;
+    private volatile boolean usdRateBookWarmed;
     
     @Value("${openexchangerates.api.key:}")
     private String apiKey;
     
     @Value("${openexchangerates.api.url:https://openexchangerates.org/api}")
     private String apiUrl;
+
+    // Historical lookups are one API request per date; keep backfills within the plan's quota
+    @Value("${openexchangerates.historical.requests-per-second:5}")
+    private double historicalRequestsPerSecond = 5.0;
+
+    @Value("${openexchangerates.historical.burst:5}")
+    private int historicalBurst = 5;
+
+    private TokenBucket historicalRateLimiter = new TokenBucket(historicalRequestsPerSecond, historicalBurst);
+
+    @PostConstruct
+    void configureHistoricalRateLimiter() {
+        historicalRateLimiter = new TokenBucket(historicalRequestsPerSecond, historicalBurst);
+    }
     
     /**
      * Perform exchange rate analysis for tariff calculation between two countries
@@ -76,14 +152,298 @@ public class ExchangeRateService {
         }
         
         logger.info("Resolved currencies: {} -> {}", exportingCurrency, importingCurrency);
-        
+
+        // Any window is cheap on the in-memory series; the backfill still only covers ANALYSIS_MONTHS
+        int analysisMonths = resolveAnalysisMonths(request.getAnalysisMonths(), ANALYSIS_MONTHS);
+
+        // Serve from cache: fresh entries as-is, stale ones while one background refresh runs
+        String cacheKey = exportingCountryCode + "/" + importingCountryCode + "/" + analysisMonths;
+        Supplier<ExchangeRateAnalysisResponse> compute = () -> computeAnalysis(
+            exportingCurrency, importingCurrency, importingCountryCode, exportingCountryCode, analysisMonths);
+
+        CachedAnalysis cached = analysisCache.get(cacheKey);
+        if (cached != null) {
+            Duration age = Duration.between(cached.computedAt, clock.instant());
+            Duration freshFor = cached.response.isLiveDataAvailable() ? ANALYSIS_FRESH_FOR : FALLBACK_ANALYSIS_FRESH_FOR;
+            if (age.compareTo(freshFor) < 0) {
+                return shapeHistory(withAge(cached.response, age, false), request);
+            }
+            if (age.compareTo(ANALYSIS_MAX_STALE) < 0) {
+                if (!refreshesInFlight.containsKey(cacheKey)) {
+                    refreshExecutor.execute(() -> {
+                        try {
+                            refreshShared(cacheKey, compute);
+                        } catch (RuntimeException e) {
+                            logger.warn("Background refresh of {} failed: {}", cacheKey, e.getMessage());
+                        }
+                    });
+                }
+                return shapeHistory(withAge(cached.response, age, true), request);
+            }
+        }
+
+        return shapeHistory(refreshShared(cacheKey, compute), request);
+    }
+
+    /**
+     * Analyse many country pairs in one pass: every country and currency is resolved once, today's
+     * snapshot and the historical backfill are refreshed once for all currencies, the USD-base
+     * history for all of them is read in one query, and the per-pair analyses run in parallel.
+     * Pairs that cannot be resolved are reported individually instead of failing the batch.
+     */
+    public ExchangeRateBatchAnalysisResponse analyzeExchangeRatesBatch(ExchangeRateBatchAnalysisRequest request) {
+        List<ExchangeRateAnalysisRequest> pairs = request.getPairs();
+        logger.info("Starting batch exchange rate analysis for {} pairs", pairs.size());
+        int defaultMonths = resolveAnalysisMonths(request.getAnalysisMonths(), ANALYSIS_MONTHS);
+
+        // Step 1: Resolve each distinct country and currency once
+        Map<String, Optional<String>> countryCodes = new HashMap<>();
+        Map<String, Optional<String>> currencyCodes = new HashMap<>();
+        ExchangeRateBatchAnalysisResponse.PairResult[] results = new ExchangeRateBatchAnalysisResponse.PairResult[pairs.size()];
+        List<PairJob> jobs = new ArrayList<>();
+        Set<String> currencies = new LinkedHashSet<>();
+
+        for (int i = 0; i < pairs.size(); i++) {
+            ExchangeRateAnalysisRequest pair = pairs.get(i);
+            String importingCountryCode = countryCodes.computeIfAbsent(String.valueOf(pair.getImportingCountry()),
+                input -> Optional.ofNullable(resolveCountryCodeSafely(pair.getImportingCountry()))).orElse(null);
+            String exportingCountryCode = countryCodes.computeIfAbsent(String.valueOf(pair.getExportingCountry()),
+                input -> Optional.ofNullable(resolveCountryCodeSafely(pair.getExportingCountry()))).orElse(null);
+            if (importingCountryCode == null || exportingCountryCode == null) {
+                results[i] = failedPair(pair, String.format("Invalid country codes. Importing: %s, Exporting: %s",
+                    pair.getImportingCountry(), pair.getExportingCountry()));
+                continue;
+            }
+
+            String importingCurrency = currencyCodes.computeIfAbsent(importingCountryCode,
+                code -> Optional.ofNullable(currencyCodeService.getCurrencyCode(code))).orElse(null);
+            String exportingCurrency = currencyCodes.computeIfAbsent(exportingCountryCode,
+                code -> Optional.ofNullable(currencyCodeService.getCurrencyCode(code))).orElse(null);
+            if (importingCurrency == null || exportingCurrency == null) {
+                results[i] = failedPair(pair, String.format("Currency mapping not found. Importing: %s, Exporting: %s",
+                    importingCountryCode, exportingCountryCode));
+                continue;
+            }
+
+            currencies.add(exportingCurrency);
+            currencies.add(importingCurrency);
+            jobs.add(new PairJob(i, pair, exportingCurrency, importingCurrency, importingCountryCode,
+                exportingCountryCode, resolveAnalysisMonths(pair.getAnalysisMonths(), defaultMonths)));
+        }
+
+        // Step 2: One snapshot refresh for the union of currencies
+        SnapshotStatus snapshot = jobs.isEmpty()
+            ? new SnapshotStatus(false, "fallback_database", "")
+            : refreshSnapshot(currencies.toArray(new String[0]));
+
+        // Step 3: One history query for every pair not already cached for its window
+        LocalDate today = LocalDate.now();
+        List<PairJob> uncached = new ArrayList<>();
+        int longestWindow = 0;
+        for (PairJob job : jobs) {
+            if (cachedPairSeries(job.exportingCurrency, job.importingCurrency,
+                    today.minusMonths(job.analysisMonths), today) == null) {
+                uncached.add(job);
+                longestWindow = Math.max(longestWindow, job.analysisMonths);
+            }
+        }
+        Set<String> uncachedCurrencies = new LinkedHashSet<>();
+        for (PairJob job : uncached) {
+            uncachedCurrencies.addAll(UsdRateBook.nonBaseCurrencies(job.exportingCurrency, job.importingCurrency));
+        }
+        if (!uncachedCurrencies.isEmpty()) {
+            LocalDate startDate = today.minusMonths(longestWindow);
+            loadUsdHistory(uncachedCurrencies, startDate, today, today);
+            for (PairJob job : uncached) {
+                cachePairSeries(job.exportingCurrency, job.importingCurrency, startDate, today, today);
+            }
+        }
+
+        // Step 4: Analyse the pairs in parallel on the in-memory series, sharing the analysis cache
+        List<CompletableFuture<ExchangeRateAnalysisResponse>> futures = new ArrayList<>(jobs.size());
+        for (PairJob job : jobs) {
+            futures.add(CompletableFuture.supplyAsync(() -> analyzePair(job, snapshot), refreshExecutor));
+        }
+
+        for (int j = 0; j < jobs.size(); j++) {
+            PairJob job = jobs.get(j);
+            try {
+                results[job.index] = ExchangeRateBatchAnalysisResponse.PairResult.builder()
+                    .importingCountry(job.request.getImportingCountry())
+                    .exportingCountry(job.request.getExportingCountry())
+                    .analysis(shapeHistory(futures.get(j).join(), job.request))
+                    .build();
+            } catch (CompletionException e) {
+                Throwable cause = e.getCause() != null ? e.getCause() : e;
+                logger.warn("Batch analysis of {} -> {} failed: {}", job.exportingCurrency, job.importingCurrency,
+                           cause.getMessage());
+                results[job.index] = failedPair(job.request, cause.getMessage());
+            }
+        }
+        int failed = 0;
+        for (ExchangeRateBatchAnalysisResponse.PairResult result : results) {
+            if (result.getAnalysis() == null) {
+                failed++;
+            }
+        }
+
+        return ExchangeRateBatchAnalysisResponse.builder()
+            .results(Arrays.asList(results))
+            .succeeded(results.length - failed)
+            .failed(failed)
+            .liveDataAvailable(snapshot.liveDataAvailable)
+            .dataSource(snapshot.dataSource)
+            .build();
+    }
+
+    /**
+     * One pair of a batch: a fresh cached analysis if there is one, otherwise computed on the
+     * batch's snapshot and cached like a single request
+     */
+    private ExchangeRateAnalysisResponse analyzePair(PairJob job, SnapshotStatus snapshot) {
+        String cacheKey = job.exportingCountryCode + "/" + job.importingCountryCode + "/" + job.analysisMonths;
+        CachedAnalysis cached = analysisCache.get(cacheKey);
+        if (cached != null) {
+            Duration age = Duration.between(cached.computedAt, clock.instant());
+            Duration freshFor = cached.response.isLiveDataAvailable() ? ANALYSIS_FRESH_FOR : FALLBACK_ANALYSIS_FRESH_FOR;
+            if (age.compareTo(freshFor) < 0) {
+                return withAge(cached.response, age, false);
+            }
+        }
+        return refreshShared(cacheKey, () -> executeAnalysisInTransaction(job.exportingCurrency, job.importingCurrency,
+            job.importingCountryCode, job.exportingCountryCode, job.analysisMonths, snapshot.liveDataAvailable,
+            snapshot.dataSource, snapshot.message));
+    }
+
+    private static ExchangeRateBatchAnalysisResponse.PairResult failedPair(ExchangeRateAnalysisRequest pair, String error) {
+        return ExchangeRateBatchAnalysisResponse.PairResult.builder()
+            .importingCountry(pair.getImportingCountry())
+            .exportingCountry(pair.getExportingCountry())
+            .error(error)
+            .build();
+    }
+
+    /**
+     * Apply the request's chart options to a response: LTTB downsampling to maxPoints and/or the
+     * columnar series. Cached responses keep the full series; only the returned copy is shaped.
+     */
+    private ExchangeRateAnalysisResponse shapeHistory(ExchangeRateAnalysisResponse response,
+                                                      ExchangeRateAnalysisRequest request) {
+        List<ExchangeRateAnalysisResponse.ExchangeRateDataPoint> points = response.getHistoricalRates();
+        boolean columnar = Boolean.TRUE.equals(request.getColumnar());
+        if (points == null || (request.getMaxPoints() == null && !columnar)) {
+            return response;
+        }
+
+        int count = points.size();
+        double[] days = new double[count];
+        double[] rates = new double[count];
+        for (int i = 0; i < count; i++) {
+            days[i] = points.get(i).getDate().toEpochDay();
+            rates[i] = points.get(i).getRate().doubleValue();
+        }
+        int[] kept = request.getMaxPoints() != null
+            ? LargestTriangleThreeBuckets.select(days, rates, Math.max(request.getMaxPoints(), MIN_CHART_POINTS))
+            : LargestTriangleThreeBuckets.select(days, rates, count);
+
+        ExchangeRateAnalysisResponse.ExchangeRateAnalysisResponseBuilder shaped = response.toBuilder()
+            .historicalPointCount(count);
+        if (columnar) {
+            List<LocalDate> dates = new ArrayList<>(kept.length);
+            double[] keptRates = new double[kept.length];
+            for (int i = 0; i < kept.length; i++) {
+                dates.add(points.get(kept[i]).getDate());
+                keptRates[i] = rates[kept[i]];
+            }
+            shaped.historicalRates(null)
+                .historicalSeries(new ExchangeRateAnalysisResponse.HistoricalSeries(dates, keptRates));
+        } else {
+            List<ExchangeRateAnalysisResponse.ExchangeRateDataPoint> keptPoints = new ArrayList<>(kept.length);
+            for (int index : kept) {
+                keptPoints.add(points.get(index));
+            }
+            shaped.historicalRates(keptPoints);
+        }
+        return shaped.build();
+    }
+
+    /**
+     * Requested window clamped to 1..MAX_ANALYSIS_MONTHS, or the default if none was requested
+     */
+    private static int resolveAnalysisMonths(Integer requested, int defaultMonths) {
+        return requested != null ? Math.max(1, Math.min(requested, MAX_ANALYSIS_MONTHS)) : defaultMonths;
+    }
+
+    /**
+     * Run the analysis and cache it. Concurrent callers for the same key share one computation.
+     */
+    private ExchangeRateAnalysisResponse refreshShared(String cacheKey, Supplier<ExchangeRateAnalysisResponse> compute) {
+        CompletableFuture<ExchangeRateAnalysisResponse> mine = new CompletableFuture<>();
+        CompletableFuture<ExchangeRateAnalysisResponse> running = refreshesInFlight.putIfAbsent(cacheKey, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                if (e.getCause() instanceof Error error) {
+                    throw error;
+                }
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
+        try {
+            ExchangeRateAnalysisResponse response = compute.get();
+            analysisCache.put(cacheKey, new CachedAnalysis(response, clock.instant()));
+            mine.complete(response);
+            return response;
+        } catch (Throwable e) {
+            // Errors too, or every caller waiting on this key would hang
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            refreshesInFlight.remove(cacheKey, mine);
+        }
+    }
+
+    /**
+     * Copy of a cached response with its age reported in dataSource and message
+     */
+    private ExchangeRateAnalysisResponse withAge(ExchangeRateAnalysisResponse response, Duration age, boolean refreshing) {
+        String ageText = age.toMinutes() > 0 ? age.toMinutes() + " min" : age.toSeconds() + " s";
+        return response.toBuilder()
+            .dataSource(response.getDataSource() + "_cached")
+            .message(response.getMessage() + " (cached " + ageText + " ago"
+                     + (refreshing ? "; refreshing in background)" : ")"))
+            .dataAgeSeconds(age.toSeconds())
+            .build();
+    }
+
+    /**
+     * Fetch live data if possible, then analyse the stored rates
+     */
+    private ExchangeRateAnalysisResponse computeAnalysis(String exportingCurrency, String importingCurrency,
+                                                         String importingCountryCode, String exportingCountryCode,
+                                                         int analysisMonths) {
         // Step 3: Try to fetch live data from API (separate transaction)
+        SnapshotStatus snapshot = refreshSnapshot(exportingCurrency, importingCurrency);
+
+        // Step 4-8: Execute the rest within a single read-only transaction
+        return executeAnalysisInTransaction(exportingCurrency, importingCurrency, importingCountryCode,
+                                          exportingCountryCode, analysisMonths, snapshot.liveDataAvailable,
+                                          snapshot.dataSource, snapshot.message);
+    }
+
+    /**
+     * Bring today's snapshot and the historical backfill up to date for the currencies,
+     * falling back to stored (or generated) rates when the live API is unavailable
+     */
+    private SnapshotStatus refreshSnapshot(String... currencies) {
         boolean liveDataAvailable = false;
         String dataSource = "fallback_database";
         String message = "";
         
         try {
-            fetchAndStoreLiveRatesUSD(exportingCurrency, importingCurrency);
+            fetchAndStoreLiveRatesUSD(currencies);
             liveDataAvailable = true;
             dataSource = "live_api";
             message = "Exchange rates updated from live API";
@@ -91,7 +451,7 @@ public class ExchangeRateService {
 
             // Also fetch historical data for 6-month trend analysis
             try {
-                fetchHistoricalRates(exportingCurrency, importingCurrency);
+                fetchHistoricalRates(currencies);
                 message = "Exchange rates and 6-month historical trends updated from live API";
                 logger.info("Successfully fetched historical exchange rates");
             } catch (Exception histError) {
@@ -103,12 +463,9 @@ public class ExchangeRateService {
             message = "Live API unavailable. Using last known stored data from database.";
 
             // If no live data and no database data, create fallback rates
-            ensureFallbackRates(exportingCurrency, importingCurrency);
+            ensureFallbackRates(currencies);
         }
-
-        // Step 4-8: Execute the rest within a single read-only transaction
-        return executeAnalysisInTransaction(exportingCurrency, importingCurrency, importingCountryCode,
-                                          exportingCountryCode, liveDataAvailable, dataSource, message);
+        return new SnapshotStatus(liveDataAvailable, dataSource, message);
     }
 
     /**
@@ -117,33 +474,52 @@ public class ExchangeRateService {
     @Transactional(readOnly = true)
     ExchangeRateAnalysisResponse executeAnalysisInTransaction(
             String exportingCurrency, String importingCurrency, String importingCountryCode,
-            String exportingCountryCode, boolean liveDataAvailable, String dataSource, String message) {
+            String exportingCountryCode, int analysisMonths, boolean liveDataAvailable, String dataSource,
+            String message) {
 
-        // Get current rate (most recent in database)
-        ExchangeRate currentRate = exchangeRateRepository
-            .findLatestByFromCurrencyAndToCurrency(exportingCurrency, importingCurrency)
-            .orElse(null);
-        
-        if (currentRate == null) {
-            throw new RuntimeException(
-                "No exchange rate data available for " + exportingCurrency + " -> " + importingCurrency
-            );
-        }
-        
-        // Get historical data (past 6 months)
+        // Get historical data for the window, derived from the stored USD-base rates
         LocalDate endDate = LocalDate.now();
-        LocalDate startDate = endDate.minusMonths(ANALYSIS_MONTHS);
-        
-        List<ExchangeRate> historicalRates = exchangeRateRepository
-            .findByFromCurrencyAndToCurrencyAndRateDateBetween(
-                exportingCurrency, importingCurrency, startDate, endDate
-            );
+        LocalDate startDate = endDate.minusMonths(analysisMonths);
+
+        RateTimeSeries series = crossSeries(exportingCurrency, importingCurrency, startDate, endDate);
+        RateTimeSeries.WindowStats stats = series != null ? series.stats(startDate, endDate) : null;
+        RateForecaster forecaster = null;
+        BigDecimal currentRate;
+        LocalDate currentRateDate;
+
+        if (stats != null) {
+            currentRate = BigDecimal.valueOf(stats.getLatest());
+            currentRateDate = stats.getLatestDate();
+            forecaster = pairForecaster(exportingCurrency, importingCurrency, series);
+        } else {
+            // Pair rows stored before rates were kept USD-base only
+            ExchangeRate latestPairRate = exchangeRateRepository
+                .findLatestByFromCurrencyAndToCurrency(exportingCurrency, importingCurrency)
+                .orElse(null);
+
+            if (latestPairRate == null) {
+                throw new RuntimeException(
+                    "No exchange rate data available for " + exportingCurrency + " -> " + importingCurrency
+                );
+            }
+            currentRate = latestPairRate.getRate();
+            currentRateDate = latestPairRate.getRateDate();
+
+            series = RateTimeSeries.of(exchangeRateRepository
+                .findByFromCurrencyAndToCurrencyAndRateDateBetween(
+                    exportingCurrency, importingCurrency, startDate, endDate
+                ));
+            stats = series.stats(startDate, endDate);
+            forecaster = series.forecaster();
+        }
         
         // Perform trend analysis
-        TrendAnalysisResult trendResult = performTrendAnalysis(historicalRates);
-        
+        TrendAnalysisResult trendResult = performTrendAnalysis(stats);
+        RateIndicators.Snapshot indicators = series.indicators(startDate, endDate).snapshot();
+
         // Generate recommendation
-        RecommendationResult recommendation = generateRecommendation(historicalRates, trendResult);
+        RecommendationResult recommendation = generateRecommendation(trendResult, indicators, forecaster, endDate,
+                                                                     analysisMonths);
         
         // Build response
         return ExchangeRateAnalysisResponse.builder()
@@ -151,8 +527,8 @@ public class ExchangeRateService {
             .exportingCountry(exportingCountryCode)
             .importingCurrency(importingCurrency)
             .exportingCurrency(exportingCurrency)
-            .currentRate(currentRate.getRate())
-            .currentRateDate(currentRate.getRateDate())
+            .currentRate(currentRate)
+            .currentRateDate(currentRateDate)
             .averageRate(trendResult.averageRate)
             .minRate(trendResult.minRate)
             .minRateDate(trendResult.minRateDate)
@@ -161,29 +537,233 @@ public class ExchangeRateService {
             .recommendedPurchaseDate(recommendation.recommendedDate)
             .recommendation(recommendation.explanation)
             .trendAnalysis(trendResult.trend)
-            .historicalRates(convertToDataPoints(historicalRates))
+            .indicators(toResponseIndicators(indicators))
+            .forecast(toResponseForecast(recommendation.forecast))
+            .historicalRates(convertToDataPoints(
+                series.toExchangeRates(exportingCurrency, importingCurrency, startDate, endDate)))
             .liveDataAvailable(liveDataAvailable)
             .dataSource(dataSource)
             .message(message)
             .build();
     }
+
+    /**
+     * In-memory time series for the pair covering [startDate, endDate], derived from the stored
+     * USD-base rows. Series are cached per pair, fed by storeUsdRates, and reloaded once a day or
+     * when a longer window is asked for. Returns null if there is no USD-base data in the window.
+     * The part of the window older than the daily retention floor is read from the weekly and
+     * monthly aggregates, one point per period at its close.
+     */
+    RateTimeSeries crossSeries(String fromCurrency, String toCurrency, LocalDate startDate, LocalDate endDate) {
+        Set<String> currencies = UsdRateBook.nonBaseCurrencies(fromCurrency, toCurrency);
+        if (currencies.isEmpty()) {
+            return null;
+        }
+
+        LocalDate today = LocalDate.now();
+        RateTimeSeries cached = cachedPairSeries(fromCurrency, toCurrency, startDate, today);
+        if (cached != null) {
+            return cached;
+        }
+
+        loadUsdHistory(currencies, startDate, endDate, today);
+        return cachePairSeries(fromCurrency, toCurrency, startDate, endDate, today);
+    }
+
+    /**
+     * The pair's incrementally updated forecaster when the series is the cached one, otherwise
+     * one fitted to the series
+     */
+    private RateForecaster pairForecaster(String fromCurrency, String toCurrency, RateTimeSeries series) {
+        PairSeries cached = pairSeries.get(fromCurrency + "/" + toCurrency);
+        return cached != null && cached.series == series ? cached.forecaster : series.forecaster();
+    }
+
+    private RateTimeSeries cachedPairSeries(String fromCurrency, String toCurrency, LocalDate startDate, LocalDate today) {
+        PairSeries cached = pairSeries.get(fromCurrency + "/" + toCurrency);
+        if (cached != null && today.equals(cached.loadedOn) && !startDate.isBefore(cached.coveredFrom)) {
+            return cached.series;
+        }
+        return null;
+    }
+
+    /**
+     * Load stored USD-base rows (and aggregates older than the daily retention floor) for the
+     * currencies into the book, in one query per table
+     */
+    private void loadUsdHistory(Set<String> currencies, LocalDate startDate, LocalDate endDate, LocalDate today) {
+        usdRateBook.load(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+            BASE_CURRENCY, currencies, startDate, endDate));
+        LocalDate dailyFloor = ExchangeRateCompactionService.dailyRetentionFloor(today);
+        if (startDate.isBefore(dailyFloor)) {
+            for (ExchangeRateAggregate aggregate : exchangeRateAggregateRepository.findByFromCurrencyAndToCurrencyInAndPeriodEndBetween(
+                    BASE_CURRENCY, currencies, startDate, dailyFloor.minusDays(1))) {
+                usdRateBook.put(aggregate.getPeriodEnd(), aggregate.getToCurrency(), aggregate.getCloseRate().doubleValue());
+            }
+        }
+    }
+
+    /**
+     * Derive the pair's series from the book and cache it; null (and not cached) if empty.
+     * The pair's forecaster is carried over from the previous load and caught up with the new
+     * days, and only refitted if it cannot be.
+     */
+    private RateTimeSeries cachePairSeries(String fromCurrency, String toCurrency, LocalDate startDate,
+                                           LocalDate endDate, LocalDate today) {
+        List<ExchangeRate> derived = usdRateBook.crossSeries(fromCurrency, toCurrency, startDate, endDate);
+        if (derived.isEmpty()) {
+            return null;
+        }
+
+        String key = fromCurrency + "/" + toCurrency;
+        RateTimeSeries series = RateTimeSeries.of(derived);
+        PairSeries previous = pairSeries.get(key);
+        RateForecaster forecaster = previous != null && series.catchUp(previous.forecaster)
+            ? previous.forecaster
+            : series.forecaster();
+        pairSeries.put(key, new PairSeries(fromCurrency, toCurrency, series, startDate, today, forecaster));
+        return series;
+    }
     
     /**
-     * Fetch live exchange rates using USD as base currency (free tier) and calculate cross rates
+     * Make sure today's USD-base snapshot covers the currencies. The scheduled poller normally
+     * has it stored already; otherwise latest.json is fetched once for every currency.
      */
     @Transactional
-    void fetchAndStoreLiveRatesUSD(String fromCurrency, String toCurrency) throws Exception {
-        if (apiKey == null || apiKey.isEmpty()) {
+    void fetchAndStoreLiveRatesUSD(String... currencies) throws Exception {
+        if (!isApiConfigured()) {
+            throw new IllegalStateException("OpenExchangeRates API key not configured");
+        }
+
+        LocalDate latest = latestRateDate;
+        if (LocalDate.now().equals(latestFetchedOn) && latest != null
+                && usdRateBook.hasRates(latest, currencies)) {
+            logger.debug("Latest USD rates for {} already fetched today", latest);
+            return;
+        }
+
+        pollLatestSnapshot();
+        for (String currency : UsdRateBook.nonBaseCurrencies(currencies)) {
+            if (!usdRateBook.hasRates(latestRateDate, currency)) {
+                throw new RuntimeException("Currency " + currency + " not found in API response");
+            }
+        }
+    }
+
+    /**
+     * from -> to as of a date from the in-memory USD-base snapshots, triangulated through USD:
+     * the latest snapshot on or before the date, at most RATE_AS_OF_LOOKBACK_DAYS older. Future
+     * dates use today's snapshot. The book is warmed from the stored ANALYSIS_MONTHS of snapshots
+     * on first use, so conversions do not query the database; older dates are loaded on demand.
+     * Dates whose daily rows have been compacted use the average of the covering weekly or monthly
+     * aggregate. Returns null if neither covers both currencies. Whatever those database lookups
+     * find, misses included, is remembered until new snapshots are stored.
+     */
+    public UsdRateBook.DatedRate rateAsOf(String fromCurrency, String toCurrency, LocalDate date) {
+        LocalDate today = LocalDate.now();
+        LocalDate asOf = date.isAfter(today) ? today : date;
+        if (fromCurrency.equals(toCurrency)) {
+            return new UsdRateBook.DatedRate(asOf, BigDecimal.ONE);
+        }
+
+        warmUsdRateBook(today);
+        UsdRateBook.DatedRate rate = usdRateBook.crossRateAsOf(fromCurrency, toCurrency, asOf, RATE_AS_OF_LOOKBACK_DAYS);
+        Set<String> currencies = UsdRateBook.nonBaseCurrencies(fromCurrency, toCurrency);
+        boolean olderThanBook = asOf.isBefore(today.minusMonths(ANALYSIS_MONTHS));
+        boolean compacted = asOf.isBefore(ExchangeRateCompactionService.dailyRetentionFloor(today));
+        if (rate != null || currencies.isEmpty() || !(olderThanBook || compacted)) {
+            return rate;
+        }
+
+        String key = fromCurrency + "/" + toCurrency + "/" + asOf;
+        Optional<UsdRateBook.DatedRate> remembered = rememberedRates.get(key);
+        if (remembered != null) {
+            return remembered.orElse(null);
+        }
+
+        if (olderThanBook) {
+            usdRateBook.load(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                BASE_CURRENCY, currencies, asOf.minusDays(RATE_AS_OF_LOOKBACK_DAYS), asOf));
+            rate = usdRateBook.crossRateAsOf(fromCurrency, toCurrency, asOf, RATE_AS_OF_LOOKBACK_DAYS);
+        }
+        if (rate == null && compacted) {
+            rate = aggregateRateAsOf(fromCurrency, toCurrency, currencies, asOf);
+        }
+
+        if (rememberedRates.size() >= MAX_REMEMBERED_RATES) {
+            rememberedRates.clear();
+        }
+        rememberedRates.put(key, Optional.ofNullable(rate));
+        return rate;
+    }
+
+    /**
+     * from -> to from the average USD rates of the compacted periods containing the date,
+     * preferring a week over a month, dated at the start of the period. Null unless every
+     * currency has a covering aggregate.
+     */
+    private UsdRateBook.DatedRate aggregateRateAsOf(String fromCurrency, String toCurrency,
+                                                    Set<String> currencies, LocalDate date) {
+        Map<String, ExchangeRateAggregate> covering = new HashMap<>();
+        for (ExchangeRateAggregate aggregate : exchangeRateAggregateRepository.findByFromCurrencyAndToCurrencyInCoveringDate(
+                BASE_CURRENCY, currencies, date)) {
+            covering.merge(aggregate.getToCurrency(), aggregate, (current, candidate) ->
+                candidate.getResolution() == ExchangeRateAggregate.Resolution.WEEKLY ? candidate : current);
+        }
+        if (!covering.keySet().containsAll(currencies)) {
+            return null;
+        }
+
+        UsdRateBook periodRates = new UsdRateBook();
+        LocalDate periodStart = null;
+        for (ExchangeRateAggregate aggregate : covering.values()) {
+            periodRates.put(date, aggregate.getToCurrency(), aggregate.getAverageRate().doubleValue());
+            if (periodStart == null || aggregate.getPeriodStart().isAfter(periodStart)) {
+                periodStart = aggregate.getPeriodStart();
+            }
+        }
+        BigDecimal rate = periodRates.crossRate(fromCurrency, toCurrency, date);
+        return rate != null ? new UsdRateBook.DatedRate(periodStart, rate) : null;
+    }
+
+    private void warmUsdRateBook(LocalDate today) {
+        if (usdRateBookWarmed) {
+            return;
+        }
+        synchronized (usdRateBook) {
+            if (!usdRateBookWarmed) {
+                usdRateBook.load(exchangeRateRepository.findByFromCurrencyAndRateDateBetween(
+                    BASE_CURRENCY, today.minusMonths(ANALYSIS_MONTHS), today));
+                usdRateBookWarmed = true;
+                logger.info("Loaded {} days of USD-base rates for conversions", usdRateBook.dayCount());
+            }
+        }
+    }
+
+    public boolean isApiConfigured() {
+        return apiKey != null && !apiKey.isEmpty();
+    }
+
+    /**
+     * Fetch latest.json for every currency (USD base, free tier), store the snapshot in one batch
+     * and publish it to the in-memory rate book and pair series. Returns the number of currencies.
+     */
+    public int pollLatestSnapshot() throws Exception {
+        if (!isApiConfigured()) {
             throw new IllegalStateException("OpenExchangeRates API key not configured");
         }
         
-        // Don't specify base currency for free tier - it defaults to USD
-        String url = String.format("%s/latest.json?app_id=%s&symbols=%s,%s",
-                                   apiUrl, apiKey, fromCurrency, toCurrency);
+        if (!outboundHttpClients.isAvailable(OutboundHttpClients.Destination.EXCHANGE_RATES)) {
+            throw new IllegalStateException("OpenExchangeRates circuit open");
+        }
+
+        // Don't specify base currency or symbols - USD base, every currency in one response
+        String url = String.format("%s/latest.json?app_id=%s", apiUrl, apiKey);
         
         logger.debug("Fetching exchange rates from: {}", url.replace(apiKey, "***"));
         
-        String response = restTemplate.getForObject(url, String.class);
+        String response = outboundHttpClients.restTemplate(OutboundHttpClients.Destination.EXCHANGE_RATES)
+                .getForObject(url, String.class);
         JsonNode root = objectMapper.readTree(response);
         
         // Check for API errors
@@ -200,192 +780,245 @@ public class ExchangeRateService {
         }
         
         JsonNode rates = root.get("rates");
-        if (rates != null) {
-            // Store USD rates for both currencies
-            if (rates.has(fromCurrency) && !fromCurrency.equals("USD")) {
-                BigDecimal usdToFromRate = BigDecimal.valueOf(rates.get(fromCurrency).asDouble());
-                storeExchangeRate(BASE_CURRENCY, fromCurrency, usdToFromRate, rateDate);
-            }
+        if (rates == null) {
+            throw new RuntimeException("No rates data in API response");
+        }
 
-            if (rates.has(toCurrency) && !toCurrency.equals("USD")) {
-                BigDecimal usdToToRate = BigDecimal.valueOf(rates.get(toCurrency).asDouble());
-                storeExchangeRate(BASE_CURRENCY, toCurrency, usdToToRate, rateDate);
-            }
+        Map<String, BigDecimal> usdRates = parseUsdRates(rates);
+        storeUsdRates(Map.of(rateDate, usdRates));
+        latestRateDate = rateDate;
+        latestFetchedOn = LocalDate.now();
+        logger.info("Stored {} USD-base exchange rates for {}", usdRates.size(), rateDate);
+        return usdRates.size();
+    }
 
-            // Calculate and store cross rate (from -> to)
-            BigDecimal crossRate;
-            if (fromCurrency.equals("USD")) {
-                // USD to target currency
-                if (rates.has(toCurrency)) {
-                    crossRate = BigDecimal.valueOf(rates.get(toCurrency).asDouble());
-                } else {
-                    throw new RuntimeException("Target currency " + toCurrency + " not found in API response");
-                }
-            } else if (toCurrency.equals("USD")) {
-                // Source currency to USD (inverse of USD to source)
-                if (rates.has(fromCurrency)) {
-                    BigDecimal usdToFromRate = BigDecimal.valueOf(rates.get(fromCurrency).asDouble());
-                    crossRate = BigDecimal.ONE.divide(usdToFromRate, 10, RoundingMode.HALF_UP);
-                } else {
-                    throw new RuntimeException("Source currency " + fromCurrency + " not found in API response");
-                }
-            } else {
-                // Cross rate calculation: both currencies are non-USD
-                if (rates.has(fromCurrency) && rates.has(toCurrency)) {
-                    BigDecimal usdToFromRate = BigDecimal.valueOf(rates.get(fromCurrency).asDouble());
-                    BigDecimal usdToToRate = BigDecimal.valueOf(rates.get(toCurrency).asDouble());
-
-                    // Cross rate = (USD -> toCurrency) / (USD -> fromCurrency)
-                    crossRate = usdToToRate.divide(usdToFromRate, 10, RoundingMode.HALF_UP);
-                } else {
-                    throw new RuntimeException("One or both currencies not found in API response: " + fromCurrency + ", " + toCurrency);
-                }
+    /**
+     * Backfill weekly historical USD-base rates for the past 6 months from the API.
+     * A date is missing if any of the currencies has no USD rate stored for it.
+     */
+    void fetchHistoricalRates(String... requestedCurrencies) throws Exception {
+        if (!isApiConfigured()) {
+            throw new IllegalStateException("OpenExchangeRates API key not configured");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusMonths(ANALYSIS_MONTHS);
+
+        Set<String> currencies = UsdRateBook.nonBaseCurrencies(requestedCurrencies);
+        if (currencies.isEmpty()) {
+            return;
+        }
+        Set<LocalDate> completeDates = new HashSet<>(exchangeRateRepository.findRateDatesCoveringCurrencies(
+            BASE_CURRENCY, currencies, currencies.size(), startDate, today));
+
+        // Weekly intervals to reduce API calls
+        List<LocalDate> missingDates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(today); date = date.plusWeeks(1)) {
+            if (!completeDates.contains(date)) {
+                missingDates.add(date);
             }
+        }
 
-            storeExchangeRate(fromCurrency, toCurrency, crossRate, rateDate);
-            logger.info("Stored cross exchange rate: {} -> {} = {} on {}",
-                       fromCurrency, toCurrency, crossRate, rateDate);
-        } else {
-            throw new RuntimeException("No rates data in API response");
+        if (missingDates.isEmpty()) {
+            logger.debug("Historical rates for {} already complete", currencies);
+            return;
         }
+
+        // Virtual threads do not inherit the request deadline, so bound the wait here
+        Duration remaining = RequestDeadline.remaining();
+        fetchHistoricalDates(missingDates, remaining != null ? remaining : HISTORICAL_FETCH_TIMEOUT,
+                             String.join(", ", currencies));
     }
 
     /**
-     * Fetch historical exchange rates for the past 6 months from the API
-     * This provides the historical trend data for analysis
+     * Startup backfill: fetch every day of the weekly 6-month analysis grid, plus each of the
+     * last STARTUP_BACKFILL_DAYS days, that has no USD-base snapshot stored. Returns the number
+     * of days stored.
      */
-    @Transactional
-    void fetchHistoricalRates(String fromCurrency, String toCurrency) throws Exception {
-        if (apiKey == null || apiKey.isEmpty()) {
+    public int backfillMissingSnapshots() {
+        if (!isApiConfigured()) {
             throw new IllegalStateException("OpenExchangeRates API key not configured");
         }
 
         LocalDate today = LocalDate.now();
         LocalDate startDate = today.minusMonths(ANALYSIS_MONTHS);
+        Set<LocalDate> storedDates = new HashSet<>(exchangeRateRepository
+            .findDistinctRateDatesByFromCurrencyBetween(BASE_CURRENCY, startDate, today));
 
-        logger.info("Fetching historical rates for {} -> {} from {} to {}",
-                   fromCurrency, toCurrency, startDate, today);
+        Set<LocalDate> wanted = new TreeSet<>();
+        for (LocalDate date = startDate; !date.isAfter(today); date = date.plusWeeks(1)) {
+            wanted.add(date);
+        }
+        for (int i = 0; i < STARTUP_BACKFILL_DAYS; i++) {
+            wanted.add(today.minusDays(i));
+        }
+        wanted.removeAll(storedDates);
 
-        int dataPointsFetched = 0;
+        if (wanted.isEmpty()) {
+            logger.info("Exchange rate snapshots already complete from {} to {}", startDate, today);
+            return 0;
+        }
+        return fetchHistoricalDates(new ArrayList<>(wanted), STARTUP_BACKFILL_TIMEOUT, "startup backfill");
+    }
 
-        // Fetch historical data at weekly intervals to reduce API calls
-        for (LocalDate date = startDate; !date.isAfter(today); date = date.plusWeeks(1)) {
-            try {
-                // Check if we already have data for this date
-                Optional<ExchangeRate> existing = exchangeRateRepository
-                    .findByFromCurrencyAndToCurrencyAndRateDate(fromCurrency, toCurrency, date);
-
-                if (existing.isPresent()) {
-                    logger.debug("Historical rate already exists for {}-{} on {}",
-                               fromCurrency, toCurrency, date);
-                    continue;
+    /**
+     * Fetch the given dates concurrently on virtual threads behind the plan's token bucket and
+     * save them in one batch. Nothing here holds a transaction or a DB connection while waiting
+     * on the API. Returns the number of dates stored.
+     */
+    private int fetchHistoricalDates(List<LocalDate> missingDates, Duration timeout, String label) {
+        logger.info("Fetching {} missing historical dates for {} from {} to {}",
+                   missingDates.size(), label, missingDates.get(0), missingDates.get(missingDates.size() - 1));
+
+        long deadlineNanos = System.nanoTime() + timeout.toNanos();
+
+        Map<LocalDate, Map<String, BigDecimal>> fetchedRates = new HashMap<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<Map<String, BigDecimal>>> futures = new ArrayList<>(missingDates.size());
+            for (LocalDate date : missingDates) {
+                futures.add(executor.submit(RequestDeadline.propagate(() -> fetchHistoricalUsdRates(date))));
+            }
+
+            for (int i = 0; i < futures.size(); i++) {
+                try {
+                    Map<String, BigDecimal> usdRates = futures.get(i).get(Math.max(0, deadlineNanos - System.nanoTime()), TimeUnit.NANOSECONDS);
+                    if (usdRates != null && !usdRates.isEmpty()) {
+                        fetchedRates.put(missingDates.get(i), usdRates);
+                    }
+                } catch (ExecutionException e) {
+                    logger.warn("Failed to fetch historical rates for date {}: {}",
+                               missingDates.get(i), e.getCause().getMessage());
+                } catch (TimeoutException e) {
+                    logger.warn("Deadline reached fetching historical rates for {}; keeping {} of {} dates",
+                               label, fetchedRates.size(), missingDates.size());
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
                 }
+            }
+        } finally {
+            // Abandon anything still in flight rather than waiting on it
+            executor.shutdownNow();
+        }
 
-                // Fetch historical data for this specific date
-                String dateStr = date.toString(); // Format: YYYY-MM-DD
-                String url = String.format("%s/historical/%s.json?app_id=%s&symbols=%s,%s",
-                                         apiUrl, dateStr, apiKey, fromCurrency, toCurrency);
+        if (!fetchedRates.isEmpty()) {
+            storeUsdRates(fetchedRates);
+        }
 
-                logger.debug("Fetching historical rate for date: {}", dateStr);
+        logger.info("Successfully fetched {} historical dates for {}", fetchedRates.size(), label);
+        return fetchedRates.size();
+    }
 
-                String response = restTemplate.getForObject(url, String.class);
-                JsonNode root = objectMapper.readTree(response);
+    /**
+     * Fetch every USD-base rate for one historical date, waiting for a token first.
+     * Returns null if the date has no usable rates.
+     */
+    private Map<String, BigDecimal> fetchHistoricalUsdRates(LocalDate date) throws Exception {
+        if (!outboundHttpClients.isAvailable(OutboundHttpClients.Destination.EXCHANGE_RATES)) {
+            logger.debug("Skipping historical rates for {}: rates API circuit open", date);
+            return null;
+        }
+        historicalRateLimiter.acquire();
 
-                // Check for API errors
-                if (root.has("error") && root.get("error").asBoolean()) {
-                    String errorMessage = root.has("description") ?
-                        root.get("description").asText() : "Unknown API error";
-                    logger.warn("API error for date {}: {}", dateStr, errorMessage);
-                    continue; // Skip this date and continue with others
-                }
+        String dateStr = date.toString(); // Format: YYYY-MM-DD
+        String url = String.format("%s/historical/%s.json?app_id=%s", apiUrl, dateStr, apiKey);
 
-                JsonNode rates = root.get("rates");
-                if (rates != null) {
-                    // Calculate and store the exchange rate for this historical date
-                    BigDecimal crossRate;
-                    if (fromCurrency.equals("USD")) {
-                        if (rates.has(toCurrency)) {
-                            crossRate = BigDecimal.valueOf(rates.get(toCurrency).asDouble());
-                        } else {
-                            logger.warn("Target currency {} not found for date {}", toCurrency, dateStr);
-                            continue;
-                        }
-                    } else if (toCurrency.equals("USD")) {
-                        if (rates.has(fromCurrency)) {
-                            BigDecimal usdToFromRate = BigDecimal.valueOf(rates.get(fromCurrency).asDouble());
-                            crossRate = BigDecimal.ONE.divide(usdToFromRate, 10, RoundingMode.HALF_UP);
-                        } else {
-                            logger.warn("Source currency {} not found for date {}", fromCurrency, dateStr);
-                            continue;
-                        }
-                    } else {
-                        // Cross rate calculation
-                        if (rates.has(fromCurrency) && rates.has(toCurrency)) {
-                            BigDecimal usdToFromRate = BigDecimal.valueOf(rates.get(fromCurrency).asDouble());
-                            BigDecimal usdToToRate = BigDecimal.valueOf(rates.get(toCurrency).asDouble());
-                            crossRate = usdToToRate.divide(usdToFromRate, 10, RoundingMode.HALF_UP);
-                        } else {
-                            logger.warn("Currencies not found in response for date {}", dateStr);
-                            continue;
-                        }
-                    }
+        logger.debug("Fetching historical rates for date: {}", dateStr);
 
-                    storeExchangeRate(fromCurrency, toCurrency, crossRate, date);
-                    dataPointsFetched++;
+        String response = outboundHttpClients.restTemplate(OutboundHttpClients.Destination.EXCHANGE_RATES)
+                .getForObject(url, String.class);
+        JsonNode root = objectMapper.readTree(response);
 
-                    // Add a small delay to avoid hitting API rate limits
-                    Thread.sleep(100); // 100ms delay between requests
-                }
-            } catch (Exception e) {
-                logger.warn("Failed to fetch historical rate for date {}: {}", date, e.getMessage());
-                // Continue with other dates even if one fails
-            }
+        // Check for API errors
+        if (root.has("error") && root.get("error").asBoolean()) {
+            String errorMessage = root.has("description") ?
+                root.get("description").asText() : "Unknown API error";
+            logger.warn("API error for date {}: {}", dateStr, errorMessage);
+            return null;
         }
 
-        logger.info("Successfully fetched {} historical data points for {} -> {}",
-                   dataPointsFetched, fromCurrency, toCurrency);
+        JsonNode rates = root.get("rates");
+        return rates != null ? parseUsdRates(rates) : null;
     }
 
     /**
-     * Helper method to store exchange rate
+     * USD -> currency rates from a USD-base "rates" object, skipping USD itself and non-positive values
      */
-    private void storeExchangeRate(String fromCurrency, String toCurrency, BigDecimal rate, LocalDate rateDate) {
-        // Check if already exists
-        Optional<ExchangeRate> existing = exchangeRateRepository
-            .findByFromCurrencyAndToCurrencyAndRateDate(fromCurrency, toCurrency, rateDate);
+    private Map<String, BigDecimal> parseUsdRates(JsonNode rates) {
+        Map<String, BigDecimal> usdRates = new HashMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = rates.fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            double rate = field.getValue().asDouble();
+            if (!BASE_CURRENCY.equals(field.getKey()) && rate > 0) {
+                usdRates.put(field.getKey(), BigDecimal.valueOf(rate));
+            }
+        }
+        return usdRates;
+    }
 
-        if (existing.isPresent()) {
-            // Update existing
-            ExchangeRate existingRate = existing.get();
-            existingRate.setRate(rate);
-            exchangeRateRepository.save(existingRate);
-        } else {
-            // Save new
-            ExchangeRate exchangeRate = new ExchangeRate(fromCurrency, toCurrency, rate, rateDate);
-            exchangeRateRepository.save(exchangeRate);
+    /**
+     * Store USD-base rates per date with one batched upsert, then publish them to the in-memory book
+     */
+    private void storeUsdRates(Map<LocalDate, Map<String, BigDecimal>> usdRatesByDate) {
+        List<ExchangeRate> rows = new ArrayList<>();
+        usdRatesByDate.forEach((date, usdRates) -> usdRates.forEach((currency, rate) ->
+            rows.add(new ExchangeRate(BASE_CURRENCY, currency, rate, date))));
+
+        if (!rows.isEmpty()) {
+            exchangeRateRepository.upsertAll(rows);
+        }
+
+        // Publish only once stored; each day's vector is swapped in under the book's lock
+        usdRatesByDate.forEach((date, usdRates) -> {
+            usdRateBook.putAll(date, usdRates);
+            feedPairSeries(date);
+        });
+        // A backfilled day can answer lookups that missed before
+        if (!usdRatesByDate.isEmpty()) {
+            rememberedRates.clear();
         }
     }
 
     /**
-     * Ensure fallback rates exist when API is unavailable
+     * Push a newly stored day into every cached pair series and its forecaster. Only a day older
+     * than the forecaster's latest observation (a backfill) refits it.
      */
-    @Transactional
-    void ensureFallbackRates(String fromCurrency, String toCurrency) {
-        // Check if we have any data for this currency pair
-        List<ExchangeRate> existingRates = exchangeRateRepository
-            .findByFromCurrencyAndToCurrency(fromCurrency, toCurrency);
+    private void feedPairSeries(LocalDate date) {
+        for (PairSeries cached : pairSeries.values()) {
+            BigDecimal crossRate = usdRateBook.crossRate(cached.fromCurrency, cached.toCurrency, date);
+            if (crossRate != null) {
+                cached.series.put(date, crossRate.doubleValue());
+                if (!cached.forecaster.observe(date, crossRate.doubleValue())) {
+                    cached.forecaster = cached.series.forecaster();
+                }
+            }
+        }
+    }
 
-        if (existingRates.isEmpty()) {
-            logger.info("No existing data found, creating fallback rates for {} -> {}", fromCurrency, toCurrency);
+    /**
+     * Ensure fallback USD-base rates exist when API is unavailable
+     */
+    @Transactional
+    void ensureFallbackRates(String... currencies) {
+        LocalDate today = LocalDate.now();
+        LocalDate startDate = today.minusMonths(ANALYSIS_MONTHS);
+        Map<String, BigDecimal> fallbackRates = getFallbackRates();
+        List<ExchangeRate> created = new ArrayList<>();
 
-            // Create some default fallback rates for common currency pairs
-            Map<String, BigDecimal> fallbackRates = getFallbackRates();
-            String pairKey = fromCurrency + toCurrency;
+        for (String currency : UsdRateBook.nonBaseCurrencies(currencies)) {
+            // Check if we have any USD-base data for this currency
+            if (exchangeRateRepository.countByFromCurrencyAndToCurrencyAndRateDateBetween(
+                    BASE_CURRENCY, currency, startDate, today) > 0) {
+                continue;
+            }
 
-            BigDecimal fallbackRate = fallbackRates.getOrDefault(pairKey, BigDecimal.ONE);
+            logger.info("No existing data found, creating fallback rates for {} -> {}", BASE_CURRENCY, currency);
+            BigDecimal fallbackRate = fallbackRates.getOrDefault(currency, BigDecimal.ONE);
 
             // Create historical data for the past 6 months
-            LocalDate today = LocalDate.now();
             for (int i = 0; i < ANALYSIS_MONTHS * 30; i += 7) { // Weekly data points
                 LocalDate date = today.minusDays(i);
 
@@ -394,46 +1027,31 @@ public class ExchangeRateService {
                 BigDecimal adjustedRate = fallbackRate.multiply(BigDecimal.valueOf(variation))
                     .setScale(6, RoundingMode.HALF_UP);
 
-                ExchangeRate rate = new ExchangeRate(fromCurrency, toCurrency, adjustedRate, date);
-                exchangeRateRepository.save(rate);
+                created.add(new ExchangeRate(BASE_CURRENCY, currency, adjustedRate, date));
             }
-            
-            logger.info("Created {} fallback exchange rates for {} -> {}",
-                       ANALYSIS_MONTHS * 4, fromCurrency, toCurrency);
+        }
+
+        if (!created.isEmpty()) {
+            exchangeRateRepository.upsertAll(created);
+            logger.info("Created {} fallback exchange rates for {}",
+                       created.size(), String.join(", ", currencies));
         }
     }
     
     /**
-     * Get fallback exchange rates for common currency pairs
+     * Get fallback USD -> currency rates for common currencies
      */
     private Map<String, BigDecimal> getFallbackRates() {
         Map<String, BigDecimal> rates = new HashMap<>();
 
-        // Common currency pairs (approximate rates as of 2024)
-        rates.put("USDEUR", new BigDecimal("0.85"));
-        rates.put("EURUSD", new BigDecimal("1.18"));
-        rates.put("USDGBP", new BigDecimal("0.79"));
-        rates.put("GBPUSD", new BigDecimal("1.27"));
-        rates.put("USDJPY", new BigDecimal("110.0"));
-        rates.put("JPYUSD", new BigDecimal("0.009"));
-        rates.put("USDCNY", new BigDecimal("7.2"));
-        rates.put("CNYUSD", new BigDecimal("0.139"));
-        rates.put("USDSGD", new BigDecimal("1.35"));
-        rates.put("SGDUSD", new BigDecimal("0.74"));
-        rates.put("USDCAD", new BigDecimal("1.25"));
-        rates.put("CADUSD", new BigDecimal("0.80"));
-        rates.put("USDAUD", new BigDecimal("1.32"));
-        rates.put("AUDUSD", new BigDecimal("0.76"));
-
-        // Cross rates
-        rates.put("EURSGD", new BigDecimal("1.59"));
-        rates.put("SGDEUR", new BigDecimal("0.63"));
-        rates.put("GBPSGD", new BigDecimal("1.72"));
-        rates.put("SGDGBP", new BigDecimal("0.58"));
-        rates.put("JPYSGD", new BigDecimal("0.012"));
-        rates.put("SGDJPY", new BigDecimal("81.5"));
-        rates.put("CNYSGD", new BigDecimal("0.188"));
-        rates.put("SGDCNY", new BigDecimal("5.33"));
+        // Approximate USD rates as of 2024; cross rates are derived from these
+        rates.put("EUR", new BigDecimal("0.85"));
+        rates.put("GBP", new BigDecimal("0.79"));
+        rates.put("JPY", new BigDecimal("110.0"));
+        rates.put("CNY", new BigDecimal("7.2"));
+        rates.put("SGD", new BigDecimal("1.35"));
+        rates.put("CAD", new BigDecimal("1.25"));
+        rates.put("AUD", new BigDecimal("1.32"));
 
         return rates;
     }
@@ -477,74 +1095,39 @@ public class ExchangeRateService {
     }
 
     /**
-     * Perform trend analysis on historical rates
+     * Perform trend analysis on the window statistics
      */
-    private TrendAnalysisResult performTrendAnalysis(List<ExchangeRate> rates) {
-        if (rates.isEmpty()) {
+    private TrendAnalysisResult performTrendAnalysis(RateTimeSeries.WindowStats stats) {
+        if (stats == null) {
             throw new RuntimeException("No historical data available for trend analysis");
         }
         
-        // Calculate statistics
-        BigDecimal sum = BigDecimal.ZERO;
-        BigDecimal min = rates.get(0).getRate();
-        LocalDate minDate = rates.get(0).getRateDate();
-        BigDecimal max = rates.get(0).getRate();
-        LocalDate maxDate = rates.get(0).getRateDate();
-        
-        for (ExchangeRate rate : rates) {
-            BigDecimal currentRate = rate.getRate();
-            sum = sum.add(currentRate);
-            
-            if (currentRate.compareTo(min) < 0) {
-                min = currentRate;
-                minDate = rate.getRateDate();
-            }
-            
-            if (currentRate.compareTo(max) > 0) {
-                max = currentRate;
-                maxDate = rate.getRateDate();
-            }
-        }
-        
-        BigDecimal average = sum.divide(BigDecimal.valueOf(rates.size()), 10, RoundingMode.HALF_UP);
-        
         // Determine trend using moving average comparison
-        String trend = determineTrend(rates);
+        String trend = determineTrend(stats);
         
-        return new TrendAnalysisResult(average, min, minDate, max, maxDate, trend);
+        return new TrendAnalysisResult(
+            BigDecimal.valueOf(stats.getAverage()).setScale(10, RoundingMode.HALF_UP),
+            BigDecimal.valueOf(stats.getMin()), stats.getMinDate(),
+            BigDecimal.valueOf(stats.getMax()), stats.getMaxDate(),
+            BigDecimal.valueOf(stats.getLatest()), trend);
     }
     
     /**
      * Determine trend direction based on moving averages
      */
-    private String determineTrend(List<ExchangeRate> rates) {
-        if (rates.size() < 10) {
+    private String determineTrend(RateTimeSeries.WindowStats stats) {
+        if (stats.getCount() < 10) {
             return "stable";
         }
         
         // Compare first half average with second half average
-        int midpoint = rates.size() / 2;
-        BigDecimal firstHalfSum = BigDecimal.ZERO;
-        BigDecimal secondHalfSum = BigDecimal.ZERO;
+        double firstHalfAvg = stats.getFirstHalfAverage();
+        double secondHalfAvg = stats.getSecondHalfAverage();
+        double percentChange = (secondHalfAvg - firstHalfAvg) / firstHalfAvg * 100;
         
-        for (int i = 0; i < midpoint; i++) {
-            firstHalfSum = firstHalfSum.add(rates.get(i).getRate());
-        }
-        
-        for (int i = midpoint; i < rates.size(); i++) {
-            secondHalfSum = secondHalfSum.add(rates.get(i).getRate());
-        }
-        
-        BigDecimal firstHalfAvg = firstHalfSum.divide(BigDecimal.valueOf(midpoint), 10, RoundingMode.HALF_UP);
-        BigDecimal secondHalfAvg = secondHalfSum.divide(BigDecimal.valueOf(rates.size() - midpoint), 10, RoundingMode.HALF_UP);
-        
-        BigDecimal percentChange = secondHalfAvg.subtract(firstHalfAvg)
-            .divide(firstHalfAvg, 10, RoundingMode.HALF_UP)
-            .multiply(BigDecimal.valueOf(100));
-        
-        if (percentChange.compareTo(BigDecimal.valueOf(2)) > 0) {
+        if (percentChange > 2) {
             return "increasing";
-        } else if (percentChange.compareTo(BigDecimal.valueOf(-2)) < 0) {
+        } else if (percentChange < -2) {
             return "decreasing";
         } else {
             return "stable";
@@ -552,66 +1135,186 @@ public class ExchangeRateService {
     }
     
     /**
-     * Generate purchase recommendation based on trend analysis
+     * Generate purchase recommendation based on trend analysis. The trend picks the purchase
+     * window; the forecast trend picks its cheaper end (the forecast is monotonic, so the lowest
+     * forecast rate in a window is always its first or last day).
      */
-    private RecommendationResult generateRecommendation(List<ExchangeRate> rates, TrendAnalysisResult trend) {
-        LocalDate today = LocalDate.now();
+    private RecommendationResult generateRecommendation(TrendAnalysisResult trend, RateIndicators.Snapshot indicators,
+                                                        RateForecaster forecaster, LocalDate today, int analysisMonths) {
+        RateForecaster.Forecast forecast;
         LocalDate recommendedDate;
         String explanation;
         
         // Get current rate (most recent)
-        ExchangeRate latestRate = rates.get(rates.size() - 1);
-        BigDecimal currentRate = latestRate.getRate();
+        BigDecimal currentRate = trend.latestRate;
 
         if ("decreasing".equals(trend.trend)) {
             // Rate is decreasing - predict it will continue to decrease
             // Recommend waiting 2-4 weeks for better rates
-            recommendedDate = today.plusWeeks(3);
+            forecast = lowestForecast(forecaster, today, WAIT_FIRST_DAY, WAIT_LAST_DAY);
+            recommendedDate = forecast != null ? forecast.getDate() : today.plusWeeks(3);
 
             double changeRate = calculatePercentageChange(trend.maxRate, currentRate);
             explanation = String.format(
-                "Exchange rate is trending downward (%.2f%% decrease over 6 months). " +
+                "Exchange rate is trending downward (%.2f%% decrease over %d months). " +
                 "The rate is expected to continue decreasing. Recommended action: WAIT until around %s " +
                 "for potentially better rates. Current rate: %.4f, Historical low: %.4f.",
                 changeRate,
+                analysisMonths,
                 recommendedDate,
                 currentRate,
                 trend.minRate
             );
+            if (forecast != null && forecast.getRate() >= currentRate.doubleValue()) {
+                explanation += String.format(
+                    " However, the forecast does not expect a lower rate in the next 2-4 weeks (%.4f by %s), " +
+                    "so waiting may not pay off.",
+                    forecast.getRate(),
+                    forecast.getDate()
+                );
+            }
         } else if ("increasing".equals(trend.trend)) {
             // Rate is increasing - recommend buying soon
             // Suggest within the next week
-            recommendedDate = today.plusDays(3);
+            forecast = lowestForecast(forecaster, today, 1, BUY_SOON_LAST_DAY);
+            recommendedDate = forecast != null ? forecast.getDate() : today.plusDays(3);
 
             double changeRate = calculatePercentageChange(trend.minRate, currentRate);
             explanation = String.format(
-                "Exchange rate is trending upward (%.2f%% increase over 6 months). " +
+                "Exchange rate is trending upward (%.2f%% increase over %d months). " +
                 "The rate is expected to continue rising. Recommended action: PURCHASE SOON by %s " +
                 "to avoid higher costs. Current rate: %.4f, Historical low: %.4f (on %s).",
                 changeRate,
+                analysisMonths,
                 recommendedDate,
                 currentRate,
                 trend.minRate,
                 trend.minRateDate
             );
+            if (forecast != null && forecast.getRate() < currentRate.doubleValue()) {
+                explanation += String.format(
+                    " However, the forecast expects the rate to ease to %.4f by %s, so the rise may be levelling off.",
+                    forecast.getRate(),
+                    forecast.getDate()
+                );
+            }
         } else {
             // Rate is stable - can purchase anytime in the near future
-            recommendedDate = today.plusWeeks(1);
+            forecast = lowestForecast(forecaster, today, 1, STABLE_LAST_DAY);
+            recommendedDate = forecast != null ? forecast.getDate() : today.plusWeeks(1);
 
             double volatility = calculatePercentageChange(trend.minRate, trend.maxRate);
             explanation = String.format(
-                "Exchange rate is relatively stable (%.2f%% volatility over 6 months). " +
-                "No significant trend detected. Recommended action: PURCHASE ANYTIME within the next 1-2 weeks. " +
-                "Current rate: %.4f, 6-month average: %.4f.",
+                "Exchange rate is relatively stable (%.2f%% volatility over %d months). " +
+                "No significant trend detected. Recommended action: PURCHASE ANYTIME within the next 1-2 weeks, " +
+                "ideally around %s. Current rate: %.4f, %d-month average: %.4f.",
                 volatility,
+                analysisMonths,
+                recommendedDate,
                 currentRate,
+                analysisMonths,
                 trend.averageRate
             );
         }
         
-        return new RecommendationResult(recommendedDate, explanation);
+        if (indicators != null) {
+            explanation += " " + describeIndicators(indicators, currentRate);
+        }
+        if (forecast != null) {
+            boolean windowEnd = forecast.getDate().equals(recommendedWindowEnd(trend.trend, today));
+            explanation += String.format(
+                " Forecast for %s: %.4f (95%% band %.4f to %.4f). The forecast %s, so the %s day of that window " +
+                "has the lowest forecast rate.",
+                forecast.getDate(), forecast.getRate(), forecast.getLowerBound(), forecast.getUpperBound(),
+                windowEnd ? "keeps falling" : "is rising or flat", windowEnd ? "last" : "first");
+        }
+        
+        return new RecommendationResult(recommendedDate, explanation, forecast);
+    }
+
+    /**
+     * Last day of the purchase window for a trend
+     */
+    private static LocalDate recommendedWindowEnd(String trend, LocalDate today) {
+        if ("decreasing".equals(trend)) {
+            return today.plusDays(WAIT_LAST_DAY);
+        }
+        return today.plusDays("increasing".equals(trend) ? BUY_SOON_LAST_DAY : STABLE_LAST_DAY);
+    }
+
+    private static RateForecaster.Forecast lowestForecast(RateForecaster forecaster, LocalDate today,
+                                                          int firstDay, int lastDay) {
+        return forecaster != null ? forecaster.lowestForecast(today, firstDay, lastDay) : null;
     }
     
+    /**
+     * One sentence on momentum, volatility and where the current rate sits in its bands
+     */
+    private String describeIndicators(RateIndicators.Snapshot indicators, BigDecimal currentRate) {
+        String momentum = switch (indicators.getCrossover()) {
+            case "bullish" -> String.format("Short-term average crossed above the long-term average %d point(s) ago",
+                                            indicators.getPointsSinceCrossover());
+            case "bearish" -> String.format("Short-term average crossed below the long-term average %d point(s) ago",
+                                            indicators.getPointsSinceCrossover());
+            default -> "No moving-average crossover in this window";
+        };
+
+        double rate = currentRate.doubleValue();
+        String band;
+        if (rate <= indicators.getPercentile10()) {
+            band = "at or below its 10th percentile";
+        } else if (rate >= indicators.getPercentile90()) {
+            band = "at or above its 90th percentile";
+        } else {
+            band = rate < indicators.getPercentile50() ? "below its median" : "above its median";
+        }
+
+        return String.format(
+            "%s; recent volatility %.2f%%, max drawdown %.2f%%, and the current rate is %s.",
+            momentum,
+            indicators.getRollingVolatilityPercent(),
+            indicators.getMaxDrawdownPercent(),
+            band
+        );
+    }
+
+    private ExchangeRateAnalysisResponse.TechnicalIndicators toResponseIndicators(RateIndicators.Snapshot indicators) {
+        if (indicators == null) {
+            return null;
+        }
+        return ExchangeRateAnalysisResponse.TechnicalIndicators.builder()
+            .shortSma(toRate(indicators.getShortSma()))
+            .longSma(toRate(indicators.getLongSma()))
+            .shortEma(toRate(indicators.getShortEma()))
+            .longEma(toRate(indicators.getLongEma()))
+            .crossover(indicators.getCrossover())
+            .pointsSinceCrossover(indicators.getPointsSinceCrossover() >= 0 ? indicators.getPointsSinceCrossover() : null)
+            .rollingVolatilityPercent(indicators.getRollingVolatilityPercent())
+            .volatilityPercent(indicators.getVolatilityPercent())
+            .maxDrawdownPercent(indicators.getMaxDrawdownPercent())
+            .currentDrawdownPercent(indicators.getCurrentDrawdownPercent())
+            .percentile10(toRate(indicators.getPercentile10()))
+            .percentile50(toRate(indicators.getPercentile50()))
+            .percentile90(toRate(indicators.getPercentile90()))
+            .build();
+    }
+
+    private ExchangeRateAnalysisResponse.RateForecast toResponseForecast(RateForecaster.Forecast forecast) {
+        if (forecast == null) {
+            return null;
+        }
+        return ExchangeRateAnalysisResponse.RateForecast.builder()
+            .date(forecast.getDate())
+            .rate(toRate(forecast.getRate()))
+            .lowerBound(toRate(forecast.getLowerBound()))
+            .upperBound(toRate(forecast.getUpperBound()))
+            .build();
+    }
+
+    private BigDecimal toRate(double value) {
+        return BigDecimal.valueOf(value).setScale(10, RoundingMode.HALF_UP);
+    }
+
     /**
      * Calculate percentage change between two rates
      */
@@ -644,26 +1347,98 @@ public class ExchangeRateService {
         LocalDate minRateDate;
         BigDecimal maxRate;
         LocalDate maxRateDate;
+        BigDecimal latestRate;
         String trend;
         
         TrendAnalysisResult(BigDecimal averageRate, BigDecimal minRate, LocalDate minRateDate, 
-                          BigDecimal maxRate, LocalDate maxRateDate, String trend) {
+                          BigDecimal maxRate, LocalDate maxRateDate, BigDecimal latestRate, String trend) {
             this.averageRate = averageRate;
             this.minRate = minRate;
             this.minRateDate = minRateDate;
             this.maxRate = maxRate;
             this.maxRateDate = maxRateDate;
+            this.latestRate = latestRate;
             this.trend = trend;
         }
     }
     
+    /**
+     * Cached time series for one pair, the window it was loaded for and its forecaster
+     */
+    private static class PairSeries {
+        final String fromCurrency;
+        final String toCurrency;
+        final RateTimeSeries series;
+        final LocalDate coveredFrom;
+        final LocalDate loadedOn;
+        volatile RateForecaster forecaster;
+
+        PairSeries(String fromCurrency, String toCurrency, RateTimeSeries series,
+                   LocalDate coveredFrom, LocalDate loadedOn, RateForecaster forecaster) {
+            this.fromCurrency = fromCurrency;
+            this.toCurrency = toCurrency;
+            this.series = series;
+            this.coveredFrom = coveredFrom;
+            this.loadedOn = loadedOn;
+            this.forecaster = forecaster;
+        }
+    }
+    
+    /**
+     * A resolved pair of a batch request and where its result goes
+     */
+    private static class PairJob {
+        final int index;
+        final ExchangeRateAnalysisRequest request;
+        final String exportingCurrency;
+        final String importingCurrency;
+        final String importingCountryCode;
+        final String exportingCountryCode;
+        final int analysisMonths;
+
+        PairJob(int index, ExchangeRateAnalysisRequest request, String exportingCurrency, String importingCurrency,
+                String importingCountryCode, String exportingCountryCode, int analysisMonths) {
+            this.index = index;
+            this.request = request;
+            this.exportingCurrency = exportingCurrency;
+            this.importingCurrency = importingCurrency;
+            this.importingCountryCode = importingCountryCode;
+            this.exportingCountryCode = exportingCountryCode;
+            this.analysisMonths = analysisMonths;
+        }
+    }
+
+    private static class SnapshotStatus {
+        final boolean liveDataAvailable;
+        final String dataSource;
+        final String message;
+
+        SnapshotStatus(boolean liveDataAvailable, String dataSource, String message) {
+            this.liveDataAvailable = liveDataAvailable;
+            this.dataSource = dataSource;
+            this.message = message;
+        }
+    }
+
+    private static class CachedAnalysis {
+        final ExchangeRateAnalysisResponse response;
+        final Instant computedAt;
+
+        CachedAnalysis(ExchangeRateAnalysisResponse response, Instant computedAt) {
+            this.response = response;
+            this.computedAt = computedAt;
+        }
+    }
+    
     private static class RecommendationResult {
         LocalDate recommendedDate;
         String explanation;
+        RateForecaster.Forecast forecast;
         
-        RecommendationResult(LocalDate recommendedDate, String explanation) {
+        RecommendationResult(LocalDate recommendedDate, String explanation, RateForecaster.Forecast forecast) {
             this.recommendedDate = recommendedDate;
             this.explanation = explanation;
+            this.forecast = forecast;
         }
     }
 }
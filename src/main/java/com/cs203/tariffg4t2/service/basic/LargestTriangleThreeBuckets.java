@@ -0,0 +1,72 @@
+package com.cs203.tariffg4t2.service.basic;
+
+/**
+ * Largest-Triangle-Three-Buckets downsampling (Steinarsson, 2013) for line charts.
+ * The first and last points are always kept; the points in between are split into
+ * threshold - 2 equal buckets and from each the point forming the largest triangle with the
+ * previously kept point and the next bucket's average is kept. Peaks and troughs survive,
+ * unlike taking every n-th point. O(n).
+ */
+final class LargestTriangleThreeBuckets {
+
+    private LargestTriangleThreeBuckets() {
+    }
+
+    /**
+     * Indices of the points to keep, ascending. x must be ascending.
+     * All indices are returned if there are no more than threshold points or threshold is below 3.
+     */
+    static int[] select(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold >= n || threshold < 3) {
+            int[] all = new int[n];
+            for (int i = 0; i < n; i++) {
+                all[i] = i;
+            }
+            return all;
+        }
+
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int previous = 0;
+        selected[0] = 0;
+
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            // Average of the next bucket (the last point for the final bucket)
+            int nextStart = (int) ((bucket + 1) * bucketSize) + 1;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            if (nextStart >= nextEnd) {
+                nextStart = n - 1;
+                nextEnd = n;
+            }
+            double averageX = 0;
+            double averageY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                averageX += x[i];
+                averageY += y[i];
+            }
+            averageX /= nextEnd - nextStart;
+            averageY /= nextEnd - nextStart;
+
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            double largestArea = -1;
+            int chosen = start;
+            for (int i = start; i < end; i++) {
+                // Twice the triangle area; only the comparison matters
+                double area = Math.abs((x[previous] - averageX) * (y[i] - y[previous])
+                                       - (x[previous] - x[i]) * (averageY - y[previous]));
+                if (area > largestArea) {
+                    largestArea = area;
+                    chosen = i;
+                }
+            }
+
+            selected[bucket + 1] = chosen;
+            previous = chosen;
+        }
+
+        selected[threshold - 1] = n - 1;
+        return selected;
+    }
+}
@@ -11,6 +11,7 @@ import com.cs203.tariffg4t2.repository.basic.NewsArticleRepository;
 import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
 import com.cs203.tariffg4t2.service.data.EmbeddingService;
 import com.cs203.tariffg4t2.service.data.NewsAPIService;
+import com.cs203.tariffg4t2.service.data.NewsArticleIndex;
 import com.cs203.tariffg4t2.service.data.SentimentAnalysisService;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -36,8 +37,10 @@ public class PredictiveAnalysisService {
     private final SentimentAnalysisService sentimentAnalysisService;
     private final NewsArticleRepository newsArticleRepository;
     private final ExchangeRateRepository exchangeRateRepository;
+    private final ExchangeRateService exchangeRateService;
     private final CurrencyCodeService currencyCodeService;
     private final EmbeddingService embeddingService;
+    private final NewsArticleIndex newsArticleIndex;
     
     /**
      * Main method: Analyze news sentiment and exchange rates to provide trading recommendation
@@ -114,9 +117,7 @@ public class PredictiveAnalysisService {
         }
         
         // Step 3: Get exchange rate data
-        ExchangeRate latestRate = exchangeRateRepository
-            .findLatestByFromCurrencyAndToCurrency(exportingCurrency, importingCurrency)
-            .orElse(null);
+        ExchangeRate latestRate = findLatestRate(exportingCurrency, importingCurrency);
         
         if (latestRate == null) {
             throw new RuntimeException("No exchange rate data available for " + 
@@ -214,9 +215,7 @@ public class PredictiveAnalysisService {
 
         ExchangeRate latestRate = null;
         if (importingCurrency != null && exportingCurrency != null) {
-            latestRate = exchangeRateRepository
-                .findLatestByFromCurrencyAndToCurrency(exportingCurrency, importingCurrency)
-                .orElse(null);
+            latestRate = findLatestRate(exportingCurrency, importingCurrency);
 
             if (latestRate == null) {
                 warnings.add("No exchange rate data found for " + exportingCurrency + " → " + importingCurrency + ".");
@@ -392,16 +391,40 @@ public class PredictiveAnalysisService {
         );
     }
     
+    /**
+     * Most recent rate for the pair, derived from the in-memory USD-base rates. A stored pair row
+     * (USD-base pairs and rows stored before rates were kept USD-base only) is used only when there
+     * is no USD-base rate for the pair or the row is newer than the derived one.
+     */
+    private ExchangeRate findLatestRate(String fromCurrency, String toCurrency) {
+        LocalDate today = LocalDate.now();
+        UsdRateBook.DatedRate derived = exchangeRateService.rateAsOf(fromCurrency, toCurrency, today);
+        if (derived != null && !derived.getDate().isBefore(today)) {
+            return new ExchangeRate(fromCurrency, toCurrency, derived.getRate(), derived.getDate());
+        }
+
+        ExchangeRate stored = exchangeRateRepository
+            .findLatestByFromCurrencyAndToCurrency(fromCurrency, toCurrency)
+            .orElse(null);
+        if (derived == null
+                || (stored != null && stored.getRateDate() != null && stored.getRateDate().isAfter(derived.getDate()))) {
+            return stored;
+        }
+        return new ExchangeRate(fromCurrency, toCurrency, derived.getRate(), derived.getDate());
+    }
+
     /**
      * Determine exchange rate trend
      */
     private String determineExchangeRateTrend(ExchangeRate current, String fromCurrency, String toCurrency) {
-        LocalDate twoWeeksAgo = LocalDate.now().minusWeeks(2);
+        LocalDate today = LocalDate.now();
+        LocalDate twoWeeksAgo = today.minusWeeks(2);
         
-        List<ExchangeRate> recentRates = exchangeRateRepository
-            .findByFromCurrencyAndToCurrencyAndRateDateBetween(
-                fromCurrency, toCurrency, twoWeeksAgo, LocalDate.now()
-            );
+        RateTimeSeries series = exchangeRateService.crossSeries(fromCurrency, toCurrency, twoWeeksAgo, today);
+        List<ExchangeRate> recentRates = series != null
+            ? series.toExchangeRates(fromCurrency, toCurrency, twoWeeksAgo, today)
+            : exchangeRateRepository.findByFromCurrencyAndToCurrencyAndRateDateBetween(
+                fromCurrency, toCurrency, twoWeeksAgo, today);
         
         if (recentRates.size() < 2) return "stable";
         
@@ -495,11 +518,11 @@ public class PredictiveAnalysisService {
         
         // Generate embedding for the query
         float[] queryEmbedding = embeddingService.generateEmbedding(query);
-        String vectorString = embeddingService.embeddingToVectorString(queryEmbedding);
         
-        // Find semantically similar articles using pgvector
-        List<NewsArticle> similarArticles = newsArticleRepository
-            .findSimilarArticles(vectorString, count);
+        // Find semantically similar articles in the in-memory index, or with pgvector until it is built
+        List<NewsArticle> similarArticles = newsArticleIndex.isReady()
+            ? newsArticleIndex.findSimilar(queryEmbedding, count)
+            : newsArticleRepository.findSimilarArticles(queryEmbedding, count);
         
         logger.info("RAG found {} semantically similar articles for {} <-> {}", 
             similarArticles.size(), country1, country2);
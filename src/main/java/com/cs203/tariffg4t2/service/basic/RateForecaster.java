@@ -0,0 +1,159 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import java.time.LocalDate;
+
+/**
+ * Damped-trend exponential smoothing (Holt) for one pair's rate, with an EWMA of the squared
+ * one-step errors for confidence bands. Observations may be irregularly spaced: trend and
+ * variance are kept per day. Each observation updates the state in O(1), and a correction of
+ * the latest day is re-applied to the state before it, so the model never needs refitting
+ * unless an older day arrives.
+ */
+public class RateForecaster {
+
+    static final double LEVEL_SMOOTHING = 0.3;
+    static final double TREND_SMOOTHING = 0.1;
+    static final double TREND_DAMPING = 0.98;   // per day
+    static final double VARIANCE_SMOOTHING = 0.1;
+    static final double BAND_Z = 1.96;          // 95% band
+    public static final int MIN_OBSERVATIONS = 3;
+
+    private State current = new State();
+    private State beforeLatest;
+
+    /**
+     * Add the next observation, or replace the latest one if it is for the same day
+     *
+     * @return false if the date is older than the latest observation; the caller must rebuild
+     */
+    public synchronized boolean observe(LocalDate date, double rate) {
+        int day = (int) date.toEpochDay();
+        if (current.count > 0 && day < current.lastDay) {
+            return false;
+        }
+        if (current.count > 0 && day == current.lastDay) {
+            current = beforeLatest.copy();
+        } else {
+            beforeLatest = current.copy();
+        }
+        current.update(day, rate);
+        return true;
+    }
+
+    public synchronized int getCount() {
+        return current.count;
+    }
+
+    public synchronized LocalDate lastDate() {
+        return current.count == 0 ? null : LocalDate.ofEpochDay(current.lastDay);
+    }
+
+    /**
+     * Forecast for a day on or after the latest observation, or null with too little history
+     */
+    public synchronized Forecast forecast(LocalDate date) {
+        if (current.count < MIN_OBSERVATIONS) {
+            return null;
+        }
+        return current.forecast(date);
+    }
+
+    /**
+     * The day in [today + firstDay, today + lastDay] with the lowest forecast rate: the cheapest
+     * date to buy within a purchase window. A damped-trend forecast moves monotonically in the
+     * direction of the trend, so this is always an end of the window: the first day when the
+     * trend is rising or flat, the last when it is falling. Null with too little history.
+     */
+    public synchronized Forecast lowestForecast(LocalDate today, int firstDay, int lastDay) {
+        if (current.count < MIN_OBSERVATIONS) {
+            return null;
+        }
+        return current.forecast(today.plusDays(current.trend < 0 ? lastDay : firstDay));
+    }
+
+    /**
+     * Sum of TREND_DAMPING^i for i in [1, days]
+     */
+    static double dampedSteps(int days) {
+        return TREND_DAMPING * (1 - Math.pow(TREND_DAMPING, days)) / (1 - TREND_DAMPING);
+    }
+
+    private static final class State {
+        int count;
+        int lastDay;
+        double level;
+        double trend;       // per day
+        double variance;    // of one-step errors, per day
+
+        void update(int day, double rate) {
+            if (count == 0) {
+                level = rate;
+            } else {
+                int days = day - lastDay;
+                double predicted = level + trend * dampedSteps(days);
+                double error = rate - predicted;
+                double dailyVariance = error * error / days;
+                variance = count == 1 ? dailyVariance : variance + VARIANCE_SMOOTHING * (dailyVariance - variance);
+
+                double newLevel = LEVEL_SMOOTHING * rate + (1 - LEVEL_SMOOTHING) * predicted;
+                if (count == 1) {
+                    trend = (rate - level) / days;
+                } else {
+                    trend = TREND_SMOOTHING * (newLevel - level) / days
+                        + (1 - TREND_SMOOTHING) * trend * Math.pow(TREND_DAMPING, days);
+                }
+                level = newLevel;
+            }
+            lastDay = day;
+            count++;
+        }
+
+        Forecast forecast(LocalDate date) {
+            int days = Math.max((int) date.toEpochDay() - lastDay, 0);
+            double rate = level + trend * dampedSteps(days);
+            double band = BAND_Z * Math.sqrt(variance * Math.max(days, 1));
+            return new Forecast(date, rate, rate - band, rate + band);
+        }
+
+        State copy() {
+            State copy = new State();
+            copy.count = count;
+            copy.lastDay = lastDay;
+            copy.level = level;
+            copy.trend = trend;
+            copy.variance = variance;
+            return copy;
+        }
+    }
+
+    public static final class Forecast {
+
+        private final LocalDate date;
+        private final double rate;
+        private final double lowerBound;
+        private final double upperBound;
+
+        Forecast(LocalDate date, double rate, double lowerBound, double upperBound) {
+            this.date = date;
+            this.rate = rate;
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public double getRate() {
+            return rate;
+        }
+
+        public double getLowerBound() {
+            return lowerBound;
+        }
+
+        public double getUpperBound() {
+            return upperBound;
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import java.util.Arrays;
+
+/**
+ * Streaming technical indicators over a rate series, updated in O(1) per point:
+ * SMA/EMA crossovers, rolling and overall volatility of period returns (Welford),
+ * drawdown from the running peak, and P-square estimates of the 10th/50th/90th percentile.
+ * Feed points oldest first with {@link #add(double)}; {@link #snapshot()} is cheap.
+ */
+public class RateIndicators {
+
+    public static final int SHORT_WINDOW = 4;
+    public static final int LONG_WINDOW = 12;
+    public static final int VOLATILITY_WINDOW = 8;
+
+    private final MovingWindow shortSma = new MovingWindow(SHORT_WINDOW);
+    private final MovingWindow longSma = new MovingWindow(LONG_WINDOW);
+    private final MovingWindow rollingReturns = new MovingWindow(VOLATILITY_WINDOW);
+    private final double shortAlpha = 2.0 / (SHORT_WINDOW + 1);
+    private final double longAlpha = 2.0 / (LONG_WINDOW + 1);
+    private final PSquareQuantile p10 = new PSquareQuantile(0.10);
+    private final PSquareQuantile p50 = new PSquareQuantile(0.50);
+    private final PSquareQuantile p90 = new PSquareQuantile(0.90);
+
+    private int count;
+    private double last;
+    private double shortEma;
+    private double longEma;
+    private int emaSign;
+    private int lastCrossoverSign;
+    private int pointsSinceCrossover = -1;
+
+    // Welford accumulators over period returns
+    private int returnCount;
+    private double returnMean;
+    private double returnM2;
+
+    private double peak;
+    private double maxDrawdown;
+
+    /**
+     * Add the next (newer) point
+     */
+    public synchronized void add(double rate) {
+        if (count == 0) {
+            shortEma = rate;
+            longEma = rate;
+            peak = rate;
+        } else {
+            shortEma += shortAlpha * (rate - shortEma);
+            longEma += longAlpha * (rate - longEma);
+
+            double periodReturn = rate / last - 1;
+            returnCount++;
+            double delta = periodReturn - returnMean;
+            returnMean += delta / returnCount;
+            returnM2 += delta * (periodReturn - returnMean);
+            rollingReturns.add(periodReturn);
+        }
+
+        shortSma.add(rate);
+        longSma.add(rate);
+        p10.add(rate);
+        p50.add(rate);
+        p90.add(rate);
+
+        peak = Math.max(peak, rate);
+        maxDrawdown = Math.max(maxDrawdown, (peak - rate) / peak);
+
+        if (pointsSinceCrossover >= 0) {
+            pointsSinceCrossover++;
+        }
+        int sign = (int) Math.signum(shortEma - longEma);
+        if (sign != 0 && emaSign != 0 && sign != emaSign) {
+            lastCrossoverSign = sign;
+            pointsSinceCrossover = 0;
+        }
+        if (sign != 0) {
+            emaSign = sign;
+        }
+
+        last = rate;
+        count++;
+    }
+
+    public synchronized int getCount() {
+        return count;
+    }
+
+    public synchronized Snapshot snapshot() {
+        if (count == 0) {
+            return null;
+        }
+        String crossover = "none";
+        if (lastCrossoverSign > 0) {
+            crossover = "bullish";
+        } else if (lastCrossoverSign < 0) {
+            crossover = "bearish";
+        }
+        double volatility = returnCount > 1 ? Math.sqrt(returnM2 / (returnCount - 1)) : 0.0;
+        return new Snapshot(
+            count,
+            shortSma.mean(), longSma.mean(), shortEma, longEma,
+            crossover, pointsSinceCrossover,
+            rollingReturns.standardDeviation() * 100, volatility * 100,
+            maxDrawdown * 100, (peak - last) / peak * 100,
+            p10.quantile(), p50.quantile(), p90.quantile()
+        );
+    }
+
+    /**
+     * Immutable view of the indicators after the latest point. Volatility and drawdown are percentages.
+     */
+    public static final class Snapshot {
+
+        private final int count;
+        private final double shortSma;
+        private final double longSma;
+        private final double shortEma;
+        private final double longEma;
+        private final String crossover;
+        private final int pointsSinceCrossover;
+        private final double rollingVolatilityPercent;
+        private final double volatilityPercent;
+        private final double maxDrawdownPercent;
+        private final double currentDrawdownPercent;
+        private final double percentile10;
+        private final double percentile50;
+        private final double percentile90;
+
+        Snapshot(int count, double shortSma, double longSma, double shortEma, double longEma,
+                 String crossover, int pointsSinceCrossover, double rollingVolatilityPercent,
+                 double volatilityPercent, double maxDrawdownPercent, double currentDrawdownPercent,
+                 double percentile10, double percentile50, double percentile90) {
+            this.count = count;
+            this.shortSma = shortSma;
+            this.longSma = longSma;
+            this.shortEma = shortEma;
+            this.longEma = longEma;
+            this.crossover = crossover;
+            this.pointsSinceCrossover = pointsSinceCrossover;
+            this.rollingVolatilityPercent = rollingVolatilityPercent;
+            this.volatilityPercent = volatilityPercent;
+            this.maxDrawdownPercent = maxDrawdownPercent;
+            this.currentDrawdownPercent = currentDrawdownPercent;
+            this.percentile10 = percentile10;
+            this.percentile50 = percentile50;
+            this.percentile90 = percentile90;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getShortSma() {
+            return shortSma;
+        }
+
+        public double getLongSma() {
+            return longSma;
+        }
+
+        public double getShortEma() {
+            return shortEma;
+        }
+
+        public double getLongEma() {
+            return longEma;
+        }
+
+        /**
+         * "bullish" if the short EMA last crossed above the long EMA, "bearish" if below, else "none"
+         */
+        public String getCrossover() {
+            return crossover;
+        }
+
+        /**
+         * Points since the last crossover, or -1 if there has been none
+         */
+        public int getPointsSinceCrossover() {
+            return pointsSinceCrossover;
+        }
+
+        public double getRollingVolatilityPercent() {
+            return rollingVolatilityPercent;
+        }
+
+        public double getVolatilityPercent() {
+            return volatilityPercent;
+        }
+
+        public double getMaxDrawdownPercent() {
+            return maxDrawdownPercent;
+        }
+
+        public double getCurrentDrawdownPercent() {
+            return currentDrawdownPercent;
+        }
+
+        public double getPercentile10() {
+            return percentile10;
+        }
+
+        public double getPercentile50() {
+            return percentile50;
+        }
+
+        public double getPercentile90() {
+            return percentile90;
+        }
+    }
+
+    /**
+     * Fixed-size ring buffer with running sum and sum of squares
+     */
+    private static final class MovingWindow {
+
+        private final double[] values;
+        private int next;
+        private int size;
+        private double sum;
+        private double sumOfSquares;
+
+        MovingWindow(int capacity) {
+            values = new double[capacity];
+        }
+
+        void add(double value) {
+            if (size == values.length) {
+                double evicted = values[next];
+                sum -= evicted;
+                sumOfSquares -= evicted * evicted;
+            } else {
+                size++;
+            }
+            values[next] = value;
+            next = (next + 1) % values.length;
+            sum += value;
+            sumOfSquares += value * value;
+        }
+
+        double mean() {
+            return size == 0 ? Double.NaN : sum / size;
+        }
+
+        double standardDeviation() {
+            if (size < 2) {
+                return 0.0;
+            }
+            double variance = (sumOfSquares - sum * sum / size) / (size - 1);
+            return Math.sqrt(Math.max(variance, 0.0));
+        }
+    }
+
+    /**
+     * P-square streaming quantile estimator (Jain and Chlamtac): five markers, O(1) per point.
+     * Exact while fewer than five points have been seen.
+     */
+    static final class PSquareQuantile {
+
+        private final double p;
+        private final double[] heights = new double[5];
+        private final int[] positions = {0, 1, 2, 3, 4};
+        private final double[] desired;
+        private final double[] increments;
+        private int count;
+
+        PSquareQuantile(double p) {
+            this.p = p;
+            this.desired = new double[] {0, 2 * p, 4 * p, 2 + 2 * p, 4};
+            this.increments = new double[] {0, p / 2, p, (1 + p) / 2, 1};
+        }
+
+        void add(double x) {
+            if (count < 5) {
+                heights[count++] = x;
+                if (count == 5) {
+                    Arrays.sort(heights);
+                }
+                return;
+            }
+            count++;
+
+            int cell;
+            if (x < heights[0]) {
+                heights[0] = x;
+                cell = 0;
+            } else if (x >= heights[4]) {
+                heights[4] = x;
+                cell = 3;
+            } else {
+                cell = 0;
+                while (x >= heights[cell + 1]) {
+                    cell++;
+                }
+            }
+
+            for (int i = cell + 1; i < 5; i++) {
+                positions[i]++;
+            }
+            for (int i = 0; i < 5; i++) {
+                desired[i] += increments[i];
+            }
+
+            for (int i = 1; i <= 3; i++) {
+                double d = desired[i] - positions[i];
+                if ((d >= 1 && positions[i + 1] - positions[i] > 1) || (d <= -1 && positions[i - 1] - positions[i] < -1)) {
+                    int step = d > 0 ? 1 : -1;
+                    double candidate = parabolic(i, step);
+                    if (heights[i - 1] < candidate && candidate < heights[i + 1]) {
+                        heights[i] = candidate;
+                    } else {
+                        heights[i] += step * (heights[i + step] - heights[i]) / (positions[i + step] - positions[i]);
+                    }
+                    positions[i] += step;
+                }
+            }
+        }
+
+        double quantile() {
+            if (count == 0) {
+                return Double.NaN;
+            }
+            if (count < 5) {
+                double[] seen = Arrays.copyOf(heights, count);
+                Arrays.sort(seen);
+                return seen[(int) Math.round(p * (count - 1))];
+            }
+            return heights[2];
+        }
+
+        private double parabolic(int i, int step) {
+            double left = positions[i] - positions[i - 1];
+            double right = positions[i + 1] - positions[i];
+            return heights[i] + step / (double) (positions[i + 1] - positions[i - 1])
+                * ((left + step) * (heights[i + 1] - heights[i]) / right
+                   + (right - step) * (heights[i] - heights[i - 1]) / left);
+        }
+    }
+}
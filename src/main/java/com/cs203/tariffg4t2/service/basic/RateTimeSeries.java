@@ -0,0 +1,320 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Daily rate series for one currency pair, held as parallel primitive arrays (epoch day, rate).
+ * Prefix sums give the average of any date window in O(1), and min/max sparse tables give its
+ * extremes in O(1). Appending a newer day (or correcting the latest one) costs O(log n); an
+ * out-of-order write rebuilds the tables.
+ */
+public class RateTimeSeries {
+
+    private static final int INITIAL_CAPACITY = 32;
+
+    private int size;
+    private int[] epochDays;
+    private double[] rates;
+    private double[] prefixSums;   // prefixSums[i] = sum of rates[0, i)
+    private int[][] minIndex;      // minIndex[k][i] = index of the min over [i, i + 2^k)
+    private int[][] maxIndex;
+
+    public RateTimeSeries() {
+        this(INITIAL_CAPACITY);
+    }
+
+    private RateTimeSeries(int capacity) {
+        capacity = Math.max(capacity, 1);
+        epochDays = new int[capacity];
+        rates = new double[capacity];
+        prefixSums = new double[capacity + 1];
+        minIndex = new int[0][];
+        maxIndex = new int[0][];
+    }
+
+    /**
+     * Series built from entity rows in any order; for duplicate dates the last row wins
+     */
+    public static RateTimeSeries of(Collection<ExchangeRate> rows) {
+        List<ExchangeRate> sorted = new ArrayList<>();
+        for (ExchangeRate row : rows) {
+            if (row.getRate() != null && row.getRateDate() != null) {
+                sorted.add(row);
+            }
+        }
+        sorted.sort(Comparator.comparing(ExchangeRate::getRateDate));
+
+        RateTimeSeries series = new RateTimeSeries(sorted.size());
+        for (ExchangeRate row : sorted) {
+            series.put(row.getRateDate(), row.getRate().doubleValue());
+        }
+        return series;
+    }
+
+    /**
+     * Insert or replace the rate for a day
+     */
+    public synchronized void put(LocalDate date, double rate) {
+        int day = (int) date.toEpochDay();
+        if (size > 0 && day == epochDays[size - 1]) {
+            rates[size - 1] = rate;
+            index(size - 1);
+        } else if (size == 0 || day > epochDays[size - 1]) {
+            ensureCapacity(size + 1);
+            epochDays[size] = day;
+            rates[size] = rate;
+            size++;
+            index(size - 1);
+        } else {
+            insertOutOfOrder(day, rate);
+        }
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    public synchronized LocalDate firstDate() {
+        return size == 0 ? null : LocalDate.ofEpochDay(epochDays[0]);
+    }
+
+    public synchronized LocalDate lastDate() {
+        return size == 0 ? null : LocalDate.ofEpochDay(epochDays[size - 1]);
+    }
+
+    /**
+     * Statistics over [startDate, endDate], or null if the window holds no points
+     */
+    public synchronized WindowStats stats(LocalDate startDate, LocalDate endDate) {
+        int lo = firstIndexOnOrAfter((int) startDate.toEpochDay());
+        int hi = firstIndexOnOrAfter((int) endDate.toEpochDay() + 1) - 1;
+        if (lo > hi) {
+            return null;
+        }
+
+        int count = hi - lo + 1;
+        int mid = lo + count / 2;
+        int min = rangeIndex(minIndex, lo, hi, true);
+        int max = rangeIndex(maxIndex, lo, hi, false);
+        return new WindowStats(
+            count,
+            (prefixSums[hi + 1] - prefixSums[lo]) / count,
+            rates[min], LocalDate.ofEpochDay(epochDays[min]),
+            rates[max], LocalDate.ofEpochDay(epochDays[max]),
+            rates[hi], LocalDate.ofEpochDay(epochDays[hi]),
+            mid > lo ? (prefixSums[mid] - prefixSums[lo]) / (mid - lo) : Double.NaN,
+            (prefixSums[hi + 1] - prefixSums[mid]) / (hi + 1 - mid)
+        );
+    }
+
+    /**
+     * Points in [startDate, endDate] as entities, oldest first
+     */
+    public synchronized List<ExchangeRate> toExchangeRates(String fromCurrency, String toCurrency,
+                                                           LocalDate startDate, LocalDate endDate) {
+        int lo = firstIndexOnOrAfter((int) startDate.toEpochDay());
+        int hi = firstIndexOnOrAfter((int) endDate.toEpochDay() + 1);
+        List<ExchangeRate> result = new ArrayList<>(Math.max(hi - lo, 0));
+        for (int i = lo; i < hi; i++) {
+            result.add(new ExchangeRate(fromCurrency, toCurrency, BigDecimal.valueOf(rates[i]),
+                LocalDate.ofEpochDay(epochDays[i])));
+        }
+        return result;
+    }
+
+    /**
+     * Indicators over [startDate, endDate] in one pass over the primitive arrays
+     */
+    public synchronized RateIndicators indicators(LocalDate startDate, LocalDate endDate) {
+        int lo = firstIndexOnOrAfter((int) startDate.toEpochDay());
+        int hi = firstIndexOnOrAfter((int) endDate.toEpochDay() + 1);
+        RateIndicators indicators = new RateIndicators();
+        for (int i = lo; i < hi; i++) {
+            indicators.add(rates[i]);
+        }
+        return indicators;
+    }
+
+    /**
+     * Forecaster fitted to every point in the series, oldest first
+     */
+    public synchronized RateForecaster forecaster() {
+        RateForecaster forecaster = new RateForecaster();
+        for (int i = 0; i < size; i++) {
+            forecaster.observe(LocalDate.ofEpochDay(epochDays[i]), rates[i]);
+        }
+        return forecaster;
+    }
+
+    /**
+     * Bring a forecaster fitted to an earlier load of this pair up to date: re-observe the point
+     * on its latest day and add every later one. Returns false, leaving the forecaster to be
+     * discarded, if it is empty or has seen a day beyond this series.
+     */
+    public synchronized boolean catchUp(RateForecaster forecaster) {
+        LocalDate last = forecaster.lastDate();
+        if (last == null || size == 0 || last.toEpochDay() > epochDays[size - 1]) {
+            return false;
+        }
+        for (int i = firstIndexOnOrAfter((int) last.toEpochDay()); i < size; i++) {
+            if (!forecaster.observe(LocalDate.ofEpochDay(epochDays[i]), rates[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private int firstIndexOnOrAfter(int day) {
+        int index = Arrays.binarySearch(epochDays, 0, size, day);
+        return index >= 0 ? index : -index - 1;
+    }
+
+    private int rangeIndex(int[][] table, int lo, int hi, boolean min) {
+        int level = 31 - Integer.numberOfLeadingZeros(hi - lo + 1);
+        int left = table[level][lo];
+        int right = table[level][hi - (1 << level) + 1];
+        return better(left, right, min);
+    }
+
+    private int better(int a, int b, boolean min) {
+        if (min) {
+            return rates[b] < rates[a] ? b : a;
+        }
+        return rates[b] > rates[a] ? b : a;
+    }
+
+    /**
+     * (Re)compute the prefix sum and the one sparse-table entry per level that ends at index i.
+     * Valid when every index before i is already indexed.
+     */
+    private void index(int i) {
+        prefixSums[i + 1] = prefixSums[i] + rates[i];
+
+        int levels = 32 - Integer.numberOfLeadingZeros(i + 1);
+        if (minIndex.length < levels) {
+            minIndex = Arrays.copyOf(minIndex, levels);
+            maxIndex = Arrays.copyOf(maxIndex, levels);
+        }
+        for (int k = 0; k < levels; k++) {
+            if (minIndex[k] == null || minIndex[k].length < rates.length) {
+                minIndex[k] = minIndex[k] == null ? new int[rates.length] : Arrays.copyOf(minIndex[k], rates.length);
+                maxIndex[k] = maxIndex[k] == null ? new int[rates.length] : Arrays.copyOf(maxIndex[k], rates.length);
+            }
+            int start = i - (1 << k) + 1;
+            if (k == 0) {
+                minIndex[0][i] = i;
+                maxIndex[0][i] = i;
+            } else {
+                int half = start + (1 << (k - 1));
+                minIndex[k][start] = better(minIndex[k - 1][start], minIndex[k - 1][half], true);
+                maxIndex[k][start] = better(maxIndex[k - 1][start], maxIndex[k - 1][half], false);
+            }
+        }
+    }
+
+    private void insertOutOfOrder(int day, double rate) {
+        int index = Arrays.binarySearch(epochDays, 0, size, day);
+        if (index >= 0) {
+            rates[index] = rate;
+        } else {
+            int insertAt = -index - 1;
+            ensureCapacity(size + 1);
+            System.arraycopy(epochDays, insertAt, epochDays, insertAt + 1, size - insertAt);
+            System.arraycopy(rates, insertAt, rates, insertAt + 1, size - insertAt);
+            epochDays[insertAt] = day;
+            rates[insertAt] = rate;
+            size++;
+        }
+        for (int i = 0; i < size; i++) {
+            index(i);
+        }
+    }
+
+    private void ensureCapacity(int capacity) {
+        if (capacity > rates.length) {
+            int grown = Math.max(capacity, rates.length * 2);
+            epochDays = Arrays.copyOf(epochDays, grown);
+            rates = Arrays.copyOf(rates, grown);
+            prefixSums = Arrays.copyOf(prefixSums, grown + 1);
+        }
+    }
+
+    /**
+     * Window statistics; the half averages split the window's points the way the trend check does
+     */
+    public static final class WindowStats {
+
+        private final int count;
+        private final double average;
+        private final double min;
+        private final LocalDate minDate;
+        private final double max;
+        private final LocalDate maxDate;
+        private final double latest;
+        private final LocalDate latestDate;
+        private final double firstHalfAverage;
+        private final double secondHalfAverage;
+
+        WindowStats(int count, double average, double min, LocalDate minDate, double max, LocalDate maxDate,
+                    double latest, LocalDate latestDate, double firstHalfAverage, double secondHalfAverage) {
+            this.count = count;
+            this.average = average;
+            this.min = min;
+            this.minDate = minDate;
+            this.max = max;
+            this.maxDate = maxDate;
+            this.latest = latest;
+            this.latestDate = latestDate;
+            this.firstHalfAverage = firstHalfAverage;
+            this.secondHalfAverage = secondHalfAverage;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public double getAverage() {
+            return average;
+        }
+
+        public double getMin() {
+            return min;
+        }
+
+        public LocalDate getMinDate() {
+            return minDate;
+        }
+
+        public double getMax() {
+            return max;
+        }
+
+        public LocalDate getMaxDate() {
+            return maxDate;
+        }
+
+        public double getLatest() {
+            return latest;
+        }
+
+        public LocalDate getLatestDate() {
+            return latestDate;
+        }
+
+        public double getFirstHalfAverage() {
+            return firstHalfAverage;
+        }
+
+        public double getSecondHalfAverage() {
+            return secondHalfAverage;
+        }
+    }
+}
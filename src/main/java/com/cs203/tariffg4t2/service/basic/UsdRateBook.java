@@ -0,0 +1,175 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * In-memory per-day vectors of USD -> currency rates.
+ * Only USD-base rates are stored (one exchange_rate row per currency per day); any cross rate
+ * is derived here as usd[to] / usd[from], so storage grows with currencies rather than pairs.
+ */
+public class UsdRateBook {
+
+    public static final String BASE_CURRENCY = "USD";
+    private static final int CROSS_RATE_SCALE = 10;
+
+    private final Map<String, Integer> currencyIndex = new HashMap<>();
+    private final NavigableMap<LocalDate, double[]> days = new TreeMap<>();
+
+    /**
+     * Record USD -> currency for one day
+     */
+    public synchronized void put(LocalDate date, String currency, double usdRate) {
+        if (BASE_CURRENCY.equals(currency) || !(usdRate > 0)) {
+            return;
+        }
+        int index = indexOf(currency);
+        double[] vector = days.get(date);
+        if (vector == null || vector.length <= index) {
+            vector = grow(vector, Math.max(index + 1, currencyIndex.size()));
+            days.put(date, vector);
+        }
+        vector[index] = usdRate;
+    }
+
+    public synchronized void putAll(LocalDate date, Map<String, BigDecimal> usdRates) {
+        usdRates.forEach((currency, rate) -> put(date, currency, rate.doubleValue()));
+    }
+
+    /**
+     * Load stored USD-base rows; rows with any other base currency are ignored
+     */
+    public synchronized void load(Collection<ExchangeRate> usdRows) {
+        for (ExchangeRate row : usdRows) {
+            if (BASE_CURRENCY.equals(row.getFromCurrency()) && row.getRate() != null) {
+                put(row.getRateDate(), row.getToCurrency(), row.getRate().doubleValue());
+            }
+        }
+    }
+
+    /**
+     * USD -> currency on the date; 1 for USD itself, NaN if unknown
+     */
+    public synchronized double usdRate(LocalDate date, String currency) {
+        if (BASE_CURRENCY.equals(currency)) {
+            return 1.0;
+        }
+        Integer index = currencyIndex.get(currency);
+        double[] vector = days.get(date);
+        if (index == null || vector == null || index >= vector.length) {
+            return Double.NaN;
+        }
+        return vector[index];
+    }
+
+    public synchronized boolean hasRates(LocalDate date, String... currencies) {
+        for (String currency : currencies) {
+            if (Double.isNaN(usdRate(date, currency))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * from -> to on the date, or null if either USD rate is unknown
+     */
+    public synchronized BigDecimal crossRate(String fromCurrency, String toCurrency, LocalDate date) {
+        double usdToFrom = usdRate(date, fromCurrency);
+        double usdToTo = usdRate(date, toCurrency);
+        if (Double.isNaN(usdToFrom) || Double.isNaN(usdToTo)) {
+            return null;
+        }
+        return BigDecimal.valueOf(usdToTo / usdToFrom).setScale(CROSS_RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * from -> to on the latest day in [date - lookbackDays, date] that has both USD rates, or null
+     */
+    public synchronized DatedRate crossRateAsOf(String fromCurrency, String toCurrency, LocalDate date, int lookbackDays) {
+        for (LocalDate day : days.subMap(date.minusDays(lookbackDays), true, date, true).descendingKeySet()) {
+            BigDecimal rate = crossRate(fromCurrency, toCurrency, day);
+            if (rate != null) {
+                return new DatedRate(day, rate);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Derived from -> to rates for every known day in [startDate, endDate], oldest first
+     */
+    public synchronized List<ExchangeRate> crossSeries(String fromCurrency, String toCurrency,
+                                                       LocalDate startDate, LocalDate endDate) {
+        List<ExchangeRate> series = new ArrayList<>();
+        for (LocalDate date : days.subMap(startDate, true, endDate, true).keySet()) {
+            BigDecimal rate = crossRate(fromCurrency, toCurrency, date);
+            if (rate != null) {
+                series.add(new ExchangeRate(fromCurrency, toCurrency, rate, date));
+            }
+        }
+        return series;
+    }
+
+    public synchronized int dayCount() {
+        return days.size();
+    }
+
+    /**
+     * The currencies among the arguments whose USD rate has to be stored (everything but USD)
+     */
+    public static Set<String> nonBaseCurrencies(String... currencies) {
+        Set<String> result = new LinkedHashSet<>();
+        for (String currency : currencies) {
+            if (currency != null && !BASE_CURRENCY.equals(currency)) {
+                result.add(currency);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * A rate and the day it was observed
+     */
+    public static final class DatedRate {
+
+        private final LocalDate date;
+        private final BigDecimal rate;
+
+        public DatedRate(LocalDate date, BigDecimal rate) {
+            this.date = date;
+            this.rate = rate;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public BigDecimal getRate() {
+            return rate;
+        }
+    }
+
+    private int indexOf(String currency) {
+        return currencyIndex.computeIfAbsent(currency, c -> currencyIndex.size());
+    }
+
+    private static double[] grow(double[] vector, int length) {
+        double[] grown = vector == null ? new double[length] : Arrays.copyOf(vector, length);
+        Arrays.fill(grown, vector == null ? 0 : vector.length, length, Double.NaN);
+        return grown;
+    }
+}
@@ -3,18 +3,27 @@ package com.cs203.tariffg4t2.service.chatbot;
 import com.cs203.tariffg4t2.model.chatbot.ChatbotKnowledge;
 import com.cs203.tariffg4t2.repository.chatbot.ChatbotKnowledgeRepository;
 import com.cs203.tariffg4t2.service.data.EmbeddingService;
+import com.cs203.tariffg4t2.service.data.HnswIndex;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
 
 /**
  * Service for managing chatbot knowledge base with RAG
  * Handles population, embedding generation, and retrieval of knowledge entries
+ * Retrieval searches an in-memory HNSW index of the embedded entries, built at startup. The index
+ * holds copies of the entries without their embedding, so with a quantized rag.index.encoding
+ * only the compact codes stay in memory and candidates are re-ranked with embeddings read by id.
  */
 @Service
 @RequiredArgsConstructor
@@ -26,16 +35,27 @@ public class ChatbotKnowledgeService {
     private final ChatbotKnowledgeRepository knowledgeRepository;
     private final EmbeddingService embeddingService;
     
+    @Value("${rag.index.ef-search:64}")
+    private int efSearch;
+    
+    @Value("${rag.index.encoding:FLOAT32}")
+    private HnswIndex.Encoding indexEncoding;
+    
+    private volatile HnswIndex<ChatbotKnowledge> knowledgeIndex = new HnswIndex<>();
+    private volatile boolean indexReady;
+    
     /**
      * Populate the knowledge base with initial content
      * This should be called once during application setup
      */
     public void populateKnowledgeBase() {
         logger.info("Starting knowledge base population...");
+        knowledgeIndex = new HnswIndex<>(indexEncoding != null ? indexEncoding : HnswIndex.Encoding.FLOAT32);
         
         long existingCount = knowledgeRepository.count();
         if (existingCount > 0) {
             logger.info("Knowledge base already has {} entries. Skipping population.", existingCount);
+            indexKnowledgeBase();
             return;
         }
         
@@ -60,6 +80,7 @@ public class ChatbotKnowledgeService {
         // Generate embeddings asynchronously or in batch
         logger.info("Generating embeddings for {} entries...", savedEntries.size());
         generateEmbeddingsForEntries(savedEntries);
+        indexReady = true;
         
         logger.info("Knowledge base population completed. Total entries: {}", savedEntries.size());
     }
@@ -73,29 +94,67 @@ public class ChatbotKnowledgeService {
             return;
         }
         
-        int successCount = 0;
-        int failCount = 0;
-        
+        List<String> contents = new ArrayList<>(entries.size());
         for (ChatbotKnowledge entry : entries) {
-            try {
-                float[] embedding = embeddingService.generateEmbedding(entry.getContent());
-                String vectorString = embeddingService.embeddingToVectorString(embedding);
-                entry.setEmbedding(vectorString);
-                knowledgeRepository.save(entry);
-                successCount++;
-                
-                if (successCount % 10 == 0) {
-                    logger.info("Generated {} embeddings so far...", successCount);
-                }
-            } catch (Exception e) {
-                logger.error("Failed to generate embedding for entry {}: {}", entry.getId(), e.getMessage());
+            contents.add(entry.getContent());
+        }
+        List<float[]> embeddings = embeddingService.generateEmbeddings(contents);
+        
+        List<ChatbotKnowledge> embedded = new ArrayList<>(entries.size());
+        int failCount = 0;
+        for (int i = 0; i < entries.size(); i++) {
+            ChatbotKnowledge entry = entries.get(i);
+            if (embeddings.get(i) == null) {
+                logger.error("Failed to generate embedding for entry {}", entry.getId());
                 failCount++;
+                continue;
             }
+            entry.setEmbedding(embeddings.get(i));
+            embedded.add(entry);
         }
         
+        knowledgeRepository.saveAll(embedded);
+        addToIndex(embedded);
+        int successCount = embedded.size();
+        
         logger.info("Embedding generation complete. Success: {}, Failed: {}", successCount, failCount);
     }
     
+    /**
+     * Load every embedded entry into the in-memory index used for retrieval. Entries embedded
+     * at other dimensions than configured are embedded again first, since queries could not
+     * be compared with them.
+     */
+    public void indexKnowledgeBase() {
+        List<ChatbotKnowledge> entries = knowledgeRepository.findEntriesWithEmbeddings();
+        int dimensions = embeddingService.getDimensions();
+        List<ChatbotKnowledge> current = new ArrayList<>(entries.size());
+        List<ChatbotKnowledge> stale = new ArrayList<>();
+        for (ChatbotKnowledge entry : entries) {
+            (dimensions > 0 && entry.getEmbedding().length != dimensions ? stale : current).add(entry);
+        }
+        addToIndex(current);
+        if (!stale.isEmpty()) {
+            logger.info("Re-embedding {} knowledge entries at {} dimensions", stale.size(), dimensions);
+            generateEmbeddingsForEntries(stale);
+        }
+        indexReady = true;
+        logger.info("Indexed {} knowledge entries for semantic search", knowledgeIndex.size());
+    }
+    
+    private void addToIndex(List<ChatbotKnowledge> entries) {
+        for (ChatbotKnowledge entry : entries) {
+            if (entry.getId() == null || entry.getEmbedding() == null) {
+                continue;
+            }
+            try {
+                knowledgeIndex.add(entry.getId(), entry.getEmbedding(), withoutEmbedding(entry));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping knowledge entry {} for the index: {}", entry.getId(), e.getMessage());
+            }
+        }
+    }
+    
     /**
      * Retrieve relevant knowledge for a query using RAG
      */
@@ -107,10 +166,11 @@ public class ChatbotKnowledgeService {
         
         // Generate embedding for the query
         float[] queryEmbedding = embeddingService.generateEmbedding(query);
-        String vectorString = embeddingService.embeddingToVectorString(queryEmbedding);
         
-        // Find similar knowledge entries
-        List<ChatbotKnowledge> results = knowledgeRepository.findSimilarKnowledge(vectorString, topK);
+        // Find similar knowledge entries in the index, or with pgvector until it is built
+        List<ChatbotKnowledge> results = indexReady
+            ? searchIndex(queryEmbedding, topK, null)
+            : knowledgeRepository.findSimilarKnowledge(queryEmbedding, topK);
         
         logger.debug("Retrieved {} relevant knowledge entries for query: {}", results.size(), query);
         return results;
@@ -127,9 +187,54 @@ public class ChatbotKnowledgeService {
         }
         
         float[] queryEmbedding = embeddingService.generateEmbedding(query);
-        String vectorString = embeddingService.embeddingToVectorString(queryEmbedding);
         
-        return knowledgeRepository.findSimilarKnowledgeByCategory(vectorString, category, topK);
+        if (!indexReady) {
+            return knowledgeRepository.findSimilarKnowledgeByCategory(queryEmbedding, category, topK);
+        }
+        return searchIndex(queryEmbedding, topK, entry -> category.equals(entry.getCategory()));
+    }
+    
+    /**
+     * Search the index; quantized codes only rank approximately, so their candidates are
+     * re-ranked with their full embeddings, read in one lookup by id
+     */
+    private List<ChatbotKnowledge> searchIndex(float[] queryEmbedding, int topK, Predicate<ChatbotKnowledge> filter) {
+        HnswIndex<ChatbotKnowledge> index = knowledgeIndex;
+        if (index.getEncoding() == HnswIndex.Encoding.FLOAT32) {
+            return index.search(queryEmbedding, topK, efSearch, filter);
+        }
+        List<ChatbotKnowledge> candidates = index.search(queryEmbedding, topK * HnswIndex.RERANK_FACTOR, efSearch, filter);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<Long> ids = new ArrayList<>(candidates.size());
+        for (ChatbotKnowledge candidate : candidates) {
+            ids.add(candidate.getId());
+        }
+        Map<Long, float[]> embeddings = new HashMap<>();
+        try {
+            for (ChatbotKnowledgeRepository.KnowledgeEmbedding stored : knowledgeRepository.findEmbeddingsByIds(ids)) {
+                embeddings.put(stored.getId(), stored.getEmbedding());
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not load embeddings to re-rank knowledge, using the index order: {}", e.getMessage());
+        }
+        return HnswIndex.rerank(queryEmbedding, candidates, entry -> embeddings.get(entry.getId()), topK);
+    }
+    
+    /**
+     * Retrieval only needs the text and categories; the index keeps the vector itself
+     */
+    private static ChatbotKnowledge withoutEmbedding(ChatbotKnowledge entry) {
+        ChatbotKnowledge copy = new ChatbotKnowledge();
+        copy.setId(entry.getId());
+        copy.setContent(entry.getContent());
+        copy.setCategory(entry.getCategory());
+        copy.setSubcategory(entry.getSubcategory());
+        copy.setMetadata(entry.getMetadata());
+        copy.setCreatedAt(entry.getCreatedAt());
+        copy.setUpdatedAt(entry.getUpdatedAt());
+        return copy;
     }
     
     // ============================================================
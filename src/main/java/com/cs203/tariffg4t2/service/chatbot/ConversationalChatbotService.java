@@ -1,6 +1,7 @@
 package com.cs203.tariffg4t2.service.chatbot;
 
 import com.cs203.tariffg4t2.model.chatbot.ChatbotKnowledge;
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -22,6 +23,7 @@ public class ConversationalChatbotService {
     private final ChatbotKnowledgeService knowledgeService;
     private final OpenAIChatService openAIChatService;
     private final HsResolverService hsResolverService;
+    private final OutboundHttpClients outboundHttpClients;
     
     private static final String SYSTEM_PROMPT = """
         You are TariffNom's helpful assistant, an expert in international trade, tariffs, and HS codes.
@@ -65,6 +67,12 @@ public class ConversationalChatbotService {
             logger.warn("OpenAI not configured, returning fallback response");
             return getFallbackResponse(userQuestion);
         }
+
+        // Skip retrieval and the chat call entirely while OpenAI's circuit is open
+        if (!outboundHttpClients.isAvailable(OutboundHttpClients.Destination.OPENAI)) {
+            logger.warn("OpenAI circuit open, returning fallback response");
+            return getFallbackResponse(userQuestion);
+        }
         
         try {
             // Step 1: Retrieve relevant knowledge using RAG
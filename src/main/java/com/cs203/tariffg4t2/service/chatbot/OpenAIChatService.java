@@ -1,5 +1,6 @@
 package com.cs203.tariffg4t2.service.chatbot;
 
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -8,7 +9,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -39,7 +39,7 @@ public class OpenAIChatService {
     @Value("${openai.chat.temperature:0.7}")
     private double temperature;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OutboundHttpClients outboundHttpClients;
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     /**
@@ -89,7 +89,8 @@ public class OpenAIChatService {
         try {
             logger.debug("Sending chat request to OpenAI. Model: {}, Tokens: {}", chatModel, maxTokens);
             
-            ResponseEntity<String> response = restTemplate.postForEntity(chatUrl, request, String.class);
+            ResponseEntity<String> response = outboundHttpClients.restTemplate(OutboundHttpClients.Destination.OPENAI)
+                    .postForEntity(chatUrl, request, String.class);
             
             if (response.getStatusCode() != HttpStatus.OK) {
                 throw new Exception("OpenAI API returned status: " + response.getStatusCode());
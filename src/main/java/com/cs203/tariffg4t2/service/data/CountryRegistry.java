@@ -0,0 +1,242 @@
+package com.cs203.tariffg4t2.service.data;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+/**
+ * Immutable ISO 3166 / ISO 4217 registry bundled on the classpath (data/iso-countries.txt).
+ * Loaded once per JVM and shared by the country, code conversion, currency and scraping services,
+ * so country lookups are O(1) map reads instead of restcountries.com round trips.
+ */
+@Slf4j
+public final class CountryRegistry {
+
+    static final String RESOURCE_PATH = "data/iso-countries.txt";
+
+    private static final Pattern DIACRITICS = Pattern.compile("\\p{M}+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    static final String REGION_KIND = "region";
+
+    private final List<Entry> entries;
+    private final List<Entry> countries;
+    private final Map<String, Entry> byIso2;
+    private final Map<String, Entry> byIso3;
+    private final Map<String, Entry> byName;
+    private final Map<String, List<Entry>> byCurrency;
+
+    private CountryRegistry(List<Entry> entries) {
+        Map<String, Entry> iso2Index = new HashMap<>();
+        Map<String, Entry> iso3Index = new HashMap<>();
+        Map<String, Entry> nameIndex = new HashMap<>();
+        Map<String, List<Entry>> currencyIndex = new HashMap<>();
+
+        for (Entry entry : entries) {
+            iso2Index.put(entry.getIso2(), entry);
+            iso3Index.put(entry.getIso3(), entry);
+            nameIndex.putIfAbsent(normalizeName(entry.getName()), entry);
+            for (String alias : entry.getAliases()) {
+                nameIndex.putIfAbsent(normalizeName(alias), entry);
+            }
+            if (entry.getCurrency() != null) {
+                currencyIndex.computeIfAbsent(entry.getCurrency(), k -> new ArrayList<>()).add(entry);
+            }
+        }
+        currencyIndex.replaceAll((currency, list) -> List.copyOf(list));
+
+        this.entries = List.copyOf(entries);
+        this.countries = entries.stream().filter(Entry::isCountry).toList();
+        this.byIso2 = Map.copyOf(iso2Index);
+        this.byIso3 = Map.copyOf(iso3Index);
+        this.byName = Map.copyOf(nameIndex);
+        this.byCurrency = Map.copyOf(currencyIndex);
+    }
+
+    /**
+     * The registry loaded from the bundled classpath resource
+     */
+    public static CountryRegistry getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    static CountryRegistry load(InputStream input) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                String[] parts = line.split("\\|", -1);
+                if (parts.length < 4) {
+                    log.warn("Skipping malformed country registry line: {}", line);
+                    continue;
+                }
+                List<String> aliases = new ArrayList<>();
+                if (parts.length > 4 && !parts[4].isBlank()) {
+                    for (String alias : parts[4].split(";")) {
+                        if (!alias.isBlank()) {
+                            aliases.add(alias.trim());
+                        }
+                    }
+                }
+                entries.add(new Entry(
+                        parts[0].trim().toUpperCase(Locale.ROOT),
+                        parts[1].trim().toUpperCase(Locale.ROOT),
+                        parts[2].isBlank() ? null : parts[2].trim().toUpperCase(Locale.ROOT),
+                        parts[3].trim(),
+                        aliases,
+                        parts.length <= 5 || !REGION_KIND.equalsIgnoreCase(parts[5].trim())));
+            }
+        }
+        return new CountryRegistry(entries);
+    }
+
+    /**
+     * Every entry, including regions such as the European Union that are not countries
+     */
+    public List<Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * The entries that are countries, for country listings
+     */
+    public List<Entry> getCountries() {
+        return countries;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public Entry findByIso2(String iso2) {
+        return iso2 == null ? null : byIso2.get(iso2.trim().toUpperCase(Locale.ROOT));
+    }
+
+    public Entry findByIso3(String iso3) {
+        return iso3 == null ? null : byIso3.get(iso3.trim().toUpperCase(Locale.ROOT));
+    }
+
+    /**
+     * Find by official name or any known alias, ignoring case, accents and extra whitespace
+     */
+    public Entry findByName(String name) {
+        return name == null ? null : byName.get(normalizeName(name));
+    }
+
+    /**
+     * Resolve an ISO2 code, ISO3 code, name or alias to its registry entry
+     */
+    public Entry resolve(String codeOrName) {
+        if (codeOrName == null || codeOrName.isBlank()) {
+            return null;
+        }
+        String trimmed = codeOrName.trim();
+        Entry entry = null;
+        if (trimmed.length() == 2) {
+            entry = findByIso2(trimmed);
+        } else if (trimmed.length() == 3) {
+            entry = findByIso3(trimmed);
+        }
+        return entry != null ? entry : findByName(trimmed);
+    }
+
+    public String toIso2(String codeOrName) {
+        Entry entry = resolve(codeOrName);
+        return entry != null ? entry.getIso2() : null;
+    }
+
+    public String toIso3(String codeOrName) {
+        Entry entry = resolve(codeOrName);
+        return entry != null ? entry.getIso3() : null;
+    }
+
+    /**
+     * ISO 4217 currency for an ISO2 or ISO3 country code
+     */
+    public String currencyFor(String countryCode) {
+        if (countryCode == null) {
+            return null;
+        }
+        String trimmed = countryCode.trim();
+        Entry entry = trimmed.length() == 2 ? findByIso2(trimmed) : trimmed.length() == 3 ? findByIso3(trimmed) : null;
+        return entry != null ? entry.getCurrency() : null;
+    }
+
+    /**
+     * Countries using the given ISO 4217 currency
+     */
+    public List<Entry> findByCurrency(String currency) {
+        if (currency == null) {
+            return Collections.emptyList();
+        }
+        return byCurrency.getOrDefault(currency.trim().toUpperCase(Locale.ROOT), Collections.emptyList());
+    }
+
+    public Set<String> getCurrencies() {
+        return byCurrency.keySet();
+    }
+
+    static String normalizeName(String name) {
+        String stripped = DIACRITICS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return WHITESPACE.matcher(stripped.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Holder {
+        private static final CountryRegistry INSTANCE = loadBundled();
+
+        private static CountryRegistry loadBundled() {
+            try (InputStream input = CountryRegistry.class.getClassLoader().getResourceAsStream(RESOURCE_PATH)) {
+                if (input == null) {
+                    throw new IllegalStateException("Country registry resource not found: " + RESOURCE_PATH);
+                }
+                CountryRegistry registry = load(input);
+                log.info("Loaded country registry with {} countries and {} currencies",
+                        registry.size(), registry.getCurrencies().size());
+                return registry;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load country registry from " + RESOURCE_PATH, e);
+            }
+        }
+    }
+
+    /**
+     * One country: ISO 3166-1 alpha-2/alpha-3 codes, ISO 4217 currency (null if none) and name aliases.
+     * Entries that are not countries (the European Union, Antarctica) have country set to false.
+     */
+    @Getter
+    public static final class Entry {
+        private final String iso2;
+        private final String iso3;
+        private final String currency;
+        private final String name;
+        private final List<String> aliases;
+        private final boolean country;
+
+        Entry(String iso2, String iso3, String currency, String name, List<String> aliases, boolean country) {
+            this.iso2 = iso2;
+            this.iso3 = iso3;
+            this.currency = currency;
+            this.name = name;
+            this.aliases = List.copyOf(aliases);
+            this.country = country;
+        }
+    }
+}
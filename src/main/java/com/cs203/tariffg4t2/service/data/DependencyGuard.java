@@ -0,0 +1,173 @@
+package com.cs203.tariffg4t2.service.data;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Bulkhead plus circuit breaker for one outbound dependency.
+ * At most {@code maxConcurrent} calls run at once and callers wait no longer than
+ * {@code maxWait} (or the request deadline) for a slot, so a slow vendor cannot tie up
+ * every request thread. After {@code failureThreshold} consecutive failures the circuit
+ * opens and calls are rejected immediately; once {@code openDuration} has passed a single
+ * half-open probe is let through and its outcome closes or re-opens the circuit.
+ */
+@Slf4j
+public class DependencyGuard {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /**
+     * Call rejected without reaching the dependency
+     */
+    public static class RejectedException extends IOException {
+        public RejectedException(String message) {
+            super(message);
+        }
+    }
+
+    @FunctionalInterface
+    public interface GuardedCall<T> {
+        T call() throws IOException, InterruptedException;
+    }
+
+    private final String name;
+    private final Semaphore permits;
+    private final Duration maxWait;
+    private final int failureThreshold;
+    private final Duration openDuration;
+    private final Clock clock;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private Instant openedAt;
+    private boolean probeInFlight;
+
+    public DependencyGuard(String name, int maxConcurrent, Duration maxWait,
+                           int failureThreshold, Duration openDuration) {
+        this(name, maxConcurrent, maxWait, failureThreshold, openDuration, Clock.systemUTC());
+    }
+
+    DependencyGuard(String name, int maxConcurrent, Duration maxWait,
+                    int failureThreshold, Duration openDuration, Clock clock) {
+        this.name = name;
+        this.permits = new Semaphore(maxConcurrent);
+        this.maxWait = maxWait;
+        this.failureThreshold = failureThreshold;
+        this.openDuration = openDuration;
+        this.clock = clock;
+    }
+
+    /**
+     * Run the call inside the bulkhead and record its outcome on the circuit.
+     * A returned value matching {@code isFailure} counts as a failure but is still returned.
+     */
+    public <T> T execute(GuardedCall<T> call, Predicate<T> isFailure) throws IOException, InterruptedException {
+        if (RequestDeadline.isExpired()) {
+            throw new RejectedException(name + ": request deadline exceeded");
+        }
+        long waitMillis = RequestDeadline.cap(maxWait).toMillis();
+        boolean probe = admit();
+
+        if (!permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS)) {
+            if (probe) {
+                releaseProbe();
+            }
+            log.warn("{} bulkhead full, rejecting call", name);
+            throw new RejectedException(name + ": too many concurrent calls");
+        }
+
+        try {
+            T result = call.call();
+            if (isFailure.test(result)) {
+                onFailure();
+            } else {
+                onSuccess();
+            }
+            return result;
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            onFailure();
+            throw e;
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Whether a call would currently be let through the circuit
+     */
+    public synchronized boolean isCallPermitted() {
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> !Instant.now(clock).isBefore(openedAt.plus(openDuration));
+            case HALF_OPEN -> !probeInFlight;
+        };
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public int getAvailablePermits() {
+        return permits.availablePermits();
+    }
+
+    /**
+     * Check the circuit; returns true if this call is the half-open probe
+     */
+    private synchronized boolean admit() throws RejectedException {
+        if (state == State.OPEN && !Instant.now(clock).isBefore(openedAt.plus(openDuration))) {
+            state = State.HALF_OPEN;
+            probeInFlight = false;
+            log.info("{} circuit half-open, probing", name);
+        }
+        switch (state) {
+            case OPEN -> throw new RejectedException(name + ": circuit open");
+            case HALF_OPEN -> {
+                if (probeInFlight) {
+                    throw new RejectedException(name + ": circuit half-open, probe in flight");
+                }
+                probeInFlight = true;
+                return true;
+            }
+            default -> {
+                return false;
+            }
+        }
+    }
+
+    private synchronized void releaseProbe() {
+        probeInFlight = false;
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            log.info("{} circuit closed", name);
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            if (state != State.OPEN) {
+                log.warn("{} circuit opened after {} consecutive failures", name, consecutiveFailures);
+            }
+            state = State.OPEN;
+            openedAt = Instant.now(clock);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.cs203.tariffg4t2.service.data;
+
+import com.cs203.tariffg4t2.model.basic.EmbeddingCacheEntry;
+import com.cs203.tariffg4t2.repository.basic.EmbeddingCacheRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Normalizer;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Embeddings keyed by (model, SHA-256 of the normalized text), in two tiers: an in-memory LRU
+ * of the most recently used vectors in front of the embedding_cache table. Entries never go
+ * stale, since the same model always embeds the same text the same way. If the table is
+ * unavailable the cache degrades to memory only.
+ */
+@Service
+@RequiredArgsConstructor
+public class EmbeddingCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddingCache.class);
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    // ~6 KB per 1536-dim vector, so ~12 MB when full
+    static final int MEMORY_CAPACITY = 2_000;
+
+    private final EmbeddingCacheRepository embeddingCacheRepository;
+    private final Map<String, float[]> memory = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, float[]> eldest) {
+            return size() > MEMORY_CAPACITY;
+        }
+    };
+
+    /**
+     * Cache key for a text embedded by a model: whitespace runs collapse and Unicode is NFC
+     * normalized, so texts that differ only in spacing share an entry. Case is kept, as the
+     * model sees it.
+     */
+    public static String key(String model, String text) {
+        String normalized = WHITESPACE.matcher(Normalizer.normalize(text, Normalizer.Form.NFC)).replaceAll(" ").trim();
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return model + ":" + HexFormat.of().formatHex(digest.digest(normalized.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    /**
+     * Cached embedding for the key, or null
+     */
+    public float[] get(String key) {
+        return getAll(List.of(key)).get(key);
+    }
+
+    /**
+     * Cached embeddings for the keys that have one; memory first, then one table lookup for the rest
+     */
+    public Map<String, float[]> getAll(Collection<String> keys) {
+        Map<String, float[]> found = new HashMap<>();
+        List<String> misses = new ArrayList<>();
+        synchronized (memory) {
+            for (String key : keys) {
+                float[] embedding = memory.get(key);
+                if (embedding != null) {
+                    found.put(key, embedding.clone());
+                } else {
+                    misses.add(key);
+                }
+            }
+        }
+        if (misses.isEmpty()) {
+            return found;
+        }
+
+        List<EmbeddingCacheEntry> stored;
+        try {
+            stored = embeddingCacheRepository.findAllById(misses);
+        } catch (DataAccessException e) {
+            logger.warn("Embedding cache table unavailable, using memory only: {}", e.getMessage());
+            return found;
+        }
+        synchronized (memory) {
+            for (EmbeddingCacheEntry entry : stored) {
+                float[] embedding = decode(entry.getEmbedding());
+                memory.put(entry.getCacheKey(), embedding);
+                found.put(entry.getCacheKey(), embedding.clone());
+            }
+        }
+        logger.debug("Embedding cache: {} hits, {} misses", found.size(), keys.size() - found.size());
+        return found;
+    }
+
+    public void put(String key, float[] embedding) {
+        putAll(Map.of(key, embedding));
+    }
+
+    /**
+     * Remember embeddings in memory and store them in one batch of inserts. Only embeddings
+     * just generated for cache misses are passed in; texts another request stored first are
+     * skipped by the insert rather than failing the batch.
+     */
+    public void putAll(Map<String, float[]> embeddings) {
+        if (embeddings.isEmpty()) {
+            return;
+        }
+        List<EmbeddingCacheEntry> entries = new ArrayList<>(embeddings.size());
+        Instant now = Instant.now();
+        synchronized (memory) {
+            for (Map.Entry<String, float[]> embedding : embeddings.entrySet()) {
+                memory.put(embedding.getKey(), embedding.getValue().clone());
+                String key = embedding.getKey();
+                entries.add(new EmbeddingCacheEntry(key, key.substring(0, key.lastIndexOf(':')),
+                                                    encode(embedding.getValue()), now));
+            }
+        }
+        try {
+            embeddingCacheRepository.insertMissing(entries);
+        } catch (DataAccessException e) {
+            logger.warn("Failed to store {} embeddings in the cache table: {}", entries.size(), e.getMessage());
+        }
+    }
+
+    static byte[] encode(float[] embedding) {
+        ByteBuffer buffer = ByteBuffer.allocate(embedding.length * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.asFloatBuffer().put(embedding);
+        return buffer.array();
+    }
+
+    static float[] decode(byte[] bytes) {
+        float[] embedding = new float[bytes.length / Float.BYTES];
+        ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asFloatBuffer().get(embedding);
+        return embedding;
+    }
+}
@@ -8,9 +8,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Service for generating text embeddings using OpenAI's Embedding API
@@ -21,6 +32,12 @@ import java.util.Map;
 public class EmbeddingService {
     
     private static final Logger logger = LoggerFactory.getLogger(EmbeddingService.class);
+    private static final int MAX_INPUT_CHARS = 8000;
+    // Per request: well under the API's 2048 inputs and ~300k tokens
+    static final int MAX_BATCH_INPUTS = 256;
+    static final int MAX_BATCH_CHARS = 400_000;
+    private static final int MAX_CONCURRENT_BATCHES = 4;
+    private static final double BATCH_REQUESTS_PER_SECOND = 5.0;
     
     @Value("${openai.api.key}")
     private String openAiApiKey;
@@ -31,46 +48,220 @@ public class EmbeddingService {
     @Value("${openai.embedding.model:text-embedding-3-small}")
     private String embeddingModel;
     
-    private final RestTemplate restTemplate = new RestTemplate();
+    // Shortened embeddings (text-embedding-3 models); 0 keeps the model's full 1536
+    @Value("${openai.embedding.dimensions:0}")
+    private int embeddingDimensions;
+    
+    private final EmbeddingCache embeddingCache;
+    private final OutboundHttpClients outboundHttpClients;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final TokenBucket batchRateLimiter = new TokenBucket(BATCH_REQUESTS_PER_SECOND, MAX_CONCURRENT_BATCHES);
+    private final Semaphore batchSlots = new Semaphore(MAX_CONCURRENT_BATCHES);
     
     /**
      * Generate embedding vector for text using OpenAI API
      * @param text The text to embed
-     * @return float array representing the embedding (1536 dimensions for text-embedding-3-small)
+     * @return float array representing the embedding (1536 dimensions for text-embedding-3-small,
+     *         or openai.embedding.dimensions when set)
      */
     public float[] generateEmbedding(String text) throws Exception {
         if (text == null || text.trim().isEmpty()) {
             throw new IllegalArgumentException("Text cannot be null or empty");
         }
         
-        // Truncate if too long (OpenAI has token limits)
-        String truncatedText = text.length() > 8000 ? text.substring(0, 8000) : text;
+        String truncatedText = truncate(text);
+        String cacheKey = EmbeddingCache.key(cacheModel(), truncatedText);
+        float[] cached = embeddingCache.get(cacheKey);
+        if (cached != null) {
+            logger.debug("Embedding cache hit for text of length: {}", truncatedText.length());
+            return cached;
+        }
+        
+        try {
+            logger.debug("Generating embedding for text of length: {}", truncatedText.length());
+            float[] embedding = requestEmbeddings(List.of(truncatedText))[0];
+            logger.debug("Generated embedding with {} dimensions", embedding.length);
+            embeddingCache.put(cacheKey, embedding);
+            return embedding;
+        } catch (Exception e) {
+            logger.error("Failed to generate embedding: {}", e.getMessage(), e);
+            throw new Exception("Embedding generation failed: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Generate embeddings for many texts. Texts already in the embedding cache are not sent; the
+     * rest go as array inputs in batches bounded by count and size. Batches run concurrently on virtual threads, at most MAX_CONCURRENT_BATCHES
+     * at a time and no faster than the batch token bucket allows.
+     * @param texts The texts to embed
+     * @return one embedding per text, in the same order; null where the text was blank or its
+     *         batch failed
+     */
+    public List<float[]> generateEmbeddings(List<String> texts) {
+        float[][] embeddings = new float[texts.size()][];
+        String[] cacheKeys = new String[texts.size()];
+        List<String> keysToLookUp = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text != null && !text.trim().isEmpty()) {
+                cacheKeys[i] = EmbeddingCache.key(cacheModel(), truncate(text));
+                keysToLookUp.add(cacheKeys[i]);
+            }
+        }
+        
+        // Serve what the cache has; only the rest are planned into batches, each distinct text once
+        Map<String, float[]> cached = keysToLookUp.isEmpty() ? Map.of() : embeddingCache.getAll(keysToLookUp);
+        Map<String, Integer> firstIndexByKey = new HashMap<>();
+        List<String> uncachedTexts = new ArrayList<>(texts.size());
+        for (int i = 0; i < texts.size(); i++) {
+            float[] embedding = cacheKeys[i] != null ? cached.get(cacheKeys[i]) : null;
+            embeddings[i] = embedding;
+            boolean send = cacheKeys[i] != null && embedding == null && firstIndexByKey.putIfAbsent(cacheKeys[i], i) == null;
+            uncachedTexts.add(send ? texts.get(i) : null);
+        }
+        
+        List<List<Integer>> batches = planBatches(uncachedTexts);
+        if (batches.isEmpty()) {
+            return Arrays.asList(embeddings);
+        }
+        logger.info("Generating {} embeddings in {} batches ({} served from cache)",
+                   firstIndexByKey.size(), batches.size(), cached.size());
+        
+        Map<String, float[]> generated = new HashMap<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            List<Future<float[][]>> futures = new ArrayList<>(batches.size());
+            for (List<Integer> batch : batches) {
+                List<String> inputs = new ArrayList<>(batch.size());
+                for (int index : batch) {
+                    inputs.add(truncate(texts.get(index)));
+                }
+                futures.add(executor.submit(RequestDeadline.propagate(() -> requestBatch(inputs))));
+            }
+            
+            for (int i = 0; i < futures.size(); i++) {
+                List<Integer> batch = batches.get(i);
+                try {
+                    float[][] batchEmbeddings = futures.get(i).get(waitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+                    for (int j = 0; j < batch.size(); j++) {
+                        embeddings[batch.get(j)] = batchEmbeddings[j];
+                        generated.put(cacheKeys[batch.get(j)], batchEmbeddings[j]);
+                    }
+                } catch (ExecutionException e) {
+                    logger.warn("Failed to generate a batch of {} embeddings: {}",
+                               batch.size(), e.getCause().getMessage());
+                } catch (TimeoutException e) {
+                    logger.warn("Timed out waiting for embeddings, abandoning {} of {} batches",
+                               futures.size() - i, futures.size());
+                    cancelFrom(futures, i);
+                    break;
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    cancelFrom(futures, i);
+                    break;
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
         
+        // Repeats of a text share the embedding generated for its first occurrence
+        for (int i = 0; i < texts.size(); i++) {
+            if (embeddings[i] == null && cacheKeys[i] != null) {
+                embeddings[i] = generated.get(cacheKeys[i]);
+            }
+        }
+        
+        embeddingCache.putAll(generated);
+        return Arrays.asList(embeddings);
+    }
+    
+    /**
+     * How long to wait for the next batch: the time left before the request deadline, or the
+     * OpenAI read timeout when there is no deadline (background jobs)
+     */
+    private static Duration waitTimeout() {
+        Duration remaining = RequestDeadline.remaining();
+        return remaining != null ? remaining : OutboundHttpClients.Destination.OPENAI.getReadTimeout();
+    }
+    
+    private static void cancelFrom(List<? extends Future<?>> futures, int first) {
+        for (int i = first; i < futures.size(); i++) {
+            futures.get(i).cancel(true);
+        }
+    }
+    
+    /**
+     * Group the indexes of the non-blank texts into batches of at most MAX_BATCH_INPUTS texts
+     * and MAX_BATCH_CHARS characters (after truncation)
+     */
+    static List<List<Integer>> planBatches(List<String> texts) {
+        List<List<Integer>> batches = new ArrayList<>();
+        List<Integer> batch = new ArrayList<>();
+        int batchChars = 0;
+        for (int i = 0; i < texts.size(); i++) {
+            String text = texts.get(i);
+            if (text == null || text.trim().isEmpty()) {
+                continue;
+            }
+            int chars = Math.min(text.length(), MAX_INPUT_CHARS);
+            if (!batch.isEmpty() && (batch.size() == MAX_BATCH_INPUTS || batchChars + chars > MAX_BATCH_CHARS)) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                batchChars = 0;
+            }
+            batch.add(i);
+            batchChars += chars;
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        return batches;
+    }
+    
+    /**
+     * One batch request, waiting for a token and a concurrency slot first
+     */
+    private float[][] requestBatch(List<String> inputs) throws Exception {
+        batchRateLimiter.acquire();
+        batchSlots.acquire();
+        try {
+            return requestEmbeddings(inputs);
+        } finally {
+            batchSlots.release();
+        }
+    }
+    
+    /**
+     * POST the inputs as one request and map the returned embeddings back by their index
+     */
+    private float[][] requestEmbeddings(List<String> inputs) throws Exception {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         headers.setBearerAuth(openAiApiKey);
         
-        Map<String, Object> requestBody = Map.of(
-            "model", embeddingModel,
-            "input", truncatedText
-        );
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", embeddingModel);
+        requestBody.put("input", inputs);
+        if (embeddingDimensions > 0) {
+            requestBody.put("dimensions", embeddingDimensions);
+        }
         
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+        ResponseEntity<String> response = outboundHttpClients.restTemplate(OutboundHttpClients.Destination.OPENAI)
+                .postForEntity(embeddingUrl, request, String.class);
         
-        try {
-            logger.debug("Generating embedding for text of length: {}", truncatedText.length());
-            ResponseEntity<String> response = restTemplate.postForEntity(embeddingUrl, request, String.class);
-            
-            if (response.getStatusCode() != HttpStatus.OK) {
-                throw new Exception("OpenAI API returned status: " + response.getStatusCode());
-            }
-            
-            // Parse response
-            JsonNode root = objectMapper.readTree(response.getBody());
-            JsonNode embeddingArray = root.path("data").get(0).path("embedding");
-            
-            if (embeddingArray == null || !embeddingArray.isArray()) {
+        if (response.getStatusCode() != HttpStatus.OK) {
+            throw new Exception("OpenAI API returned status: " + response.getStatusCode());
+        }
+        
+        // Parse response; entries carry the index of their input and may come back in any order
+        JsonNode data = objectMapper.readTree(response.getBody()).path("data");
+        float[][] embeddings = new float[inputs.size()][];
+        for (JsonNode item : data) {
+            int index = item.path("index").asInt(-1);
+            JsonNode embeddingArray = item.path("embedding");
+            if (index < 0 || index >= inputs.size() || !embeddingArray.isArray()) {
                 throw new Exception("Invalid embedding response from OpenAI");
             }
             
@@ -79,32 +270,35 @@ public class EmbeddingService {
             for (int i = 0; i < embeddingArray.size(); i++) {
                 embedding[i] = (float) embeddingArray.get(i).asDouble();
             }
-            
-            logger.debug("Generated embedding with {} dimensions", embedding.length);
-            return embedding;
-            
-        } catch (Exception e) {
-            logger.error("Failed to generate embedding: {}", e.getMessage(), e);
-            throw new Exception("Embedding generation failed: " + e.getMessage(), e);
+            embeddings[index] = embedding;
+        }
+        
+        for (float[] embedding : embeddings) {
+            if (embedding == null) {
+                throw new Exception("Invalid embedding response from OpenAI: " + data.size()
+                    + " embeddings for " + inputs.size() + " inputs");
+            }
         }
+        return embeddings;
     }
     
     /**
-     * Convert float array to PostgreSQL vector format: '[0.1, 0.2, ...]'
+     * Cache namespace: the same text shortened to other dimensions is a different embedding
      */
-    public String embeddingToVectorString(float[] embedding) {
-        if (embedding == null || embedding.length == 0) {
-            return null;
-        }
-        
-        StringBuilder sb = new StringBuilder("[");
-        for (int i = 0; i < embedding.length; i++) {
-            if (i > 0) sb.append(",");
-            sb.append(embedding[i]);
-        }
-        sb.append("]");
-        
-        return sb.toString();
+    private String cacheModel() {
+        return embeddingDimensions > 0 ? embeddingModel + "@" + embeddingDimensions : embeddingModel;
+    }
+    
+    /**
+     * Configured embedding dimensions, or 0 when the model's default is used
+     */
+    public int getDimensions() {
+        return embeddingDimensions;
+    }
+    
+    // Truncate if too long (OpenAI has token limits)
+    private static String truncate(String text) {
+        return text.length() > MAX_INPUT_CHARS ? text.substring(0, MAX_INPUT_CHARS) : text;
     }
     
     /**
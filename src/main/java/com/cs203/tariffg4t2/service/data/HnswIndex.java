@@ -0,0 +1,496 @@
+package com.cs203.tariffg4t2.service.data;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * In-memory approximate nearest-neighbour index by cosine similarity: a hierarchical navigable
+ * small world graph (Malkov &amp; Yashunin). Each item is a node linked to about M near
+ * neighbours per layer; a search descends greedily through the sparse upper layers and then
+ * explores the bottom layer keeping the efSearch best candidates, so it touches a few hundred
+ * vectors rather than all of them. Higher efSearch trades speed for recall.
+ *
+ * Vectors are normalized on insert, so similarity is a dot product. They can be held as int8
+ * or binary codes instead of floats (see {@link Encoding}); the search then ranks by the codes,
+ * and callers re-rank a few times k candidates at full precision with {@link #rerank}. Adding an
+ * id again replaces its item; replaced and removed nodes stay in the graph for navigation but
+ * are never returned. Searches run concurrently; inserts are serialized.
+ */
+public class HnswIndex<T> {
+
+    public static final int DEFAULT_M = 16;
+    public static final int DEFAULT_EF_CONSTRUCTION = 128;
+    public static final int DEFAULT_EF_SEARCH = 64;
+    // Candidates per result to fetch from a quantized index for re-ranking
+    public static final int RERANK_FACTOR = 4;
+    private static final long DEFAULT_SEED = 42L;
+
+    /**
+     * How node vectors are held: FLOAT32 as is; INT8 as one signed byte per dimension plus a
+     * scale (4x smaller); BINARY as one sign bit per dimension, compared by Hamming distance
+     * (32x smaller). Quantized searches rank approximately, so re-rank their candidates.
+     */
+    public enum Encoding {
+        FLOAT32, INT8, BINARY
+    }
+
+    private final int m;
+    private final int maxNeighborsLayer0;
+    private final int efConstruction;
+    private final Encoding encoding;
+    private final double levelMultiplier;
+    private final SplittableRandom random;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final List<Node<T>> nodes = new ArrayList<>();
+    private final Map<Long, Integer> nodeById = new HashMap<>();
+
+    private int entryPoint = -1;
+    private int topLevel = -1;
+    private int dimensions = -1;
+    private int liveCount;
+
+    public HnswIndex() {
+        this(Encoding.FLOAT32);
+    }
+
+    public HnswIndex(Encoding encoding) {
+        this(DEFAULT_M, DEFAULT_EF_CONSTRUCTION, encoding, DEFAULT_SEED);
+    }
+
+    public HnswIndex(int m, int efConstruction, Encoding encoding, long seed) {
+        if (m < 2 || efConstruction < 1) {
+            throw new IllegalArgumentException("HNSW needs M of at least 2 and a positive efConstruction");
+        }
+        this.m = m;
+        this.maxNeighborsLayer0 = 2 * m;
+        this.efConstruction = efConstruction;
+        this.encoding = encoding;
+        this.levelMultiplier = 1 / Math.log(m);
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Index an item under its id, replacing any item already indexed under that id
+     */
+    public void add(long id, float[] vector, T item) {
+        float[] normalized = normalize(vector);
+        lock.writeLock().lock();
+        try {
+            if (dimensions == -1) {
+                dimensions = normalized.length;
+            } else if (normalized.length != dimensions) {
+                throw new IllegalArgumentException("Vector has " + normalized.length + " dimensions, index has " + dimensions);
+            }
+            Integer previous = nodeById.get(id);
+            if (previous != null && !nodes.get(previous).deleted) {
+                nodes.get(previous).deleted = true;
+                liveCount--;
+            }
+
+            int level = (int) (-Math.log(1 - random.nextDouble()) * levelMultiplier);
+            int index = nodes.size();
+            Code query = encode(normalized);
+            Node<T> node = new Node<>(id, query, item, level, m, maxNeighborsLayer0);
+            nodes.add(node);
+            nodeById.put(id, index);
+            liveCount++;
+            if (entryPoint == -1) {
+                entryPoint = index;
+                topLevel = level;
+                return;
+            }
+
+            int current = entryPoint;
+            for (int layer = topLevel; layer > level; layer--) {
+                current = greedyClosest(query, current, layer);
+            }
+            for (int layer = Math.min(level, topLevel); layer >= 0; layer--) {
+                List<Candidate> nearest = searchLayer(query, current, efConstruction, layer, null);
+                int maxNeighbors = layer == 0 ? maxNeighborsLayer0 : m;
+                for (Candidate neighbor : selectNeighbors(nearest, m)) {
+                    node.link(layer, neighbor.node);
+                    Node<T> other = nodes.get(neighbor.node);
+                    if (!other.link(layer, index)) {
+                        prune(other, layer, index, maxNeighbors);
+                    }
+                }
+                current = nearest.get(0).node;
+            }
+            if (level > topLevel) {
+                topLevel = level;
+                entryPoint = index;
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Stop returning the item indexed under the id
+     */
+    public boolean remove(long id) {
+        lock.writeLock().lock();
+        try {
+            Integer index = nodeById.remove(id);
+            if (index == null || nodes.get(index).deleted) {
+                return false;
+            }
+            nodes.get(index).deleted = true;
+            liveCount--;
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * Memory held by the node vectors or codes, for sizing
+     */
+    public long vectorBytes() {
+        lock.readLock().lock();
+        try {
+            long perVector = switch (encoding) {
+                case FLOAT32 -> (long) dimensions * Float.BYTES;
+                case INT8 -> dimensions + Float.BYTES;
+                case BINARY -> (long) (dimensions + 63) / 64 * Long.BYTES;
+            };
+            return dimensions < 0 ? 0 : perVector * nodes.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return liveCount;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Up to k items most similar to the query, most similar first
+     *
+     * @param efSearch candidates kept while searching; at least k is used, and
+     *                 {@link #DEFAULT_EF_SEARCH} when not positive
+     * @param filter   only items passing it are returned; null for all
+     */
+    public List<T> search(float[] query, int k, int efSearch, Predicate<? super T> filter) {
+        float[] normalized = normalize(query);
+        int ef = Math.max(efSearch > 0 ? efSearch : DEFAULT_EF_SEARCH, k);
+        lock.readLock().lock();
+        try {
+            if (entryPoint == -1 || k <= 0) {
+                return List.of();
+            }
+            if (normalized.length != dimensions) {
+                throw new IllegalArgumentException("Query has " + normalized.length + " dimensions, index has " + dimensions);
+            }
+
+            Code code = encode(normalized);
+            int current = entryPoint;
+            for (int layer = topLevel; layer > 0; layer--) {
+                current = greedyClosest(code, current, layer);
+            }
+            Predicate<Node<T>> accept = node -> !node.deleted && (filter == null || filter.test(node.item));
+            List<Candidate> nearest = searchLayer(code, current, ef, 0, accept);
+
+            List<T> results = new ArrayList<>(Math.min(k, nearest.size()));
+            for (int i = 0; i < nearest.size() && results.size() < k; i++) {
+                results.add(nodes.get(nearest.get(i).node).item);
+            }
+            return results;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * The k candidates most similar to the query by exact cosine similarity, most similar first.
+     * Candidates without a usable full-precision vector keep their order after the rest.
+     */
+    public static <T> List<T> rerank(float[] query, List<T> candidates, Function<? super T, float[]> fullPrecision, int k) {
+        float[] normalized = normalize(query);
+        List<Scored<T>> scored = new ArrayList<>(candidates.size());
+        for (T candidate : candidates) {
+            float[] vector = fullPrecision.apply(candidate);
+            double similarity = Double.NEGATIVE_INFINITY;
+            if (vector != null && vector.length == normalized.length) {
+                double norm = Math.sqrt(dot(vector, vector));
+                if (norm > 0) {
+                    similarity = dot(normalized, vector) / norm;
+                }
+            }
+            scored.add(new Scored<>(candidate, similarity));
+        }
+        scored.sort(Comparator.comparingDouble((Scored<T> entry) -> entry.similarity).reversed());
+
+        List<T> results = new ArrayList<>(Math.min(k, scored.size()));
+        for (int i = 0; i < scored.size() && results.size() < k; i++) {
+            results.add(scored.get(i).item);
+        }
+        return results;
+    }
+
+    private int greedyClosest(Code query, int start, int layer) {
+        int best = start;
+        double bestDistance = distance(query, nodes.get(start).code);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            Node<T> node = nodes.get(best);
+            for (int i = 0; i < node.counts[layer]; i++) {
+                int neighbor = node.neighbors[layer][i];
+                double d = distance(query, nodes.get(neighbor).code);
+                if (d < bestDistance) {
+                    bestDistance = d;
+                    best = neighbor;
+                    improved = true;
+                }
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Best-first search of one layer from the entry node, nearest first. Every node steers the
+     * search, but only nodes passing {@code accept} (all when null) fill the ef results.
+     */
+    private List<Candidate> searchLayer(Code query, int entry, int ef, int layer, Predicate<Node<T>> accept) {
+        BitSet visited = new BitSet(nodes.size());
+        PriorityQueue<Candidate> candidates = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance));
+        PriorityQueue<Candidate> results = new PriorityQueue<>(Comparator.comparingDouble(Candidate::distance).reversed());
+
+        Candidate start = new Candidate(entry, distance(query, nodes.get(entry).code));
+        visited.set(entry);
+        candidates.add(start);
+        if (accept == null || accept.test(nodes.get(entry))) {
+            results.add(start);
+        }
+
+        while (!candidates.isEmpty()) {
+            Candidate closest = candidates.poll();
+            if (results.size() >= ef && closest.distance > results.peek().distance) {
+                break;
+            }
+            Node<T> node = nodes.get(closest.node);
+            for (int i = 0; i < node.counts[layer]; i++) {
+                int neighbor = node.neighbors[layer][i];
+                if (visited.get(neighbor)) {
+                    continue;
+                }
+                visited.set(neighbor);
+                double d = distance(query, nodes.get(neighbor).code);
+                if (results.size() < ef || d < results.peek().distance) {
+                    Candidate candidate = new Candidate(neighbor, d);
+                    candidates.add(candidate);
+                    if (accept == null || accept.test(nodes.get(neighbor))) {
+                        results.add(candidate);
+                        if (results.size() > ef) {
+                            results.poll();
+                        }
+                    }
+                }
+            }
+        }
+
+        List<Candidate> sorted = new ArrayList<>(results);
+        sorted.sort(Comparator.comparingDouble(Candidate::distance));
+        return sorted;
+    }
+
+    /**
+     * The diversity heuristic: take candidates nearest first, skipping any closer to an already
+     * chosen neighbour than to the base node, then top up with the skipped ones
+     */
+    private List<Candidate> selectNeighbors(List<Candidate> nearestFirst, int max) {
+        List<Candidate> selected = new ArrayList<>(max);
+        List<Candidate> skipped = new ArrayList<>();
+        for (Candidate candidate : nearestFirst) {
+            if (selected.size() >= max) {
+                break;
+            }
+            boolean diverse = true;
+            Code code = nodes.get(candidate.node).code;
+            for (Candidate chosen : selected) {
+                if (distance(code, nodes.get(chosen.node).code) < candidate.distance) {
+                    diverse = false;
+                    break;
+                }
+            }
+            (diverse ? selected : skipped).add(candidate);
+        }
+        for (int i = 0; i < skipped.size() && selected.size() < max; i++) {
+            selected.add(skipped.get(i));
+        }
+        return selected;
+    }
+
+    private void prune(Node<T> node, int layer, int added, int maxNeighbors) {
+        List<Candidate> candidates = new ArrayList<>(node.counts[layer] + 1);
+        for (int i = 0; i < node.counts[layer]; i++) {
+            int neighbor = node.neighbors[layer][i];
+            candidates.add(new Candidate(neighbor, distance(node.code, nodes.get(neighbor).code)));
+        }
+        candidates.add(new Candidate(added, distance(node.code, nodes.get(added).code)));
+        candidates.sort(Comparator.comparingDouble(Candidate::distance));
+
+        node.counts[layer] = 0;
+        for (Candidate kept : selectNeighbors(candidates, maxNeighbors)) {
+            node.link(layer, kept.node);
+        }
+    }
+
+    /**
+     * A unit vector as the index holds it. Queries are encoded the same way: comparing int8
+     * codes to int8 codes is an integer loop the JIT vectorizes, about twice as fast as a float
+     * query against the codes, and the full-precision re-rank recovers the ranking.
+     */
+    private Code encode(float[] normalized) {
+        switch (encoding) {
+            case INT8 -> {
+                float maxAbs = 0;
+                for (float value : normalized) {
+                    maxAbs = Math.max(maxAbs, Math.abs(value));
+                }
+                float scale = maxAbs / 127;
+                byte[] bytes = new byte[normalized.length];
+                for (int i = 0; i < normalized.length; i++) {
+                    bytes[i] = (byte) Math.round(normalized[i] / scale);
+                }
+                return new Code(null, bytes, scale, null);
+            }
+            case BINARY -> {
+                long[] bits = new long[(normalized.length + 63) / 64];
+                for (int i = 0; i < normalized.length; i++) {
+                    if (normalized[i] > 0) {
+                        bits[i >>> 6] |= 1L << i;
+                    }
+                }
+                return new Code(null, null, 0, bits);
+            }
+            default -> {
+                return new Code(normalized, null, 0, null);
+            }
+        }
+    }
+
+    /**
+     * Cosine distance for FLOAT32 and INT8, the fraction of differing sign bits for BINARY
+     */
+    private double distance(Code a, Code b) {
+        return switch (encoding) {
+            case FLOAT32 -> 1 - dot(a.vector, b.vector);
+            case INT8 -> 1 - (double) dot(a.bytes, b.bytes) * a.scale * b.scale;
+            case BINARY -> hamming(a.bits, b.bits) / (double) dimensions;
+        };
+    }
+
+    /**
+     * Four independent sums let the JIT pipeline the multiplies instead of waiting on one
+     * accumulator; the distance loops are nearly all of the search time.
+     */
+    private static double dot(float[] a, float[] b) {
+        float s0 = 0;
+        float s1 = 0;
+        float s2 = 0;
+        float s3 = 0;
+        int i = 0;
+        for (int end = a.length - 3; i < end; i += 4) {
+            s0 += a[i] * b[i];
+            s1 += a[i + 1] * b[i + 1];
+            s2 += a[i + 2] * b[i + 2];
+            s3 += a[i + 3] * b[i + 3];
+        }
+        for (; i < a.length; i++) {
+            s0 += a[i] * b[i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    private static int dot(byte[] a, byte[] b) {
+        int sum = 0;
+        for (int i = 0; i < a.length; i++) {
+            sum += a[i] * b[i];
+        }
+        return sum;
+    }
+
+    private static int hamming(long[] a, long[] b) {
+        int differing = 0;
+        for (int i = 0; i < a.length; i++) {
+            differing += Long.bitCount(a[i] ^ b[i]);
+        }
+        return differing;
+    }
+
+    private static float[] normalize(float[] vector) {
+        double sumOfSquares = 0;
+        for (float value : vector) {
+            sumOfSquares += value * value;
+        }
+        if (vector.length == 0 || sumOfSquares == 0 || Double.isNaN(sumOfSquares)) {
+            throw new IllegalArgumentException("Cannot index a zero or empty vector");
+        }
+        float scale = (float) (1 / Math.sqrt(sumOfSquares));
+        float[] normalized = new float[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            normalized[i] = vector[i] * scale;
+        }
+        return normalized;
+    }
+
+    private record Candidate(int node, double distance) {
+    }
+
+    private record Scored<T>(T item, double similarity) {
+    }
+
+    private record Code(float[] vector, byte[] bytes, float scale, long[] bits) {
+    }
+
+    private static final class Node<T> {
+        final long id;
+        final Code code;
+        final T item;
+        final int[][] neighbors;   // per layer, the first counts[layer] are in use
+        final int[] counts;
+        boolean deleted;
+
+        Node(long id, Code code, T item, int level, int m, int maxNeighborsLayer0) {
+            this.id = id;
+            this.code = code;
+            this.item = item;
+            this.neighbors = new int[level + 1][];
+            this.counts = new int[level + 1];
+            for (int layer = 0; layer <= level; layer++) {
+                neighbors[layer] = new int[layer == 0 ? maxNeighborsLayer0 : m];
+            }
+        }
+
+        /**
+         * Add a link if there is room; false when the layer's list is full
+         */
+        boolean link(int layer, int neighbor) {
+            if (counts[layer] == neighbors[layer].length) {
+                return false;
+            }
+            neighbors[layer][counts[layer]++] = neighbor;
+            return true;
+        }
+    }
+}
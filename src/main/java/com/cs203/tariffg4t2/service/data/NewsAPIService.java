@@ -9,7 +9,6 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
@@ -17,7 +16,12 @@ import java.time.LocalDateTime;
 import java.time.ZonedDateTime;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
@@ -28,11 +32,15 @@ public class NewsAPIService {
         "tariff", "imports", "exports", "currency", "trade policy", 
         "trade war", "customs", "international trade"
     };
+    // Sizing for the known-URL filter; grown to twice the stored URLs if there are more
+    private static final int KNOWN_URLS_EXPECTED = 100_000;
+    private static final double KNOWN_URLS_FALSE_POSITIVE_RATE = 0.01;
     
     private final NewsArticleRepository newsArticleRepository;
     private final EmbeddingService embeddingService;
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final OutboundHttpClients outboundHttpClients;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private volatile BloomFilter knownUrls;
     
     @Value("${newsapi.api.key:}")
     private String apiKey;
@@ -103,7 +111,8 @@ public class NewsAPIService {
         logger.debug("API URL: {}", url.replace(apiKey, "***"));
         
         try {
-            String response = restTemplate.getForObject(url, String.class);
+            String response = outboundHttpClients.restTemplate(OutboundHttpClients.Destination.NEWS_API)
+                    .getForObject(url, String.class);
             logger.info("DEBUG: Got response from News API, length: {} chars", response != null ? response.length() : 0);
             
             List<NewsArticle> articles = parseNewsArticles(response);
@@ -203,34 +212,12 @@ public class NewsAPIService {
             int duplicateCount = 0;
             int embeddingCount = 0;
             
+            // Parse everything first, keeping the first article per URL
+            Map<String, NewsArticle> articlesByUrl = new LinkedHashMap<>();
             for (JsonNode articleNode : articlesNode) {
                 try {
                     NewsArticle article = parseArticle(articleNode);
-                    
-                    // Avoid duplicates
-                    if (article.getUrl() != null && !newsArticleRepository.existsByUrl(article.getUrl())) {
-                        // Generate embedding for RAG semantic search
-                        if (embeddingService.isConfigured()) {
-                            try {
-                                String contentToEmbed = article.getTitle() + " " + 
-                                    (article.getDescription() != null ? article.getDescription() : "");
-                                
-                                float[] embedding = embeddingService.generateEmbedding(contentToEmbed);
-                                String vectorString = embeddingService.embeddingToVectorString(embedding);
-                                article.setEmbedding(vectorString);
-                                embeddingCount++;
-                                
-                                logger.debug("Generated embedding for article: {}", article.getTitle());
-                            } catch (Exception e) {
-                                logger.warn("Failed to generate embedding for article '{}': {}", 
-                                    article.getTitle(), e.getMessage());
-                                // Continue without embedding - article will still be saved
-                            }
-                        }
-                        
-                        articles.add(article);
-                        parsedCount++;
-                    } else {
+                    if (article.getUrl() == null || articlesByUrl.putIfAbsent(article.getUrl(), article) != null) {
                         duplicateCount++;
                     }
                 } catch (Exception e) {
@@ -238,6 +225,37 @@ public class NewsAPIService {
                 }
             }
             
+            // Avoid duplicates: one query for the whole response
+            Set<String> storedUrls = findStoredUrls(articlesByUrl.keySet());
+            
+            for (NewsArticle article : articlesByUrl.values()) {
+                if (storedUrls.contains(article.getUrl())) {
+                    duplicateCount++;
+                    continue;
+                }
+                knownUrls().put(article.getUrl());
+                articles.add(article);
+                parsedCount++;
+            }
+            
+            // Generate embeddings for RAG semantic search, batched across all new articles
+            if (embeddingService.isConfigured() && !articles.isEmpty()) {
+                List<String> contentsToEmbed = new ArrayList<>(articles.size());
+                for (NewsArticle article : articles) {
+                    contentsToEmbed.add(article.getTitle() + " " + 
+                        (article.getDescription() != null ? article.getDescription() : ""));
+                }
+                
+                List<float[]> embeddings = embeddingService.generateEmbeddings(contentsToEmbed);
+                for (int i = 0; i < articles.size(); i++) {
+                    // Articles whose batch failed are still saved, without an embedding
+                    if (embeddings.get(i) != null) {
+                        articles.get(i).setEmbedding(embeddings.get(i));
+                        embeddingCount++;
+                    }
+                }
+            }
+            
             logger.info("Successfully parsed {} new articles ({} duplicates skipped, {} embeddings generated)", 
                 parsedCount, duplicateCount, embeddingCount);
             return articles;
@@ -248,6 +266,46 @@ public class NewsAPIService {
         }
     }
     
+    /**
+     * The URLs that are already stored. The known-URL filter clears most new URLs without a
+     * query; the rest are checked in one IN query.
+     */
+    private Set<String> findStoredUrls(Collection<String> urls) {
+        BloomFilter filter = knownUrls();
+        List<String> candidates = new ArrayList<>();
+        for (String url : urls) {
+            if (filter.mightContain(url)) {
+                candidates.add(url);
+            }
+        }
+        if (candidates.isEmpty()) {
+            return Set.of();
+        }
+        return new HashSet<>(newsArticleRepository.findExistingUrls(candidates));
+    }
+    
+    /**
+     * Filter of every URL stored or handed out for storing, seeded from the database on first use.
+     * A URL it does not contain is definitely new; deleted articles only cost a query.
+     */
+    private BloomFilter knownUrls() {
+        BloomFilter filter = knownUrls;
+        if (filter == null) {
+            synchronized (this) {
+                filter = knownUrls;
+                if (filter == null) {
+                    List<String> storedUrls = newsArticleRepository.findAllUrls();
+                    filter = new BloomFilter(Math.max(KNOWN_URLS_EXPECTED, storedUrls.size() * 2),
+                                             KNOWN_URLS_FALSE_POSITIVE_RATE);
+                    storedUrls.forEach(filter::put);
+                    knownUrls = filter;
+                    logger.info("Loaded {} stored article URLs into the known-URL filter", storedUrls.size());
+                }
+            }
+        }
+        return filter;
+    }
+    
     /**
      * Parse individual article from JSON
      */
@@ -317,7 +375,8 @@ public class NewsAPIService {
         logger.info("Testing News API connectivity with URL: {}", url.replace(apiKey, "***"));
 
         try {
-            String response = restTemplate.getForObject(url, String.class);
+            String response = outboundHttpClients.restTemplate(OutboundHttpClients.Destination.NEWS_API)
+                    .getForObject(url, String.class);
             JsonNode root = objectMapper.readTree(response);
             String status = root.has("status") ? root.get("status").asText() : "unknown";
 
@@ -0,0 +1,141 @@
+package com.cs203.tariffg4t2.service.data;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+import com.cs203.tariffg4t2.repository.basic.NewsArticleRepository;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * In-memory HNSW index over the stored article embeddings, so headline retrieval needs no
+ * database round trip. Built from the table once the application is ready and kept current as
+ * articles are saved. Until it is built, {@link #isReady()} is false and callers fall back to
+ * the pgvector query.
+ *
+ * With a quantized rag.index.encoding only the compact codes stay in memory; the candidates
+ * they find are re-ranked with their full-precision embeddings, read in one lookup by id.
+ * When openai.embedding.dimensions is set, articles stored at other dimensions are left out,
+ * since queries are embedded at the configured size.
+ */
+@Service
+@RequiredArgsConstructor
+public class NewsArticleIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(NewsArticleIndex.class);
+
+    private final NewsArticleRepository newsArticleRepository;
+    private final EmbeddingService embeddingService;
+
+    @Value("${rag.index.ef-search:64}")
+    private int efSearch;
+
+    @Value("${rag.index.encoding:FLOAT32}")
+    private HnswIndex.Encoding encoding;
+
+    private volatile HnswIndex<NewsArticle> index = new HnswIndex<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        try {
+            long start = System.nanoTime();
+            index = new HnswIndex<>(encoding != null ? encoding : HnswIndex.Encoding.FLOAT32);
+            List<NewsArticle> articles = newsArticleRepository.findArticlesWithEmbeddings();
+            addAll(articles);
+            ready = true;
+            logger.info("Indexed {} news article embeddings ({}, {} KB of vectors) in {} ms", index.size(),
+                       index.getEncoding(), index.vectorBytes() / 1024, (System.nanoTime() - start) / 1_000_000);
+        } catch (DataAccessException e) {
+            logger.warn("Could not build the news article index, using database similarity search: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Index saved articles that have an embedding at the configured dimensions; articles already
+     * indexed are replaced
+     */
+    public void addAll(Collection<NewsArticle> articles) {
+        int dimensions = embeddingService.getDimensions();
+        int otherDimensions = 0;
+        for (NewsArticle article : articles) {
+            if (article.getId() == null || article.getEmbedding() == null) {
+                continue;
+            }
+            if (dimensions > 0 && article.getEmbedding().length != dimensions) {
+                otherDimensions++;
+                continue;
+            }
+            try {
+                index.add(article.getId(), article.getEmbedding(), withoutEmbedding(article));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping article {} for the index: {}", article.getId(), e.getMessage());
+            }
+        }
+        if (otherDimensions > 0) {
+            logger.info("Left {} articles embedded at other than {} dimensions out of the index",
+                       otherDimensions, dimensions);
+        }
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * The articles most similar to the query embedding, most similar first. The returned
+     * articles are detached copies without their embedding.
+     */
+    public List<NewsArticle> findSimilar(float[] queryEmbedding, int limit) {
+        HnswIndex<NewsArticle> current = index;
+        if (current.getEncoding() == HnswIndex.Encoding.FLOAT32) {
+            return current.search(queryEmbedding, limit, efSearch, null);
+        }
+
+        List<NewsArticle> candidates = current.search(queryEmbedding, limit * HnswIndex.RERANK_FACTOR, efSearch, null);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        List<Long> ids = new ArrayList<>(candidates.size());
+        for (NewsArticle candidate : candidates) {
+            ids.add(candidate.getId());
+        }
+        Map<Long, float[]> embeddings = new HashMap<>();
+        try {
+            for (NewsArticleRepository.ArticleEmbedding stored : newsArticleRepository.findEmbeddingsByIds(ids)) {
+                embeddings.put(stored.getId(), stored.getEmbedding());
+            }
+        } catch (DataAccessException e) {
+            logger.warn("Could not load embeddings to re-rank headlines, using the index order: {}", e.getMessage());
+        }
+        return HnswIndex.rerank(queryEmbedding, candidates, article -> embeddings.get(article.getId()), limit);
+    }
+
+    /**
+     * Headlines only need the text fields; dropping the vector halves what the index holds
+     */
+    private static NewsArticle withoutEmbedding(NewsArticle article) {
+        NewsArticle copy = new NewsArticle();
+        copy.setId(article.getId());
+        copy.setTitle(article.getTitle());
+        copy.setDescription(article.getDescription());
+        copy.setUrl(article.getUrl());
+        copy.setSource(article.getSource());
+        copy.setPublishedAt(article.getPublishedAt());
+        copy.setSentimentScore(article.getSentimentScore());
+        copy.setKeywords(article.getKeywords());
+        copy.setCountryCode(article.getCountryCode());
+        copy.setCreatedAt(article.getCreatedAt());
+        return copy;
+    }
+}
@@ -0,0 +1,356 @@
+package com.cs203.tariffg4t2.service.data;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.GZIPInputStream;
+
+/**
+ * Shared outbound HTTP clients, one per destination, injected into the services that call out.
+ * Each destination gets its own JDK HttpClient (and therefore its own keep-alive connection pool)
+ * with explicit connect and read timeouts (the read timeout capped by the inbound request's
+ * deadline) and its own HTTP version: HTTP/2 for the TLS vendors,
+ * HTTP/1.1 for the plain-http scraper, where HTTP/2 would mean an h2c upgrade on every connection.
+ * RestTemplates built here request gzip, transparently decompress it, and record per-host
+ * request, latency and error metrics.
+ * Every destination also has a DependencyGuard (bulkhead + circuit breaker) so one degraded
+ * vendor is rejected fast instead of holding request threads.
+ */
+@Slf4j
+@Component
+public class OutboundHttpClients {
+
+    private static final int CIRCUIT_FAILURE_THRESHOLD = 5;
+    private static final Duration CIRCUIT_OPEN_DURATION = Duration.ofSeconds(30);
+
+    /**
+     * Outbound integrations with their timeouts and bulkhead sizes
+     */
+    public enum Destination {
+        OPENAI(HttpClient.Version.HTTP_2, Duration.ofSeconds(5), Duration.ofSeconds(60), 10, Duration.ofSeconds(2)),
+        NEWS_API(HttpClient.Version.HTTP_2, Duration.ofSeconds(5), Duration.ofSeconds(20), 4, Duration.ofSeconds(1)),
+        EXCHANGE_RATES(HttpClient.Version.HTTP_2, Duration.ofSeconds(5), Duration.ofSeconds(20), 8, Duration.ofSeconds(2)),
+        SCRAPER(HttpClient.Version.HTTP_1_1, Duration.ofSeconds(10), Duration.ofMinutes(5), 2, Duration.ofSeconds(5));
+
+        private final HttpClient.Version version;
+        private final Duration connectTimeout;
+        private final Duration readTimeout;
+        private final int maxConcurrentCalls;
+        private final Duration maxQueueWait;
+
+        Destination(HttpClient.Version version, Duration connectTimeout, Duration readTimeout,
+                    int maxConcurrentCalls, Duration maxQueueWait) {
+            this.version = version;
+            this.connectTimeout = connectTimeout;
+            this.readTimeout = readTimeout;
+            this.maxConcurrentCalls = maxConcurrentCalls;
+            this.maxQueueWait = maxQueueWait;
+        }
+
+        public HttpClient.Version getVersion() {
+            return version;
+        }
+
+        public Duration getConnectTimeout() {
+            return connectTimeout;
+        }
+
+        public Duration getReadTimeout() {
+            return readTimeout;
+        }
+    }
+
+    private final Map<Destination, HttpClient> httpClients = new ConcurrentHashMap<>();
+    private final Map<Destination, RestTemplate> restTemplates = new ConcurrentHashMap<>();
+    private final Map<Destination, DependencyGuard> guards = new ConcurrentHashMap<>();
+    private final Map<String, HostMetrics> metrics = new ConcurrentHashMap<>();
+
+    /**
+     * Pooled JDK HttpClient for the destination, created on first use and shared afterwards
+     */
+    public HttpClient httpClient(Destination destination) {
+        return httpClients.computeIfAbsent(destination, this::buildHttpClient);
+    }
+
+    /**
+     * RestTemplate backed by the destination's pooled HttpClient
+     */
+    public RestTemplate restTemplate(Destination destination) {
+        return restTemplates.computeIfAbsent(destination, this::buildRestTemplate);
+    }
+
+    /**
+     * Bulkhead and circuit breaker shared by every call to the destination
+     */
+    public DependencyGuard guard(Destination destination) {
+        return guards.computeIfAbsent(destination, d -> new DependencyGuard(d.name(), d.maxConcurrentCalls,
+                d.maxQueueWait, CIRCUIT_FAILURE_THRESHOLD, CIRCUIT_OPEN_DURATION));
+    }
+
+    /**
+     * Whether calls to the destination are currently let through its circuit breaker.
+     * Callers with a cheaper fallback should check this before doing any work for the call.
+     */
+    public boolean isAvailable(Destination destination) {
+        return guard(destination).isCallPermitted();
+    }
+
+    /**
+     * Response body with gzip content-encoding undone, for callers using the HttpClient directly
+     */
+    public static InputStream decodedBody(HttpResponse<InputStream> response) throws IOException {
+        boolean gzipped = response.headers().firstValue(HttpHeaders.CONTENT_ENCODING)
+                .map(encoding -> encoding.equalsIgnoreCase("gzip"))
+                .orElse(false);
+        return gzipped ? new GZIPInputStream(response.body()) : response.body();
+    }
+
+    /**
+     * Record one outbound call against its host
+     */
+    public void record(URI uri, long elapsedNanos, boolean error) {
+        String host = uri.getHost() != null ? uri.getHost() : "unknown";
+        metrics.computeIfAbsent(host, HostMetrics::new).record(elapsedNanos, error);
+    }
+
+    /**
+     * Snapshot of per-host metrics, sorted by host
+     */
+    public Map<String, HostMetrics> getMetrics() {
+        return Collections.unmodifiableMap(new TreeMap<>(metrics));
+    }
+
+    public HostMetrics getMetrics(String host) {
+        return metrics.get(host);
+    }
+
+    private HttpClient buildHttpClient(Destination destination) {
+        log.info("Creating pooled {} client for {} (connect timeout {}, read timeout {})", destination.getVersion(),
+                destination, destination.getConnectTimeout(), destination.getReadTimeout());
+        return HttpClient.newBuilder()
+                .version(destination.getVersion())
+                .connectTimeout(destination.getConnectTimeout())
+                .followRedirects(HttpClient.Redirect.NORMAL)
+                .build();
+    }
+
+    private RestTemplate buildRestTemplate(Destination destination) {
+        RestTemplate restTemplate = new RestTemplate(
+                new DeadlineRequestFactory(httpClient(destination), destination.getReadTimeout()));
+        restTemplate.getInterceptors().add(new GuardInterceptor(guard(destination)));
+        restTemplate.getInterceptors().add(new GzipMetricsInterceptor(this));
+        return restTemplate;
+    }
+
+    /**
+     * Creates each request with the destination's read timeout, shortened to the time left before
+     * the inbound request's deadline. Interceptors run before the request is created, so the time
+     * spent waiting in the DependencyGuard is already taken off.
+     */
+    static final class DeadlineRequestFactory implements ClientHttpRequestFactory {
+
+        private final HttpClient httpClient;
+        private final Executor executor;
+        private final Duration readTimeout;
+
+        DeadlineRequestFactory(HttpClient httpClient, Duration readTimeout) {
+            this.httpClient = httpClient;
+            this.executor = httpClient.executor().orElseGet(SimpleAsyncTaskExecutor::new);
+            this.readTimeout = readTimeout;
+        }
+
+        @Override
+        public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+            JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient, executor);
+            requestFactory.setReadTimeout(RequestDeadline.cap(readTimeout));
+            return requestFactory.createRequest(uri, httpMethod);
+        }
+    }
+
+    /**
+     * Runs each call through the destination's DependencyGuard.
+     * 5xx and 429 responses count as failures; rejections surface as IOExceptions, which
+     * RestTemplate wraps in ResourceAccessException so existing fallback paths handle them.
+     */
+    static final class GuardInterceptor implements ClientHttpRequestInterceptor {
+
+        private final DependencyGuard guard;
+
+        GuardInterceptor(DependencyGuard guard) {
+            this.guard = guard;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+            try {
+                return guard.execute(() -> execution.execute(request, body), OutboundHttpClients::isFailure);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted waiting for " + guard.getName());
+            }
+        }
+    }
+
+    private static boolean isFailure(ClientHttpResponse response) {
+        try {
+            HttpStatusCode status = response.getStatusCode();
+            return status.is5xxServerError() || status.value() == 429;
+        } catch (IOException e) {
+            return true;
+        }
+    }
+
+    /**
+     * Adds Accept-Encoding: gzip, decompresses gzip responses and records per-host metrics.
+     * Latency is measured up to the response headers; body streaming is not included.
+     */
+    static final class GzipMetricsInterceptor implements ClientHttpRequestInterceptor {
+
+        private final OutboundHttpClients clients;
+
+        GzipMetricsInterceptor(OutboundHttpClients clients) {
+            this.clients = clients;
+        }
+
+        @Override
+        public ClientHttpResponse intercept(HttpRequest request, byte[] body,
+                                            ClientHttpRequestExecution execution) throws IOException {
+            if (!request.getHeaders().containsKey(HttpHeaders.ACCEPT_ENCODING)) {
+                request.getHeaders().set(HttpHeaders.ACCEPT_ENCODING, "gzip");
+            }
+
+            long start = System.nanoTime();
+            ClientHttpResponse response;
+            try {
+                response = execution.execute(request, body);
+            } catch (IOException | RuntimeException e) {
+                clients.record(request.getURI(), System.nanoTime() - start, true);
+                throw e;
+            }
+            clients.record(request.getURI(), System.nanoTime() - start, response.getStatusCode().isError());
+
+            String encoding = response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING);
+            return "gzip".equalsIgnoreCase(encoding) ? new GzipDecodingResponse(response) : response;
+        }
+    }
+
+    /**
+     * Response wrapper exposing the decompressed body, with the encoding headers removed
+     */
+    static final class GzipDecodingResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final HttpHeaders headers;
+        private InputStream body;
+
+        GzipDecodingResponse(ClientHttpResponse delegate) {
+            this.delegate = delegate;
+            HttpHeaders copy = new HttpHeaders();
+            copy.putAll(delegate.getHeaders());
+            copy.remove(HttpHeaders.CONTENT_ENCODING);
+            copy.remove(HttpHeaders.CONTENT_LENGTH);
+            this.headers = HttpHeaders.readOnlyHttpHeaders(copy);
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return headers;
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new GZIPInputStream(delegate.getBody());
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            delegate.close();
+        }
+    }
+
+    /**
+     * Request, error and latency counters for one host
+     */
+    public static final class HostMetrics {
+
+        private final String host;
+        private final LongAdder requests = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalLatencyNanos = new LongAdder();
+        private final LongAccumulator maxLatencyNanos = new LongAccumulator(Math::max, 0L);
+
+        HostMetrics(String host) {
+            this.host = host;
+        }
+
+        void record(long elapsedNanos, boolean error) {
+            requests.increment();
+            if (error) {
+                errors.increment();
+            }
+            totalLatencyNanos.add(elapsedNanos);
+            maxLatencyNanos.accumulate(elapsedNanos);
+        }
+
+        public String getHost() {
+            return host;
+        }
+
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        public long getErrors() {
+            return errors.sum();
+        }
+
+        public double getAverageLatencyMillis() {
+            long count = requests.sum();
+            return count == 0 ? 0.0 : totalLatencyNanos.sum() / (count * 1_000_000.0);
+        }
+
+        public double getMaxLatencyMillis() {
+            return maxLatencyNanos.get() / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.cs203.tariffg4t2.service.data;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+
+/**
+ * Deadline of the inbound request being served on the current thread.
+ * Set by RequestDeadlineFilter and read by outbound calls so they never wait past the point
+ * where the caller has already given up.
+ */
+public final class RequestDeadline {
+
+    private static final ThreadLocal<Long> DEADLINE_NANOS = new ThreadLocal<>();
+
+    private RequestDeadline() {
+    }
+
+    public static void start(Duration budget) {
+        DEADLINE_NANOS.set(System.nanoTime() + budget.toNanos());
+    }
+
+    public static void clear() {
+        DEADLINE_NANOS.remove();
+    }
+
+    /**
+     * The task, run under the current thread's deadline on whichever thread executes it.
+     * Work handed to an executor does not see this thread's deadline otherwise.
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Long deadline = DEADLINE_NANOS.get();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Long previous = DEADLINE_NANOS.get();
+            DEADLINE_NANOS.set(deadline);
+            try {
+                return task.call();
+            } finally {
+                if (previous == null) {
+                    DEADLINE_NANOS.remove();
+                } else {
+                    DEADLINE_NANOS.set(previous);
+                }
+            }
+        };
+    }
+
+    /**
+     * Time left before the deadline, or null if the current thread has no deadline
+     */
+    public static Duration remaining() {
+        Long deadline = DEADLINE_NANOS.get();
+        return deadline == null ? null : Duration.ofNanos(deadline - System.nanoTime());
+    }
+
+    public static boolean isExpired() {
+        Duration remaining = remaining();
+        return remaining != null && (remaining.isNegative() || remaining.isZero());
+    }
+
+    /**
+     * The given timeout, shortened to the time left before the deadline.
+     * Once the deadline has passed there is no time to give the call, so it fails fast instead.
+     */
+    public static Duration cap(Duration timeout) throws HttpTimeoutException {
+        Duration remaining = remaining();
+        if (remaining == null || remaining.compareTo(timeout) >= 0) {
+            return timeout;
+        }
+        if (remaining.isNegative() || remaining.isZero()) {
+            throw new HttpTimeoutException("Request deadline exceeded");
+        }
+        return remaining;
+    }
+}
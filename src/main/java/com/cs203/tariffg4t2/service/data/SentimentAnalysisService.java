@@ -4,17 +4,19 @@ import com.cs203.tariffg4t2.model.basic.NewsArticle;
 import com.cs203.tariffg4t2.model.basic.SentimentAnalysis;
 import com.cs203.tariffg4t2.repository.basic.NewsArticleRepository;
 import com.cs203.tariffg4t2.repository.basic.SentimentAnalysisRepository;
+import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 @Service
 @RequiredArgsConstructor
@@ -23,83 +25,58 @@ public class SentimentAnalysisService {
     
     private static final Logger logger = LoggerFactory.getLogger(SentimentAnalysisService.class);
     
-    // Sentiment keywords and their weights
-    private static final Map<String, Double> POSITIVE_KEYWORDS = new HashMap<>();
-    private static final Map<String, Double> NEGATIVE_KEYWORDS = new HashMap<>();
-    
-    static {
-        // Positive sentiment keywords
-        POSITIVE_KEYWORDS.put("agreement", 0.5);
-        POSITIVE_KEYWORDS.put("boost", 0.6);
-        POSITIVE_KEYWORDS.put("growth", 0.7);
-        POSITIVE_KEYWORDS.put("increase", 0.4);
-        POSITIVE_KEYWORDS.put("expansion", 0.6);
-        POSITIVE_KEYWORDS.put("strengthen", 0.5);
-        POSITIVE_KEYWORDS.put("improve", 0.6);
-        POSITIVE_KEYWORDS.put("positive", 0.5);
-        POSITIVE_KEYWORDS.put("cooperation", 0.5);
-        POSITIVE_KEYWORDS.put("partnership", 0.5);
-        POSITIVE_KEYWORDS.put("deal", 0.4);
-        POSITIVE_KEYWORDS.put("opportunity", 0.6);
-        POSITIVE_KEYWORDS.put("recovery", 0.7);
-        
-        // Negative sentiment keywords
-        NEGATIVE_KEYWORDS.put("tariff", -0.4);
-        NEGATIVE_KEYWORDS.put("war", -0.8);
-        NEGATIVE_KEYWORDS.put("dispute", -0.6);
-        NEGATIVE_KEYWORDS.put("conflict", -0.7);
-        NEGATIVE_KEYWORDS.put("decline", -0.6);
-        NEGATIVE_KEYWORDS.put("fall", -0.5);
-        NEGATIVE_KEYWORDS.put("drop", -0.5);
-        NEGATIVE_KEYWORDS.put("threat", -0.7);
-        NEGATIVE_KEYWORDS.put("tension", -0.6);
-        NEGATIVE_KEYWORDS.put("sanction", -0.7);
-        NEGATIVE_KEYWORDS.put("crisis", -0.8);
-        NEGATIVE_KEYWORDS.put("uncertainty", -0.5);
-        NEGATIVE_KEYWORDS.put("risk", -0.4);
-    }
-    
     private final NewsArticleRepository newsArticleRepository;
     private final SentimentAnalysisRepository sentimentAnalysisRepository;
+    private final NewsArticleIndex newsArticleIndex;
+    
+    // Optional lexicon file replacing the bundled data/sentiment-lexicon.txt
+    @Value("${sentiment.lexicon.path:}")
+    private String lexiconPath;
+    
+    private volatile SentimentLexicon lexicon;
     
     /**
-     * Analyze sentiment of a single article using keyword-based approach
-     * Returns score between -1.0 (very negative) and +1.0 (very positive)
+     * Analyze sentiment of a single article using the weighted lexicon
+     * Returns the mean weight of the matched terms, between -1.0 (very negative) and +1.0 (very positive)
      */
     public Double analyzeSentiment(String text) {
         if (text == null || text.isEmpty()) {
             return 0.0;
         }
-        
-        String lowerText = text.toLowerCase();
-        double score = 0.0;
-        int matchCount = 0;
-        
-        // Check for positive keywords
-        for (Map.Entry<String, Double> entry : POSITIVE_KEYWORDS.entrySet()) {
-            if (lowerText.contains(entry.getKey())) {
-                score += entry.getValue();
-                matchCount++;
-            }
-        }
-        
-        // Check for negative keywords
-        for (Map.Entry<String, Double> entry : NEGATIVE_KEYWORDS.entrySet()) {
-            if (lowerText.contains(entry.getKey())) {
-                score += entry.getValue();  // Already negative
-                matchCount++;
+        return lexicon().score(text);
+    }
+    
+    /**
+     * Load the configured lexicon at startup, so a bad sentiment.lexicon.path fails the context
+     * instead of the first article analyzed
+     */
+    @PostConstruct
+    void loadLexicon() {
+        lexicon();
+    }
+    
+    /**
+     * The configured lexicon, compiled once
+     */
+    private SentimentLexicon lexicon() {
+        SentimentLexicon loaded = lexicon;
+        if (loaded == null) {
+            if (lexiconPath == null || lexiconPath.isBlank()) {
+                loaded = SentimentLexicon.getInstance();
+            } else {
+                try {
+                    loaded = SentimentLexicon.load(Path.of(lexiconPath));
+                    if (loaded.size() == 0) {
+                        throw new IllegalStateException("Sentiment lexicon " + lexiconPath + " has no terms");
+                    }
+                    logger.info("Loaded sentiment lexicon with {} terms from {}", loaded.size(), lexiconPath);
+                } catch (IOException e) {
+                    throw new IllegalStateException("Failed to load sentiment lexicon from " + lexiconPath, e);
+                }
             }
+            lexicon = loaded;
         }
-        
-        // Normalize score
-        if (matchCount > 0) {
-            score = score / matchCount;
-        }
-        
-        // Clamp between -1 and 1
-        score = Math.max(-1.0, Math.min(1.0, score));
-        
-        return score;
+        return loaded;
     }
     
     /**
@@ -120,13 +97,16 @@ public class SentimentAnalysisService {
                         sentiment);
         }
         
-        // Save all articles with sentiment scores
-        newsArticleRepository.saveAll(articles);
-        logger.info("Saved {} articles with sentiment scores", articles.size());
+        // Save the articles not stored yet (another fetch may have saved some since they were
+        // filtered), then make them searchable for headline retrieval
+        List<NewsArticle> saved = newsArticleRepository.insertNew(articles);
+        newsArticleIndex.addAll(saved);
+        logger.info("Saved {} of {} articles with sentiment scores", saved.size(), articles.size());
     }
     
     /**
-     * Calculate and store weekly sentiment aggregate
+     * Calculate and store weekly sentiment aggregate: one grouped query over the week's articles
+     * and one lookup that returns both this week's record and the previous week's for the trend
      */
     public SentimentAnalysis calculateWeeklySentiment(LocalDate weekStart, LocalDate weekEnd) {
         logger.info("Calculating weekly sentiment: {} to {}", weekStart, weekEnd);
@@ -134,36 +114,48 @@ public class SentimentAnalysisService {
         LocalDateTime startDateTime = weekStart.atStartOfDay();
         LocalDateTime endDateTime = weekEnd.atTime(23, 59, 59);
         
-        // Get average sentiment from database
-        Double avgSentiment = newsArticleRepository.getAverageSentiment(startDateTime, endDateTime);
+        // Average sentiment and polarity counts from database
+        NewsArticleRepository.SentimentTotals totals = newsArticleRepository.getSentimentTotals(startDateTime, endDateTime);
+        Double avgSentiment = totals != null ? totals.getAverageSentiment() : null;
         
         if (avgSentiment == null) {
             logger.warn("No sentiment data available for week {} to {}", weekStart, weekEnd);
             return null;
         }
         
-        // Count articles by sentiment polarity
-        Long positiveCount = newsArticleRepository.countPositiveArticles(startDateTime, endDateTime);
-        Long negativeCount = newsArticleRepository.countNegativeArticles(startDateTime, endDateTime);
-        Long neutralCount = newsArticleRepository.countNeutralArticles(startDateTime, endDateTime);
+        long positiveCount = countOrZero(totals.getPositiveCount());
+        long negativeCount = countOrZero(totals.getNegativeCount());
+        long neutralCount = countOrZero(totals.getNeutralCount());
+        long totalCount = positiveCount + negativeCount + neutralCount;
         
-        Long totalCount = positiveCount + negativeCount + neutralCount;
+        // This week's record (if any) and the previous week's, in one lookup
+        LocalDate previousWeekStart = weekStart.minusWeeks(1);
+        LocalDate previousWeekEnd = previousWeekStart.plusDays(6);
+        SentimentAnalysis analysis = null;
+        SentimentAnalysis previousWeek = null;
+        for (SentimentAnalysis week : sentimentAnalysisRepository.findByWeekStartDateBetween(previousWeekStart, weekStart)) {
+            if (weekStart.equals(week.getWeekStartDate()) && weekEnd.equals(week.getWeekEndDate())) {
+                analysis = week;
+            } else if (previousWeekStart.equals(week.getWeekStartDate()) && previousWeekEnd.equals(week.getWeekEndDate())) {
+                previousWeek = week;
+            }
+        }
         
         // Determine trend by comparing with previous week
-        String trend = determineTrend(weekStart, avgSentiment);
+        String trend = determineTrend(previousWeek, avgSentiment);
         
         // Create or update sentiment analysis record
-        SentimentAnalysis analysis = sentimentAnalysisRepository
-            .findByWeekStartDateAndWeekEndDate(weekStart, weekEnd)
-            .orElse(new SentimentAnalysis());
+        if (analysis == null) {
+            analysis = new SentimentAnalysis();
+        }
         
         analysis.setWeekStartDate(weekStart);
         analysis.setWeekEndDate(weekEnd);
         analysis.setAverageSentiment(avgSentiment);
-        analysis.setArticleCount(totalCount.intValue());
-        analysis.setPositiveCount(positiveCount.intValue());
-        analysis.setNegativeCount(negativeCount.intValue());
-        analysis.setNeutralCount(neutralCount.intValue());
+        analysis.setArticleCount((int) totalCount);
+        analysis.setPositiveCount((int) positiveCount);
+        analysis.setNegativeCount((int) negativeCount);
+        analysis.setNeutralCount((int) neutralCount);
         analysis.setTrend(trend);
         
         analysis = sentimentAnalysisRepository.save(analysis);
@@ -173,17 +165,14 @@ public class SentimentAnalysisService {
         return analysis;
     }
     
+    private static long countOrZero(Long count) {
+        return count != null ? count : 0L;
+    }
+    
     /**
      * Determine sentiment trend by comparing with previous week
      */
-    private String determineTrend(LocalDate currentWeekStart, Double currentSentiment) {
-        LocalDate previousWeekStart = currentWeekStart.minusWeeks(1);
-        LocalDate previousWeekEnd = previousWeekStart.plusDays(6);
-        
-        SentimentAnalysis previousWeek = sentimentAnalysisRepository
-            .findByWeekStartDateAndWeekEndDate(previousWeekStart, previousWeekEnd)
-            .orElse(null);
-        
+    private String determineTrend(SentimentAnalysis previousWeek, Double currentSentiment) {
         if (previousWeek == null) {
             return "stable";  // No previous data to compare
         }
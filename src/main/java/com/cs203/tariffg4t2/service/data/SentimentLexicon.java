@@ -0,0 +1,246 @@
+package com.cs203.tariffg4t2.service.data;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Weighted sentiment terms compiled into an Aho-Corasick automaton with every failure transition
+ * resolved up front, so scoring is one pass over the text with a table lookup per character and
+ * no allocation; its cost does not grow with the number of terms.
+ *
+ * Terms match whole words, case-insensitively; a trailing '*' lets a term match as a word prefix
+ * ("tariff*" matches "tariffs"). Terms may be phrases ("trade war"). Where several terms end at
+ * the same character only the longest counts, so "trade war" is not also scored as "war".
+ *
+ * The bundled lexicon is data/sentiment-lexicon.txt; others can be loaded from any stream in the
+ * same format: one term|weight per line, '#' comments.
+ */
+@Slf4j
+public final class SentimentLexicon {
+
+    static final String RESOURCE_PATH = "data/sentiment-lexicon.txt";
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final int ROOT = 0;
+    private static final int NO_STATE = -1;
+
+    private final int termCount;
+    private final char[] charClass;     // char -> alphabet index, 0 for chars no term uses
+    private final int stride;           // alphabet size + 1
+    private final int[] transitions;    // state * stride + class -> next state
+    private final int[] depth;          // term length for states that end a term
+    private final double[] weight;      // NaN for states that do not end a term
+    private final boolean[] prefix;
+    private final int[] outputLink;     // next shorter term state on the failure chain
+
+    private SentimentLexicon(Map<String, Double> terms) {
+        Map<String, Boolean> prefixTerms = new LinkedHashMap<>();
+        Map<String, Double> weights = new LinkedHashMap<>();
+        for (Map.Entry<String, Double> entry : terms.entrySet()) {
+            String term = normalizeTerm(entry.getKey());
+            boolean isPrefix = term.endsWith("*");
+            if (isPrefix) {
+                term = term.substring(0, term.length() - 1).trim();
+            }
+            if (term.isEmpty() || entry.getValue() == null) {
+                continue;
+            }
+            weights.put(term, entry.getValue());
+            prefixTerms.put(term, isPrefix);
+        }
+
+        charClass = new char[Character.MAX_VALUE + 1];
+        int alphabet = 0;
+        int maxStates = 1;
+        for (String term : weights.keySet()) {
+            maxStates += term.length();
+            for (int i = 0; i < term.length(); i++) {
+                char c = term.charAt(i);
+                if (charClass[c] == 0) {
+                    charClass[c] = (char) ++alphabet;
+                }
+            }
+        }
+        stride = alphabet + 1;
+
+        // Trie
+        int[] table = new int[maxStates * stride];
+        Arrays.fill(table, NO_STATE);
+        int[] depths = new int[maxStates];
+        double[] weightByState = new double[maxStates];
+        Arrays.fill(weightByState, Double.NaN);
+        boolean[] prefixByState = new boolean[maxStates];
+        int states = 1;
+        for (Map.Entry<String, Double> entry : weights.entrySet()) {
+            String term = entry.getKey();
+            int state = ROOT;
+            for (int i = 0; i < term.length(); i++) {
+                int slot = state * stride + charClass[term.charAt(i)];
+                if (table[slot] == NO_STATE) {
+                    depths[states] = i + 1;
+                    table[slot] = states++;
+                }
+                state = table[slot];
+            }
+            weightByState[state] = entry.getValue();
+            prefixByState[state] = prefixTerms.get(term);
+        }
+
+        // Failure links, breadth first, folded into the transition table
+        int[] failure = new int[states];
+        int[] outputs = new int[states];
+        Arrays.fill(outputs, NO_STATE);
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < stride; c++) {
+            int child = table[ROOT * stride + c];
+            if (child == NO_STATE) {
+                table[ROOT * stride + c] = ROOT;
+            } else {
+                failure[child] = ROOT;
+                queue.add(child);
+            }
+        }
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            int fail = failure[state];
+            outputs[state] = Double.isNaN(weightByState[fail]) ? outputs[fail] : fail;
+            for (int c = 0; c < stride; c++) {
+                int slot = state * stride + c;
+                int child = table[slot];
+                if (child == NO_STATE) {
+                    table[slot] = table[fail * stride + c];
+                } else {
+                    failure[child] = table[fail * stride + c];
+                    queue.add(child);
+                }
+            }
+        }
+
+        this.termCount = weights.size();
+        this.transitions = Arrays.copyOf(table, states * stride);
+        this.depth = Arrays.copyOf(depths, states);
+        this.weight = Arrays.copyOf(weightByState, states);
+        this.prefix = Arrays.copyOf(prefixByState, states);
+        this.outputLink = outputs;
+    }
+
+    /**
+     * The lexicon bundled on the classpath
+     */
+    public static SentimentLexicon getInstance() {
+        return Holder.INSTANCE;
+    }
+
+    public static SentimentLexicon of(Map<String, Double> terms) {
+        return new SentimentLexicon(terms);
+    }
+
+    public static SentimentLexicon load(Path path) throws IOException {
+        try (InputStream input = Files.newInputStream(path)) {
+            return load(input);
+        }
+    }
+
+    static SentimentLexicon load(InputStream input) throws IOException {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int separator = line.lastIndexOf('|');
+                if (separator <= 0) {
+                    log.warn("Skipping malformed sentiment lexicon line: {}", line);
+                    continue;
+                }
+                try {
+                    terms.put(line.substring(0, separator), Double.parseDouble(line.substring(separator + 1).trim()));
+                } catch (NumberFormatException e) {
+                    log.warn("Skipping sentiment lexicon line with a bad weight: {}", line);
+                }
+            }
+        }
+        return new SentimentLexicon(terms);
+    }
+
+    public int size() {
+        return termCount;
+    }
+
+    /**
+     * Mean weight of the terms found in the text, clamped to [-1, 1]; 0 when none match
+     */
+    public double score(CharSequence text) {
+        if (text == null) {
+            return 0.0;
+        }
+
+        double sum = 0.0;
+        int matches = 0;
+        int state = ROOT;
+        int length = text.length();
+        for (int i = 0; i < length; i++) {
+            char c = Character.toLowerCase(text.charAt(i));
+            if (Character.isWhitespace(c)) {
+                c = ' ';
+            }
+            state = transitions[state * stride + charClass[c]];
+
+            int term = Double.isNaN(weight[state]) ? outputLink[state] : state;
+            for (; term != NO_STATE; term = outputLink[term]) {
+                int start = i - depth[term] + 1;
+                if ((start == 0 || !isWordChar(text.charAt(start - 1)))
+                        && (prefix[term] || i + 1 == length || !isWordChar(text.charAt(i + 1)))) {
+                    sum += weight[term];
+                    matches++;
+                    break;
+                }
+            }
+        }
+
+        if (matches == 0) {
+            return 0.0;
+        }
+        return Math.max(-1.0, Math.min(1.0, sum / matches));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    private static String normalizeTerm(String term) {
+        return WHITESPACE.matcher(term.trim()).replaceAll(" ").toLowerCase(Locale.ROOT);
+    }
+
+    private static final class Holder {
+        private static final SentimentLexicon INSTANCE = loadBundled();
+
+        private static SentimentLexicon loadBundled() {
+            try (InputStream input = SentimentLexicon.class.getClassLoader().getResourceAsStream(RESOURCE_PATH)) {
+                if (input == null) {
+                    throw new IllegalStateException("Sentiment lexicon resource not found: " + RESOURCE_PATH);
+                }
+                SentimentLexicon lexicon = load(input);
+                log.info("Loaded sentiment lexicon with {} terms", lexicon.size());
+                return lexicon;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load sentiment lexicon from " + RESOURCE_PATH, e);
+            }
+        }
+    }
+}
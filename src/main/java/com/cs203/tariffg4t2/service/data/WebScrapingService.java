@@ -3,6 +3,8 @@ package com.cs203.tariffg4t2.service.data;
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffData;
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffResponse;
 import com.cs203.tariffg4t2.service.basic.CountryService;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,6 +12,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
 import java.net.URLEncoder;
 import java.net.http.HttpClient;
@@ -17,9 +20,10 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.function.Consumer;
 
 
 @Service
@@ -31,19 +35,38 @@ public class WebScrapingService {
     @Autowired
     private CountryService countryService;
 
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
+
     private static final Logger logger = LoggerFactory.getLogger(WebScrapingService.class);
-    private final HttpClient httpClient;
     private final ObjectMapper objectMapper;
+    private final CountryRegistry countryRegistry = CountryRegistry.getInstance();
     private final String PYTHON_API_BASE_URL = "http://localhost:5001";
 
+    public static final int DEFAULT_CHUNK_SIZE = 500;
+    private static final int MAX_ERROR_BODY_BYTES = 2048;
+
     public WebScrapingService() {
-        this.httpClient = HttpClient.newBuilder()
-                .connectTimeout(Duration.ofSeconds(30))
-                .build();
         this.objectMapper = new ObjectMapper();
     }
 
     public ScrapedTariffResponse scrapeTariffData(String importCode, String exportCode) {
+        List<ScrapedTariffData> rows = new ArrayList<>();
+        ScrapedTariffResponse response = streamTariffData(importCode, exportCode, DEFAULT_CHUNK_SIZE, rows::addAll);
+        if (!rows.isEmpty()) {
+            response.setData(rows);
+        }
+        return response;
+    }
+
+    /**
+     * Scrape tariff data and hand the rows to {@code chunkConsumer} in chunks of at most
+     * {@code chunkSize} while the response body is still being read, so memory stays flat
+     * regardless of how many rows the scraper returns.
+     * The returned response carries the status and metadata only; its data list is empty.
+     */
+    public ScrapedTariffResponse streamTariffData(String importCode, String exportCode, int chunkSize,
+                                                  Consumer<List<ScrapedTariffData>> chunkConsumer) {
         // Convert to 3 digit iso-code
         String convertedImportCode = convertCodeService.convertToISO3(importCode);
         String convertedExportCode = convertCodeService.convertToISO3(exportCode);
@@ -63,22 +86,26 @@ public class WebScrapingService {
             // Build HTTP request
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(PYTHON_API_BASE_URL + "/scrape"))
-                    .timeout(Duration.ofMinutes(5))
+                    .timeout(RequestDeadline.cap(OutboundHttpClients.Destination.SCRAPER.getReadTimeout()))
                     .header("Content-Type", "application/x-www-form-urlencoded")
+                    .header("Accept-Encoding", "gzip")
                     .POST(HttpRequest.BodyPublishers.ofString(formData))
                     .build();
 
-            // Send request and get response
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            // Send request and read the body as a stream instead of buffering it into a String
+            HttpResponse<InputStream> response = send(request, HttpResponse.BodyHandlers.ofInputStream());
 
-            if (response.statusCode() == 200) {
-                // Parse JSON response
-                ScrapedTariffResponse scrapedResponse = objectMapper.readValue(response.body(), ScrapedTariffResponse.class);
+            try (InputStream body = OutboundHttpClients.decodedBody(response)) {
+                if (response.statusCode() != 200) {
+                    String errorBody = new String(body.readNBytes(MAX_ERROR_BODY_BYTES), StandardCharsets.UTF_8);
+                    logger.error("HTTP error during scraping for {}->{}: Status={}, Body={}",
+                                exportCode, importCode, response.statusCode(), errorBody);
+                    return createErrorResponse(importCode, exportCode, "HTTP Error: " + response.statusCode());
+                }
 
-                if (scrapedResponse != null) {
-                    // Convert country names to 2-digit codes in the scraped data
-                    convertCountryNamesToCodes(scrapedResponse);
+                ScrapedTariffResponse scrapedResponse = readTariffStream(body, chunkSize, chunkConsumer);
 
+                if (scrapedResponse != null) {
                     logger.info("Successfully scraped {} tariff records for {}->{}",
                                scrapedResponse.getResults_count(), exportCode, importCode);
                     return scrapedResponse;
@@ -86,10 +113,6 @@ public class WebScrapingService {
                     logger.warn("Received null response from scraper for {}->{}", exportCode, importCode);
                     return createErrorResponse(importCode, exportCode, "Null response from scraper");
                 }
-            } else {
-                logger.error("HTTP error during scraping for {}->{}: Status={}, Body={}",
-                            exportCode, importCode, response.statusCode(), response.body());
-                return createErrorResponse(importCode, exportCode, "HTTP Error: " + response.statusCode());
             }
 
         } catch (IOException | InterruptedException e) {
@@ -101,6 +124,78 @@ public class WebScrapingService {
         }
     }
 
+    /**
+     * Parse the scraper response with Jackson's streaming parser.
+     * Rows under "data" are converted to ISO2 codes one at a time and flushed to the consumer
+     * in fixed-size chunks; scalar fields are copied onto the returned response.
+     * Returns null if the body is not a JSON object.
+     */
+    ScrapedTariffResponse readTariffStream(InputStream body, int chunkSize,
+                                           Consumer<List<ScrapedTariffData>> chunkConsumer) throws IOException {
+        int effectiveChunkSize = chunkSize > 0 ? chunkSize : DEFAULT_CHUNK_SIZE;
+
+        try (JsonParser parser = objectMapper.getFactory().createParser(body)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+
+            ScrapedTariffResponse scrapedResponse = new ScrapedTariffResponse();
+            scrapedResponse.setData(Collections.emptyList());
+            int rowCount = 0;
+
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.currentName();
+                JsonToken value = parser.nextToken();
+
+                switch (field) {
+                    case "status" -> scrapedResponse.setStatus(parser.getValueAsString());
+                    case "source_url" -> scrapedResponse.setSource_url(parser.getValueAsString());
+                    case "chapter" -> scrapedResponse.setChapter(parser.getValueAsString());
+                    case "data" -> {
+                        if (value == JsonToken.START_ARRAY) {
+                            rowCount = streamDataRows(parser, effectiveChunkSize, chunkConsumer);
+                        }
+                    }
+                    // results_count is recomputed from the rows actually streamed
+                    default -> parser.skipChildren();
+                }
+            }
+
+            scrapedResponse.setResults_count(rowCount);
+            return scrapedResponse;
+        }
+    }
+
+    private int streamDataRows(JsonParser parser, int chunkSize,
+                               Consumer<List<ScrapedTariffData>> chunkConsumer) throws IOException {
+        List<ScrapedTariffData> chunk = new ArrayList<>(chunkSize);
+        int rowCount = 0;
+
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_OBJECT) {
+                parser.skipChildren();
+                continue;
+            }
+
+            ScrapedTariffData row = objectMapper.readValue(parser, ScrapedTariffData.class);
+            chunk.add(convertTariffDataCountryCodes(row));
+            rowCount++;
+
+            if (chunk.size() >= chunkSize) {
+                chunkConsumer.accept(chunk);
+                chunk = new ArrayList<>(chunkSize);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            chunkConsumer.accept(chunk);
+        }
+
+        logger.debug("Streamed {} scraped records in chunks of {}", rowCount, chunkSize);
+        return rowCount;
+    }
+
     /**
      * Convert country names to 2-digit codes in a single tariff data record
      */
@@ -108,8 +203,8 @@ public class WebScrapingService {
         String originalImporting = data.getImportingCountry();
         String originalExporting = data.getExportingCountry();
 
-        String convertedImporting = countryService.convertCountryNameToIso2(originalImporting);
-        String convertedExporting = countryService.convertCountryNameToIso2(originalExporting);
+        String convertedImporting = convertCountryNameToIso2(originalImporting);
+        String convertedExporting = convertCountryNameToIso2(originalExporting);
 
         // Use converted values if conversion succeeds, otherwise keep original
         if (convertedImporting != null) {
@@ -130,19 +225,12 @@ public class WebScrapingService {
     }
 
     /**
-     * Convert country names in scraped data to 2-digit ISO codes
+     * Resolve a scraped country name from the in-memory registry, falling back to
+     * CountryService (database) only for names the registry does not know
      */
-    private void convertCountryNamesToCodes(ScrapedTariffResponse response) {
-        if (response.getData() == null) {
-            return;
-        }
-
-        List<ScrapedTariffData> convertedData = response.getData().stream()
-                .map(this::convertTariffDataCountryCodes)
-                .collect(Collectors.toList());
-
-        response.setData(convertedData);
-        logger.debug("Converted country names to ISO2 codes for {} records", convertedData.size());
+    private String convertCountryNameToIso2(String countryName) {
+        String iso2 = countryRegistry.toIso2(countryName);
+        return iso2 != null ? iso2 : countryService.convertCountryNameToIso2(countryName);
     }
 
     private ScrapedTariffResponse createErrorResponse(String importCode, String exportCode, String errorMessage) {
@@ -156,16 +244,37 @@ public class WebScrapingService {
         return errorResponse;
     }
 
+    /**
+     * Send on the shared scraper client through its bulkhead and circuit breaker, recording
+     * latency and errors against the scraper host. A rejected call surfaces as an IOException,
+     * so callers fall back to the empty error response without waiting on the scraper.
+     */
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        HttpClient httpClient = outboundHttpClients.httpClient(OutboundHttpClients.Destination.SCRAPER);
+        return outboundHttpClients.guard(OutboundHttpClients.Destination.SCRAPER).execute(() -> {
+            long start = System.nanoTime();
+            try {
+                HttpResponse<T> response = httpClient.send(request, bodyHandler);
+                outboundHttpClients.record(request.uri(), System.nanoTime() - start, response.statusCode() >= 400);
+                return response;
+            } catch (IOException | InterruptedException | RuntimeException e) {
+                outboundHttpClients.record(request.uri(), System.nanoTime() - start, true);
+                throw e;
+            }
+        }, response -> response.statusCode() >= 500);
+    }
+
     // Health check method to verify Python API is running
     public boolean isScraperHealthy() {
         try {
             HttpRequest request = HttpRequest.newBuilder()
                     .uri(URI.create(PYTHON_API_BASE_URL + "/health"))
-                    .timeout(Duration.ofSeconds(10))
+                    .timeout(RequestDeadline.cap(Duration.ofSeconds(10)))
                     .GET()
                     .build();
 
-            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = send(request, HttpResponse.BodyHandlers.ofString());
 
             logger.debug("Scraper health check response: {}", response.body());
             return response.statusCode() == 200 && response.body() != null && response.body().contains("healthy");
@@ -0,0 +1,613 @@
+package com.cs203.tariffg4t2.service.tariffLogic;
+
+import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffData;
+import com.cs203.tariffg4t2.model.basic.TariffRate;
+import com.cs203.tariffg4t2.repository.basic.TariffRateRepository;
+import com.cs203.tariffg4t2.service.data.RequestDeadline;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * Staged, concurrent ingestion of scraped tariff rows.
+ * parse (rate and year strings) -> existence check -> batched write, each stage with its own
+ * workers and a bounded hand-off queue. A full queue blocks the stage before it, so a fast
+ * scraper stream is throttled to what the database can absorb instead of buffering unbounded.
+ * The existence check looks up a whole batch at once, so each run holds at most two database
+ * connections (checker and writer).
+ * Country names are already normalised to ISO2 by WebScrapingService while the response streams.
+ *
+ * Runs share one fixed pool sized for DEFAULT_MAX_CONCURRENT_RUNS runs; a run only starts once
+ * a slot is free, so an admitted run always gets all of its stage threads. Every wait is bounded
+ * by the request deadline (or maxWait without one); when a wait runs out or a stage dies, the
+ * run is aborted and every stage lets go of its queues.
+ */
+@Service
+public class ScrapeIngestionPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(ScrapeIngestionPipeline.class);
+
+    static final int DEFAULT_QUEUE_CAPACITY = 1000;
+    static final int DEFAULT_BATCH_SIZE = 100;
+    static final int DEFAULT_MAX_CONCURRENT_RUNS = 2;
+    static final Duration DEFAULT_MAX_WAIT = Duration.ofMinutes(5);
+
+    // How often a blocked hand-off checks whether its run was aborted
+    private static final long POLL_MILLIS = 100;
+
+    // Sentinels marking end of stream; compared by identity
+    private static final ScrapedTariffData END_OF_ROWS = new ScrapedTariffData();
+    private static final TariffRate END_OF_RATES = new TariffRate();
+
+    private final TariffRateRepository tariffRateRepository;
+    private final int parseWorkers;
+    private final int queueCapacity;
+    private final int batchSize;
+    private final Duration maxWait;
+    private final Semaphore runSlots;
+    private final ExecutorService executor;
+
+    private final StageMetrics parseMetrics = new StageMetrics("parse");
+    private final StageMetrics checkMetrics = new StageMetrics("existence-check");
+    private final StageMetrics writeMetrics = new StageMetrics("write");
+
+    @Autowired
+    public ScrapeIngestionPipeline(TariffRateRepository tariffRateRepository) {
+        this(tariffRateRepository, Math.max(2, Runtime.getRuntime().availableProcessors()),
+                DEFAULT_QUEUE_CAPACITY, DEFAULT_BATCH_SIZE, DEFAULT_MAX_CONCURRENT_RUNS, DEFAULT_MAX_WAIT);
+    }
+
+    ScrapeIngestionPipeline(TariffRateRepository tariffRateRepository, int parseWorkers, int queueCapacity,
+                            int batchSize, int maxConcurrentRuns, Duration maxWait) {
+        this.tariffRateRepository = tariffRateRepository;
+        this.parseWorkers = parseWorkers;
+        this.queueCapacity = queueCapacity;
+        this.batchSize = batchSize;
+        this.maxWait = maxWait;
+        this.runSlots = new Semaphore(maxConcurrentRuns, true);
+        // Parse workers, one checker and one writer per run
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(maxConcurrentRuns * (parseWorkers + 2), runnable -> {
+            Thread thread = new Thread(runnable, "scrape-ingest-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Start a new ingestion run, waiting for a free slot. Feed it with {@link Ingestion#submit}
+     * and finish with {@link Ingestion#complete}.
+     */
+    public Ingestion start(Integer requestedYear) {
+        try {
+            if (!runSlots.tryAcquire(waitTimeout().toNanos(), TimeUnit.NANOSECONDS)) {
+                throw new IllegalStateException("Timed out waiting for a free scrape ingestion slot");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting for a free scrape ingestion slot", e);
+        }
+        return new Ingestion(requestedYear);
+    }
+
+    /**
+     * Per-stage throughput and queue depth, aggregated over all runs since startup
+     */
+    public Map<String, StageMetrics> getMetrics() {
+        Map<String, StageMetrics> metrics = new LinkedHashMap<>();
+        metrics.put(parseMetrics.getStage(), parseMetrics);
+        metrics.put(checkMetrics.getStage(), checkMetrics);
+        metrics.put(writeMetrics.getStage(), writeMetrics);
+        return metrics;
+    }
+
+    /**
+     * How long the caller may wait: the time left before the request deadline, at most maxWait
+     */
+    private Duration waitTimeout() {
+        Duration remaining = RequestDeadline.remaining();
+        return remaining != null && remaining.compareTo(maxWait) < 0 ? remaining : maxWait;
+    }
+
+    /**
+     * One ingestion run with its own queues, running on the shared pool
+     */
+    public final class Ingestion {
+
+        private final Integer requestedYear;
+        private final BlockingQueue<ScrapedTariffData> rowQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<TariffRate> checkQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final BlockingQueue<TariffRate> writeQueue = new ArrayBlockingQueue<>(queueCapacity);
+        private final CompletableFuture<Integer> written = new CompletableFuture<>();
+        private final Set<String> writtenKeys = new HashSet<>();
+        private final AtomicInteger liveTasks = new AtomicInteger(parseWorkers + 2);
+        private volatile boolean aborted;
+
+        private Ingestion(Integer requestedYear) {
+            this.requestedYear = requestedYear;
+
+            AtomicInteger liveParsers = new AtomicInteger(parseWorkers);
+            List<Task> tasks = new ArrayList<>(parseWorkers + 2);
+            for (int i = 0; i < parseWorkers; i++) {
+                tasks.add(() -> runStage(parseMetrics, rowQueue, END_OF_ROWS, liveParsers,
+                        checkMetrics, checkQueue, END_OF_RATES, this::toTariffRate));
+            }
+            tasks.add(this::runChecker);
+            tasks.add(this::runWriter);
+
+            int started = 0;
+            try {
+                for (Task task : tasks) {
+                    executor.execute(() -> runTask(task));
+                    started++;
+                }
+            } catch (RejectedExecutionException e) {
+                // The pipeline is shutting down; count the tasks that never started as finished
+                abort(e);
+                if (liveTasks.addAndGet(started - tasks.size()) == 0) {
+                    runSlots.release();
+                }
+                throw new IllegalStateException("Scrape ingestion is shutting down", e);
+            }
+        }
+
+        /**
+         * Hand a chunk of rows to the parse stage, blocking while its queue is full
+         */
+        public void submit(List<ScrapedTariffData> rows) {
+            for (ScrapedTariffData row : rows) {
+                handOff(row);
+                parseMetrics.enqueued(rowQueue.size());
+            }
+        }
+
+        /**
+         * Signal end of input and wait for every submitted row to be written.
+         * Returns the number of new tariff rates saved.
+         */
+        public int complete() {
+            handOff(END_OF_ROWS);
+            try {
+                return written.get(waitTimeout().toNanos(), TimeUnit.NANOSECONDS);
+            } catch (TimeoutException e) {
+                IllegalStateException failure = new IllegalStateException("Timed out waiting for scrape ingestion");
+                abort(failure);
+                throw failure;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort(e);
+                throw new IllegalStateException("Interrupted waiting for scrape ingestion", e);
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Scrape ingestion failed", e.getCause());
+            }
+        }
+
+        /**
+         * Put one item on the parse queue, waiting at most the caller's wait timeout
+         */
+        private void handOff(ScrapedTariffData row) {
+            long giveUpNanos = System.nanoTime() + waitTimeout().toNanos();
+            try {
+                while (!rowQueue.offer(row, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                    if (aborted) {
+                        break;
+                    }
+                    if (System.nanoTime() - giveUpNanos >= 0) {
+                        IllegalStateException failure = new IllegalStateException(
+                                "Timed out handing scraped rows to ingestion");
+                        abort(failure);
+                        throw failure;
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                abort(e);
+                throw new IllegalStateException("Interrupted handing off scraped tariff data", e);
+            }
+            if (aborted) {
+                throw new IllegalStateException("Scrape ingestion failed", failureCause());
+            }
+        }
+
+        private Throwable failureCause() {
+            try {
+                written.getNow(null);
+                return null;
+            } catch (CompletionException | CancellationException e) {
+                return e.getCause() != null ? e.getCause() : e;
+            }
+        }
+
+        /**
+         * Stop the run: every stage gives up at its next hand-off, and waiters get the cause
+         */
+        private void abort(Throwable cause) {
+            if (!aborted) {
+                aborted = true;
+                logger.warn("Aborting scrape ingestion: {}", cause.toString());
+            }
+            written.completeExceptionally(cause);
+        }
+
+        private void runTask(Task task) {
+            try {
+                task.run();
+            } catch (InterruptedException e) {
+                abort(e);
+                Thread.currentThread().interrupt();
+            } catch (Throwable e) {
+                abort(e);
+            } finally {
+                if (liveTasks.decrementAndGet() == 0) {
+                    if (aborted) {
+                        discard(rowQueue, END_OF_ROWS, parseMetrics);
+                        discard(checkQueue, END_OF_RATES, checkMetrics);
+                        discard(writeQueue, END_OF_RATES, writeMetrics);
+                    }
+                    runSlots.release();
+                }
+            }
+        }
+
+        /**
+         * Worker loop of the parse stage.
+         * A null result drops the item; the last worker to see end-of-stream forwards it downstream.
+         */
+        private <I, O> void runStage(StageMetrics metrics, BlockingQueue<I> input, I endOfInput, AtomicInteger liveWorkers,
+                                     StageMetrics nextMetrics, BlockingQueue<O> output, O endOfOutput,
+                                     Function<I, O> work) throws InterruptedException {
+            while (true) {
+                I item = take(input);
+                if (item == endOfInput) {
+                    // Leave the marker for sibling workers of this stage
+                    put(input, endOfInput);
+                    if (liveWorkers.decrementAndGet() == 0) {
+                        input.clear();
+                        put(output, endOfOutput);
+                    }
+                    return;
+                }
+                metrics.dequeued(1);
+
+                long start = System.nanoTime();
+                O result = null;
+                try {
+                    result = work.apply(item);
+                } catch (Exception e) {
+                    logger.error("Scrape ingestion stage {} failed for one row: {}", metrics.getStage(), e.getMessage(), e);
+                }
+                metrics.processed(1, System.nanoTime() - start);
+
+                if (result != null) {
+                    put(output, result);
+                    nextMetrics.enqueued(output.size());
+                }
+            }
+        }
+
+        private TariffRate toTariffRate(ScrapedTariffData scrapedData) {
+            TariffRate tariffRate = new TariffRate();
+            tariffRate.setHsCode(scrapedData.getHsCode());
+            tariffRate.setImportingCountryCode(scrapedData.getImportingCountry());
+            tariffRate.setExportingCountryCode(scrapedData.getExportingCountry());
+            // Save exactly as scraped: rate as a percentage, year from the date field
+            tariffRate.setAdValoremRate(parseTariffRate(scrapedData.getTariffRate()));
+            tariffRate.setYear(extractYearFromDate(scrapedData.getDate(), requestedYear));
+            return tariffRate;
+        }
+
+        /**
+         * Existence-check stage: drop rates already stored, one lookup per batch
+         */
+        private void runChecker() throws InterruptedException {
+            boolean finished = false;
+            while (!finished) {
+                List<TariffRate> batch = new ArrayList<>(batchSize);
+                finished = takeBatch(checkQueue, batch, checkMetrics);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                List<TariffRate> fresh;
+                try {
+                    fresh = dropExisting(batch);
+                } catch (Exception e) {
+                    logger.error("Existence check failed for {} scraped tariff rates: {}", batch.size(), e.getMessage(), e);
+                    fresh = List.of();
+                }
+                checkMetrics.processed(batch.size(), System.nanoTime() - start);
+
+                for (TariffRate rate : fresh) {
+                    put(writeQueue, rate);
+                    writeMetrics.enqueued(writeQueue.size());
+                }
+            }
+            put(writeQueue, END_OF_RATES);
+        }
+
+        /**
+         * The rates in the batch not yet stored for their HS code and country pair (any year).
+         * One query per country pair in the batch; a scrape is normally a single pair.
+         */
+        private List<TariffRate> dropExisting(List<TariffRate> batch) {
+            Map<String, List<TariffRate>> byPair = new LinkedHashMap<>();
+            for (TariffRate rate : batch) {
+                byPair.computeIfAbsent(rate.getImportingCountryCode() + '|' + rate.getExportingCountryCode(),
+                        key -> new ArrayList<>()).add(rate);
+            }
+
+            List<TariffRate> fresh = new ArrayList<>(batch.size());
+            for (List<TariffRate> pairRates : byPair.values()) {
+                String importingCountry = pairRates.get(0).getImportingCountryCode();
+                String exportingCountry = pairRates.get(0).getExportingCountryCode();
+                Set<String> hsCodes = new HashSet<>();
+                for (TariffRate rate : pairRates) {
+                    hsCodes.add(rate.getHsCode());
+                }
+                Set<String> existing = new HashSet<>(tariffRateRepository.findExistingHsCodes(
+                        importingCountry, exportingCountry, hsCodes));
+                for (TariffRate rate : pairRates) {
+                    if (existing.contains(rate.getHsCode())) {
+                        logger.debug("Tariff rate already exists for HS={}, importing={}, exporting={}",
+                                rate.getHsCode(), importingCountry, exportingCountry);
+                    } else {
+                        fresh.add(rate);
+                    }
+                }
+            }
+            return fresh;
+        }
+
+        private void runWriter() throws InterruptedException {
+            int savedCount = 0;
+            boolean finished = false;
+            while (!finished) {
+                List<TariffRate> batch = new ArrayList<>(batchSize);
+                finished = takeBatch(writeQueue, batch, writeMetrics);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+
+                long start = System.nanoTime();
+                savedCount += writeBatch(batch);
+                writeMetrics.processed(batch.size(), System.nanoTime() - start);
+            }
+            logger.info("Saved {} new tariff rates to repository", savedCount);
+            written.complete(savedCount);
+        }
+
+        /**
+         * Save one batch; if the batch fails, retry row by row so one bad row does not lose the rest
+         */
+        private int writeBatch(List<TariffRate> batch) {
+            List<TariffRate> fresh = new ArrayList<>(batch.size());
+            for (TariffRate rate : batch) {
+                // Duplicates within one scrape pass the existence check together; keep the first
+                if (writtenKeys.add(rate.getHsCode() + '|' + rate.getImportingCountryCode() + '|' + rate.getExportingCountryCode())) {
+                    fresh.add(rate);
+                }
+            }
+            if (fresh.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                tariffRateRepository.saveAll(fresh);
+                return fresh.size();
+            } catch (Exception batchError) {
+                logger.warn("Batch save of {} tariff rates failed, retrying individually: {}",
+                        fresh.size(), batchError.getMessage());
+                int saved = 0;
+                for (TariffRate rate : fresh) {
+                    try {
+                        tariffRateRepository.save(rate);
+                        saved++;
+                    } catch (Exception e) {
+                        logger.error("Error saving scraped data for HS={}: {}", rate.getHsCode(), e.getMessage(), e);
+                    }
+                }
+                return saved;
+            }
+        }
+
+        /**
+         * Wait for the next rate, then take whatever else is already waiting, up to one batch.
+         * Returns true once the end-of-stream marker has been taken.
+         */
+        private boolean takeBatch(BlockingQueue<TariffRate> queue, List<TariffRate> batch, StageMetrics metrics)
+                throws InterruptedException {
+            TariffRate first = take(queue);
+            if (first == END_OF_RATES) {
+                return true;
+            }
+            batch.add(first);
+            List<TariffRate> drained = new ArrayList<>(batchSize);
+            queue.drainTo(drained, batchSize - 1);
+            boolean finished = false;
+            for (TariffRate rate : drained) {
+                if (rate == END_OF_RATES) {
+                    finished = true;
+                } else {
+                    batch.add(rate);
+                }
+            }
+            metrics.dequeued(batch.size());
+            return finished;
+        }
+
+        /**
+         * Blocking take that gives up once the run is aborted
+         */
+        private <T> T take(BlockingQueue<T> queue) throws InterruptedException {
+            T item;
+            while ((item = queue.poll(POLL_MILLIS, TimeUnit.MILLISECONDS)) == null) {
+                checkNotAborted();
+            }
+            return item;
+        }
+
+        /**
+         * Blocking put that gives up once the run is aborted
+         */
+        private <T> void put(BlockingQueue<T> queue, T item) throws InterruptedException {
+            while (!queue.offer(item, POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+                checkNotAborted();
+            }
+        }
+
+        private void checkNotAborted() {
+            if (aborted) {
+                throw new CancellationException("Scrape ingestion aborted");
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface Task {
+        void run() throws InterruptedException;
+    }
+
+    /**
+     * Drop what an aborted run left queued, keeping the queue depth metrics accurate
+     */
+    private static <T> void discard(BlockingQueue<T> queue, T marker, StageMetrics metrics) {
+        List<T> dropped = new ArrayList<>();
+        queue.drainTo(dropped);
+        dropped.removeIf(item -> item == marker);
+        metrics.dequeued(dropped.size());
+    }
+
+    /**
+     * Extract year from date string
+     * Examples: "2024" -> 2024, "2023-12-31" -> 2023, "Jan 2024" -> 2024
+     * Falls back to requestedYear if no year between 2000 and 2099 is found
+     */
+    static Integer extractYearFromDate(String dateString, Integer requestedYear) {
+        if (dateString == null || dateString.trim().isEmpty()) {
+            return requestedYear;
+        }
+
+        // Scan the digits in place rather than building a digits-only copy with a regex
+        int digits = 0;
+        int window = 0;
+        for (int i = 0; i < dateString.length(); i++) {
+            char c = dateString.charAt(i);
+            if (c < '0' || c > '9') {
+                continue;
+            }
+            window = (window * 10 + (c - '0')) % 10000;
+            digits++;
+            if (digits >= 4 && window >= 2000 && window <= 2099) {
+                return window;
+            }
+        }
+        return requestedYear;
+    }
+
+    /**
+     * Parse tariff rate string to BigDecimal
+     * Examples: "7.5%" -> 7.5, "0.00%" -> 0.00, "15.2%" -> 15.2
+     * Store as percentage value, not decimal (will divide by 100 during calculation)
+     */
+    static BigDecimal parseTariffRate(String tariffRateString) {
+        if (tariffRateString == null || tariffRateString.trim().isEmpty()) {
+            return BigDecimal.ZERO;
+        }
+
+        try {
+            String cleanRate = tariffRateString.trim().replace("%", "");
+            return new BigDecimal(cleanRate).setScale(4, RoundingMode.HALF_UP);
+        } catch (NumberFormatException e) {
+            logger.warn("Could not parse tariff rate: '{}', defaulting to 0.00", tariffRateString);
+            return BigDecimal.ZERO;
+        }
+    }
+
+    /**
+     * Throughput and queue depth of one stage
+     */
+    public static final class StageMetrics {
+
+        private final String stage;
+        private final LongAdder processed = new LongAdder();
+        private final LongAdder busyNanos = new LongAdder();
+        private final AtomicInteger queued = new AtomicInteger();
+        private final LongAccumulator maxQueueDepth = new LongAccumulator(Math::max, 0L);
+
+        StageMetrics(String stage) {
+            this.stage = stage;
+        }
+
+        void enqueued(int depthAfterPut) {
+            queued.incrementAndGet();
+            maxQueueDepth.accumulate(depthAfterPut);
+        }
+
+        void dequeued(int count) {
+            queued.addAndGet(-count);
+        }
+
+        void processed(int count, long elapsedNanos) {
+            processed.add(count);
+            busyNanos.add(elapsedNanos);
+        }
+
+        public String getStage() {
+            return stage;
+        }
+
+        public long getProcessed() {
+            return processed.sum();
+        }
+
+        /**
+         * Items per second of worker busy time (summed over workers)
+         */
+        public double getThroughputPerSecond() {
+            long nanos = busyNanos.sum();
+            return nanos == 0 ? 0.0 : processed.sum() * 1_000_000_000.0 / nanos;
+        }
+
+        public int getQueueDepth() {
+            return Math.max(0, queued.get());
+        }
+
+        public long getMaxQueueDepth() {
+            return maxQueueDepth.get();
+        }
+    }
+}
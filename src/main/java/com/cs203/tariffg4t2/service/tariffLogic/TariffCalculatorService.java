@@ -5,12 +5,16 @@ import com.cs203.tariffg4t2.dto.response.TariffCalculationResultDTO;
 import com.cs203.tariffg4t2.model.basic.TariffRate;
 import com.cs203.tariffg4t2.model.basic.Country;
 import com.cs203.tariffg4t2.repository.basic.CountryRepository;
+import com.cs203.tariffg4t2.service.basic.ExchangeRateService;
+import com.cs203.tariffg4t2.service.basic.UsdRateBook;
+import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +23,7 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Orchestrates the full tariff calculation flow:
+ * 0) Convert monetary inputs from sourceCurrency to the destination currency (if given)
  * 1) Build Customs Value (CIF or Transaction)
  * 2) Base Duty (MFN) using duty type (ad valorem / specific / compound / mixed)
  * 3) Apply FTA if RoO-eligible
@@ -27,8 +32,8 @@ import org.slf4j.LoggerFactory;
  * 6) Shipping and totals
  *
  * Assumptions:
- * - request.productValue is already in the destination currency.
- * - If your project converts currency elsewhere, keep productValue as-is.
+ * - request.productValue, freight and insurance are in request.sourceCurrency, or already in the
+ *   destination currency when no sourceCurrency is given.
  * - Percent legs from TariffRateService are scaled to use Customs Value, not raw invoice.
  */
 @Service
@@ -46,6 +51,12 @@ public class TariffCalculatorService {
     @Autowired
     private CountryRepository countryRepository;
 
+    @Autowired
+    private ExchangeRateService exchangeRateService;
+
+    @Autowired
+    private CurrencyCodeService currencyCodeService;
+
     Logger logger = LoggerFactory.getLogger(TariffCalculatorService.class);
 
      public TariffCalculationResultDTO calculate(TariffCalculationRequestDTO request) {
@@ -69,12 +80,23 @@ public class TariffCalculatorService {
             throw new IllegalArgumentException(errorMessage);
         }
 
+        // ------------------------------------------------------------
+        // 0) Currency conversion - prices a copy of the request in the destination currency,
+        //    leaving the caller's request in its own currency
+        // ------------------------------------------------------------
+        CurrencyConversion conversion = convertToDestinationCurrency(request);
+        TariffCalculationRequestDTO priced = conversion == null ? request : request.toBuilder()
+                .productValue(conversion.productValue)
+                .freight(conversion.freight)
+                .insurance(conversion.insurance)
+                .build();
+
         // ------------------------------------------------------------
         // 1) Valuation (Customs Value) - Default to CIF
         // ------------------------------------------------------------
-        BigDecimal invoiceValueDest = safeBD(request.getProductValue());
-        BigDecimal freight = safeBD(request.getFreight());
-        BigDecimal insurance = safeBD(request.getInsurance());
+        BigDecimal invoiceValueDest = safeBD(priced.getProductValue());
+        BigDecimal freight = safeBD(priced.getFreight());
+        BigDecimal insurance = safeBD(priced.getInsurance());
 
         // Default to CIF valuation (includes freight and insurance)
         BigDecimal customsValue = invoiceValueDest.add(freight).add(insurance);
@@ -82,7 +104,7 @@ public class TariffCalculatorService {
         // ------------------------------------------------------------
         // 2) Base Duty (MFN) – computed by duty type; percent legs later scaled to Customs Value
         // ------------------------------------------------------------
-        BigDecimal baseDuty = tariffRateService.calculateTariffAmount(request);
+        BigDecimal baseDuty = tariffRateService.calculateTariffAmount(priced);
 
         // Get the actual tariff rate that was used (with year information)
         Optional<TariffRate> usedTariffRate = tariffRateService.getTariffRateWithYear(
@@ -175,6 +197,14 @@ public class TariffCalculatorService {
                 .shippingRatePerKg(scale2(shippingRatePerKg))  // Include shipping rate per kg
                 .build();
 
+        if (conversion != null) {
+            result.setSourceCurrency(conversion.sourceCurrency);
+            result.setDestinationCurrency(conversion.destinationCurrency);
+            result.setOriginalProductValue(scale2(conversion.originalProductValue));
+            result.setExchangeRate(conversion.rate);
+            result.setExchangeRateDate(conversion.rateDate);
+        }
+
         // Add tracking information to result if needed
         if (!request.getMissingFields().isEmpty() || !request.getDefaultedFields().isEmpty()) {
             logger.info("Calculation completed with {} missing fields and {} defaulted fields",
@@ -184,8 +214,46 @@ public class TariffCalculatorService {
         return result;
     }
 
+    /**
+     * productValue, freight and insurance converted from request.sourceCurrency into the importing
+     * country's currency, using the in-memory rate snapshot as of the shipment date. The request
+     * itself is not modified. Returns null when no sourceCurrency was given.
+     */
+    private CurrencyConversion convertToDestinationCurrency(TariffCalculationRequestDTO request) {
+        if (request.getSourceCurrency() == null || request.getSourceCurrency().isBlank()) {
+            return null;
+        }
+
+        String sourceCurrency = request.getSourceCurrency().trim().toUpperCase();
+        String destinationCurrency = currencyCodeService.getCurrencyCode(request.getImportingCountry());
+        if (destinationCurrency == null) {
+            throw new IllegalArgumentException("Currency mapping not found for importing country: "
+                    + request.getImportingCountry());
+        }
+
+        LocalDate rateDate = request.getShipmentDate() != null ? request.getShipmentDate() : LocalDate.now();
+        UsdRateBook.DatedRate rate = exchangeRateService.rateAsOf(sourceCurrency, destinationCurrency, rateDate);
+        if (rate == null) {
+            throw new IllegalArgumentException(String.format("No exchange rate available for %s -> %s as of %s",
+                    sourceCurrency, destinationCurrency, rateDate));
+        }
+
+        CurrencyConversion conversion = new CurrencyConversion(sourceCurrency, destinationCurrency,
+                request.getProductValue(), rate.getRate(), rate.getDate(),
+                convert(request.getProductValue(), rate.getRate()),
+                convert(request.getFreight(), rate.getRate()),
+                convert(request.getInsurance(), rate.getRate()));
+        logger.debug("Converted {} {} to {} {} at {} ({})", conversion.originalProductValue, sourceCurrency,
+                conversion.productValue, destinationCurrency, rate.getRate(), rate.getDate());
+        return conversion;
+    }
+
     // utility methods for calculations
 
+    private BigDecimal convert(BigDecimal amount, BigDecimal rate) {
+        return amount == null ? null : amount.multiply(rate).setScale(6, RoundingMode.HALF_UP);
+    }
+
     private BigDecimal safeBD(BigDecimal x) {
         return x == null ? BigDecimal.ZERO : x;
     }
@@ -194,4 +262,29 @@ public class TariffCalculatorService {
         return x == null ? null : x.setScale(2, RoundingMode.HALF_UP);
     }
 
+    private static class CurrencyConversion {
+        final String sourceCurrency;
+        final String destinationCurrency;
+        final BigDecimal originalProductValue;
+        final BigDecimal rate;
+        final LocalDate rateDate;
+        // Monetary inputs in the destination currency
+        final BigDecimal productValue;
+        final BigDecimal freight;
+        final BigDecimal insurance;
+
+        CurrencyConversion(String sourceCurrency, String destinationCurrency, BigDecimal originalProductValue,
+                           BigDecimal rate, LocalDate rateDate, BigDecimal productValue,
+                           BigDecimal freight, BigDecimal insurance) {
+            this.sourceCurrency = sourceCurrency;
+            this.destinationCurrency = destinationCurrency;
+            this.originalProductValue = originalProductValue;
+            this.rate = rate;
+            this.rateDate = rateDate;
+            this.productValue = productValue;
+            this.freight = freight;
+            this.insurance = insurance;
+        }
+    }
+
 }
@@ -4,7 +4,6 @@ import com.cs203.tariffg4t2.service.basic.TariffRateCRUDService;
 import com.cs203.tariffg4t2.service.data.WebScrapingService;
 import com.cs203.tariffg4t2.dto.request.TariffCalculationRequestDTO;
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffResponse;
-import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffData;
 import com.cs203.tariffg4t2.model.basic.TariffRate;
 import com.cs203.tariffg4t2.repository.basic.TariffRateRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -31,6 +30,9 @@ public class TariffRateService {
     @Autowired
     private TariffRateRepository tariffRateRepository;
 
+    @Autowired
+    private ScrapeIngestionPipeline scrapeIngestionPipeline;
+
     public BigDecimal calculateTariffAmount(TariffCalculationRequestDTO request) {
         logger.debug("Calculating tariff amount for HS code: {}, importing: {}, exporting: {}, year: {}",
                     request.getHsCode(), request.getImportingCountry(), request.getExportingCountry(), request.getYear());
@@ -56,20 +58,27 @@ public class TariffRateService {
                        request.getExportingCountry(), request.getImportingCountry());
 
             try {
-                // Call webscraping service
-                ScrapedTariffResponse scrapedResponse = webScrapingService.scrapeTariffData(
-                    request.getImportingCountry(),
-                    request.getExportingCountry()
-                );
-
-                if ("success".equals(scrapedResponse.getStatus()) && scrapedResponse.getData() != null) {
-                    logger.info("Successfully scraped {} tariff records. Saving to repository...",
-                               scrapedResponse.getResults_count());
+                // Call webscraping service, handing rows to the ingestion pipeline chunk by chunk as they are parsed
+                ScrapeIngestionPipeline.Ingestion ingestion = scrapeIngestionPipeline.start(request.getYear());
+                ScrapedTariffResponse scrapedResponse;
+                int savedCount;
+                try {
+                    scrapedResponse = webScrapingService.streamTariffData(
+                        request.getImportingCountry(),
+                        request.getExportingCountry(),
+                        WebScrapingService.DEFAULT_CHUNK_SIZE,
+                        ingestion::submit
+                    );
+                } finally {
+                    // Wait for every handed-off row to be written before looking the rate up again
+                    savedCount = ingestion.complete();
+                }
 
-                    // Step 3: Save all scraped data to repository (with current year)
-                    saveScrapedDataToRepository(scrapedResponse.getData(), request.getYear());
+                if ("success".equals(scrapedResponse.getStatus())) {
+                    logger.info("Successfully scraped {} tariff records, saved {} new",
+                               scrapedResponse.getResults_count(), savedCount);
 
-                    // Step 4: Try to find the specific HS code again
+                    // Step 3: Try to find the specific HS code again
                     tariffRateOptional = findTariffRateWithYearLogic(
                         request.getHsCode(),
                         request.getImportingCountry(),
@@ -93,7 +102,7 @@ public class TariffRateService {
             }
         }
 
-        // Step 5: Calculate tariff amount if rate is found
+        // Step 4: Calculate tariff amount if rate is found
         if (tariffRateOptional.isEmpty()) {
             logger.warn("No tariff rate found for HS code: {} after webscraping attempt", request.getHsCode());
             // Return zero instead of throwing exception - let the calculation continue
@@ -125,133 +134,6 @@ public class TariffRateService {
         return tariffAmount;
     }
 
-    /**
-     * Save all scraped tariff data to the repository
-     */
-    private void saveScrapedDataToRepository(List<ScrapedTariffData> scrapedDataList, Integer requestedYear) {
-        int savedCount = 0;
-
-        for (ScrapedTariffData scrapedData : scrapedDataList) {
-            try {
-                // Parse tariff rate from string (e.g., "7.5%" -> 7.5)
-                BigDecimal adValoremRate = parseTariffRate(scrapedData.getTariffRate());
-
-                // Extract year from the date field
-                Integer year = extractYearFromDate(scrapedData.getDate(), requestedYear);
-
-                logger.debug("Attempting to save: HS={}, importing={}, exporting={}, rate={}, year={}",
-                            scrapedData.getHsCode(),
-                            scrapedData.getImportingCountry(),
-                            scrapedData.getExportingCountry(),
-                            adValoremRate,
-                            year);
-
-                // Check if this exact record already exists
-                List<TariffRate> existingList = tariffRateRepository.findByHsCodeAndImportingCountryCodeAndExportingCountryCode(
-                    scrapedData.getHsCode(),
-                    scrapedData.getImportingCountry(),
-                    scrapedData.getExportingCountry()
-                );
-
-                if (existingList.isEmpty()) {
-                    // Create new TariffRate entity - save exactly as scraped
-                    TariffRate tariffRate = new TariffRate();
-                    tariffRate.setHsCode(scrapedData.getHsCode());
-                    tariffRate.setImportingCountryCode(scrapedData.getImportingCountry());
-                    tariffRate.setExportingCountryCode(scrapedData.getExportingCountry());
-                    tariffRate.setAdValoremRate(adValoremRate);
-                    tariffRate.setYear(year); // Set the extracted year
-
-                    // Save to repository
-                    TariffRate saved = tariffRateRepository.save(tariffRate);
-                    savedCount++;
-
-                    logger.debug("Saved tariff rate with ID={}: HS={}, importing={}, exporting={}, rate={}%, year={}",
-                                saved.getId(),
-                                saved.getHsCode(),
-                                saved.getImportingCountryCode(),
-                                saved.getExportingCountryCode(),
-                                saved.getAdValoremRate(),
-                                saved.getYear());
-                } else {
-                    logger.debug("Tariff rate already exists for HS={}, importing={}, exporting={}",
-                                scrapedData.getHsCode(),
-                                scrapedData.getImportingCountry(),
-                                scrapedData.getExportingCountry());
-                }
-            } catch (Exception e) {
-                logger.error("Error saving scraped data for HS={}: {}",
-                            scrapedData.getHsCode(), e.getMessage(), e);
-            }
-        }
-
-        logger.info("Saved {} new tariff rates to repository", savedCount);
-    }
-
-    /**
-     * Extract year from date string
-     * Examples: "2024" -> 2024, "2023-12-31" -> 2023, "Jan 2024" -> 2024
-     * Falls back to requestedYear if parsing fails
-     */
-    private Integer extractYearFromDate(String dateString, Integer requestedYear) {
-        if (dateString == null || dateString.trim().isEmpty()) {
-            logger.debug("No date string provided, using requested year: {}", requestedYear);
-            return requestedYear;
-        }
-
-        try {
-            // Try to extract a 4-digit year from the string
-            String yearMatch = dateString.replaceAll("[^0-9]", "");
-
-            // Look for a 4-digit year (2000-2099)
-            if (yearMatch.length() >= 4) {
-                for (int i = 0; i <= yearMatch.length() - 4; i++) {
-                    String potentialYear = yearMatch.substring(i, i + 4);
-                    int year = Integer.parseInt(potentialYear);
-                    if (year >= 2000 && year <= 2099) {
-                        logger.debug("Extracted year {} from date string: {}", year, dateString);
-                        return year;
-                    }
-                }
-            }
-
-            // If no 4-digit year found, try parsing the whole cleaned string
-            if (yearMatch.length() == 4) {
-                int year = Integer.parseInt(yearMatch);
-                if (year >= 2000 && year <= 2099) {
-                    logger.debug("Extracted year {} from date string: {}", year, dateString);
-                    return year;
-                }
-            }
-
-            logger.debug("Could not extract year from date string '{}', using requested year: {}", dateString, requestedYear);
-            return requestedYear;
-
-        } catch (NumberFormatException e) {
-            logger.warn("Failed to parse year from date string: '{}', using requested year: {}", dateString, requestedYear);
-            return requestedYear;
-        }
-    }
-
-    /**
-     * Parse tariff rate string to BigDecimal
-     * Examples: "7.5%" -> 7.5, "0.00%" -> 0.00, "15.2%" -> 15.2
-     * Store as percentage value, not decimal (will divide by 100 during calculation)
-     */
-    private BigDecimal parseTariffRate(String tariffRateString) {
-        if (tariffRateString == null || tariffRateString.trim().isEmpty()) {
-            return BigDecimal.ZERO;
-        }
-
-        try {
-            // Remove % sign and convert to BigDecimal
-            String cleanRate = tariffRateString.trim().replace("%", "");
-            return new BigDecimal(cleanRate).setScale(4, RoundingMode.HALF_UP);
-        } catch (NumberFormatException e) {
-            logger.warn("Could not parse tariff rate: '{}', defaulting to 0.00", tariffRateString);
-            return BigDecimal.ZERO;
-        }
-    }
     public Optional<TariffRate> getTariffRate(String hsCode, String importingCountry, String exportingCountry) {
         return tariffRateCRUDService.getTariffRateByDetails(hsCode, importingCountry, exportingCountry);
     }
@@ -0,0 +1,25 @@
+-- Run by spring.sql.init before Hibernate's ddl-auto=update, which cannot change existing data.
+-- The script is one statement (see spring.sql.init.separator) and must stay safe to re-run.
+DO $$
+BEGIN
+    -- uk_news_article_url cannot be added while a URL is stored twice; keep each URL's first row
+    IF to_regclass('news_article') IS NOT NULL
+       AND NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'uk_news_article_url') THEN
+        DELETE FROM news_article a
+        USING news_article b
+        WHERE a.url = b.url
+          AND a.id > b.id;
+    END IF;
+
+    -- Columns created as vector(1536) reject shortened embeddings (openai.embedding.dimensions);
+    -- the entities declare plain vector, which ddl-auto=update never alters an existing column to
+    IF EXISTS (SELECT 1 FROM pg_attribute
+               WHERE attrelid = to_regclass('chatbot_knowledge') AND attname = 'embedding' AND atttypmod > 0) THEN
+        ALTER TABLE chatbot_knowledge ALTER COLUMN embedding TYPE vector;
+    END IF;
+    IF EXISTS (SELECT 1 FROM pg_attribute
+               WHERE attrelid = to_regclass('news_article') AND attname = 'embedding' AND atttypmod > 0) THEN
+        ALTER TABLE news_article ALTER COLUMN embedding TYPE vector;
+    END IF;
+END
+$$;
@@ -0,0 +1,46 @@
+package com.cs203.tariffg4t2.config;
+
+import com.cs203.tariffg4t2.service.data.RequestDeadline;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineFilterTest {
+
+    private final RequestDeadlineFilter filter = new RequestDeadlineFilter();
+
+    @Test
+    void resolveBudgetMs_HeaderOnlyShortensBudget() {
+        assertEquals(30000, filter.resolveBudgetMs(null, 30000));
+        assertEquals(5000, filter.resolveBudgetMs("5000", 30000));
+        assertEquals(30000, filter.resolveBudgetMs("600000", 30000));
+        assertEquals(30000, filter.resolveBudgetMs("soon", 30000));
+    }
+
+    @Test
+    void isLongRunning_ScrapeAndAdminPaths() {
+        assertTrue(filter.isLongRunning("/api/scraping/tariff"));
+        assertTrue(filter.isLongRunning("/api/tariff/calculate"));
+        assertTrue(filter.isLongRunning("/api/admin/outbound/metrics"));
+        assertFalse(filter.isLongRunning("/api/exchange-rates/analyze"));
+    }
+
+    @Test
+    void doFilter_ScrapeEndpoint_GetsLongRunningBudget() throws Exception {
+        assertTrue(remainingDuring("/api/scraping/tariff").compareTo(Duration.ofSeconds(30)) > 0);
+        assertTrue(remainingDuring("/api/exchange-rates/analyze").compareTo(Duration.ofSeconds(30)) <= 0);
+        assertNull(RequestDeadline.remaining());
+    }
+
+    private Duration remainingDuring(String path) throws Exception {
+        AtomicReference<Duration> remaining = new AtomicReference<>();
+        filter.doFilter(new MockHttpServletRequest("POST", path), new MockHttpServletResponse(),
+                (request, response) -> remaining.set(RequestDeadline.remaining()));
+        return remaining.get();
+    }
+}
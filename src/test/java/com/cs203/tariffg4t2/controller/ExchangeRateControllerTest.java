@@ -1,7 +1,9 @@
 package com.cs203.tariffg4t2.controller;
 
 import com.cs203.tariffg4t2.dto.request.ExchangeRateAnalysisRequest;
+import com.cs203.tariffg4t2.dto.request.ExchangeRateBatchAnalysisRequest;
 import com.cs203.tariffg4t2.dto.response.ExchangeRateAnalysisResponse;
+import com.cs203.tariffg4t2.dto.response.ExchangeRateBatchAnalysisResponse;
 import com.cs203.tariffg4t2.service.basic.ExchangeRateService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
@@ -18,6 +20,7 @@ import org.springframework.security.test.context.support.WithMockUser;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.List;
 
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
@@ -146,6 +149,47 @@ class ExchangeRateControllerTest {
                 .andExpect(jsonPath("$.error").exists());
     }
 
+    @Test
+    @WithMockUser
+    void analyzeExchangeRatesBatch_ValidRequest_ReturnsResultsInOrder() throws Exception {
+        ExchangeRateBatchAnalysisRequest batchRequest = ExchangeRateBatchAnalysisRequest.builder()
+                .pairs(List.of(validRequest))
+                .build();
+        ExchangeRateBatchAnalysisResponse batchResponse = ExchangeRateBatchAnalysisResponse.builder()
+                .results(List.of(ExchangeRateBatchAnalysisResponse.PairResult.builder()
+                        .importingCountry("US")
+                        .exportingCountry("CN")
+                        .analysis(validResponse)
+                        .build()))
+                .succeeded(1)
+                .failed(0)
+                .liveDataAvailable(true)
+                .dataSource("live_api")
+                .build();
+        when(exchangeRateService.analyzeExchangeRatesBatch(any(ExchangeRateBatchAnalysisRequest.class)))
+                .thenReturn(batchResponse);
+
+        mockMvc.perform(post("/api/exchange-rates/analyze/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(batchRequest)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded").value(1))
+                .andExpect(jsonPath("$.results[0].analysis.currentRate").value(6.5));
+    }
+
+    @Test
+    @WithMockUser
+    void analyzeExchangeRatesBatch_NoPairs_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/exchange-rates/analyze/batch")
+                        .with(csrf())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"pairs\": []}"))
+                .andExpect(status().isBadRequest());
+
+        verify(exchangeRateService, never()).analyzeExchangeRatesBatch(any());
+    }
+
     @Test
     @WithMockUser
     void healthCheck_ReturnsHealthyStatus() throws Exception {
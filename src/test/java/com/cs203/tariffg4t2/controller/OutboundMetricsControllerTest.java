@@ -0,0 +1,49 @@
+package com.cs203.tariffg4t2.controller;
+
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.net.URI;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = OutboundMetricsController.class,
+        excludeFilters = @ComponentScan.Filter(
+                type = FilterType.ASSIGNABLE_TYPE,
+                classes = {
+                        com.cs203.tariffg4t2.security.SecurityConfig.class,
+                        com.cs203.tariffg4t2.security.JwtAuthenticationFilter.class,
+                        com.cs203.tariffg4t2.security.JwtService.class
+                }
+        ))
+@Import(OutboundHttpClients.class)
+class OutboundMetricsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private OutboundHttpClients outboundHttpClients;
+
+    @Test
+    @WithMockUser(roles = "ADMIN")
+    void getMetrics_ReturnsRecordedCallsPerHost() throws Exception {
+        outboundHttpClients.record(URI.create("https://api.openai.com/v1/embeddings"), 4_000_000, false);
+        outboundHttpClients.record(URI.create("https://api.openai.com/v1/embeddings"), 2_000_000, true);
+
+        mockMvc.perform(get("/api/admin/outbound/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$['api.openai.com'].requests").value(2))
+                .andExpect(jsonPath("$['api.openai.com'].errors").value(1))
+                .andExpect(jsonPath("$['api.openai.com'].averageLatencyMillis").value(3.0))
+                .andExpect(jsonPath("$['api.openai.com'].maxLatencyMillis").value(4.0));
+    }
+}
@@ -3,6 +3,7 @@ package com.cs203.tariffg4t2.controller;
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffData;
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffResponse;
 import com.cs203.tariffg4t2.service.data.WebScrapingService;
+import com.cs203.tariffg4t2.service.tariffLogic.ScrapeIngestionPipeline;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -40,6 +41,9 @@ class ScrapingControllerTest {
     @MockitoBean
     private WebScrapingService webScrapingService;
 
+    @MockitoBean
+    private ScrapeIngestionPipeline scrapeIngestionPipeline;
+
     private ScrapedTariffResponse successResponse;
     private ScrapedTariffResponse errorResponse;
 
@@ -0,0 +1,31 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCacheEntryTest {
+
+    @Test
+    void isNew_UntilLoadedOrPersisted() {
+        EmbeddingCacheEntry entry = new EmbeddingCacheEntry("model:abc", "model", new byte[4], Instant.now());
+
+        assertTrue(entry.isNew());
+        assertEquals("model:abc", entry.getId());
+
+        entry.markStored();
+        assertFalse(entry.isNew());
+    }
+
+    @Test
+    void isNew_NotPartOfEquality() {
+        Instant now = Instant.now();
+        EmbeddingCacheEntry fresh = new EmbeddingCacheEntry("model:abc", "model", new byte[4], now);
+        EmbeddingCacheEntry stored = new EmbeddingCacheEntry("model:abc", "model", new byte[4], now);
+        stored.markStored();
+
+        assertEquals(fresh, stored);
+    }
+}
@@ -57,7 +57,7 @@ class NewsArticleTest {
             "keywords",
             "US",
             now,
-            "[0.1, 0.2, 0.3]"  // embedding field
+            new float[]{0.1f, 0.2f, 0.3f}  // embedding field
         );
 
         assertEquals(1L, article.getId());
@@ -70,7 +70,7 @@ class NewsArticleTest {
         assertEquals("keywords", article.getKeywords());
         assertEquals("US", article.getCountryCode());
         assertEquals(now, article.getCreatedAt());
-        assertEquals("[0.1, 0.2, 0.3]", article.getEmbedding());
+        assertArrayEquals(new float[]{0.1f, 0.2f, 0.3f}, article.getEmbedding());
     }
 
     @Test
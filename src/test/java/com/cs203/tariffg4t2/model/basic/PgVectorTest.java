@@ -0,0 +1,83 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PgVectorTest {
+
+    @Test
+    void toBytes_MatchesPgvectorWireFormat() {
+        PgVector vector = new PgVector(new float[]{1.0f, -0.5f});
+
+        byte[] bytes = new byte[vector.lengthInBytes()];
+        vector.toBytes(bytes, 0);
+
+        assertEquals(12, bytes.length);
+        ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        assertEquals(2, buffer.getShort());
+        assertEquals(0, buffer.getShort());
+        assertEquals(1.0f, buffer.getFloat());
+        assertEquals(-0.5f, buffer.getFloat());
+    }
+
+    @Test
+    void setByteValue_RoundTripsAtOffset() throws SQLException {
+        float[] embedding = {0.0f, 1e-7f, -123.25f, Float.MIN_VALUE};
+        PgVector written = new PgVector(embedding);
+        byte[] bytes = new byte[3 + written.lengthInBytes()];
+        written.toBytes(bytes, 3);
+
+        PgVector read = new PgVector();
+        read.setByteValue(bytes, 3);
+
+        assertArrayEquals(embedding, read.getVector());
+        assertEquals(written, read);
+    }
+
+    @Test
+    void setByteValue_Truncated_Throws() {
+        byte[] bytes = {0, 3, 0, 0, 0, 0, 0, 0};
+
+        assertThrows(SQLException.class, () -> new PgVector().setByteValue(bytes, 0));
+    }
+
+    @Test
+    void textForm_RoundTrips() throws SQLException {
+        PgVector vector = new PgVector();
+        vector.setValue("[0.25, -1,3e-2]");
+
+        assertArrayEquals(new float[]{0.25f, -1.0f, 0.03f}, vector.getVector());
+        assertEquals("[0.25,-1.0,0.03]", vector.getValue());
+        assertEquals("vector", vector.getType());
+    }
+
+    @Test
+    void toFloatArray_AcceptsDriverTextObjects() throws SQLException {
+        assertNull(PgVector.toFloatArray(null));
+        assertArrayEquals(new float[]{1.0f, 2.0f}, PgVector.toFloatArray("[1,2]"));
+        assertThrows(SQLException.class, () -> PgVector.toFloatArray("1,2"));
+    }
+
+    @Test
+    void toFloatArray_DecodesVectorSendBytea() throws SQLException {
+        PgVector written = new PgVector(new float[]{0.5f, -2.0f});
+        byte[] bytes = new byte[written.lengthInBytes()];
+        written.toBytes(bytes, 0);
+
+        assertArrayEquals(new float[]{0.5f, -2.0f}, PgVector.toFloatArray(bytes));
+    }
+
+    @Test
+    void parseText_ScansLiteralInPlace() throws SQLException {
+        assertArrayEquals(new float[0], PgVector.parseText(" [ ] "));
+        assertArrayEquals(new float[]{7.0f}, PgVector.parseText("[7]"));
+        assertArrayEquals(new float[]{1.5f, -2.0f, 0.001f}, PgVector.parseText(" [ 1.5 ,-2, 1e-3 ] "));
+        assertThrows(SQLException.class, () -> PgVector.parseText("[1,,2]"));
+        assertThrows(SQLException.class, () -> PgVector.parseText("[1,2,]"));
+        assertThrows(SQLException.class, () -> PgVector.parseText("[1,x]"));
+    }
+}
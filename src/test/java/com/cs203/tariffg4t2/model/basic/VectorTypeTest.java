@@ -0,0 +1,32 @@
+package com.cs203.tariffg4t2.model.basic;
+
+import org.junit.jupiter.api.Test;
+import org.postgresql.util.PGobject;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VectorTypeTest {
+
+    @Test
+    void nullSafeGet_TextResult_ParsedWithoutTouchingConnection() throws SQLException {
+        PGobject text = new PGobject();
+        text.setType("vector");
+        text.setValue("[0.5,-2]");
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.getObject(1)).thenReturn(text);
+
+        assertArrayEquals(new float[]{0.5f, -2.0f}, new VectorType().nullSafeGet(rs, 1, null, null));
+        verify(rs, never()).getStatement();
+    }
+
+    @Test
+    void nullSafeGet_Null_ReturnsNull() throws SQLException {
+        ResultSet rs = mock(ResultSet.class);
+
+        assertNull(new VectorType().nullSafeGet(rs, 1, null, null));
+    }
+}
@@ -0,0 +1,48 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.EmbeddingCacheEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EmbeddingCacheInsertRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private EmbeddingCacheInsertRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:embedding-cache-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE embedding_cache (cache_key VARCHAR(128) PRIMARY KEY, " +
+                "model VARCHAR(60) NOT NULL, embedding VARBINARY(16384) NOT NULL, created_at TIMESTAMP NOT NULL)");
+        repository = new EmbeddingCacheInsertRepositoryImpl(jdbcTemplate);
+    }
+
+    @Test
+    void insertMissing_KeysAlreadyStored_SkippedWithoutFailingTheBatch() {
+        Instant now = Instant.now();
+        repository.insertMissing(List.of(entry("m:a", now)));
+
+        int sent = repository.insertMissing(List.of(entry("m:a", now), entry("m:b", now), entry("m:b", now)));
+
+        assertEquals(2, sent);
+        assertEquals(List.of("m:a", "m:b"), jdbcTemplate.queryForList(
+                "SELECT cache_key FROM embedding_cache ORDER BY cache_key", String.class));
+    }
+
+    @Test
+    void insertMissing_Empty_WritesNothing() {
+        assertEquals(0, repository.insertMissing(List.of()));
+    }
+
+    private static EmbeddingCacheEntry entry(String key, Instant createdAt) {
+        return new EmbeddingCacheEntry(key, "m", new byte[]{1, 2, 3, 4}, createdAt);
+    }
+}
@@ -0,0 +1,55 @@
+package com.cs203.tariffg4t2.repository.basic;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NewsArticleInsertRepositoryImplTest {
+
+    private JdbcTemplate jdbcTemplate;
+    private NewsArticleInsertRepositoryImpl repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:news-article-" + System.nanoTime() + ";DB_CLOSE_DELAY=-1", "sa", ""));
+        jdbcTemplate.execute("CREATE TABLE news_article (id BIGINT AUTO_INCREMENT PRIMARY KEY, " +
+                "title VARCHAR(500), description VARCHAR(2000), url VARCHAR(500) UNIQUE, source VARCHAR(255), " +
+                "published_at TIMESTAMP, sentiment_score DOUBLE, keywords VARCHAR(255), country_code VARCHAR(10), " +
+                "created_at TIMESTAMP, embedding VARCHAR(20000))");
+        repository = new NewsArticleInsertRepositoryImpl(jdbcTemplate);
+    }
+
+    @Test
+    void insertNew_UrlsAlreadyStored_SkippedWithoutFailingTheBatch() {
+        repository.insertNew(List.of(article("https://a")));
+
+        NewsArticle b = article("https://b");
+        List<NewsArticle> inserted = repository.insertNew(List.of(article("https://a"), b, article("https://b")));
+
+        assertEquals(List.of(b), inserted);
+        assertNotNull(b.getId());
+        assertNotNull(b.getCreatedAt());
+        assertEquals(List.of("https://a", "https://b"), jdbcTemplate.queryForList(
+                "SELECT url FROM news_article ORDER BY url", String.class));
+    }
+
+    @Test
+    void insertNew_WithoutUrl_Skipped() {
+        assertTrue(repository.insertNew(List.of(article(null))).isEmpty());
+        assertEquals(0, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM news_article", Integer.class));
+    }
+
+    private static NewsArticle article(String url) {
+        NewsArticle article = new NewsArticle("Tariff talks", "Resumed", url, "Wire", LocalDateTime.now(), 0.1);
+        article.setEmbedding(new float[]{0.1f, 0.2f});
+        return article;
+    }
+}
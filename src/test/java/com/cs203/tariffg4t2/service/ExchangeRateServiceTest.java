@@ -8,11 +8,13 @@ import com.cs203.tariffg4t2.repository.basic.CountryRepository;
 import com.cs203.tariffg4t2.repository.basic.ExchangeRateRepository;
 import com.cs203.tariffg4t2.service.basic.ExchangeRateService;
 import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
@@ -38,6 +40,9 @@ class ExchangeRateServiceTest {
     @Mock
     private CurrencyCodeService currencyCodeService;
 
+    @Spy
+    private OutboundHttpClients outboundHttpClients = new OutboundHttpClients();
+
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
@@ -0,0 +1,144 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate;
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate.Resolution;
+import com.cs203.tariffg4t2.repository.basic.ExchangeRateAggregateRepository;
+import com.cs203.tariffg4t2.repository.basic.ExchangeRateRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ExchangeRateCompactionServiceTest {
+
+    @Mock
+    private ExchangeRateRepository exchangeRateRepository;
+
+    @Mock
+    private ExchangeRateAggregateRepository exchangeRateAggregateRepository;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @InjectMocks
+    private ExchangeRateCompactionService compactionService;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactWeek_RollsDailyRowsIntoOhlcAndDeletesThem() {
+        // Given
+        LocalDate monday = LocalDate.of(2024, 1, 1);
+        List<ExchangeRate> rows = List.of(
+                rate(1L, "SGD", "1.35", monday),
+                rate(2L, "SGD", "1.38", monday.plusDays(1)),
+                rate(3L, "SGD", "1.31", monday.plusDays(2)),
+                rate(4L, "SGD", "1.33", monday.plusDays(3)),
+                rate(5L, "EUR", "0.90", monday));
+        when(exchangeRateRepository.findByRateDateBetweenOrderByRateDateAsc(monday, monday.plusDays(6)))
+                .thenReturn(rows);
+        when(exchangeRateAggregateRepository.findByResolutionAndPeriodStart(Resolution.WEEKLY, monday))
+                .thenReturn(List.of());
+
+        // When
+        int compacted = compactionService.compactWeek(monday);
+
+        // Then
+        assertEquals(5, compacted);
+        ArgumentCaptor<List<ExchangeRateAggregate>> saved = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateAggregateRepository).saveAll(saved.capture());
+        ExchangeRateAggregate sgd = saved.getValue().stream()
+                .filter(a -> "SGD".equals(a.getToCurrency())).findFirst().orElseThrow();
+        assertEquals(Resolution.WEEKLY, sgd.getResolution());
+        assertEquals(monday.plusDays(6), sgd.getPeriodEnd());
+        assertEquals(0, new BigDecimal("1.35").compareTo(sgd.getOpenRate()));
+        assertEquals(0, new BigDecimal("1.38").compareTo(sgd.getHighRate()));
+        assertEquals(0, new BigDecimal("1.31").compareTo(sgd.getLowRate()));
+        assertEquals(0, new BigDecimal("1.33").compareTo(sgd.getCloseRate()));
+        assertEquals(0, new BigDecimal("1.3425").compareTo(sgd.getAverageRate()));
+        assertEquals(4, sgd.getPointCount());
+        assertEquals(2, saved.getValue().size());
+        verify(exchangeRateRepository).deleteByIdIn(List.of(1L, 2L, 3L, 4L, 5L));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void compactMonth_RollsWeeksIntoMonthWeightedByPointCount() {
+        // Given
+        LocalDate monthStart = LocalDate.of(2022, 1, 1);
+        List<ExchangeRateAggregate> weeks = List.of(
+                week(10L, LocalDate.of(2022, 1, 3), "1.30", "1.36", "1.29", "1.34", "1.32", 5),
+                week(11L, LocalDate.of(2022, 1, 31), "1.34", "1.35", "1.27", "1.28", "1.30", 3));
+        when(exchangeRateAggregateRepository.findByResolutionAndPeriodStartBetweenOrderByPeriodStartAsc(
+                Resolution.WEEKLY, monthStart, LocalDate.of(2022, 1, 31))).thenReturn(weeks);
+        when(exchangeRateAggregateRepository.findByResolutionAndPeriodStart(Resolution.MONTHLY, monthStart))
+                .thenReturn(List.of());
+
+        // When
+        int compacted = compactionService.compactMonth(monthStart);
+
+        // Then
+        assertEquals(2, compacted);
+        ArgumentCaptor<List<ExchangeRateAggregate>> saved = ArgumentCaptor.forClass(List.class);
+        verify(exchangeRateAggregateRepository).saveAll(saved.capture());
+        ExchangeRateAggregate month = saved.getValue().get(0);
+        assertEquals(Resolution.MONTHLY, month.getResolution());
+        assertEquals(LocalDate.of(2022, 2, 6), month.getPeriodEnd());
+        assertEquals(0, new BigDecimal("1.30").compareTo(month.getOpenRate()));
+        assertEquals(0, new BigDecimal("1.36").compareTo(month.getHighRate()));
+        assertEquals(0, new BigDecimal("1.27").compareTo(month.getLowRate()));
+        assertEquals(0, new BigDecimal("1.28").compareTo(month.getCloseRate()));
+        assertEquals(0, new BigDecimal("1.3125").compareTo(month.getAverageRate()));
+        assertEquals(8, month.getPointCount());
+        verify(exchangeRateAggregateRepository).deleteByIdIn(List.of(10L, 11L));
+    }
+
+    @Test
+    void compact_OnlyTouchesWeeksOlderThanDailyRetention() {
+        // Given
+        LocalDate today = LocalDate.of(2024, 9, 18);
+        LocalDate floor = ExchangeRateCompactionService.dailyRetentionFloor(today);
+        when(transactionTemplate.execute(any())).thenAnswer(invocation ->
+                invocation.<TransactionCallback<Integer>>getArgument(0).doInTransaction(null));
+        when(exchangeRateRepository.findEarliestRateDate()).thenReturn(floor.minusWeeks(2));
+        when(exchangeRateRepository.findByRateDateBetweenOrderByRateDateAsc(any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(new ArrayList<>());
+
+        // When
+        int compacted = compactionService.compact(today);
+
+        // Then
+        assertEquals(0, compacted);
+        verify(exchangeRateRepository).findByRateDateBetweenOrderByRateDateAsc(floor.minusWeeks(2), floor.minusWeeks(2).plusDays(6));
+        verify(exchangeRateRepository).findByRateDateBetweenOrderByRateDateAsc(floor.minusWeeks(1), floor.minusDays(1));
+        verify(exchangeRateRepository, times(2)).findByRateDateBetweenOrderByRateDateAsc(any(LocalDate.class), any(LocalDate.class));
+        verify(exchangeRateRepository, never()).deleteByIdIn(anyCollection());
+    }
+
+    private static ExchangeRate rate(Long id, String currency, String rate, LocalDate date) {
+        ExchangeRate exchangeRate = new ExchangeRate("USD", currency, new BigDecimal(rate), date);
+        exchangeRate.setId(id);
+        return exchangeRate;
+    }
+
+    private static ExchangeRateAggregate week(Long id, LocalDate monday, String open, String high, String low,
+                                              String close, String average, int points) {
+        return new ExchangeRateAggregate(id, "USD", "SGD", Resolution.WEEKLY, monday, monday.plusDays(6),
+                new BigDecimal(open), new BigDecimal(high), new BigDecimal(low), new BigDecimal(close),
+                new BigDecimal(average), points, null, null);
+    }
+}
@@ -1,25 +1,46 @@
 package com.cs203.tariffg4t2.service.basic;
 
 import com.cs203.tariffg4t2.dto.request.ExchangeRateAnalysisRequest;
+import com.cs203.tariffg4t2.dto.request.ExchangeRateBatchAnalysisRequest;
 import com.cs203.tariffg4t2.dto.response.ExchangeRateAnalysisResponse;
+import com.cs203.tariffg4t2.dto.response.ExchangeRateBatchAnalysisResponse;
 import com.cs203.tariffg4t2.model.basic.Country;
 import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import com.cs203.tariffg4t2.model.basic.ExchangeRateAggregate;
 import com.cs203.tariffg4t2.repository.basic.CountryRepository;
+import com.cs203.tariffg4t2.repository.basic.ExchangeRateAggregateRepository;
 import com.cs203.tariffg4t2.repository.basic.ExchangeRateRepository;
 import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
+import com.cs203.tariffg4t2.service.data.OutboundHttpClients;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.time.ZoneOffset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntToDoubleFunction;
+import java.util.function.Supplier;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -31,12 +52,18 @@ class ExchangeRateServiceTest {
     @Mock
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Mock
+    private ExchangeRateAggregateRepository exchangeRateAggregateRepository;
+
     @Mock
     private CountryRepository countryRepository;
 
     @Mock
     private CurrencyCodeService currencyCodeService;
 
+    @Spy
+    private OutboundHttpClients outboundHttpClients = new OutboundHttpClients();
+
     @InjectMocks
     private ExchangeRateService exchangeRateService;
 
@@ -321,6 +348,79 @@ class ExchangeRateServiceTest {
         // Then
         assertNotNull(response);
         assertNotNull(response.getTrendAnalysis());
+        assertNotNull(response.getForecast());
+        assertEquals(response.getForecast().getDate(), response.getRecommendedPurchaseDate());
+        assertTrue(response.getRecommendedPurchaseDate().isAfter(today));
+        assertTrue(response.getForecast().getRate().compareTo(response.getForecast().getUpperBound()) < 0);
+    }
+
+    @Test
+    void analyzeExchangeRates_FallingRate_WaitDateInsideWindowAndInText() {
+        // Given: a steady fall over the last six months
+        LocalDate today = LocalDate.now();
+        stubUsdToSgdAnalysis(dailyRates(daysAgo -> 1.30 + daysAgo * 0.001));
+        ExchangeRateAnalysisRequest request = new ExchangeRateAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("US");
+
+        // When
+        ExchangeRateAnalysisResponse response = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then: the cheapest forecast day is the end of the 2-4 week window
+        assertEquals("decreasing", response.getTrendAnalysis());
+        assertEquals(today.plusDays(28), response.getRecommendedPurchaseDate());
+        assertEquals(response.getRecommendedPurchaseDate(), response.getForecast().getDate());
+        assertTrue(response.getRecommendation().contains("WAIT until around " + today.plusDays(28)));
+        assertTrue(response.getRecommendation().contains("keeps falling, so the last day of that window"));
+        assertFalse(response.getRecommendation().contains("However"));
+    }
+
+    @Test
+    void analyzeExchangeRates_FallingTrendButRecentRebound_ExplainsForecastDisagrees() {
+        // Given: a long fall, then a rebound over the last month
+        LocalDate today = LocalDate.now();
+        stubUsdToSgdAnalysis(dailyRates(daysAgo -> daysAgo >= 30
+                ? 1.30 + (daysAgo - 30) * 0.002
+                : 1.30 + (30 - daysAgo) * 0.003));
+        ExchangeRateAnalysisRequest request = new ExchangeRateAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("US");
+
+        // When
+        ExchangeRateAnalysisResponse response = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then: the date stays in the WAIT window, and the text says the forecast disagrees
+        assertEquals("decreasing", response.getTrendAnalysis());
+        LocalDate recommended = response.getRecommendedPurchaseDate();
+        assertFalse(recommended.isBefore(today.plusDays(14)));
+        assertFalse(recommended.isAfter(today.plusDays(28)));
+        assertEquals(recommended, response.getForecast().getDate());
+        assertTrue(response.getRecommendation().contains("WAIT until around " + recommended));
+        assertTrue(response.getRecommendation().contains("the forecast does not expect a lower rate"));
+    }
+
+    @Test
+    void analyzeExchangeRates_RisingTrendButRecentDip_BuySoonDateInsideWeekAndExplainsEasing() {
+        // Given: a long rise, then a dip over the last month
+        LocalDate today = LocalDate.now();
+        stubUsdToSgdAnalysis(dailyRates(daysAgo -> daysAgo >= 30
+                ? 1.60 - (daysAgo - 30) * 0.002
+                : 1.60 - (30 - daysAgo) * 0.003));
+        ExchangeRateAnalysisRequest request = new ExchangeRateAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("US");
+
+        // When
+        ExchangeRateAnalysisResponse response = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then
+        assertEquals("increasing", response.getTrendAnalysis());
+        LocalDate recommended = response.getRecommendedPurchaseDate();
+        assertTrue(recommended.isAfter(today));
+        assertFalse(recommended.isAfter(today.plusDays(7)));
+        assertEquals(recommended, response.getForecast().getDate());
+        assertTrue(response.getRecommendation().contains("PURCHASE SOON by " + recommended));
+        assertTrue(response.getRecommendation().contains("the forecast expects the rate to ease"));
     }
 
     @Test
@@ -374,4 +474,491 @@ class ExchangeRateServiceTest {
         assertNotNull(response.getDataSource());
         assertNotNull(response.getMessage());
     }
+
+    @Test
+    void analyzeExchangeRates_DerivesCrossRateFromUsdBaseRates() {
+        // Given
+        ExchangeRateAnalysisRequest request = new ExchangeRateAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("CN");
+
+        Country chinaCountry = new Country();
+        chinaCountry.setCountryCode("CN");
+        chinaCountry.setCountryName("China");
+
+        List<ExchangeRate> usdRates = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int i = 21; i >= 0; i -= 7) {
+            usdRates.add(new ExchangeRate("USD", "CNY", new BigDecimal("7.2"), today.minusDays(i)));
+            usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.35"), today.minusDays(i)));
+        }
+
+        when(countryRepository.findById("SG")).thenReturn(Optional.of(sgCountry));
+        when(countryRepository.findById("CN")).thenReturn(Optional.of(chinaCountry));
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("CN")).thenReturn("CNY");
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(usdRates);
+
+        // When
+        ExchangeRateAnalysisResponse response = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then
+        assertEquals(0, new BigDecimal("0.1875").compareTo(response.getCurrentRate()));
+        assertEquals(today, response.getCurrentRateDate());
+        assertEquals(4, response.getHistoricalRates().size());
+        verify(exchangeRateRepository, never()).findLatestByFromCurrencyAndToCurrency(any(), any());
+    }
+
+    @Test
+    void analyzeExchangeRates_CustomWindow_OnlyUsesPointsInWindow() {
+        // Given
+        ExchangeRateAnalysisRequest request = ExchangeRateAnalysisRequest.builder()
+                .importingCountry("SG")
+                .exportingCountry("US")
+                .analysisMonths(1)
+                .build();
+
+        List<ExchangeRate> usdRates = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.50"), today.minusDays(60)));
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.30"), today.minusDays(14)));
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.34"), today.minusDays(7)));
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.32"), today));
+
+        when(countryRepository.findById("SG")).thenReturn(Optional.of(sgCountry));
+        when(countryRepository.findById("US")).thenReturn(Optional.of(usaCountry));
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(usdRates);
+
+        // When
+        ExchangeRateAnalysisResponse response = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then
+        assertEquals(3, response.getHistoricalRates().size());
+        assertEquals(0, new BigDecimal("1.34").compareTo(response.getMaxRate()));
+        assertEquals(0, new BigDecimal("1.32").compareTo(response.getAverageRate()));
+        assertEquals(0, new BigDecimal("1.32").compareTo(response.getCurrentRate()));
+        assertNotNull(response.getIndicators());
+        assertEquals(0, new BigDecimal("1.32").compareTo(response.getIndicators().getShortSma()));
+        assertEquals(0, new BigDecimal("1.34").compareTo(response.getIndicators().getPercentile90()));
+    }
+
+    @Test
+    void analyzeExchangeRates_LongWindow_ReadsCompactedAggregates() {
+        // Given
+        ExchangeRateAnalysisRequest request = ExchangeRateAnalysisRequest.builder()
+                .importingCountry("SG")
+                .exportingCountry("US")
+                .analysisMonths(12)
+                .build();
+
+        LocalDate today = LocalDate.now();
+        List<ExchangeRate> usdRates = new ArrayList<>();
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.30"), today.minusDays(7)));
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.32"), today));
+
+        ExchangeRateAggregate week = new ExchangeRateAggregate();
+        week.setFromCurrency("USD");
+        week.setToCurrency("SGD");
+        week.setResolution(ExchangeRateAggregate.Resolution.WEEKLY);
+        week.setPeriodStart(today.minusMonths(10).minusDays(6));
+        week.setPeriodEnd(today.minusMonths(10));
+        week.setCloseRate(new BigDecimal("1.40"));
+
+        when(countryRepository.findById("SG")).thenReturn(Optional.of(sgCountry));
+        when(countryRepository.findById("US")).thenReturn(Optional.of(usaCountry));
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(usdRates);
+        when(exchangeRateAggregateRepository.findByFromCurrencyAndToCurrencyInAndPeriodEndBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class),
+                eq(ExchangeRateCompactionService.dailyRetentionFloor(today).minusDays(1))))
+                .thenReturn(List.of(week));
+
+        // When
+        ExchangeRateAnalysisResponse response = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then
+        assertEquals(3, response.getHistoricalRates().size());
+        assertEquals(0, new BigDecimal("1.40").compareTo(response.getMaxRate()));
+        assertEquals(today.minusMonths(10), response.getMaxRateDate());
+        assertEquals(0, new BigDecimal("1.32").compareTo(response.getCurrentRate()));
+    }
+
+    @Test
+    void analyzeExchangeRatesBatch_SharesOneHistoryQueryAndReportsFailedPairs() {
+        // Given
+        ReflectionTestUtils.setField(exchangeRateService, "apiKey", "");
+        ReflectionTestUtils.setField(exchangeRateService, "refreshExecutor", (Executor) Runnable::run);
+
+        Country chinaCountry = new Country();
+        chinaCountry.setCountryCode("CN");
+        chinaCountry.setCountryName("China");
+
+        ExchangeRateBatchAnalysisRequest request = ExchangeRateBatchAnalysisRequest.builder()
+                .pairs(List.of(
+                        ExchangeRateAnalysisRequest.builder().importingCountry("SG").exportingCountry("US").build(),
+                        ExchangeRateAnalysisRequest.builder().importingCountry("SG").exportingCountry("CN").build(),
+                        ExchangeRateAnalysisRequest.builder().importingCountry("SG").exportingCountry("XX").build()))
+                .build();
+
+        LocalDate today = LocalDate.now();
+        List<ExchangeRate> usdRates = new ArrayList<>();
+        usdRates.add(new ExchangeRate("USD", "SGD", new BigDecimal("1.35"), today));
+        usdRates.add(new ExchangeRate("USD", "CNY", new BigDecimal("7.20"), today));
+
+        when(countryRepository.findById("SG")).thenReturn(Optional.of(sgCountry));
+        when(countryRepository.findById("US")).thenReturn(Optional.of(usaCountry));
+        when(countryRepository.findById("CN")).thenReturn(Optional.of(chinaCountry));
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(currencyCodeService.getCurrencyCode("CN")).thenReturn("CNY");
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(usdRates);
+
+        // When
+        ExchangeRateBatchAnalysisResponse response = exchangeRateService.analyzeExchangeRatesBatch(request);
+
+        // Then
+        assertEquals(2, response.getSucceeded());
+        assertEquals(1, response.getFailed());
+        assertEquals("fallback_database", response.getDataSource());
+        assertEquals(0, new BigDecimal("1.35").compareTo(response.getResults().get(0).getAnalysis().getCurrentRate()));
+        assertEquals(0, new BigDecimal("0.1875").compareTo(response.getResults().get(1).getAnalysis().getCurrentRate()));
+        assertNull(response.getResults().get(2).getAnalysis());
+        assertTrue(response.getResults().get(2).getError().contains("Invalid country codes"));
+        verify(countryRepository, times(1)).findById("SG");
+        verify(exchangeRateRepository, times(1)).findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class), any(LocalDate.class));
+        verify(exchangeRateRepository, never()).findLatestByFromCurrencyAndToCurrency(any(), any());
+    }
+
+    @Test
+    void analyzeExchangeRates_MaxPointsColumnar_ShapesReturnedCopyOnly() {
+        // Given
+        LocalDate today = LocalDate.now();
+        List<ExchangeRate> usdRates = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            BigDecimal rate = i == 5 ? new BigDecimal("1.45") : new BigDecimal("1.30");
+            usdRates.add(new ExchangeRate("USD", "SGD", rate, today.minusDays(i)));
+        }
+
+        when(countryRepository.findById("SG")).thenReturn(Optional.of(sgCountry));
+        when(countryRepository.findById("US")).thenReturn(Optional.of(usaCountry));
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyInAndRateDateBetween(
+                eq("USD"), anyCollection(), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(usdRates);
+
+        ExchangeRateAnalysisRequest chartRequest = ExchangeRateAnalysisRequest.builder()
+                .importingCountry("SG")
+                .exportingCountry("US")
+                .maxPoints(3)
+                .columnar(true)
+                .build();
+        ExchangeRateAnalysisRequest plainRequest = ExchangeRateAnalysisRequest.builder()
+                .importingCountry("SG")
+                .exportingCountry("US")
+                .build();
+
+        // When
+        ExchangeRateAnalysisResponse chart = exchangeRateService.analyzeExchangeRates(chartRequest);
+        ExchangeRateAnalysisResponse plain = exchangeRateService.analyzeExchangeRates(plainRequest);
+
+        // Then
+        assertNull(chart.getHistoricalRates());
+        assertEquals(10, chart.getHistoricalPointCount());
+        assertEquals(List.of(today.minusDays(9), today.minusDays(5), today), chart.getHistoricalSeries().getDates());
+        assertArrayEquals(new double[] {1.30, 1.45, 1.30}, chart.getHistoricalSeries().getRates(), 1e-9);
+        assertEquals(10, plain.getHistoricalRates().size());
+        assertNull(plain.getHistoricalSeries());
+    }
+
+    @Test
+    void rateAsOf_WarmsBookOnceThenConvertsFromMemory() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(exchangeRateRepository.findByFromCurrencyAndRateDateBetween(eq("USD"), any(LocalDate.class), eq(today)))
+                .thenReturn(List.of(
+                        new ExchangeRate("USD", "CNY", new BigDecimal("7.20"), today.minusDays(2)),
+                        new ExchangeRate("USD", "SGD", new BigDecimal("1.35"), today.minusDays(2))));
+
+        // When
+        UsdRateBook.DatedRate first = exchangeRateService.rateAsOf("CNY", "SGD", today);
+        UsdRateBook.DatedRate second = exchangeRateService.rateAsOf("SGD", "USD", today.plusDays(30));
+
+        // Then
+        assertEquals(today.minusDays(2), first.getDate());
+        assertEquals(0, new BigDecimal("0.1875").compareTo(first.getRate()));
+        assertEquals(today.minusDays(2), second.getDate());
+        verify(exchangeRateRepository, times(1)).findByFromCurrencyAndRateDateBetween(any(), any(), any());
+        verify(exchangeRateRepository, never()).findByFromCurrencyAndToCurrencyInAndRateDateBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    void rateAsOf_DateInCompactedRange_UsesCoveringAggregateAverage() {
+        // Given
+        LocalDate date = LocalDate.now().minusMonths(12);
+        LocalDate weekStart = date.with(DayOfWeek.MONDAY);
+        ExchangeRateAggregate cnyWeek = aggregate("CNY", ExchangeRateAggregate.Resolution.WEEKLY,
+                weekStart, weekStart.plusDays(6), "7.00");
+        ExchangeRateAggregate cnyMonth = aggregate("CNY", ExchangeRateAggregate.Resolution.MONTHLY,
+                date.withDayOfMonth(1), date.withDayOfMonth(date.lengthOfMonth()), "7.50");
+        ExchangeRateAggregate sgdWeek = aggregate("SGD", ExchangeRateAggregate.Resolution.WEEKLY,
+                weekStart, weekStart.plusDays(6), "1.40");
+        when(exchangeRateAggregateRepository.findByFromCurrencyAndToCurrencyInCoveringDate(
+                eq("USD"), eq(Set.of("CNY", "SGD")), eq(date)))
+                .thenReturn(List.of(cnyMonth, cnyWeek, sgdWeek));
+
+        // When
+        UsdRateBook.DatedRate rate = exchangeRateService.rateAsOf("CNY", "SGD", date);
+        UsdRateBook.DatedRate again = exchangeRateService.rateAsOf("CNY", "SGD", date);
+
+        // Then
+        assertEquals(weekStart, rate.getDate());
+        assertEquals(0, new BigDecimal("0.2").compareTo(rate.getRate()));
+        assertEquals(0, rate.getRate().compareTo(again.getRate()));
+        verify(exchangeRateAggregateRepository, times(1)).findByFromCurrencyAndToCurrencyInCoveringDate(any(), any(), any());
+        verify(exchangeRateRepository, times(1)).findByFromCurrencyAndToCurrencyInAndRateDateBetween(any(), any(), any(), any());
+    }
+
+    @Test
+    void rateAsOf_CompactedRangeMissingCurrency_ReturnsNull() {
+        // Given
+        LocalDate date = LocalDate.now().minusMonths(12);
+        when(exchangeRateAggregateRepository.findByFromCurrencyAndToCurrencyInCoveringDate(
+                eq("USD"), eq(Set.of("CNY", "SGD")), eq(date)))
+                .thenReturn(List.of(aggregate("SGD", ExchangeRateAggregate.Resolution.WEEKLY,
+                        date.minusDays(3), date.plusDays(3), "1.40")));
+
+        // When / Then
+        assertNull(exchangeRateService.rateAsOf("CNY", "SGD", date));
+        assertNull(exchangeRateService.rateAsOf("CNY", "SGD", date));
+        verify(exchangeRateAggregateRepository, times(1)).findByFromCurrencyAndToCurrencyInCoveringDate(any(), any(), any());
+    }
+
+    @Test
+    void analyzeExchangeRates_FreshCachedAnalysis_SkipsRecompute() {
+        // Given
+        ExchangeRateAnalysisRequest request = new ExchangeRateAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("US");
+        stubUsdToSgdAnalysis();
+
+        // When
+        ExchangeRateAnalysisResponse first = exchangeRateService.analyzeExchangeRates(request);
+        ExchangeRateAnalysisResponse second = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then
+        assertEquals("fallback_database", first.getDataSource());
+        assertNull(first.getDataAgeSeconds());
+        assertEquals("fallback_database_cached", second.getDataSource());
+        assertNotNull(second.getDataAgeSeconds());
+        assertEquals(first.getCurrentRate(), second.getCurrentRate());
+        verify(exchangeRateRepository, times(1)).findLatestByFromCurrencyAndToCurrency("USD", "SGD");
+    }
+
+    @Test
+    void analyzeExchangeRates_StaleCachedAnalysis_ServedWhileRefreshing() {
+        // Given
+        Instant start = Instant.parse("2024-06-01T00:00:00Z");
+        ReflectionTestUtils.setField(exchangeRateService, "clock", Clock.fixed(start, ZoneOffset.UTC));
+        ReflectionTestUtils.setField(exchangeRateService, "refreshExecutor", (Executor) Runnable::run);
+
+        ExchangeRateAnalysisRequest request = new ExchangeRateAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("US");
+        stubUsdToSgdAnalysis();
+        exchangeRateService.analyzeExchangeRates(request);
+
+        // When
+        ReflectionTestUtils.setField(exchangeRateService, "clock",
+                Clock.fixed(start.plus(Duration.ofMinutes(10)), ZoneOffset.UTC));
+        ExchangeRateAnalysisResponse stale = exchangeRateService.analyzeExchangeRates(request);
+
+        // Then
+        assertEquals("fallback_database_cached", stale.getDataSource());
+        assertEquals(600L, stale.getDataAgeSeconds());
+        assertTrue(stale.getMessage().contains("cached 10 min ago; refreshing in background"));
+        verify(exchangeRateRepository, times(2)).findLatestByFromCurrencyAndToCurrency("USD", "SGD");
+    }
+
+    @Test
+    void refreshShared_ComputationThrowsError_WaiterFailsInsteadOfHanging() throws Exception {
+        // Given
+        CountDownLatch computing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        NoClassDefFoundError failure = new NoClassDefFoundError("simulated");
+        Supplier<ExchangeRateAnalysisResponse> failing = () -> {
+            computing.countDown();
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            throw failure;
+        };
+        Supplier<ExchangeRateAnalysisResponse> unexpected = () -> fail("Waiter should share the running computation");
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+
+        try {
+            // When
+            Future<Object> owner = callers.submit(() ->
+                    ReflectionTestUtils.invokeMethod(exchangeRateService, "refreshShared", "USD:SGD", failing));
+            assertTrue(computing.await(5, TimeUnit.SECONDS));
+            Future<Object> waiter = callers.submit(() ->
+                    ReflectionTestUtils.invokeMethod(exchangeRateService, "refreshShared", "USD:SGD", unexpected));
+            Thread.sleep(200);
+            release.countDown();
+
+            // Then
+            ExecutionException ownerError = assertThrows(ExecutionException.class, () -> owner.get(5, TimeUnit.SECONDS));
+            ExecutionException waiterError = assertThrows(ExecutionException.class, () -> waiter.get(5, TimeUnit.SECONDS));
+            assertSame(failure, ownerError.getCause());
+            assertSame(failure, waiterError.getCause());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private void stubUsdToSgdAnalysis() {
+        stubUsdToSgdAnalysis(historicalRates);
+    }
+
+    private void stubUsdToSgdAnalysis(List<ExchangeRate> pairRates) {
+        when(countryRepository.findById("SG")).thenReturn(Optional.of(sgCountry));
+        when(countryRepository.findById("US")).thenReturn(Optional.of(usaCountry));
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateRepository.findLatestByFromCurrencyAndToCurrency("USD", "SGD"))
+                .thenReturn(Optional.of(currentRate));
+        when(exchangeRateRepository.findByFromCurrencyAndToCurrencyAndRateDateBetween(
+                eq("USD"), eq("SGD"), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(pairRates);
+    }
+
+    /**
+     * One USD/SGD row per day for the last 180 days, newest first
+     */
+    private static List<ExchangeRate> dailyRates(IntToDoubleFunction rateDaysAgo) {
+        List<ExchangeRate> rates = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        for (int daysAgo = 0; daysAgo < 180; daysAgo++) {
+            ExchangeRate rate = new ExchangeRate();
+            rate.setFromCurrency("USD");
+            rate.setToCurrency("SGD");
+            rate.setRate(BigDecimal.valueOf(rateDaysAgo.applyAsDouble(daysAgo)));
+            rate.setRateDate(today.minusDays(daysAgo));
+            rates.add(rate);
+        }
+        return rates;
+    }
+
+    @Test
+    void fetchHistoricalRates_AllWeeklyDatesStored_SkipsApiAndSave() throws Exception {
+        // Given
+        LocalDate today = LocalDate.now();
+        List<LocalDate> storedDates = new ArrayList<>();
+        for (LocalDate date = today.minusMonths(6); !date.isAfter(today); date = date.plusWeeks(1)) {
+            storedDates.add(date);
+        }
+        when(exchangeRateRepository.findRateDatesCoveringCurrencies(
+                eq("USD"), eq(Set.of("SGD")), eq(1L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(storedDates);
+
+        // When
+        exchangeRateService.fetchHistoricalRates("USD", "SGD");
+
+        // Then
+        verify(exchangeRateRepository, never()).findByFromCurrencyAndToCurrencyAndRateDate(any(), any(), any());
+        verify(exchangeRateRepository, never()).upsertAll(anyCollection());
+    }
+
+    @Test
+    void fetchHistoricalRates_SeveralCurrencies_LooksUpStoredDatesInOneQuery() throws Exception {
+        // Given
+        LocalDate today = LocalDate.now();
+        List<LocalDate> completeDates = new ArrayList<>();
+        for (LocalDate date = today.minusMonths(6); !date.isAfter(today); date = date.plusWeeks(1)) {
+            completeDates.add(date);
+        }
+        when(exchangeRateRepository.findRateDatesCoveringCurrencies(
+                eq("USD"), eq(Set.of("CNY", "SGD", "EUR")), eq(3L), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(completeDates);
+
+        // When
+        exchangeRateService.fetchHistoricalRates("CNY", "SGD", "EUR");
+
+        // Then
+        verify(exchangeRateRepository, times(1)).findRateDatesCoveringCurrencies(
+                any(), anyCollection(), anyLong(), any(), any());
+        verify(exchangeRateRepository, never()).upsertAll(anyCollection());
+    }
+
+    @Test
+    void ensureFallbackRates_WritesAllMissingCurrenciesInOneUpsert() {
+        // When
+        exchangeRateService.ensureFallbackRates("CNY", "SGD");
+
+        // Then
+        verify(exchangeRateRepository, times(1)).upsertAll(argThat(rows ->
+                rows.size() > 2
+                        && rows.stream().allMatch(row -> "USD".equals(row.getFromCurrency()))
+                        && rows.stream().anyMatch(row -> "CNY".equals(row.getToCurrency()))
+                        && rows.stream().anyMatch(row -> "SGD".equals(row.getToCurrency()))));
+        verify(exchangeRateRepository, never()).saveAll(anyIterable());
+    }
+
+    @Test
+    void backfillMissingSnapshots_AllDaysStored_FetchesNothing() {
+        // Given
+        LocalDate today = LocalDate.now();
+        List<LocalDate> storedDates = new ArrayList<>();
+        for (LocalDate date = today.minusMonths(6); !date.isAfter(today); date = date.plusWeeks(1)) {
+            storedDates.add(date);
+        }
+        for (int i = 0; i < 7; i++) {
+            storedDates.add(today.minusDays(i));
+        }
+        when(exchangeRateRepository.findDistinctRateDatesByFromCurrencyBetween(
+                eq("USD"), any(LocalDate.class), any(LocalDate.class)))
+                .thenReturn(storedDates);
+
+        // When
+        int stored = exchangeRateService.backfillMissingSnapshots();
+
+        // Then
+        assertEquals(0, stored);
+        verify(exchangeRateRepository, never()).upsertAll(anyCollection());
+    }
+
+    @Test
+    void pollLatestSnapshot_NoApiKey_Throws() {
+        ReflectionTestUtils.setField(exchangeRateService, "apiKey", "");
+
+        assertThrows(IllegalStateException.class, () -> exchangeRateService.pollLatestSnapshot());
+        assertThrows(IllegalStateException.class, () -> exchangeRateService.backfillMissingSnapshots());
+        verifyNoInteractions(exchangeRateRepository);
+    }
+
+    private static ExchangeRateAggregate aggregate(String toCurrency, ExchangeRateAggregate.Resolution resolution,
+                                                   LocalDate periodStart, LocalDate periodEnd, String averageRate) {
+        ExchangeRateAggregate aggregate = new ExchangeRateAggregate();
+        aggregate.setFromCurrency("USD");
+        aggregate.setToCurrency(toCurrency);
+        aggregate.setResolution(resolution);
+        aggregate.setPeriodStart(periodStart);
+        aggregate.setPeriodEnd(periodEnd);
+        aggregate.setAverageRate(new BigDecimal(averageRate));
+        return aggregate;
+    }
 }
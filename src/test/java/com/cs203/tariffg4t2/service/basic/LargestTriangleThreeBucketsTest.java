@@ -0,0 +1,50 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LargestTriangleThreeBucketsTest {
+
+    @Test
+    void select_FewerPointsThanThreshold_KeepsAll() {
+        double[] x = {0, 1, 2, 3};
+        double[] y = {1.0, 1.1, 1.2, 1.3};
+
+        assertArrayEquals(new int[] {0, 1, 2, 3}, LargestTriangleThreeBuckets.select(x, y, 10));
+    }
+
+    @Test
+    void select_LongSeries_KeepsEndpointsAndSpike() {
+        int n = 1000;
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+            y[i] = Math.sin(i / 50.0);
+        }
+        y[503] = 5.0;
+
+        int[] selected = LargestTriangleThreeBuckets.select(x, y, 100);
+
+        assertEquals(100, selected.length);
+        assertEquals(0, selected[0]);
+        assertEquals(n - 1, selected[selected.length - 1]);
+        boolean spikeKept = false;
+        for (int i = 0; i < selected.length; i++) {
+            if (i > 0) {
+                assertTrue(selected[i] > selected[i - 1]);
+            }
+            spikeKept |= selected[i] == 503;
+        }
+        assertTrue(spikeKept);
+    }
+
+    @Test
+    void select_ThresholdOfThree_KeepsExtremeMiddlePoint() {
+        double[] x = {0, 1, 2, 3, 4};
+        double[] y = {1.0, 1.0, 2.0, 1.0, 1.0};
+
+        assertArrayEquals(new int[] {0, 2, 4}, LargestTriangleThreeBuckets.select(x, y, 3));
+    }
+}
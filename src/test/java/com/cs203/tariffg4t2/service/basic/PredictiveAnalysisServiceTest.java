@@ -11,6 +11,7 @@ import com.cs203.tariffg4t2.repository.basic.NewsArticleRepository;
 import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
 import com.cs203.tariffg4t2.service.data.EmbeddingService;
 import com.cs203.tariffg4t2.service.data.NewsAPIService;
+import com.cs203.tariffg4t2.service.data.NewsArticleIndex;
 import com.cs203.tariffg4t2.service.data.SentimentAnalysisService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -45,12 +46,18 @@ class PredictiveAnalysisServiceTest {
     @Mock
     private ExchangeRateRepository exchangeRateRepository;
 
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
     @Mock
     private CurrencyCodeService currencyCodeService;
 
     @Mock
     private EmbeddingService embeddingService;
 
+    @Mock
+    private NewsArticleIndex newsArticleIndex;
+
     @InjectMocks
     private PredictiveAnalysisService predictiveAnalysisService;
 
@@ -343,6 +350,36 @@ class PredictiveAnalysisServiceTest {
         assertNotNull(response.getSupportingHeadlines());
     }
 
+    @Test
+    void analyzePrediction_SupportingHeadlinesFromVectorIndex() throws Exception {
+        // Given
+        PredictiveAnalysisRequest request = new PredictiveAnalysisRequest();
+        request.setImportingCountry("SG");
+        request.setExportingCountry("US");
+
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(sentimentAnalysisService.getLatestSentiment()).thenReturn(currentSentiment);
+        when(exchangeRateRepository.findLatestByFromCurrencyAndToCurrency("USD", "SGD"))
+                .thenReturn(Optional.of(currentExchangeRate));
+        when(sentimentAnalysisService.getSentimentHistory(4)).thenReturn(sentimentHistory);
+        when(newsArticleRepository.findRecentArticles(any(LocalDateTime.class)))
+                .thenReturn(newsArticles);
+        float[] queryEmbedding = {0.1f, 0.2f, 0.3f};
+        when(embeddingService.isConfigured()).thenReturn(true);
+        when(embeddingService.generateEmbedding(anyString())).thenReturn(queryEmbedding);
+        when(newsArticleIndex.isReady()).thenReturn(true);
+        when(newsArticleIndex.findSimilar(queryEmbedding, 5)).thenReturn(List.of(newsArticles.get(2)));
+
+        // When
+        PredictiveAnalysisResponse response = predictiveAnalysisService.analyzePrediction(request);
+
+        // Then
+        assertEquals(1, response.getSupportingHeadlines().size());
+        assertEquals("Trade news headline 2", response.getSupportingHeadlines().get(0).getTitle());
+        verify(newsArticleRepository, never()).findSimilarArticles(any(), anyInt());
+    }
+
     @Test
     void getDiagnostics_AllDataAvailable() throws Exception {
         // Given
@@ -367,6 +404,73 @@ class PredictiveAnalysisServiceTest {
         assertTrue(response.getWarnings().isEmpty());
     }
 
+    @Test
+    void getDiagnostics_RateInUsdBookForToday_SkipsStoredPairRow() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(newsAPIService.isConfigured()).thenReturn(false);
+        when(sentimentAnalysisService.getLatestSentiment()).thenReturn(currentSentiment);
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateService.rateAsOf("USD", "SGD", today))
+                .thenReturn(new UsdRateBook.DatedRate(today, new BigDecimal("1.36")));
+
+        // When
+        PredictiveAnalysisDiagnosticsResponse response =
+                predictiveAnalysisService.getDiagnostics("SG", "US", false);
+
+        // Then
+        assertEquals(1.36, response.getLatestExchangeRate());
+        assertEquals(today, response.getLatestExchangeRateDate());
+        verify(exchangeRateRepository, never()).findLatestByFromCurrencyAndToCurrency(anyString(), anyString());
+    }
+
+    @Test
+    void getDiagnostics_UndatedLegacyPairRow_DerivedRateWins() {
+        // Given
+        LocalDate lastWeek = LocalDate.now().minusDays(7);
+        ExchangeRate legacy = new ExchangeRate();
+        legacy.setFromCurrency("USD");
+        legacy.setToCurrency("SGD");
+        legacy.setRate(new BigDecimal("1.20"));
+        when(newsAPIService.isConfigured()).thenReturn(false);
+        when(sentimentAnalysisService.getLatestSentiment()).thenReturn(currentSentiment);
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateService.rateAsOf(eq("USD"), eq("SGD"), any(LocalDate.class)))
+                .thenReturn(new UsdRateBook.DatedRate(lastWeek, new BigDecimal("1.36")));
+        when(exchangeRateRepository.findLatestByFromCurrencyAndToCurrency("USD", "SGD"))
+                .thenReturn(Optional.of(legacy));
+
+        // When
+        PredictiveAnalysisDiagnosticsResponse response =
+                predictiveAnalysisService.getDiagnostics("SG", "US", false);
+
+        // Then
+        assertEquals(1.36, response.getLatestExchangeRate());
+        assertEquals(lastWeek, response.getLatestExchangeRateDate());
+    }
+
+    @Test
+    void getDiagnostics_PairRowNewerThanDerivedRate_UsesPairRow() {
+        // Given
+        when(newsAPIService.isConfigured()).thenReturn(false);
+        when(sentimentAnalysisService.getLatestSentiment()).thenReturn(currentSentiment);
+        when(currencyCodeService.getCurrencyCode("SG")).thenReturn("SGD");
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateService.rateAsOf(eq("USD"), eq("SGD"), any(LocalDate.class)))
+                .thenReturn(new UsdRateBook.DatedRate(LocalDate.now().minusDays(7), new BigDecimal("1.30")));
+        when(exchangeRateRepository.findLatestByFromCurrencyAndToCurrency("USD", "SGD"))
+                .thenReturn(Optional.of(currentExchangeRate));
+
+        // When
+        PredictiveAnalysisDiagnosticsResponse response =
+                predictiveAnalysisService.getDiagnostics("SG", "US", false);
+
+        // Then
+        assertEquals(1.35, response.getLatestExchangeRate());
+    }
+
     @Test
     void getDiagnostics_NewsApiNotConfigured() {
         // Given
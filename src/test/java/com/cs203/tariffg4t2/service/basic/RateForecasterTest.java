@@ -0,0 +1,99 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateForecasterTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void forecast_TooFewObservations_ReturnsNull() {
+        RateForecaster forecaster = new RateForecaster();
+        forecaster.observe(START, 1.30);
+        forecaster.observe(START.plusDays(1), 1.31);
+
+        assertNull(forecaster.forecast(START.plusDays(5)));
+        assertNull(forecaster.lowestForecast(START.plusDays(1), 1, 30));
+    }
+
+    @Test
+    void forecast_LinearSeries_ExtrapolatesDampedTrend() {
+        RateForecaster forecaster = new RateForecaster();
+        for (int i = 0; i < 60; i++) {
+            forecaster.observe(START.plusDays(i), 1.00 + i * 0.01);
+        }
+
+        LocalDate last = START.plusDays(59);
+        RateForecaster.Forecast near = forecaster.forecast(last.plusDays(10));
+        RateForecaster.Forecast far = forecaster.forecast(last.plusDays(30));
+        // Rising, but damped below the straight-line 1.69 / 1.89
+        assertTrue(near.getRate() > 1.59 && near.getRate() < 1.69);
+        assertTrue(far.getRate() > near.getRate() && far.getRate() < 1.89);
+        assertTrue(far.getUpperBound() - far.getRate() > near.getUpperBound() - near.getRate());
+        assertEquals(last, forecaster.lastDate());
+    }
+
+    @Test
+    void observe_SameDayCorrection_MatchesFittingTheCorrectedSeries() {
+        RateForecaster corrected = new RateForecaster();
+        RateForecaster fitted = new RateForecaster();
+        Random random = new Random(42);
+        for (int i = 0; i < 30; i++) {
+            double rate = 1.30 + random.nextGaussian() * 0.01;
+            corrected.observe(START.plusDays(i * 7), rate);
+            fitted.observe(START.plusDays(i * 7), rate);
+        }
+
+        LocalDate today = START.plusDays(30 * 7);
+        corrected.observe(today, 1.50);
+        corrected.observe(today, 1.35);
+        fitted.observe(today, 1.35);
+
+        assertEquals(31, corrected.getCount());
+        RateForecaster.Forecast expected = fitted.forecast(today.plusDays(14));
+        RateForecaster.Forecast actual = corrected.forecast(today.plusDays(14));
+        assertEquals(expected.getRate(), actual.getRate(), 1e-12);
+        assertEquals(expected.getUpperBound(), actual.getUpperBound(), 1e-12);
+    }
+
+    @Test
+    void observe_OlderDay_RejectedForRebuild() {
+        RateForecaster forecaster = new RateForecaster();
+        forecaster.observe(START.plusDays(7), 1.30);
+
+        assertFalse(forecaster.observe(START, 1.29));
+        assertEquals(1, forecaster.getCount());
+    }
+
+    @Test
+    void lowestForecast_FallingRate_PicksLastDayOfWindow() {
+        RateForecaster forecaster = new RateForecaster();
+        Random random = new Random(7);
+        for (int i = 0; i < 120; i++) {
+            forecaster.observe(START.plusDays(i), 1.50 - i * 0.002 + random.nextGaussian() * 0.002);
+        }
+
+        LocalDate today = START.plusDays(119);
+        RateForecaster.Forecast best = forecaster.lowestForecast(today, 14, 28);
+        assertEquals(today.plusDays(28), best.getDate());
+        assertTrue(best.getLowerBound() < best.getRate() && best.getRate() < best.getUpperBound());
+        assertTrue(best.getRate() < forecaster.forecast(today.plusDays(14)).getRate());
+    }
+
+    @Test
+    void lowestForecast_RisingRate_PicksFirstDayOfWindow() {
+        RateForecaster forecaster = new RateForecaster();
+        for (int i = 0; i < 60; i++) {
+            forecaster.observe(START.plusDays(i), 1.26 + i * 0.004);
+        }
+
+        LocalDate today = START.plusDays(59);
+        assertEquals(today.plusDays(1), forecaster.lowestForecast(today, 1, 7).getDate());
+        assertEquals(today.plusDays(14), forecaster.lowestForecast(today, 14, 28).getDate());
+    }
+}
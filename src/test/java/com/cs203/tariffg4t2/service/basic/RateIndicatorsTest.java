@@ -0,0 +1,86 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateIndicatorsTest {
+
+    @Test
+    void snapshot_NoPoints_ReturnsNull() {
+        assertNull(new RateIndicators().snapshot());
+    }
+
+    @Test
+    void snapshot_MovingAveragesUseTheirWindows() {
+        RateIndicators indicators = new RateIndicators();
+        for (int i = 1; i <= 20; i++) {
+            indicators.add(i);
+        }
+
+        RateIndicators.Snapshot snapshot = indicators.snapshot();
+        assertEquals(18.5, snapshot.getShortSma(), 1e-9);   // mean of 17..20
+        assertEquals(14.5, snapshot.getLongSma(), 1e-9);    // mean of 9..20
+        assertTrue(snapshot.getShortEma() > snapshot.getLongEma());
+        assertEquals(0.0, snapshot.getMaxDrawdownPercent(), 1e-9);
+    }
+
+    @Test
+    void snapshot_DetectsCrossoverAndDrawdown() {
+        RateIndicators indicators = new RateIndicators();
+        for (int i = 0; i < 20; i++) {
+            indicators.add(2.0 - i * 0.01);
+        }
+        assertEquals("none", indicators.snapshot().getCrossover());
+
+        for (int i = 0; i < 10; i++) {
+            indicators.add(1.8 + i * 0.03);
+        }
+
+        RateIndicators.Snapshot snapshot = indicators.snapshot();
+        assertEquals("bullish", snapshot.getCrossover());
+        assertTrue(snapshot.getPointsSinceCrossover() >= 0);
+        assertEquals(10.0, snapshot.getMaxDrawdownPercent(), 1e-6);   // 2.00 -> 1.80
+        assertEquals(0.0, snapshot.getCurrentDrawdownPercent(), 1e-9);
+    }
+
+    @Test
+    void snapshot_VolatilityMatchesSampleStdDevOfReturns() {
+        double[] rates = {1.00, 1.02, 0.99, 1.01, 1.03};
+        RateIndicators indicators = new RateIndicators();
+        for (double rate : rates) {
+            indicators.add(rate);
+        }
+
+        double[] returns = new double[rates.length - 1];
+        for (int i = 1; i < rates.length; i++) {
+            returns[i - 1] = rates[i] / rates[i - 1] - 1;
+        }
+        double mean = Arrays.stream(returns).average().orElse(0);
+        double variance = Arrays.stream(returns).map(r -> (r - mean) * (r - mean)).sum() / (returns.length - 1);
+
+        RateIndicators.Snapshot snapshot = indicators.snapshot();
+        assertEquals(Math.sqrt(variance) * 100, snapshot.getVolatilityPercent(), 1e-9);
+        assertEquals(Math.sqrt(variance) * 100, snapshot.getRollingVolatilityPercent(), 1e-9);
+    }
+
+    @Test
+    void snapshot_PercentileBandsTrackSortedValues() {
+        Random random = new Random(42);
+        double[] rates = new double[1000];
+        RateIndicators indicators = new RateIndicators();
+        for (int i = 0; i < rates.length; i++) {
+            rates[i] = 1.3 + random.nextGaussian() * 0.05;
+            indicators.add(rates[i]);
+        }
+        Arrays.sort(rates);
+
+        RateIndicators.Snapshot snapshot = indicators.snapshot();
+        assertEquals(rates[100], snapshot.getPercentile10(), 0.01);
+        assertEquals(rates[500], snapshot.getPercentile50(), 0.01);
+        assertEquals(rates[900], snapshot.getPercentile90(), 0.01);
+    }
+}
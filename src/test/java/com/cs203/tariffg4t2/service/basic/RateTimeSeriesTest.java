@@ -0,0 +1,125 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RateTimeSeriesTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    @Test
+    void stats_MatchesBruteForceOverEveryWindow() {
+        double[] values = {1.30, 1.28, 1.35, 1.31, 1.31, 1.27, 1.40, 1.33, 1.29, 1.36, 1.34};
+        RateTimeSeries series = new RateTimeSeries();
+        for (int i = 0; i < values.length; i++) {
+            series.put(START.plusWeeks(i), values[i]);
+        }
+
+        for (int lo = 0; lo < values.length; lo++) {
+            for (int hi = lo; hi < values.length; hi++) {
+                RateTimeSeries.WindowStats stats = series.stats(START.plusWeeks(lo), START.plusWeeks(hi));
+                double sum = 0;
+                int min = lo;
+                int max = lo;
+                for (int i = lo; i <= hi; i++) {
+                    sum += values[i];
+                    if (values[i] < values[min]) {
+                        min = i;
+                    }
+                    if (values[i] > values[max]) {
+                        max = i;
+                    }
+                }
+                assertEquals(hi - lo + 1, stats.getCount());
+                assertEquals(sum / (hi - lo + 1), stats.getAverage(), 1e-12);
+                assertEquals(START.plusWeeks(min), stats.getMinDate());
+                assertEquals(START.plusWeeks(max), stats.getMaxDate());
+                assertEquals(values[hi], stats.getLatest());
+            }
+        }
+    }
+
+    @Test
+    void stats_WindowBetweenPoints_ReturnsNull() {
+        RateTimeSeries series = new RateTimeSeries();
+        series.put(START, 1.0);
+        series.put(START.plusWeeks(2), 2.0);
+
+        assertNull(series.stats(START.plusDays(1), START.plusDays(13)));
+        assertNull(new RateTimeSeries().stats(START, START.plusYears(1)));
+    }
+
+    @Test
+    void put_UpdatesLatestAndInsertsOutOfOrder() {
+        RateTimeSeries series = new RateTimeSeries();
+        series.put(START.plusDays(2), 5.0);
+        series.put(START.plusDays(4), 9.0);
+        series.put(START.plusDays(4), 1.0);
+        series.put(START, 3.0);
+
+        RateTimeSeries.WindowStats stats = series.stats(START, START.plusDays(4));
+        assertEquals(3, stats.getCount());
+        assertEquals(3.0, stats.getAverage(), 1e-12);
+        assertEquals(START.plusDays(4), stats.getMinDate());
+        assertEquals(START.plusDays(2), stats.getMaxDate());
+        assertEquals(START, series.firstDate());
+    }
+
+    @Test
+    void of_SortsRowsAndSplitsHalves() {
+        List<ExchangeRate> rows = new ArrayList<>();
+        for (int i = 9; i >= 0; i--) {
+            rows.add(new ExchangeRate("CNY", "USD", BigDecimal.valueOf(i < 5 ? 1.0 : 2.0), START.plusWeeks(i)));
+        }
+
+        RateTimeSeries series = RateTimeSeries.of(rows);
+        RateTimeSeries.WindowStats stats = series.stats(START, START.plusWeeks(9));
+
+        assertEquals(1.0, stats.getFirstHalfAverage(), 1e-12);
+        assertEquals(2.0, stats.getSecondHalfAverage(), 1e-12);
+        List<ExchangeRate> window = series.toExchangeRates("CNY", "USD", START.plusWeeks(3), START.plusWeeks(5));
+        assertEquals(3, window.size());
+        assertEquals(START.plusWeeks(3), window.get(0).getRateDate());
+    }
+
+    @Test
+    void catchUp_ForecasterFromEarlierLoad_MatchesRefittingTheNewSeries() {
+        RateTimeSeries earlier = new RateTimeSeries();
+        RateTimeSeries reloaded = new RateTimeSeries();
+        for (int i = 0; i < 40; i++) {
+            double rate = 1.30 + Math.sin(i / 5.0) * 0.02;
+            if (i < 30) {
+                earlier.put(START.plusDays(i), i == 29 ? 1.50 : rate);
+            }
+            reloaded.put(START.plusDays(i), rate);
+        }
+        RateForecaster carried = earlier.forecaster();
+
+        // Day 29 was corrected in the reload, and days 30-39 are new
+        assertTrue(reloaded.catchUp(carried));
+
+        RateForecaster refitted = reloaded.forecaster();
+        assertEquals(refitted.getCount(), carried.getCount());
+        assertEquals(refitted.forecast(START.plusDays(50)).getRate(), carried.forecast(START.plusDays(50)).getRate(), 1e-12);
+    }
+
+    @Test
+    void catchUp_ForecasterAheadOfSeries_ReturnsFalse() {
+        RateTimeSeries series = new RateTimeSeries();
+        RateForecaster ahead = new RateForecaster();
+        for (int i = 0; i < 10; i++) {
+            series.put(START.plusDays(i), 1.30);
+            ahead.observe(START.plusDays(i + 1), 1.30);
+        }
+
+        assertFalse(series.catchUp(ahead));
+        assertFalse(series.catchUp(new RateForecaster()));
+    }
+}
@@ -0,0 +1,83 @@
+package com.cs203.tariffg4t2.service.basic;
+
+import com.cs203.tariffg4t2.model.basic.ExchangeRate;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UsdRateBookTest {
+
+    private static final LocalDate DAY_1 = LocalDate.of(2024, 3, 1);
+    private static final LocalDate DAY_2 = LocalDate.of(2024, 3, 8);
+
+    @Test
+    void crossRate_DerivesFromUsdRates() {
+        UsdRateBook book = new UsdRateBook();
+        book.putAll(DAY_1, Map.of("EUR", new BigDecimal("0.8"), "SGD", new BigDecimal("1.2")));
+
+        assertEquals(0, new BigDecimal("1.5").compareTo(book.crossRate("EUR", "SGD", DAY_1)));
+        assertEquals(0, new BigDecimal("1.2").compareTo(book.crossRate("USD", "SGD", DAY_1)));
+        assertEquals(0, new BigDecimal("1.25").compareTo(book.crossRate("EUR", "USD", DAY_1)));
+        assertNull(book.crossRate("EUR", "JPY", DAY_1));
+        assertNull(book.crossRate("EUR", "SGD", DAY_2));
+    }
+
+    @Test
+    void crossSeries_SkipsDaysMissingEitherCurrency() {
+        UsdRateBook book = new UsdRateBook();
+        book.load(List.of(
+                new ExchangeRate("USD", "EUR", new BigDecimal("0.8"), DAY_1),
+                new ExchangeRate("USD", "SGD", new BigDecimal("1.2"), DAY_1),
+                new ExchangeRate("USD", "SGD", new BigDecimal("1.3"), DAY_2),
+                new ExchangeRate("EUR", "SGD", new BigDecimal("9.9"), DAY_2)));
+
+        List<ExchangeRate> series = book.crossSeries("EUR", "SGD", DAY_1, DAY_2);
+
+        assertEquals(1, series.size());
+        assertEquals(DAY_1, series.get(0).getRateDate());
+        assertEquals("EUR", series.get(0).getFromCurrency());
+        assertEquals(2, book.crossSeries("USD", "SGD", DAY_1, DAY_2).size());
+        assertTrue(book.hasRates(DAY_1, "EUR", "SGD", "USD"));
+        assertFalse(book.hasRates(DAY_2, "EUR"));
+    }
+
+    @Test
+    void crossRateAsOf_UsesLatestDayWithinLookback() {
+        UsdRateBook book = new UsdRateBook();
+        book.putAll(DAY_1, Map.of("EUR", new BigDecimal("0.8"), "SGD", new BigDecimal("1.2")));
+        book.putAll(DAY_2, Map.of("SGD", new BigDecimal("1.3")));
+
+        UsdRateBook.DatedRate rate = book.crossRateAsOf("EUR", "SGD", DAY_2.plusDays(1), 8);
+
+        assertEquals(DAY_1, rate.getDate());
+        assertEquals(0, new BigDecimal("1.5").compareTo(rate.getRate()));
+        assertEquals(DAY_2, book.crossRateAsOf("USD", "SGD", DAY_2.plusDays(1), 8).getDate());
+        assertNull(book.crossRateAsOf("EUR", "SGD", DAY_2.plusDays(1), 7));
+        assertNull(book.crossRateAsOf("EUR", "SGD", DAY_1.minusDays(1), 30));
+    }
+
+    @Test
+    void put_NewCurrencyOnExistingDay_GrowsVector() {
+        UsdRateBook book = new UsdRateBook();
+        book.put(DAY_1, "EUR", 0.8);
+        book.put(DAY_2, "JPY", 150.0);
+        book.put(DAY_1, "GBP", 0.75);
+
+        assertEquals(0.75, book.usdRate(DAY_1, "GBP"));
+        assertTrue(Double.isNaN(book.usdRate(DAY_1, "JPY")));
+        assertEquals(1.0, book.usdRate(DAY_2, "USD"));
+        assertEquals(2, book.dayCount());
+    }
+
+    @Test
+    void nonBaseCurrencies_DropsUsdAndDuplicates() {
+        assertEquals(Set.of("SGD"), UsdRateBook.nonBaseCurrencies("USD", "SGD", "SGD"));
+        assertTrue(UsdRateBook.nonBaseCurrencies("USD", "USD").isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.cs203.tariffg4t2.service.chatbot;
+
+import com.cs203.tariffg4t2.model.chatbot.ChatbotKnowledge;
+import com.cs203.tariffg4t2.repository.chatbot.ChatbotKnowledgeRepository;
+import com.cs203.tariffg4t2.service.data.EmbeddingService;
+import com.cs203.tariffg4t2.service.data.HnswIndex;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ChatbotKnowledgeServiceTest {
+
+    @Mock
+    private ChatbotKnowledgeRepository knowledgeRepository;
+
+    @Mock
+    private EmbeddingService embeddingService;
+
+    @InjectMocks
+    private ChatbotKnowledgeService knowledgeService;
+
+    @Test
+    void retrieveRelevantKnowledge_IndexHoldsEntriesWithoutTheirEmbeddings() throws Exception {
+        when(knowledgeRepository.count()).thenReturn(2L);
+        when(knowledgeRepository.findEntriesWithEmbeddings())
+            .thenReturn(List.of(entry(1L, "Tariffs", 1, 0), entry(2L, "Shipping", 0, 1)));
+        when(embeddingService.isConfigured()).thenReturn(true);
+        when(embeddingService.generateEmbedding("tariff")).thenReturn(new float[]{1, 0.1f});
+
+        knowledgeService.populateKnowledgeBase();
+        List<ChatbotKnowledge> results = knowledgeService.retrieveRelevantKnowledge("tariff", 1);
+
+        assertEquals(1, results.size());
+        assertEquals("Tariffs", results.get(0).getContent());
+        assertNull(results.get(0).getEmbedding());
+        verify(knowledgeRepository, never()).findEmbeddingsByIds(anyCollection());
+    }
+
+    @Test
+    void retrieveRelevantKnowledge_Quantized_RerankedWithEmbeddingsLoadedById() throws Exception {
+        ReflectionTestUtils.setField(knowledgeService, "indexEncoding", HnswIndex.Encoding.BINARY);
+        // Same sign pattern, so the binary codes cannot tell them apart
+        ChatbotKnowledge close = entry(1L, "Close", 0.9f, 0.1f);
+        ChatbotKnowledge closer = entry(2L, "Closer", 0.99f, 0.01f);
+        when(knowledgeRepository.count()).thenReturn(2L);
+        when(knowledgeRepository.findEntriesWithEmbeddings()).thenReturn(List.of(close, closer));
+        ChatbotKnowledgeRepository.KnowledgeEmbedding closeEmbedding = embedding(1L, close.getEmbedding());
+        ChatbotKnowledgeRepository.KnowledgeEmbedding closerEmbedding = embedding(2L, closer.getEmbedding());
+        when(knowledgeRepository.findEmbeddingsByIds(anyCollection()))
+            .thenReturn(List.of(closeEmbedding, closerEmbedding));
+        when(embeddingService.isConfigured()).thenReturn(true);
+        when(embeddingService.generateEmbedding("tariff")).thenReturn(new float[]{1, 0});
+
+        knowledgeService.populateKnowledgeBase();
+        List<ChatbotKnowledge> results = knowledgeService.retrieveRelevantKnowledge("tariff", 1);
+
+        assertEquals("Closer", results.get(0).getContent());
+        assertNull(results.get(0).getEmbedding());
+    }
+
+    private static ChatbotKnowledge entry(Long id, String content, float x, float y) {
+        ChatbotKnowledge entry = new ChatbotKnowledge(content, "faq", "test");
+        entry.setId(id);
+        entry.setEmbedding(new float[]{x, y});
+        return entry;
+    }
+
+    private static ChatbotKnowledgeRepository.KnowledgeEmbedding embedding(Long id, float[] vector) {
+        return new ChatbotKnowledgeRepository.KnowledgeEmbedding() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public float[] getEmbedding() {
+                return vector;
+            }
+        };
+    }
+}
@@ -0,0 +1,48 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterTest {
+
+    @Test
+    void mightContain_EveryPutValue() {
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.put("https://example.com/article/" + i);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("https://example.com/article/" + i));
+        }
+    }
+
+    @Test
+    void mightContain_FalsePositiveRateNearConfigured() {
+        BloomFilter filter = new BloomFilter(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filter.put("https://example.com/article/" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 100_000; i++) {
+            if (filter.mightContain("https://other.example.org/news?id=" + i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives < 2_000);
+        assertEquals(7, filter.getHashCount());
+    }
+
+    @Test
+    void mightContain_EmptyFilter_ReturnsFalse() {
+        assertFalse(new BloomFilter(100, 0.01).mightContain("https://example.com"));
+    }
+
+    @Test
+    void constructor_InvalidArguments_Throw() {
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new BloomFilter(100, 1.0));
+    }
+}
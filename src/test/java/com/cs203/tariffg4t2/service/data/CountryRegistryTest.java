@@ -0,0 +1,61 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CountryRegistryTest {
+
+    private final CountryRegistry registry = CountryRegistry.getInstance();
+
+    @Test
+    void getInstance_LoadsBundledRegistryOnce() {
+        assertSame(registry, CountryRegistry.getInstance());
+        assertTrue(registry.size() > 240);
+    }
+
+    @Test
+    void findByIso2AndIso3_AreInverse() {
+        assertEquals("SGP", registry.findByIso2("SG").getIso3());
+        assertEquals("SG", registry.findByIso3("SGP").getIso2());
+        assertEquals("USA", registry.findByIso2("us").getIso3());
+        assertNull(registry.findByIso2("ZZ"));
+        assertNull(registry.findByIso3(null));
+    }
+
+    @Test
+    void findByName_MatchesAliasesIgnoringCaseAndAccents() {
+        assertEquals("KR", registry.findByName("Korea, Rep.").getIso2());
+        assertEquals("VN", registry.findByName("viet  nam").getIso2());
+        assertEquals("CI", registry.findByName("Cote d'Ivoire").getIso2());
+        assertEquals("TR", registry.findByName("Türkiye").getIso2());
+        assertNull(registry.findByName("Unknown Country"));
+    }
+
+    @Test
+    void resolve_AcceptsCodesAndNames() {
+        assertEquals("CN", registry.toIso2("CHN"));
+        assertEquals("CN", registry.toIso2("China"));
+        assertEquals("GBR", registry.toIso3("United Kingdom"));
+        assertNull(registry.toIso2(""));
+    }
+
+    @Test
+    void currencyFor_UsesIso4217Codes() {
+        assertEquals("SGD", registry.currencyFor("SG"));
+        assertEquals("EUR", registry.currencyFor("DEU"));
+        assertEquals("EUR", registry.currencyFor("EU"));
+        assertNull(registry.currencyFor("AQ"));
+        assertTrue(registry.findByCurrency("usd").stream().anyMatch(e -> "US".equals(e.getIso2())));
+    }
+
+    @Test
+    void getCountries_LeavesOutRegionsThatStillResolve() {
+        assertTrue(registry.getCountries().stream().noneMatch(e -> "EU".equals(e.getIso2()) || "AQ".equals(e.getIso2())));
+        assertTrue(registry.getCountries().stream().anyMatch(e -> "SG".equals(e.getIso2())));
+        assertEquals(registry.size() - 2, registry.getCountries().size());
+        assertFalse(registry.findByIso2("EU").isCountry());
+        assertEquals("EU", registry.toIso2("EUN"));
+        assertEquals("ATA", registry.toIso3("Antarctica"));
+    }
+}
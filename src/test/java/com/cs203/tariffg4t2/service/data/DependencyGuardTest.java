@@ -0,0 +1,140 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DependencyGuardTest {
+
+    private MutableClock clock;
+    private DependencyGuard guard;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-01-01T00:00:00Z"));
+        guard = new DependencyGuard("test", 1, Duration.ofMillis(50), 3, Duration.ofSeconds(30), clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void execute_OpensCircuitAfterConsecutiveFailures() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertThrows(IOException.class, () -> guard.execute(() -> {
+                throw new IOException("timeout");
+            }, result -> false));
+        }
+
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertFalse(guard.isCallPermitted());
+        assertThrows(DependencyGuard.RejectedException.class, () -> guard.execute(() -> "ok", result -> false));
+    }
+
+    @Test
+    void execute_FailingResultCountsTowardsCircuit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            int status = guard.execute(() -> 503, code -> code >= 500);
+            assertEquals(503, status);
+        }
+
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+    }
+
+    @Test
+    void execute_HalfOpenProbeClosesCircuitOnSuccess() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            guard.execute(() -> 500, status -> status >= 500);
+        }
+        clock.advance(Duration.ofSeconds(31));
+
+        assertTrue(guard.isCallPermitted());
+        assertEquals("ok", guard.execute(() -> "ok", result -> false));
+        assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void execute_HalfOpenProbeFailureReopensCircuit() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            guard.execute(() -> 500, status -> status >= 500);
+        }
+        clock.advance(Duration.ofSeconds(31));
+
+        guard.execute(() -> 500, status -> status >= 500);
+
+        assertEquals(DependencyGuard.State.OPEN, guard.getState());
+        assertFalse(guard.isCallPermitted());
+    }
+
+    @Test
+    void execute_BulkheadFull_RejectsWithoutCallingDependency() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Thread holder = new Thread(() -> {
+            try {
+                guard.execute(() -> {
+                    started.countDown();
+                    release.await();
+                    return "slow";
+                }, result -> false);
+            } catch (Exception ignored) {
+            }
+        });
+        holder.start();
+        assertTrue(started.await(1, TimeUnit.SECONDS));
+
+        try {
+            assertThrows(DependencyGuard.RejectedException.class, () -> guard.execute(() -> "fast", result -> false));
+            assertEquals(DependencyGuard.State.CLOSED, guard.getState());
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+    }
+
+    @Test
+    void execute_ExpiredDeadline_RejectsImmediately() {
+        RequestDeadline.start(Duration.ZERO);
+
+        assertThrows(DependencyGuard.RejectedException.class, () -> guard.execute(() -> "ok", result -> false));
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant currentInstant;
+
+        private MutableClock(Instant currentInstant) {
+            this.currentInstant = currentInstant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneId.of("UTC");
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return Clock.fixed(currentInstant, zone);
+        }
+
+        @Override
+        public Instant instant() {
+            return currentInstant;
+        }
+
+        void advance(Duration duration) {
+            currentInstant = currentInstant.plus(duration);
+        }
+    }
+}
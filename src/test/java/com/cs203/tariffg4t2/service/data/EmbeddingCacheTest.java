@@ -0,0 +1,103 @@
+package com.cs203.tariffg4t2.service.data;
+
+import com.cs203.tariffg4t2.model.basic.EmbeddingCacheEntry;
+import com.cs203.tariffg4t2.repository.basic.EmbeddingCacheRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingCacheTest {
+
+    private static final String MODEL = "text-embedding-3-small";
+
+    @Mock
+    private EmbeddingCacheRepository embeddingCacheRepository;
+
+    private EmbeddingCache embeddingCache;
+
+    @BeforeEach
+    void setUp() {
+        embeddingCache = new EmbeddingCache(embeddingCacheRepository);
+    }
+
+    @Test
+    void key_IgnoresWhitespaceDifferences_KeepsModelAndCase() {
+        String key = EmbeddingCache.key(MODEL, "Trade news  between\nUS and China ");
+
+        assertEquals(key, EmbeddingCache.key(MODEL, " Trade news between US and China"));
+        assertNotEquals(key, EmbeddingCache.key(MODEL, "trade news between us and china"));
+        assertNotEquals(key, EmbeddingCache.key("text-embedding-3-large", "Trade news between US and China"));
+        assertTrue(key.startsWith(MODEL + ":"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void putAll_StoresInTable_ThenServedFromMemory() {
+        String key = EmbeddingCache.key(MODEL, "tariffs");
+        embeddingCache.put(key, new float[]{0.25f, -1.5f});
+
+        ArgumentCaptor<List<EmbeddingCacheEntry>> saved = ArgumentCaptor.forClass(List.class);
+        verify(embeddingCacheRepository).insertMissing(saved.capture());
+        EmbeddingCacheEntry entry = saved.getValue().get(0);
+        assertEquals(key, entry.getCacheKey());
+        assertEquals(MODEL, entry.getModel());
+        assertEquals(8, entry.getEmbedding().length);
+        assertTrue(entry.isNew());
+
+        assertArrayEquals(new float[]{0.25f, -1.5f}, embeddingCache.get(key));
+        verify(embeddingCacheRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void getAll_MemoryMisses_LoadedFromTableInOneQuery() {
+        String stored = EmbeddingCache.key(MODEL, "stored");
+        String missing = EmbeddingCache.key(MODEL, "missing");
+        when(embeddingCacheRepository.findAllById(List.of(stored, missing))).thenReturn(List.of(
+            new EmbeddingCacheEntry(stored, MODEL, EmbeddingCache.encode(new float[]{3.0f}), Instant.now())));
+
+        Map<String, float[]> found = embeddingCache.getAll(List.of(stored, missing));
+
+        assertEquals(1, found.size());
+        assertArrayEquals(new float[]{3.0f}, found.get(stored));
+        // Now in memory
+        assertArrayEquals(new float[]{3.0f}, embeddingCache.get(stored));
+        verify(embeddingCacheRepository, times(1)).findAllById(any());
+    }
+
+    @Test
+    void getAll_TableUnavailable_TreatedAsMiss() {
+        when(embeddingCacheRepository.findAllById(any())).thenThrow(new DataAccessResourceFailureException("down"));
+
+        assertNull(embeddingCache.get(EmbeddingCache.key(MODEL, "anything")));
+    }
+
+    @Test
+    void get_ReturnsCopy() {
+        String key = EmbeddingCache.key(MODEL, "tariffs");
+        embeddingCache.put(key, new float[]{1.0f});
+
+        embeddingCache.get(key)[0] = 42.0f;
+
+        assertArrayEquals(new float[]{1.0f}, embeddingCache.get(key));
+    }
+
+    @Test
+    void encode_Decode_RoundTrip() {
+        float[] embedding = {0.0f, -0.125f, 1e-7f, Float.MAX_VALUE};
+
+        assertArrayEquals(embedding, EmbeddingCache.decode(EmbeddingCache.encode(embedding)));
+    }
+}
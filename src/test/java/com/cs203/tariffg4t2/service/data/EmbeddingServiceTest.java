@@ -0,0 +1,181 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EmbeddingServiceTest {
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    @Mock
+    private EmbeddingCache embeddingCache;
+
+    @Mock
+    private OutboundHttpClients outboundHttpClients;
+
+    private EmbeddingService embeddingService;
+
+    @BeforeEach
+    void setUp() {
+        embeddingService = new EmbeddingService(embeddingCache, outboundHttpClients);
+        ReflectionTestUtils.setField(embeddingService, "openAiApiKey", "test-key");
+        ReflectionTestUtils.setField(embeddingService, "embeddingUrl", "https://api.openai.com/v1/embeddings");
+        ReflectionTestUtils.setField(embeddingService, "embeddingModel", "text-embedding-3-small");
+        lenient().when(outboundHttpClients.restTemplate(OutboundHttpClients.Destination.OPENAI)).thenReturn(restTemplate);
+    }
+
+    @Test
+    void generateEmbedding_SingleText_ReturnsVector() throws Exception {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(ResponseEntity.ok("{\"data\": [{\"index\": 0, \"embedding\": [0.5, -0.25]}]}"));
+
+        assertArrayEquals(new float[]{0.5f, -0.25f}, embeddingService.generateEmbedding("tariff news"));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateEmbeddings_OutOfOrderResponse_MappedBackByIndex() {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(ResponseEntity.ok("""
+                {"data": [
+                    {"index": 1, "embedding": [2.0]},
+                    {"index": 0, "embedding": [1.0]}
+                ]}
+                """));
+
+        List<float[]> embeddings = embeddingService.generateEmbeddings(Arrays.asList("first", "  ", "second", null));
+
+        assertEquals(4, embeddings.size());
+        assertArrayEquals(new float[]{1.0f}, embeddings.get(0));
+        assertNull(embeddings.get(1));
+        assertArrayEquals(new float[]{2.0f}, embeddings.get(2));
+        assertNull(embeddings.get(3));
+
+        // Blank texts are never sent
+        ArgumentCaptor<HttpEntity<Map<String, Object>>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate, times(1)).postForEntity(anyString(), request.capture(), eq(String.class));
+        assertEquals(List.of("first", "second"), request.getValue().getBody().get("input"));
+    }
+
+    @Test
+    void generateEmbedding_CacheHit_MakesNoRequest() throws Exception {
+        String key = EmbeddingCache.key("text-embedding-3-small", "tariff news");
+        when(embeddingCache.get(key)).thenReturn(new float[]{0.5f});
+
+        assertArrayEquals(new float[]{0.5f}, embeddingService.generateEmbedding("tariff news"));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateEmbeddings_OnlyUncachedTextsSent_NewOnesCached() {
+        String cachedKey = EmbeddingCache.key("text-embedding-3-small", "cached");
+        String freshKey = EmbeddingCache.key("text-embedding-3-small", "fresh");
+        when(embeddingCache.getAll(List.of(cachedKey, freshKey))).thenReturn(Map.of(cachedKey, new float[]{9.0f}));
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(ResponseEntity.ok("{\"data\": [{\"index\": 0, \"embedding\": [1.0]}]}"));
+
+        List<float[]> embeddings = embeddingService.generateEmbeddings(List.of("cached", "fresh"));
+
+        assertArrayEquals(new float[]{9.0f}, embeddings.get(0));
+        assertArrayEquals(new float[]{1.0f}, embeddings.get(1));
+        ArgumentCaptor<HttpEntity<Map<String, Object>>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForEntity(anyString(), request.capture(), eq(String.class));
+        assertEquals(List.of("fresh"), request.getValue().getBody().get("input"));
+
+        ArgumentCaptor<Map<String, float[]>> stored = ArgumentCaptor.forClass(Map.class);
+        verify(embeddingCache).putAll(stored.capture());
+        assertEquals(Set.of(freshKey), stored.getValue().keySet());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void generateEmbedding_ReducedDimensions_RequestedAndCachedSeparately() throws Exception {
+        ReflectionTestUtils.setField(embeddingService, "embeddingDimensions", 512);
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenReturn(ResponseEntity.ok("{\"data\": [{\"index\": 0, \"embedding\": [0.5]}]}"));
+
+        embeddingService.generateEmbedding("tariff news");
+
+        ArgumentCaptor<HttpEntity<Map<String, Object>>> request = ArgumentCaptor.forClass(HttpEntity.class);
+        verify(restTemplate).postForEntity(anyString(), request.capture(), eq(String.class));
+        assertEquals(512, request.getValue().getBody().get("dimensions"));
+        verify(embeddingCache).put(eq(EmbeddingCache.key("text-embedding-3-small@512", "tariff news")), any());
+    }
+
+    @Test
+    void generateEmbeddings_FailedBatch_LeavesNulls() {
+        when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenThrow(new ResourceAccessException("OPENAI: circuit open"));
+
+        List<float[]> embeddings = embeddingService.generateEmbeddings(List.of("first", "second"));
+
+        assertEquals(Arrays.asList(null, null), embeddings);
+    }
+
+    @Test
+    void generateEmbeddings_RequestDeadlinePasses_StopsWaitingForBatches() {
+        lenient().when(restTemplate.postForEntity(anyString(), any(HttpEntity.class), eq(String.class)))
+            .thenAnswer(invocation -> {
+                Thread.sleep(10_000);
+                return ResponseEntity.ok("{\"data\": []}");
+            });
+
+        RequestDeadline.start(Duration.ofMillis(100));
+        try {
+            long start = System.nanoTime();
+            List<float[]> embeddings = embeddingService.generateEmbeddings(List.of("first", "second"));
+
+            assertEquals(Arrays.asList(null, null), embeddings);
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(5)) < 0);
+            verify(embeddingCache).putAll(Map.of());
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    @Test
+    void generateEmbeddings_NoTexts_MakesNoRequest() {
+        assertTrue(embeddingService.generateEmbeddings(List.of()).isEmpty());
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void planBatches_SplitsByCountAndSize() {
+        List<String> texts = new ArrayList<>(Collections.nCopies(EmbeddingService.MAX_BATCH_INPUTS + 1, "short"));
+        List<List<Integer>> batches = EmbeddingService.planBatches(texts);
+        assertEquals(2, batches.size());
+        assertEquals(EmbeddingService.MAX_BATCH_INPUTS, batches.get(0).size());
+        assertEquals(List.of(EmbeddingService.MAX_BATCH_INPUTS), batches.get(1));
+
+        // Long texts count at their truncated length
+        String longText = "x".repeat(20_000);
+        int perBatch = EmbeddingService.MAX_BATCH_CHARS / 8000;
+        batches = EmbeddingService.planBatches(Collections.nCopies(perBatch + 1, longText));
+        assertEquals(2, batches.size());
+        assertEquals(perBatch, batches.get(0).size());
+    }
+}
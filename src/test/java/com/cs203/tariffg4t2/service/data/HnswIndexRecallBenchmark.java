@@ -0,0 +1,148 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Recall@k, query latency and vector memory of the vector index for each encoding, at full and
+ * reduced dimensions, against exact full-dimension neighbours. Quantized encodings re-rank
+ * {@link HnswIndex#RERANK_FACTOR} x k candidates at full precision, as the services do.
+ *
+ * Not matched by the surefire test patterns, so run it explicitly:
+ * mvn test -Dtest=HnswIndexRecallBenchmark [-Dbenchmark.vectors=5000 -Dbenchmark.dimensions=1536]
+ *
+ * The vectors are synthetic: noisy points around topic centroids, which like real embeddings
+ * cluster. Reduced dimensions keep a vector's leading components, as the embedding API's
+ * dimensions parameter does, but synthetic vectors do not front-load information the way the
+ * model's do, so real embeddings lose less recall when shortened.
+ */
+class HnswIndexRecallBenchmark {
+
+    private static final Logger logger = LoggerFactory.getLogger(HnswIndexRecallBenchmark.class);
+    private static final int K = 10;
+    private static final int QUERIES = 200;
+    private static final int TOPICS = 100;
+
+    @Test
+    void recallAtK() {
+        int count = Integer.getInteger("benchmark.vectors", 5_000);
+        int dimensions = Integer.getInteger("benchmark.dimensions", 1536);
+        Random random = new Random(42);
+        float[][] centroids = new float[TOPICS][];
+        for (int t = 0; t < TOPICS; t++) {
+            centroids[t] = gaussian(random, dimensions, 1.0);
+        }
+        float[][] vectors = new float[count][];
+        for (int i = 0; i < count; i++) {
+            vectors[i] = nearTopic(centroids, random);
+        }
+        float[][] queries = new float[QUERIES][];
+        List<Set<Integer>> exact = new ArrayList<>(QUERIES);
+        for (int q = 0; q < QUERIES; q++) {
+            queries[q] = nearTopic(centroids, random);
+            exact.add(exactNeighbours(vectors, queries[q]));
+        }
+
+        logger.info("{} vectors, {} dimensions, recall@{} against exact neighbours", count, dimensions, K);
+        logger.info(String.format("%-8s %6s %10s %12s %12s", "encoding", "dims", "recall", "query us", "vector MB"));
+        for (int reduced : new int[]{dimensions, dimensions / 3}) {
+            for (HnswIndex.Encoding encoding : HnswIndex.Encoding.values()) {
+                double recall = run(encoding, reduced, vectors, queries, exact);
+                if (encoding == HnswIndex.Encoding.FLOAT32 && reduced == dimensions) {
+                    assertTrue(recall >= 0.9);
+                }
+            }
+        }
+    }
+
+    private static double run(HnswIndex.Encoding encoding, int dimensions, float[][] vectors,
+                              float[][] queries, List<Set<Integer>> exact) {
+        HnswIndex<Integer> index = new HnswIndex<>(encoding);
+        float[][] stored = new float[vectors.length][];
+        for (int i = 0; i < vectors.length; i++) {
+            stored[i] = Arrays.copyOf(vectors[i], dimensions);
+            index.add(i, stored[i], i);
+        }
+
+        // Warm up the JIT before timing
+        for (float[] query : queries) {
+            search(index, Arrays.copyOf(query, dimensions), stored);
+        }
+        int found = 0;
+        long nanos = 0;
+        for (int q = 0; q < queries.length; q++) {
+            float[] query = Arrays.copyOf(queries[q], dimensions);
+            long start = System.nanoTime();
+            List<Integer> results = search(index, query, stored);
+            nanos += System.nanoTime() - start;
+            for (Integer id : results) {
+                if (exact.get(q).contains(id)) {
+                    found++;
+                }
+            }
+        }
+
+        double recall = (double) found / (queries.length * K);
+        logger.info(String.format("%-8s %6d %10.3f %12d %12.2f", encoding, dimensions, recall,
+                                  nanos / queries.length / 1000, index.vectorBytes() / 1e6));
+        return recall;
+    }
+
+    private static List<Integer> search(HnswIndex<Integer> index, float[] query, float[][] stored) {
+        if (index.getEncoding() == HnswIndex.Encoding.FLOAT32) {
+            return index.search(query, K, HnswIndex.DEFAULT_EF_SEARCH, null);
+        }
+        List<Integer> candidates = index.search(query, K * HnswIndex.RERANK_FACTOR, HnswIndex.DEFAULT_EF_SEARCH, null);
+        return HnswIndex.rerank(query, candidates, id -> stored[id], K);
+    }
+
+    private static Set<Integer> exactNeighbours(float[][] vectors, float[] query) {
+        Integer[] ids = new Integer[vectors.length];
+        double[] similarity = new double[vectors.length];
+        for (int i = 0; i < vectors.length; i++) {
+            ids[i] = i;
+            similarity[i] = cosine(vectors[i], query);
+        }
+        Arrays.sort(ids, (a, b) -> Double.compare(similarity[b], similarity[a]));
+        return new HashSet<>(Arrays.asList(ids).subList(0, K));
+    }
+
+    private static float[] nearTopic(float[][] centroids, Random random) {
+        float[] centroid = centroids[random.nextInt(centroids.length)];
+        float[] noise = gaussian(random, centroid.length, 0.7);
+        for (int i = 0; i < noise.length; i++) {
+            noise[i] += centroid[i];
+        }
+        return noise;
+    }
+
+    private static float[] gaussian(Random random, int dimensions, double sigma) {
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = (float) (sigma * random.nextGaussian());
+        }
+        return vector;
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
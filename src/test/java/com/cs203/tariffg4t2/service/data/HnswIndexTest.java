@@ -0,0 +1,216 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HnswIndexTest {
+
+    private static final int DIMENSIONS = 32;
+
+    @Test
+    void search_RandomVectors_RecallAgainstBruteForce() {
+        Random random = new Random(42);
+        List<float[]> vectors = new ArrayList<>();
+        HnswIndex<Integer> index = new HnswIndex<>();
+        for (int i = 0; i < 2000; i++) {
+            float[] vector = randomVector(random);
+            vectors.add(vector);
+            index.add(i, vector, i);
+        }
+
+        int k = 10;
+        int found = 0;
+        int queries = 50;
+        for (int q = 0; q < queries; q++) {
+            float[] query = randomVector(random);
+            Set<Integer> exact = new HashSet<>(bruteForce(vectors, query, k));
+            for (Integer id : index.search(query, k, 100, null)) {
+                if (exact.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        assertTrue((double) found / (queries * k) >= 0.95);
+        assertEquals(2000, index.size());
+    }
+
+    @Test
+    void search_Int8WithRerank_RecallAtTen() {
+        assertTrue(clusteredRecallAtTen(HnswIndex.Encoding.INT8) >= 0.95);
+    }
+
+    @Test
+    void search_BinaryWithRerank_RecallAtTen() {
+        assertTrue(clusteredRecallAtTen(HnswIndex.Encoding.BINARY) >= 0.85);
+    }
+
+    @Test
+    void vectorBytes_QuantizedEncodingsAreSmaller() {
+        Random random = new Random(3);
+        HnswIndex<Integer> floats = new HnswIndex<>(HnswIndex.Encoding.FLOAT32);
+        HnswIndex<Integer> int8 = new HnswIndex<>(HnswIndex.Encoding.INT8);
+        HnswIndex<Integer> binary = new HnswIndex<>(HnswIndex.Encoding.BINARY);
+        for (int i = 0; i < 10; i++) {
+            float[] vector = randomVector(random);
+            floats.add(i, vector, i);
+            int8.add(i, vector, i);
+            binary.add(i, vector, i);
+        }
+
+        assertEquals(10 * DIMENSIONS * 4, floats.vectorBytes());
+        assertEquals(10 * (DIMENSIONS + 4), int8.vectorBytes());
+        assertEquals(10 * 8, binary.vectorBytes());
+    }
+
+    @Test
+    void rerank_OrdersByExactSimilarity_MissingVectorsLast() {
+        List<String> candidates = List.of("none", "y", "x");
+        Map<String, float[]> vectors = Map.of("x", new float[]{1, 0}, "y", new float[]{1, 1});
+
+        assertEquals(List.of("x", "y", "none"), HnswIndex.rerank(new float[]{1, 0}, candidates, vectors::get, 5));
+        assertEquals(List.of("x"), HnswIndex.rerank(new float[]{1, 0}, candidates, vectors::get, 1));
+    }
+
+    @Test
+    void search_ReturnsMostSimilarFirst() {
+        HnswIndex<String> index = new HnswIndex<>();
+        index.add(1, new float[]{1, 0, 0}, "x");
+        index.add(2, new float[]{0, 1, 0}, "y");
+        index.add(3, new float[]{0.9f, 0.1f, 0}, "mostly x");
+
+        assertEquals(List.of("x", "mostly x", "y"), index.search(new float[]{5, 0, 0}, 3, 0, null));
+        assertEquals(List.of("y"), index.search(new float[]{0, 1, 0}, 1, 0, null));
+    }
+
+    @Test
+    void search_Filter_ReturnsOnlyAcceptedItems() {
+        Random random = new Random(7);
+        HnswIndex<Integer> index = new HnswIndex<>();
+        for (int i = 0; i < 500; i++) {
+            index.add(i, randomVector(random), i);
+        }
+
+        List<Integer> results = index.search(randomVector(random), 5, 0, id -> id % 50 == 0);
+        assertEquals(5, results.size());
+        assertTrue(results.stream().allMatch(id -> id % 50 == 0));
+        assertTrue(index.search(randomVector(random), 5, 0, id -> false).isEmpty());
+    }
+
+    @Test
+    void add_SameId_ReplacesItem() {
+        HnswIndex<String> index = new HnswIndex<>();
+        index.add(1, new float[]{1, 0}, "old");
+        index.add(2, new float[]{0, 1}, "other");
+        index.add(1, new float[]{0, 1}, "new");
+
+        assertEquals(2, index.size());
+        List<String> results = index.search(new float[]{1, 0}, 5, 0, null);
+        assertEquals(2, results.size());
+        assertFalse(results.contains("old"));
+    }
+
+    @Test
+    void remove_StopsReturningItem() {
+        HnswIndex<String> index = new HnswIndex<>();
+        index.add(1, new float[]{1, 0}, "a");
+        index.add(2, new float[]{0, 1}, "b");
+
+        assertTrue(index.remove(1));
+        assertFalse(index.remove(1));
+        assertEquals(List.of("b"), index.search(new float[]{1, 0}, 5, 0, null));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void add_BadVectors_Rejected() {
+        HnswIndex<String> index = new HnswIndex<>();
+        index.add(1, new float[]{1, 0}, "a");
+
+        assertThrows(IllegalArgumentException.class, () -> index.add(2, new float[]{1, 0, 0}, "b"));
+        assertThrows(IllegalArgumentException.class, () -> index.add(3, new float[]{0, 0}, "c"));
+        assertTrue(new HnswIndex<String>().search(new float[]{1, 0}, 5, 0, null).isEmpty());
+    }
+
+    /**
+     * Recall@10 of a quantized index re-ranked at full precision, on clustered 256-dim vectors
+     * (embeddings cluster by topic, unlike uniform random vectors)
+     */
+    private static double clusteredRecallAtTen(HnswIndex.Encoding encoding) {
+        int dimensions = 256;
+        Random random = new Random(11);
+        float[][] centroids = new float[40][dimensions];
+        for (float[] centroid : centroids) {
+            for (int i = 0; i < dimensions; i++) {
+                centroid[i] = (float) random.nextGaussian();
+            }
+        }
+        List<float[]> vectors = new ArrayList<>();
+        HnswIndex<Integer> index = new HnswIndex<>(encoding);
+        for (int i = 0; i < 1000; i++) {
+            float[] vector = nearCentroid(centroids, dimensions, random);
+            vectors.add(vector);
+            index.add(i, vector, i);
+        }
+
+        int k = 10;
+        int found = 0;
+        int queries = 30;
+        for (int q = 0; q < queries; q++) {
+            float[] query = nearCentroid(centroids, dimensions, random);
+            List<Integer> candidates = index.search(query, k * HnswIndex.RERANK_FACTOR, 100, null);
+            Set<Integer> exact = new HashSet<>(bruteForce(vectors, query, k));
+            for (Integer id : HnswIndex.rerank(query, candidates, vectors::get, k)) {
+                if (exact.contains(id)) {
+                    found++;
+                }
+            }
+        }
+        return (double) found / (queries * k);
+    }
+
+    private static float[] nearCentroid(float[][] centroids, int dimensions, Random random) {
+        float[] centroid = centroids[random.nextInt(centroids.length)];
+        float[] vector = new float[dimensions];
+        for (int i = 0; i < dimensions; i++) {
+            vector[i] = centroid[i] + (float) (0.8 * random.nextGaussian());
+        }
+        return vector;
+    }
+
+    private static float[] randomVector(Random random) {
+        float[] vector = new float[DIMENSIONS];
+        for (int i = 0; i < DIMENSIONS; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    private static List<Integer> bruteForce(List<float[]> vectors, float[] query, int k) {
+        return IntStream.range(0, vectors.size()).boxed()
+                .sorted(Comparator.comparingDouble((Integer i) -> -cosine(vectors.get(i), query)))
+                .limit(k)
+                .toList();
+    }
+
+    private static double cosine(float[] a, float[] b) {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < a.length; i++) {
+            dot += a[i] * b[i];
+            normA += a[i] * a[i];
+            normB += b[i] * b[i];
+        }
+        return dot / Math.sqrt(normA * normB);
+    }
+}
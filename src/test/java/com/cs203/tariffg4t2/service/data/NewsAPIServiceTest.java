@@ -6,6 +6,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -13,6 +14,8 @@ import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,6 +34,9 @@ class NewsAPIServiceTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private OutboundHttpClients outboundHttpClients;
+
     @InjectMocks
     private NewsAPIService newsAPIService;
 
@@ -41,7 +47,7 @@ class NewsAPIServiceTest {
     void setUp() {
         ReflectionTestUtils.setField(newsAPIService, "apiKey", mockApiKey);
         ReflectionTestUtils.setField(newsAPIService, "apiUrl", mockApiUrl);
-        ReflectionTestUtils.setField(newsAPIService, "restTemplate", restTemplate);
+        lenient().when(outboundHttpClients.restTemplate(OutboundHttpClients.Destination.NEWS_API)).thenReturn(restTemplate);
         ReflectionTestUtils.setField(newsAPIService, "objectMapper", new ObjectMapper());
         
         // Mock embedding service to be unconfigured by default (prevents embedding generation in tests)
@@ -103,7 +109,6 @@ class NewsAPIServiceTest {
             """;
 
         when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
-        when(newsArticleRepository.existsByUrl(anyString())).thenReturn(false);
 
         List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
 
@@ -133,7 +138,6 @@ class NewsAPIServiceTest {
             """;
 
         when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
-        when(newsArticleRepository.existsByUrl(anyString())).thenReturn(false);
 
         List<NewsArticle> articles = newsAPIService.fetchTradeNews(7, "USA", "China");
 
@@ -219,14 +223,74 @@ class NewsAPIServiceTest {
             """;
 
         when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
-        when(newsArticleRepository.existsByUrl("https://example.com/same-url"))
-            .thenReturn(false)
-            .thenReturn(true);
 
         List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
 
         assertNotNull(articles);
         assertEquals(1, articles.size());
+        assertEquals("Trade news", articles.get(0).getTitle());
+    }
+
+    @Test
+    void testFetchTradeNews_EmbeddingsGeneratedInOneBatchCall() throws Exception {
+        String mockResponse = """
+            {
+                "status": "ok",
+                "totalResults": 2,
+                "articles": [
+                    {"title": "First", "description": "Tariffs rise", "url": "https://example.com/1", "publishedAt": "2025-11-13T10:00:00Z"},
+                    {"title": "Second", "url": "https://example.com/2", "publishedAt": "2025-11-13T11:00:00Z"}
+                ]
+            }
+            """;
+
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
+        when(embeddingService.isConfigured()).thenReturn(true);
+        float[] firstEmbedding = {0.1f, 0.2f};
+        when(embeddingService.generateEmbeddings(List.of("First Tariffs rise", "Second ")))
+            .thenReturn(Arrays.asList(firstEmbedding, null));
+
+        List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
+
+        assertEquals(2, articles.size());
+        assertArrayEquals(firstEmbedding, articles.get(0).getEmbedding());
+        // A failed embedding does not drop the article
+        assertNull(articles.get(1).getEmbedding());
+        verify(embeddingService, never()).generateEmbedding(anyString());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testFetchTradeNews_StoredUrlsCheckedInOneQuery() throws Exception {
+        String mockResponse = """
+            {
+                "status": "ok",
+                "totalResults": 3,
+                "articles": [
+                    {"title": "Stored", "url": "https://example.com/stored", "publishedAt": "2025-11-13T10:00:00Z"},
+                    {"title": "New one", "url": "https://example.com/new-1", "publishedAt": "2025-11-13T11:00:00Z"},
+                    {"title": "New two", "url": "https://example.com/new-2", "publishedAt": "2025-11-13T12:00:00Z"}
+                ]
+            }
+            """;
+
+        when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
+        when(newsArticleRepository.findAllUrls()).thenReturn(List.of("https://example.com/stored"));
+        when(newsArticleRepository.findExistingUrls(anyCollection())).thenReturn(List.of("https://example.com/stored"));
+
+        List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
+
+        assertEquals(List.of("New one", "New two"), articles.stream().map(NewsArticle::getTitle).toList());
+        // Only URLs the known-URL filter cannot rule out reach the database
+        ArgumentCaptor<Collection<String>> checked = ArgumentCaptor.forClass(Collection.class);
+        verify(newsArticleRepository, times(1)).findExistingUrls(checked.capture());
+        assertTrue(checked.getValue().contains("https://example.com/stored"));
+
+        // URLs handed out are remembered; the second fetch checks them all in one query again
+        when(newsArticleRepository.findExistingUrls(anyCollection())).thenReturn(List.of(
+                "https://example.com/stored", "https://example.com/new-1", "https://example.com/new-2"));
+        assertTrue(newsAPIService.fetchTradeNews(7).isEmpty());
+        verify(newsArticleRepository, times(1)).findAllUrls();
     }
 
     @Test
@@ -248,7 +312,6 @@ class NewsAPIServiceTest {
             """;
 
         when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
-        when(newsArticleRepository.existsByUrl(anyString())).thenReturn(false);
 
         List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
 
@@ -276,7 +339,6 @@ class NewsAPIServiceTest {
             """;
 
         when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
-        when(newsArticleRepository.existsByUrl(anyString())).thenReturn(false);
 
         List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
 
@@ -391,7 +453,6 @@ class NewsAPIServiceTest {
             """;
 
         when(restTemplate.getForObject(anyString(), eq(String.class))).thenReturn(mockResponse);
-        when(newsArticleRepository.existsByUrl(anyString())).thenReturn(false);
 
         List<NewsArticle> articles = newsAPIService.fetchTradeNews(7);
 
@@ -0,0 +1,122 @@
+package com.cs203.tariffg4t2.service.data;
+
+import com.cs203.tariffg4t2.model.basic.NewsArticle;
+import com.cs203.tariffg4t2.repository.basic.NewsArticleRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NewsArticleIndexTest {
+
+    @Mock
+    private NewsArticleRepository newsArticleRepository;
+
+    @Mock
+    private EmbeddingService embeddingService;
+
+    @InjectMocks
+    private NewsArticleIndex newsArticleIndex;
+
+    @Test
+    void rebuild_IndexesStoredArticles_WithoutTheirEmbeddings() {
+        when(newsArticleRepository.findArticlesWithEmbeddings())
+            .thenReturn(List.of(article(1L, "Tariffs rise", 1, 0), article(2L, "Rates fall", 0, 1)));
+
+        newsArticleIndex.rebuild();
+
+        assertTrue(newsArticleIndex.isReady());
+        List<NewsArticle> results = newsArticleIndex.findSimilar(new float[]{1, 0.1f}, 1);
+        assertEquals(1, results.size());
+        assertEquals("Tariffs rise", results.get(0).getTitle());
+        assertNull(results.get(0).getEmbedding());
+    }
+
+    @Test
+    void rebuild_TableUnavailable_NotReady() {
+        when(newsArticleRepository.findArticlesWithEmbeddings())
+            .thenThrow(new DataAccessResourceFailureException("no table"));
+
+        newsArticleIndex.rebuild();
+
+        assertFalse(newsArticleIndex.isReady());
+    }
+
+    @Test
+    void addAll_SkipsUnsavedAndUnembeddedArticles() {
+        NewsArticle unsaved = article(null, "Unsaved", 1, 0);
+        NewsArticle unembedded = article(3L, "No vector", 1, 0);
+        unembedded.setEmbedding(null);
+
+        newsArticleIndex.addAll(List.of(unsaved, unembedded, article(4L, "Saved", 0, 1)));
+
+        List<NewsArticle> results = newsArticleIndex.findSimilar(new float[]{1, 0}, 5);
+        assertEquals(1, results.size());
+        assertEquals("Saved", results.get(0).getTitle());
+    }
+
+    @Test
+    void rebuild_ConfiguredDimensions_SkipsArticlesAtOtherDimensions() {
+        when(embeddingService.getDimensions()).thenReturn(2);
+        NewsArticle oldModel = article(2L, "Old model", 1, 0);
+        oldModel.setEmbedding(new float[]{1, 0, 0});
+        when(newsArticleRepository.findArticlesWithEmbeddings())
+            .thenReturn(List.of(oldModel, article(1L, "Tariffs rise", 1, 0), article(3L, "Rates fall", 0, 1)));
+
+        newsArticleIndex.rebuild();
+
+        assertTrue(newsArticleIndex.isReady());
+        List<NewsArticle> results = newsArticleIndex.findSimilar(new float[]{1, 0}, 5);
+        assertEquals(List.of("Tariffs rise", "Rates fall"), results.stream().map(NewsArticle::getTitle).toList());
+    }
+
+    @Test
+    void findSimilar_Quantized_RerankedWithStoredEmbeddings() {
+        ReflectionTestUtils.setField(newsArticleIndex, "encoding", HnswIndex.Encoding.BINARY);
+        // Same sign pattern, so the binary codes cannot tell them apart
+        NewsArticle close = article(1L, "Close", 0.9f, 0.1f);
+        NewsArticle closer = article(2L, "Closer", 0.99f, 0.01f);
+        when(newsArticleRepository.findArticlesWithEmbeddings()).thenReturn(List.of(close, closer));
+        NewsArticleRepository.ArticleEmbedding closeEmbedding = embedding(1L, close.getEmbedding());
+        NewsArticleRepository.ArticleEmbedding closerEmbedding = embedding(2L, closer.getEmbedding());
+        when(newsArticleRepository.findEmbeddingsByIds(anyCollection()))
+            .thenReturn(List.of(closeEmbedding, closerEmbedding));
+
+        newsArticleIndex.rebuild();
+        List<NewsArticle> results = newsArticleIndex.findSimilar(new float[]{1, 0}, 1);
+
+        assertEquals("Closer", results.get(0).getTitle());
+    }
+
+    private static NewsArticle article(Long id, String title, float x, float y) {
+        NewsArticle article = new NewsArticle();
+        article.setId(id);
+        article.setTitle(title);
+        article.setEmbedding(new float[]{x, y});
+        return article;
+    }
+
+    private static NewsArticleRepository.ArticleEmbedding embedding(Long id, float[] vector) {
+        return new NewsArticleRepository.ArticleEmbedding() {
+            @Override
+            public Long getId() {
+                return id;
+            }
+
+            @Override
+            public float[] getEmbedding() {
+                return vector;
+            }
+        };
+    }
+}
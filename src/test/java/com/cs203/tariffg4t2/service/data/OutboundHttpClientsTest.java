@@ -0,0 +1,140 @@
+package com.cs203.tariffg4t2.service.data;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboundHttpClientsTest {
+
+    @Mock
+    private ClientHttpRequestExecution execution;
+
+    @Mock
+    private ClientHttpResponse response;
+
+    private final OutboundHttpClients clients = new OutboundHttpClients();
+
+    @Test
+    void restTemplate_SameDestination_ReturnsSharedInstance() {
+        RestTemplate first = clients.restTemplate(OutboundHttpClients.Destination.OPENAI);
+        RestTemplate second = clients.restTemplate(OutboundHttpClients.Destination.OPENAI);
+
+        assertSame(first, second);
+        assertSame(clients.httpClient(OutboundHttpClients.Destination.OPENAI),
+                clients.httpClient(OutboundHttpClients.Destination.OPENAI));
+        assertNotSame(clients.httpClient(OutboundHttpClients.Destination.OPENAI),
+                clients.httpClient(OutboundHttpClients.Destination.NEWS_API));
+    }
+
+    @Test
+    void restTemplate_SlowServer_ReadTimeoutCappedByRequestDeadline() throws IOException {
+        HttpServer server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(3_000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(200, -1);
+            exchange.close();
+        });
+        server.start();
+        RequestDeadline.start(Duration.ofMillis(300));
+        try {
+            RestTemplate restTemplate = clients.restTemplate(OutboundHttpClients.Destination.EXCHANGE_RATES);
+            String url = "http://localhost:" + server.getAddress().getPort() + "/slow";
+
+            long start = System.nanoTime();
+            assertThrows(ResourceAccessException.class, () -> restTemplate.getForObject(url, String.class));
+            assertTrue(Duration.ofNanos(System.nanoTime() - start).compareTo(Duration.ofSeconds(2)) < 0);
+        } finally {
+            RequestDeadline.clear();
+            server.stop(0);
+        }
+    }
+
+    @Test
+    void httpClient_PlainHttpScraper_UsesHttp11() {
+        assertEquals(HttpClient.Version.HTTP_1_1, clients.httpClient(OutboundHttpClients.Destination.SCRAPER).version());
+        assertEquals(HttpClient.Version.HTTP_2, clients.httpClient(OutboundHttpClients.Destination.OPENAI).version());
+    }
+
+    @Test
+    void interceptor_GzipResponse_IsDecompressedAndRecorded() throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://gzip.example.test/v1"));
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+        headers.setContentLength(42);
+
+        when(execution.execute(any(), any())).thenReturn(response);
+        when(response.getStatusCode()).thenReturn(HttpStatus.OK);
+        when(response.getHeaders()).thenReturn(headers);
+        when(response.getBody()).thenReturn(new ByteArrayInputStream(gzip("{\"ok\":true}")));
+
+        ClientHttpResponse result = new OutboundHttpClients.GzipMetricsInterceptor(clients)
+                .intercept(request, new byte[0], execution);
+
+        assertEquals("gzip", request.getHeaders().getFirst(HttpHeaders.ACCEPT_ENCODING));
+        assertEquals("{\"ok\":true}", new String(result.getBody().readAllBytes(), StandardCharsets.UTF_8));
+        assertFalse(result.getHeaders().containsKey(HttpHeaders.CONTENT_ENCODING));
+        assertFalse(result.getHeaders().containsKey(HttpHeaders.CONTENT_LENGTH));
+
+        OutboundHttpClients.HostMetrics metrics = clients.getMetrics("gzip.example.test");
+        assertEquals(1, metrics.getRequests());
+        assertEquals(0, metrics.getErrors());
+    }
+
+    @Test
+    void interceptor_ErrorStatusAndException_CountAsErrors() throws IOException {
+        MockClientHttpRequest request = new MockClientHttpRequest(HttpMethod.GET, URI.create("https://errors.example.test/v1"));
+
+        when(execution.execute(any(), any()))
+                .thenReturn(response)
+                .thenThrow(new IOException("connection reset"));
+        when(response.getStatusCode()).thenReturn(HttpStatus.SERVICE_UNAVAILABLE);
+        when(response.getHeaders()).thenReturn(new HttpHeaders());
+
+        OutboundHttpClients.GzipMetricsInterceptor interceptor = new OutboundHttpClients.GzipMetricsInterceptor(clients);
+        assertSame(response, interceptor.intercept(request, new byte[0], execution));
+        assertThrows(IOException.class, () -> interceptor.intercept(request, new byte[0], execution));
+
+        OutboundHttpClients.HostMetrics metrics = clients.getMetrics("errors.example.test");
+        assertEquals(2, metrics.getRequests());
+        assertEquals(2, metrics.getErrors());
+        assertTrue(metrics.getMaxLatencyMillis() >= metrics.getAverageLatencyMillis());
+    }
+
+    private static byte[] gzip(String text) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+            gzip.write(text.getBytes(StandardCharsets.UTF_8));
+        }
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,68 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RequestDeadlineTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestDeadline.clear();
+    }
+
+    @Test
+    void cap_NoDeadline_ReturnsTimeout() throws Exception {
+        assertEquals(Duration.ofMinutes(5), RequestDeadline.cap(Duration.ofMinutes(5)));
+        assertFalse(RequestDeadline.isExpired());
+    }
+
+    @Test
+    void cap_DeadlineSoonerThanTimeout_ReturnsRemainingTime() throws Exception {
+        RequestDeadline.start(Duration.ofSeconds(30));
+
+        Duration capped = RequestDeadline.cap(Duration.ofMinutes(5));
+        assertTrue(capped.compareTo(Duration.ofSeconds(30)) <= 0);
+        assertTrue(capped.compareTo(Duration.ZERO) > 0);
+        assertEquals(Duration.ofSeconds(1), RequestDeadline.cap(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void cap_DeadlinePassed_ThrowsTimeout() {
+        RequestDeadline.start(Duration.ofSeconds(-1));
+
+        assertTrue(RequestDeadline.isExpired());
+        assertThrows(HttpTimeoutException.class, () -> RequestDeadline.cap(Duration.ofSeconds(10)));
+    }
+
+    @Test
+    void propagate_TaskOnAnotherThread_SeesCallersDeadline() throws Exception {
+        RequestDeadline.start(Duration.ofSeconds(30));
+        Callable<Duration> task = RequestDeadline.propagate(RequestDeadline::remaining);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Duration remaining = executor.submit(task).get();
+            assertNotNull(remaining);
+            assertTrue(remaining.compareTo(Duration.ofSeconds(30)) <= 0);
+            // The worker thread's own deadline is restored afterwards
+            assertNull(executor.submit(RequestDeadline::remaining).get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void propagate_NoDeadline_ReturnsTaskUnchanged() {
+        Callable<Duration> task = RequestDeadline::remaining;
+
+        assertSame(task, RequestDeadline.propagate(task));
+    }
+}
@@ -6,14 +6,18 @@ import com.cs203.tariffg4t2.repository.basic.NewsArticleRepository;
 import com.cs203.tariffg4t2.repository.basic.SentimentAnalysisRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,9 +32,43 @@ class SentimentAnalysisServiceTest {
     @Mock
     private SentimentAnalysisRepository sentimentAnalysisRepository;
 
+    @Mock
+    private NewsArticleIndex newsArticleIndex;
+
     @InjectMocks
     private SentimentAnalysisService sentimentAnalysisService;
 
+    @TempDir
+    Path tempDir;
+
+    @Test
+    void loadLexicon_MissingFile_FailsFast() {
+        ReflectionTestUtils.setField(sentimentAnalysisService, "lexiconPath",
+                tempDir.resolve("missing.txt").toString());
+
+        IllegalStateException e = assertThrows(IllegalStateException.class,
+                () -> sentimentAnalysisService.loadLexicon());
+        assertTrue(e.getMessage().contains("missing.txt"));
+    }
+
+    @Test
+    void loadLexicon_EmptyFile_FailsFast() throws IOException {
+        Path empty = Files.writeString(tempDir.resolve("empty.txt"), "# no terms\n");
+        ReflectionTestUtils.setField(sentimentAnalysisService, "lexiconPath", empty.toString());
+
+        assertThrows(IllegalStateException.class, () -> sentimentAnalysisService.loadLexicon());
+    }
+
+    @Test
+    void loadLexicon_ConfiguredFile_UsedForScoring() throws IOException {
+        Path custom = Files.writeString(tempDir.resolve("custom.txt"), "widget|1.0\n");
+        ReflectionTestUtils.setField(sentimentAnalysisService, "lexiconPath", custom.toString());
+
+        sentimentAnalysisService.loadLexicon();
+
+        assertEquals(1.0, sentimentAnalysisService.analyzeSentiment("a new widget"));
+    }
+
     @Test
     void testAnalyzeSentiment_NullText() {
         Double sentiment = sentimentAnalysisService.analyzeSentiment(null);
@@ -72,6 +110,13 @@ class SentimentAnalysisServiceTest {
         assertEquals(0.0, sentiment);
     }
 
+    @Test
+    void testAnalyzeSentiment_KeywordsInsideOtherWordsIgnored() {
+        String text = "Software exporter opens office near the waterfall";
+        Double sentiment = sentimentAnalysisService.analyzeSentiment(text);
+        assertEquals(0.0, sentiment);
+    }
+
     @Test
     void testAnalyzeSentiment_CaseInsensitive() {
         String text = "GROWTH and EXPANSION with AGREEMENT";
@@ -99,7 +144,7 @@ class SentimentAnalysisServiceTest {
 
         sentimentAnalysisService.processArticleSentiments(articles);
 
-        verify(newsArticleRepository, times(1)).saveAll(articles);
+        verify(newsArticleRepository, times(1)).insertNew(articles);
     }
 
     @Test
@@ -114,7 +159,7 @@ class SentimentAnalysisServiceTest {
 
         assertNotNull(article.getSentimentScore());
         assertTrue(article.getSentimentScore() > 0);
-        verify(newsArticleRepository, times(1)).saveAll(articles);
+        verify(newsArticleRepository, times(1)).insertNew(articles);
     }
 
     @Test
@@ -134,7 +179,7 @@ class SentimentAnalysisServiceTest {
         assertNotNull(article1.getSentimentScore());
         assertNotNull(article2.getSentimentScore());
         assertTrue(article1.getSentimentScore() < article2.getSentimentScore());
-        verify(newsArticleRepository, times(1)).saveAll(articles);
+        verify(newsArticleRepository, times(1)).insertNew(articles);
     }
 
     @Test
@@ -149,7 +194,22 @@ class SentimentAnalysisServiceTest {
 
         assertNotNull(article.getSentimentScore());
         assertEquals(0.0, article.getSentimentScore());
-        verify(newsArticleRepository, times(1)).saveAll(articles);
+        verify(newsArticleRepository, times(1)).insertNew(articles);
+    }
+
+    @Test
+    void testProcessArticleSentiments_IndexesSavedArticles() {
+        NewsArticle article = new NewsArticle();
+        article.setTitle("Tariff talks resume");
+        List<NewsArticle> articles = List.of(article);
+        NewsArticle saved = new NewsArticle();
+        saved.setId(7L);
+        saved.setEmbedding(new float[]{0.1f, 0.2f});
+        when(newsArticleRepository.insertNew(articles)).thenReturn(List.of(saved));
+
+        sentimentAnalysisService.processArticleSentiments(articles);
+
+        verify(newsArticleIndex).addAll(List.of(saved));
     }
 
     @Test
@@ -157,12 +217,9 @@ class SentimentAnalysisServiceTest {
         LocalDate weekStart = LocalDate.of(2025, 11, 10);
         LocalDate weekEnd = LocalDate.of(2025, 11, 16);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(0.5);
-        when(newsArticleRepository.countPositiveArticles(any(), any())).thenReturn(10L);
-        when(newsArticleRepository.countNegativeArticles(any(), any())).thenReturn(3L);
-        when(newsArticleRepository.countNeutralArticles(any(), any())).thenReturn(2L);
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(any(), any()))
-            .thenReturn(Optional.empty());
+        when(newsArticleRepository.getSentimentTotals(any(), any()))
+            .thenReturn(totals(0.5, 10L, 3L, 2L));
+        when(sentimentAnalysisRepository.findByWeekStartDateBetween(any(), any())).thenReturn(List.of());
 
         SentimentAnalysis mockAnalysis = new SentimentAnalysis();
         mockAnalysis.setId(1L);
@@ -186,7 +243,7 @@ class SentimentAnalysisServiceTest {
         LocalDate weekStart = LocalDate.of(2025, 11, 10);
         LocalDate weekEnd = LocalDate.of(2025, 11, 16);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(null);
+        when(newsArticleRepository.getSentimentTotals(any(), any())).thenReturn(totals(null, null, null, null));
 
         SentimentAnalysis result = sentimentAnalysisService.calculateWeeklySentiment(weekStart, weekEnd);
 
@@ -208,18 +265,16 @@ class SentimentAnalysisServiceTest {
 
         // Mock previous week data for trend calculation
         SentimentAnalysis previousWeek = new SentimentAnalysis();
+        previousWeek.setWeekStartDate(previousWeekStart);
+        previousWeek.setWeekEndDate(previousWeekEnd);
         previousWeek.setAverageSentiment(0.25);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(0.3);
-        when(newsArticleRepository.countPositiveArticles(any(), any())).thenReturn(5L);
-        when(newsArticleRepository.countNegativeArticles(any(), any())).thenReturn(5L);
-        when(newsArticleRepository.countNeutralArticles(any(), any())).thenReturn(5L);
+        when(newsArticleRepository.getSentimentTotals(any(), any()))
+            .thenReturn(totals(0.3, 5L, 5L, 5L));
 
-        // First call returns the existing analysis for current week, second call returns previous week for trend
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(weekStart, weekEnd))
-            .thenReturn(Optional.of(existing));
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(previousWeekStart, previousWeekEnd))
-            .thenReturn(Optional.of(previousWeek));
+        // This week's record and the previous week's come back from one lookup
+        when(sentimentAnalysisRepository.findByWeekStartDateBetween(previousWeekStart, weekStart))
+            .thenReturn(List.of(existing, previousWeek));
 
         when(sentimentAnalysisRepository.save(any(SentimentAnalysis.class))).thenReturn(existing);
 
@@ -228,6 +283,9 @@ class SentimentAnalysisServiceTest {
         assertNotNull(result);
         assertEquals(1L, result.getId());
         verify(sentimentAnalysisRepository, times(1)).save(existing);
+        assertEquals(15, existing.getArticleCount());
+        assertEquals("stable", existing.getTrend());
+        verify(newsArticleRepository, times(1)).getSentimentTotals(any(), any());
     }
 
     @Test
@@ -239,16 +297,15 @@ class SentimentAnalysisServiceTest {
 
         // Previous week data
         SentimentAnalysis previousWeek = new SentimentAnalysis();
+        previousWeek.setWeekStartDate(previousWeekStart);
+        previousWeek.setWeekEndDate(previousWeekEnd);
         previousWeek.setAverageSentiment(0.2);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(0.5); // Improved
-        when(newsArticleRepository.countPositiveArticles(any(), any())).thenReturn(10L);
-        when(newsArticleRepository.countNegativeArticles(any(), any())).thenReturn(2L);
-        when(newsArticleRepository.countNeutralArticles(any(), any())).thenReturn(3L);
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(weekStart, weekEnd))
-            .thenReturn(Optional.empty());
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(previousWeekStart, previousWeekEnd))
-            .thenReturn(Optional.of(previousWeek));
+        when(newsArticleRepository.getSentimentTotals(any(), any()))
+            .thenReturn(totals(0.5, 10L, 2L, 3L)); // Improved
+        // This week's record and the previous week's come back from one lookup
+        when(sentimentAnalysisRepository.findByWeekStartDateBetween(previousWeekStart, weekStart))
+            .thenReturn(List.of(previousWeek));
 
         SentimentAnalysis mockAnalysis = new SentimentAnalysis();
         mockAnalysis.setTrend("improving");
@@ -268,16 +325,15 @@ class SentimentAnalysisServiceTest {
         LocalDate previousWeekEnd = LocalDate.of(2025, 11, 9);
 
         SentimentAnalysis previousWeek = new SentimentAnalysis();
+        previousWeek.setWeekStartDate(previousWeekStart);
+        previousWeek.setWeekEndDate(previousWeekEnd);
         previousWeek.setAverageSentiment(0.5);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(0.2); // Declined
-        when(newsArticleRepository.countPositiveArticles(any(), any())).thenReturn(2L);
-        when(newsArticleRepository.countNegativeArticles(any(), any())).thenReturn(10L);
-        when(newsArticleRepository.countNeutralArticles(any(), any())).thenReturn(3L);
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(weekStart, weekEnd))
-            .thenReturn(Optional.empty());
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(previousWeekStart, previousWeekEnd))
-            .thenReturn(Optional.of(previousWeek));
+        when(newsArticleRepository.getSentimentTotals(any(), any()))
+            .thenReturn(totals(0.2, 2L, 10L, 3L)); // Declined
+        // This week's record and the previous week's come back from one lookup
+        when(sentimentAnalysisRepository.findByWeekStartDateBetween(previousWeekStart, weekStart))
+            .thenReturn(List.of(previousWeek));
 
         SentimentAnalysis mockAnalysis = new SentimentAnalysis();
         mockAnalysis.setTrend("declining");
@@ -297,16 +353,15 @@ class SentimentAnalysisServiceTest {
         LocalDate previousWeekEnd = LocalDate.of(2025, 11, 9);
 
         SentimentAnalysis previousWeek = new SentimentAnalysis();
+        previousWeek.setWeekStartDate(previousWeekStart);
+        previousWeek.setWeekEndDate(previousWeekEnd);
         previousWeek.setAverageSentiment(0.3);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(0.35); // Small change
-        when(newsArticleRepository.countPositiveArticles(any(), any())).thenReturn(5L);
-        when(newsArticleRepository.countNegativeArticles(any(), any())).thenReturn(5L);
-        when(newsArticleRepository.countNeutralArticles(any(), any())).thenReturn(5L);
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(weekStart, weekEnd))
-            .thenReturn(Optional.empty());
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(previousWeekStart, previousWeekEnd))
-            .thenReturn(Optional.of(previousWeek));
+        when(newsArticleRepository.getSentimentTotals(any(), any()))
+            .thenReturn(totals(0.35, 5L, 5L, 5L)); // Small change
+        // This week's record and the previous week's come back from one lookup
+        when(sentimentAnalysisRepository.findByWeekStartDateBetween(previousWeekStart, weekStart))
+            .thenReturn(List.of(previousWeek));
 
         SentimentAnalysis mockAnalysis = new SentimentAnalysis();
         mockAnalysis.setTrend("stable");
@@ -325,14 +380,11 @@ class SentimentAnalysisServiceTest {
         LocalDate previousWeekStart = LocalDate.of(2025, 11, 3);
         LocalDate previousWeekEnd = LocalDate.of(2025, 11, 9);
 
-        when(newsArticleRepository.getAverageSentiment(any(), any())).thenReturn(0.4);
-        when(newsArticleRepository.countPositiveArticles(any(), any())).thenReturn(8L);
-        when(newsArticleRepository.countNegativeArticles(any(), any())).thenReturn(2L);
-        when(newsArticleRepository.countNeutralArticles(any(), any())).thenReturn(5L);
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(weekStart, weekEnd))
-            .thenReturn(Optional.empty());
-        when(sentimentAnalysisRepository.findByWeekStartDateAndWeekEndDate(previousWeekStart, previousWeekEnd))
-            .thenReturn(Optional.empty());
+        when(newsArticleRepository.getSentimentTotals(any(), any()))
+            .thenReturn(totals(0.4, 8L, 2L, 5L));
+        // This week's record and the previous week's come back from one lookup
+        when(sentimentAnalysisRepository.findByWeekStartDateBetween(previousWeekStart, weekStart))
+            .thenReturn(List.of());
 
         SentimentAnalysis mockAnalysis = new SentimentAnalysis();
         mockAnalysis.setTrend("stable");
@@ -343,4 +395,28 @@ class SentimentAnalysisServiceTest {
         assertNotNull(result);
         assertEquals("stable", result.getTrend());
     }
+
+    private static NewsArticleRepository.SentimentTotals totals(Double average, Long positive, Long negative, Long neutral) {
+        return new NewsArticleRepository.SentimentTotals() {
+            @Override
+            public Double getAverageSentiment() {
+                return average;
+            }
+
+            @Override
+            public Long getPositiveCount() {
+                return positive;
+            }
+
+            @Override
+            public Long getNegativeCount() {
+                return negative;
+            }
+
+            @Override
+            public Long getNeutralCount() {
+                return neutral;
+            }
+        };
+    }
 }
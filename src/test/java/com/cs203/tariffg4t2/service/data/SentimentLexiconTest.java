@@ -0,0 +1,111 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SentimentLexiconTest {
+
+    @Test
+    void score_MatchesWholeWordsOnly() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("war", -0.8, "fall", -0.5, "growth", 0.7));
+
+        assertEquals(0.0, lexicon.score("New software releases near the waterfall"), 1e-12);
+        assertEquals(-0.8, lexicon.score("War!"), 1e-12);
+        assertEquals(-0.65, lexicon.score("prices FALL as (war) looms"), 1e-12);
+        assertEquals(0.0, lexicon.score("growths"), 1e-12);
+    }
+
+    @Test
+    void score_PrefixTermsMatchInflections() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("tariff*", -0.4, "recover*", 0.7));
+
+        assertEquals(-0.4, lexicon.score("Tariffs rise"), 1e-12);
+        assertEquals(0.15, lexicon.score("Markets recovering despite tariff talk"), 1e-12);
+        assertEquals(0.0, lexicon.score("posttariff"), 1e-12);
+    }
+
+    @Test
+    void score_LongestPhraseWinsAtTheSameEnd() {
+        Map<String, Double> terms = new LinkedHashMap<>();
+        terms.put("war", -0.8);
+        terms.put("trade war", -0.9);
+        terms.put("trade  deal", 0.6);
+        SentimentLexicon lexicon = SentimentLexicon.of(terms);
+
+        assertEquals(-0.9, lexicon.score("The trade war deepens"), 1e-12);
+        assertEquals(0.6, lexicon.score("A new trade\ndeal"), 1e-12);
+        assertEquals(-0.8, lexicon.score("fairtrade war"), 1e-12);
+        assertEquals(3, lexicon.size());
+    }
+
+    @Test
+    void score_ClampsAndCountsEveryOccurrence() {
+        SentimentLexicon lexicon = SentimentLexicon.of(Map.of("boom", 1.5, "dip", -0.3));
+
+        assertEquals(1.0, lexicon.score("boom boom"), 1e-12);
+        assertEquals(0.3, lexicon.score("boom dip dip"), 1e-12);
+    }
+
+    @Test
+    void score_ManyTermsMatchesNaiveScan() {
+        Random random = new Random(11);
+        Map<String, Double> terms = new LinkedHashMap<>();
+        while (terms.size() < 3000) {
+            terms.put(randomWord(random), random.nextDouble() * 2 - 1);
+        }
+        SentimentLexicon lexicon = SentimentLexicon.of(terms);
+
+        StringBuilder text = new StringBuilder();
+        double sum = 0;
+        int matches = 0;
+        for (int i = 0; i < 500; i++) {
+            String word = randomWord(random);
+            text.append(word).append(i % 7 == 0 ? ", " : " ");
+            Double weight = terms.get(word);
+            if (weight != null) {
+                sum += weight;
+                matches++;
+            }
+        }
+
+        assertTrue(matches > 0);
+        assertEquals(Math.max(-1.0, Math.min(1.0, sum / matches)), lexicon.score(text), 1e-9);
+    }
+
+    @Test
+    void load_ParsesTermsAndSkipsMalformedLines() throws IOException {
+        String file = "# comment\nTrade War|-0.9\nbroken line\nbad|weight\nboost*|0.6\n";
+        SentimentLexicon lexicon = SentimentLexicon.load(
+                new ByteArrayInputStream(file.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(2, lexicon.size());
+        assertEquals(-0.15, lexicon.score("trade war boosted"), 1e-12);
+    }
+
+    @Test
+    void getInstance_LoadsBundledLexicon() {
+        SentimentLexicon lexicon = SentimentLexicon.getInstance();
+
+        assertTrue(lexicon.size() > 50);
+        assertTrue(lexicon.score("Trade war escalates") < 0);
+        assertTrue(lexicon.score("Recovery and growth") > 0);
+        assertEquals(0.0, lexicon.score("Software firm opens office by the waterfall"), 1e-12);
+    }
+
+    private static String randomWord(Random random) {
+        int length = 2 + random.nextInt(5);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(6)));
+        }
+        return word.toString();
+    }
+}
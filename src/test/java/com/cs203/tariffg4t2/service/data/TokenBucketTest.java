@@ -0,0 +1,66 @@
+package com.cs203.tariffg4t2.service.data;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenBucketTest {
+
+    private AtomicLong nanos;
+    private TokenBucket bucket;
+
+    @BeforeEach
+    void setUp() {
+        nanos = new AtomicLong();
+        bucket = new TokenBucket(2.0, 3, nanos::get);
+    }
+
+    @Test
+    void tryAcquire_AllowsBurstThenThrottles() {
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_RefillsAtConfiguredRate() {
+        for (int i = 0; i < 3; i++) {
+            bucket.tryAcquire();
+        }
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(499));
+        assertFalse(bucket.tryAcquire(), "Less than one token after 499ms at 2/s");
+
+        nanos.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        assertTrue(bucket.tryAcquire(), "One token after 500ms at 2/s");
+        assertFalse(bucket.tryAcquire());
+    }
+
+    @Test
+    void tryAcquire_NeverExceedsBurst() {
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(60));
+
+        int acquired = 0;
+        while (bucket.tryAcquire()) {
+            acquired++;
+        }
+        assertEquals(3, acquired);
+    }
+
+    @Test
+    void acquire_ReturnsImmediatelyWhenTokenAvailable() throws InterruptedException {
+        bucket.acquire();
+        assertTrue(bucket.tryAcquire());
+    }
+
+    @Test
+    void constructor_RejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
@@ -1,13 +1,21 @@
 package com.cs203.tariffg4t2.service.data;
 
+import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffData;
 import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffResponse;
 import com.cs203.tariffg4t2.service.basic.CountryService;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
@@ -21,6 +29,9 @@ class WebScrapingServiceTest {
     @Mock
     private CountryService countryService;
 
+    @Spy
+    private OutboundHttpClients outboundHttpClients = new OutboundHttpClients();
+
     @InjectMocks
     private WebScrapingService webScrapingService;
 
@@ -142,4 +153,54 @@ class WebScrapingServiceTest {
         assertEquals("error", response.getStatus());
         assertNotNull(response.getData());
     }
+
+    @Test
+    void scrapeTariffData_ExpiredRequestDeadline_FailsFastWithErrorResponse() {
+        when(convertCodeService.convertToISO3("US")).thenReturn("USA");
+        when(convertCodeService.convertToISO3("CN")).thenReturn("CHN");
+        RequestDeadline.start(Duration.ofSeconds(-1));
+        try {
+            ScrapedTariffResponse response = webScrapingService.scrapeTariffData("US", "CN");
+
+            assertEquals("error", response.getStatus());
+            assertNull(outboundHttpClients.getMetrics("localhost"));
+        } finally {
+            RequestDeadline.clear();
+        }
+    }
+
+    @Test
+    void readTariffStream_FlushesRowsInFixedSizeChunks() throws Exception {
+        String json = "{\"chapter\":\"01\",\"data\":["
+                + "{\"exportingCountry\":\"China\",\"importingCountry\":\"United States\",\"hsCode\":\"0101\",\"tariffRate\":\"1%\"},"
+                + "{\"exportingCountry\":\"China\",\"importingCountry\":\"United States\",\"hsCode\":\"0102\",\"tariffRate\":\"2%\"},"
+                + "{\"exportingCountry\":\"China\",\"importingCountry\":\"United States\",\"hsCode\":\"0103\",\"tariffRate\":\"3%\"}"
+                + "],\"results_count\":3,\"source_url\":\"http://example\",\"status\":\"success\"}";
+
+        List<List<ScrapedTariffData>> chunks = new ArrayList<>();
+        ScrapedTariffResponse response = webScrapingService.readTariffStream(
+                new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 2, chunk -> chunks.add(new ArrayList<>(chunk)));
+
+        assertNotNull(response);
+        assertEquals("success", response.getStatus());
+        assertEquals("01", response.getChapter());
+        assertEquals(3, response.getResults_count());
+        assertTrue(response.getData().isEmpty());
+
+        assertEquals(2, chunks.size());
+        assertEquals(2, chunks.get(0).size());
+        assertEquals(1, chunks.get(1).size());
+        assertEquals("0103", chunks.get(1).get(0).getHsCode());
+        assertEquals("US", chunks.get(0).get(0).getImportingCountry());
+        assertEquals("CN", chunks.get(0).get(0).getExportingCountry());
+        verify(countryService, never()).convertCountryNameToIso2(anyString());
+    }
+
+    @Test
+    void readTariffStream_NonObjectBody_ReturnsNull() throws Exception {
+        ScrapedTariffResponse response = webScrapingService.readTariffStream(
+                new ByteArrayInputStream("null".getBytes(StandardCharsets.UTF_8)), 2, chunk -> fail("No rows expected"));
+
+        assertNull(response);
+    }
 }
@@ -0,0 +1,173 @@
+package com.cs203.tariffg4t2.service.tariffLogic;
+
+import com.cs203.tariffg4t2.dto.scraping.ScrapedTariffData;
+import com.cs203.tariffg4t2.model.basic.TariffRate;
+import com.cs203.tariffg4t2.repository.basic.TariffRateRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ScrapeIngestionPipelineTest {
+
+    @Mock
+    private TariffRateRepository tariffRateRepository;
+
+    private ScrapeIngestionPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        pipeline = new ScrapeIngestionPipeline(tariffRateRepository, 3, 4, 5, 2, Duration.ofSeconds(5));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void complete_WritesAllNewRowsInBatches() {
+        when(tariffRateRepository.findExistingHsCodes(anyString(), anyString(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+
+        List<ScrapedTariffData> rows = new ArrayList<>();
+        for (int i = 0; i < 23; i++) {
+            rows.add(new ScrapedTariffData("CN", "US", "Product " + i, String.format("01%04d", i), "5.0%", "2024"));
+        }
+
+        ScrapeIngestionPipeline.Ingestion ingestion = pipeline.start(2024);
+        ingestion.submit(rows.subList(0, 10));
+        ingestion.submit(rows.subList(10, 23));
+        int saved = ingestion.complete();
+
+        assertEquals(23, saved);
+        ArgumentCaptor<Iterable<TariffRate>> batches = ArgumentCaptor.forClass(Iterable.class);
+        verify(tariffRateRepository, atLeast(5)).saveAll(batches.capture());
+        int written = 0;
+        for (Iterable<TariffRate> batch : batches.getAllValues()) {
+            int size = 0;
+            for (TariffRate ignored : batch) {
+                size++;
+            }
+            assertTrue(size <= 5, "Batch larger than configured size");
+            written += size;
+        }
+        assertEquals(23, written);
+        verify(tariffRateRepository, never()).save(any(TariffRate.class));
+        verify(tariffRateRepository, never())
+                .findByHsCodeAndImportingCountryCodeAndExportingCountryCode(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    void complete_SkipsExistingAndDuplicateRows() {
+        when(tariffRateRepository.findExistingHsCodes(eq("US"), eq("CN"), anyCollection()))
+                .thenAnswer(invocation -> {
+                    Collection<String> hsCodes = invocation.getArgument(2);
+                    return hsCodes.contains("010100") ? List.of("010100") : List.of();
+                });
+
+        ScrapeIngestionPipeline.Ingestion ingestion = pipeline.start(2024);
+        ingestion.submit(List.of(
+                new ScrapedTariffData("CN", "US", "Existing", "010100", "5.0%", "2024"),
+                new ScrapedTariffData("CN", "US", "New", "010200", "3.0%", "2023"),
+                new ScrapedTariffData("CN", "US", "New again", "010200", "3.0%", "2023")));
+
+        assertEquals(1, ingestion.complete());
+    }
+
+    @Test
+    void complete_NoRows_ReturnsZeroWithoutWriting() {
+        ScrapeIngestionPipeline.Ingestion ingestion = pipeline.start(2024);
+
+        assertEquals(0, ingestion.complete());
+        verifyNoInteractions(tariffRateRepository);
+    }
+
+    @Test
+    void getMetrics_ReportsEveryStage() {
+        when(tariffRateRepository.findExistingHsCodes(anyString(), anyString(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+
+        ScrapeIngestionPipeline.Ingestion ingestion = pipeline.start(null);
+        ingestion.submit(List.of(new ScrapedTariffData("CN", "US", "Live cattle", "0102", "5.5%", "2024")));
+        ingestion.complete();
+
+        Map<String, ScrapeIngestionPipeline.StageMetrics> metrics = pipeline.getMetrics();
+        assertEquals(List.of("parse", "existence-check", "write"), new ArrayList<>(metrics.keySet()));
+        for (ScrapeIngestionPipeline.StageMetrics stage : metrics.values()) {
+            assertEquals(1, stage.getProcessed());
+            assertEquals(0, stage.getQueueDepth());
+        }
+    }
+
+    @Test
+    void complete_WriterDies_FailsWithTheCause() {
+        when(tariffRateRepository.findExistingHsCodes(anyString(), anyString(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+        AssertionError writerFailure = new AssertionError("writer died");
+        when(tariffRateRepository.saveAll(anyList())).thenThrow(writerFailure);
+
+        ScrapeIngestionPipeline.Ingestion ingestion = pipeline.start(2024);
+        ingestion.submit(List.of(new ScrapedTariffData("CN", "US", "Live cattle", "0102", "5.5%", "2024")));
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, ingestion::complete);
+        assertSame(writerFailure, e.getCause());
+    }
+
+    @Test
+    void submit_WriterStalls_TimesOutAndFreesTheRunSlot() throws Exception {
+        ScrapeIngestionPipeline singleRun =
+                new ScrapeIngestionPipeline(tariffRateRepository, 2, 4, 5, 1, Duration.ofSeconds(1));
+        when(tariffRateRepository.findExistingHsCodes(anyString(), anyString(), anyCollection()))
+                .thenReturn(new ArrayList<>());
+        CountDownLatch database = new CountDownLatch(1);
+        when(tariffRateRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            database.await();
+            return invocation.getArgument(0);
+        });
+
+        List<ScrapedTariffData> rows = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            rows.add(new ScrapedTariffData("CN", "US", "Product " + i, String.format("01%04d", i), "5.0%", "2024"));
+        }
+
+        ScrapeIngestionPipeline.Ingestion stalled = singleRun.start(2024);
+        long started = System.nanoTime();
+        assertThrows(IllegalStateException.class, () -> stalled.submit(rows));
+        assertTrue(System.nanoTime() - started < TimeUnit.SECONDS.toNanos(5), "Blocked producer was not released");
+        assertThrows(IllegalStateException.class, stalled::complete);
+
+        // Once the stuck write returns, the aborted run's stages wind down and give up their slot
+        database.countDown();
+        assertEquals(0, singleRun.start(2024).complete());
+    }
+
+    @Test
+    void extractYearFromDate_FindsFirstYearOrFallsBack() {
+        assertEquals(2024, ScrapeIngestionPipeline.extractYearFromDate("2024", 2020));
+        assertEquals(2023, ScrapeIngestionPipeline.extractYearFromDate("2023-12-31", 2020));
+        assertEquals(2024, ScrapeIngestionPipeline.extractYearFromDate("Jan 2024", 2020));
+        assertEquals(2020, ScrapeIngestionPipeline.extractYearFromDate("invalid-date", 2020));
+        assertEquals(2020, ScrapeIngestionPipeline.extractYearFromDate("1999", 2020));
+        assertNull(ScrapeIngestionPipeline.extractYearFromDate(null, null));
+    }
+
+    @Test
+    void parseTariffRate_ParsesPercentagesAndDefaultsToZero() {
+        assertEquals(0, ScrapeIngestionPipeline.parseTariffRate("7.5%").compareTo(new BigDecimal("7.5")));
+        assertEquals(0, ScrapeIngestionPipeline.parseTariffRate("invalid%").compareTo(BigDecimal.ZERO));
+        assertEquals(0, ScrapeIngestionPipeline.parseTariffRate(null).compareTo(BigDecimal.ZERO));
+    }
+}
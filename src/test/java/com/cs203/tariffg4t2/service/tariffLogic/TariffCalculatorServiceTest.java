@@ -5,6 +5,9 @@ import com.cs203.tariffg4t2.dto.response.TariffCalculationResultDTO;
 import com.cs203.tariffg4t2.model.basic.Country;
 import com.cs203.tariffg4t2.model.basic.TariffRate;
 import com.cs203.tariffg4t2.repository.basic.CountryRepository;
+import com.cs203.tariffg4t2.service.basic.ExchangeRateService;
+import com.cs203.tariffg4t2.service.basic.UsdRateBook;
+import com.cs203.tariffg4t2.service.data.CurrencyCodeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -13,6 +16,7 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Optional;
 
@@ -35,6 +39,12 @@ class TariffCalculatorServiceTest {
     @Mock
     private CountryRepository countryRepository;
 
+    @Mock
+    private ExchangeRateService exchangeRateService;
+
+    @Mock
+    private CurrencyCodeService currencyCodeService;
+
     @InjectMocks
     private TariffCalculatorService tariffCalculatorService;
 
@@ -102,6 +112,55 @@ class TariffCalculatorServiceTest {
         assertEquals(2024, result.getYear());
     }
 
+    @Test
+    void calculate_WithSourceCurrency_ConvertsInputsAtShipmentDateRate() {
+        LocalDate shipmentDate = LocalDate.of(2024, 5, 10);
+        testRequest.setSourceCurrency("cny");
+        testRequest.setShipmentDate(shipmentDate);
+
+        when(tariffValidationService.validateTariffRequest(testRequest)).thenReturn(new ArrayList<>());
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateService.rateAsOf("CNY", "USD", shipmentDate))
+                .thenReturn(new UsdRateBook.DatedRate(shipmentDate.minusDays(1), new BigDecimal("0.14")));
+        when(tariffRateService.calculateTariffAmount(argThat(priced ->
+                priced != testRequest && new BigDecimal("140").compareTo(priced.getProductValue()) == 0)))
+                .thenReturn(new BigDecimal("10.50"));
+        when(tariffRateService.getTariffRateWithYear(anyString(), anyString(), anyString(), anyInt()))
+                .thenReturn(Optional.of(testTariffRate));
+        when(tariffRateService.getAdValoremRate(anyString(), anyString(), anyString()))
+                .thenReturn(new BigDecimal("7.5"));
+        when(countryRepository.findByCountryCodeIgnoreCase("US")).thenReturn(Optional.of(testCountry));
+        when(shippingCostService.calculateShippingCost(testRequest)).thenReturn(new BigDecimal("100.00"));
+        when(shippingCostService.getShippingRatePerKg(testRequest)).thenReturn(new BigDecimal("10.00"));
+
+        TariffCalculationResultDTO result = tariffCalculatorService.calculate(testRequest);
+
+        // 1000 CNY -> 140 USD; CIF (1000 + 50 + 25) * 0.14 = 150.50
+        assertEquals(new BigDecimal("140.00"), result.getProductValue());
+        assertEquals(new BigDecimal("150.50"), result.getCustomsValue());
+        assertEquals(new BigDecimal("1000.00"), result.getOriginalProductValue());
+        assertEquals("CNY", result.getSourceCurrency());
+        assertEquals("USD", result.getDestinationCurrency());
+        assertEquals(0, new BigDecimal("0.14").compareTo(result.getExchangeRate()));
+        assertEquals(shipmentDate.minusDays(1), result.getExchangeRateDate());
+        // The caller's request stays in its own currency
+        assertEquals(0, new BigDecimal("1000").compareTo(testRequest.getProductValue()));
+        assertEquals(0, new BigDecimal("50").compareTo(testRequest.getFreight()));
+        assertEquals(0, new BigDecimal("25").compareTo(testRequest.getInsurance()));
+    }
+
+    @Test
+    void calculate_WithUnknownSourceCurrencyRate_ThrowsIllegalArgument() {
+        testRequest.setSourceCurrency("XYZ");
+
+        when(tariffValidationService.validateTariffRequest(testRequest)).thenReturn(new ArrayList<>());
+        when(currencyCodeService.getCurrencyCode("US")).thenReturn("USD");
+        when(exchangeRateService.rateAsOf(eq("XYZ"), eq("USD"), any(LocalDate.class))).thenReturn(null);
+
+        assertThrows(IllegalArgumentException.class, () -> tariffCalculatorService.calculate(testRequest));
+        verifyNoInteractions(tariffRateService);
+    }
+
     @Test
     void calculate_WithVatOverride_UsesOverrideValue() {
         testRequest.setVatOrGstOverride(new BigDecimal("0.15")); // 15%